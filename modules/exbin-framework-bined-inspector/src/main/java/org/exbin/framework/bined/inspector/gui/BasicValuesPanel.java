@@ -33,7 +33,7 @@ import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 import org.exbin.bined.CodeAreaCaretPosition;
 import org.exbin.bined.DataChangedListener;
-import org.exbin.bined.operation.BinaryDataCommand;
+import org.exbin.bined.operation.undo.BinaryDataUndoableCommand;
 import org.exbin.bined.operation.swing.command.CodeAreaCompoundCommand;
 import org.exbin.bined.operation.swing.command.InsertDataCommand;
 import org.exbin.bined.operation.swing.command.ModifyDataCommand;
@@ -47,6 +47,7 @@ import org.exbin.bined.capability.CaretCapable;
 import org.exbin.bined.operation.undo.BinaryDataUndoRedoChangeListener;
 import org.exbin.bined.operation.undo.BinaryDataUndoRedo;
 import org.exbin.framework.App;
+import org.exbin.framework.bined.DataChangeCommand;
 import org.exbin.framework.bined.inspector.BasicValuesPositionColorModifier;
 import org.exbin.framework.utils.TestApplication;
 import org.exbin.framework.utils.UtilsModule;
@@ -841,10 +842,11 @@ public class BasicValuesPanel extends javax.swing.JPanel {
         if (dataPosition == codeArea.getDataSize()) {
             InsertDataCommand insertCommand = new InsertDataCommand(codeArea, dataPosition, ((CaretCapable) codeArea).getCodeOffset(), byteArrayData);
             if (undoRedo != null) {
-                undoRedo.execute(insertCommand);
+                undoRedo.execute(new DataChangeCommand(insertCommand, dataPosition, 0, bytesCount));
             }
         } else {
-            BinaryDataCommand command;
+            BinaryDataUndoableCommand command;
+            long modifiedLength = Math.min(bytesCount, codeArea.getDataSize() - dataPosition);
             if (dataPosition + byteArrayData.getDataSize() > codeArea.getDataSize()) {
                 long modifiedDataSize = codeArea.getDataSize() - dataPosition;
                 EditableBinaryData modifiedData = (EditableBinaryData) byteArrayData.copy(0, modifiedDataSize);
@@ -857,7 +859,7 @@ public class BasicValuesPanel extends javax.swing.JPanel {
             }
 
             if (undoRedo != null) {
-                undoRedo.execute(command);
+                undoRedo.execute(new DataChangeCommand(command, dataPosition, modifiedLength, bytesCount));
             }
         }
         codeArea.setActiveCaretPosition(oldDataPosition);
@@ -36,6 +36,7 @@ import org.exbin.framework.action.api.MenuContribution;
 import org.exbin.framework.action.api.MenuManagement;
 import org.exbin.framework.bined.BinEdFileManager;
 import org.exbin.framework.bined.BinedModule;
+import org.exbin.framework.bined.UndoPayloadStore;
 import org.exbin.framework.bined.operation.action.InsertDataAction;
 import org.exbin.framework.bined.operation.action.ConvertDataAction;
 import org.exbin.framework.bined.operation.component.RandomDataMethod;
@@ -70,17 +71,18 @@ public class BinedOperationModule implements Module {
     public void setEditorProvider(EditorProvider editorProvider) {
         this.editorProvider = editorProvider;
 
-        SimpleFillDataMethod simpleFillDataMethod = new SimpleFillDataMethod();
+        BinedModule binedModule = App.getModule(BinedModule.class);
+        BinEdFileManager fileManager = binedModule.getFileManager();
+        UndoPayloadStore undoPayloadStore = fileManager.getUndoPayloadStore();
+
+        SimpleFillDataMethod simpleFillDataMethod = new SimpleFillDataMethod(undoPayloadStore);
         addInsertDataComponent(simpleFillDataMethod);
-        RandomDataMethod randomDataMethod = new RandomDataMethod();
+        RandomDataMethod randomDataMethod = new RandomDataMethod(undoPayloadStore);
         addInsertDataComponent(randomDataMethod);
-        BitSwappingDataMethod bitSwappingDataMethod = new BitSwappingDataMethod();
+        BitSwappingDataMethod bitSwappingDataMethod = new BitSwappingDataMethod(undoPayloadStore);
         addConvertDataComponent(bitSwappingDataMethod);
-        Base64DataMethod base64DataMethod = new Base64DataMethod();
+        Base64DataMethod base64DataMethod = new Base64DataMethod(undoPayloadStore);
         addConvertDataComponent(base64DataMethod);
-
-        BinedModule binedModule = App.getModule(BinedModule.class);
-        BinEdFileManager fileManager = binedModule.getFileManager();
     }
 
     @Nonnull
@@ -69,6 +69,7 @@ public class ConvertDataAction extends AbstractAction {
     private CodeAreaCore codeArea;
     private EditorProvider editorProvider;
     private ConvertDataMethod lastMethod = null;
+    private ConvertDataMethod previewMethod = null;
 
     public ConvertDataAction() {
 
@@ -101,10 +102,15 @@ public class ConvertDataAction extends AbstractAction {
     public void actionPerformed(ActionEvent e) {
         final ConvertDataPanel convertDataPanel = new ConvertDataPanel();
         convertDataPanel.setController((previewCodeArea) -> {
+            if (previewMethod != null) {
+                previewMethod.unregisterPreviewDataHandler();
+                previewMethod = null;
+            }
             Optional<ConvertDataMethod> optionalActiveMethod = convertDataPanel.getActiveMethod();
             if (optionalActiveMethod.isPresent()) {
                 Component activeComponent = convertDataPanel.getActiveComponent().get();
-                optionalActiveMethod.get().registerPreviewDataHandler((binaryData) -> {
+                previewMethod = optionalActiveMethod.get();
+                previewMethod.registerPreviewDataHandler((binaryData) -> {
                     previewCodeArea.setContentData(binaryData);
                 }, activeComponent, codeArea, PREVIEW_LENGTH_LIMIT);
             }
@@ -122,6 +128,10 @@ public class ConvertDataAction extends AbstractAction {
         windowModule.addHeaderPanel(dialog.getWindow(), convertDataPanel.getClass(), panelResourceBundle);
         windowModule.setWindowTitle(dialog, panelResourceBundle);
         controlPanel.setHandler((ConvertDataControlHandler.ControlActionType actionType) -> {
+            if (previewMethod != null) {
+                previewMethod.unregisterPreviewDataHandler();
+                previewMethod = null;
+            }
             if (actionType != ConvertDataControlHandler.ControlActionType.CANCEL) {
                 Optional<ConvertDataMethod> optionalActiveMethod = convertDataPanel.getActiveMethod();
                 if (optionalActiveMethod.isPresent()) {
@@ -60,12 +60,24 @@ public interface ConvertDataMethod {
 
     /**
      * Sets editable data target for preview.
+     * <p>
+     * Preview is provided again each time options of component are changed.
+     * Method should process only as much of source data as needed to provide
+     * the first lengthLimit bytes of converted data. Conversion which requires
+     * processing of all source data should be performed in background and
+     * cancelled when options are changed or handler is unregistered. Handler
+     * is always called on event dispatch thread.
      *
      * @param previewDataHandler preview data handler
      * @param component visual component
      * @param codeArea source code area
      * @param lengthLimit limit to length of set data
      */
-    @Nonnull
     void registerPreviewDataHandler(PreviewDataHandler previewDataHandler, Component component, CodeAreaCore codeArea, long lengthLimit);
+
+    /**
+     * Unregisters preview data handler and cancels computation of preview
+     * data if running.
+     */
+    void unregisterPreviewDataHandler();
 }
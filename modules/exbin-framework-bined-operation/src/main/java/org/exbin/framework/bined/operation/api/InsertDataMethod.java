@@ -52,6 +52,10 @@ public interface InsertDataMethod {
 
     /**
      * Sets editable data target for preview.
+     * <p>
+     * Preview is provided again each time options of component are changed
+     * and only the first lengthLimit bytes of inserted data should be
+     * generated. Handler is always called on event dispatch thread.
      *
      * @param previewDataHandler preview data handler
      * @param component visual component
@@ -16,6 +16,9 @@
 package org.exbin.framework.bined.operation.component;
 
 import java.awt.Component;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Base64;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -29,6 +32,7 @@ import org.exbin.bined.capability.SelectionCapable;
 import org.exbin.bined.operation.swing.command.CodeAreaCommand;
 import org.exbin.bined.swing.CodeAreaCore;
 import org.exbin.framework.App;
+import org.exbin.framework.bined.UndoPayloadStore;
 import org.exbin.framework.bined.operation.api.ConvertDataMethod;
 import org.exbin.framework.language.api.LanguageModuleApi;
 import org.exbin.framework.bined.operation.api.PreviewDataHandler;
@@ -44,10 +48,19 @@ import org.exbin.framework.bined.operation.operation.ConvertDataOperation;
 @ParametersAreNonnullByDefault
 public class Base64DataMethod implements ConvertDataMethod {
 
+    private static final int BUFFER_SIZE = 65536;
+    private static final int MIME_LINE_LENGTH = 78;
+    private static final int MIME_LINE_DATA_LENGTH = 57;
+
     private java.util.ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(Base64DataPanel.class);
 
     private PreviewDataHandler previewDataHandler;
     private long previewLengthLimit = 0;
+    private final UndoPayloadStore undoPayloadStore;
+
+    public Base64DataMethod(UndoPayloadStore undoPayloadStore) {
+        this.undoPayloadStore = undoPayloadStore;
+    }
 
     @Nonnull
     @Override
@@ -88,7 +101,7 @@ public class Base64DataMethod implements ConvertDataMethod {
             convertData(binaryData, sourcePosition, sourceLength, operationType, binaryData, targetPosition);
         };
 
-        return new ConvertDataOperation.ConvertDataCommand(new ConvertDataOperation(codeArea, position, length, length, conversionDataProvider));
+        return new ConvertDataOperation.ConvertDataCommand(new ConvertDataOperation(codeArea, undoPayloadStore, position, length, conversionDataProvider));
     }
 
     @Override
@@ -112,73 +125,119 @@ public class Base64DataMethod implements ConvertDataMethod {
     }
 
     public void convertData(BinaryData sourceBinaryData, long position, long length, OperationType operationType, EditableBinaryData targetBinaryData, long targetPosition) throws IllegalStateException {
-        switch (operationType) {
-            case BASIC_ENCODER: {
-                Base64.Encoder encoder = Base64.getEncoder();
-                byte[] sourceData = new byte[(int) length];
-                sourceBinaryData.copyToArray(position, sourceData, 0, (int) length);
-                byte[] output = encoder.encode(sourceData);
-                targetBinaryData.insert(targetPosition, output);
-                break;
-            }
-            case BASIC_DECODER: {
-                Base64.Decoder decoder = Base64.getDecoder();
-                byte[] sourceData = new byte[(int) length];
-                sourceBinaryData.copyToArray(position, sourceData, 0, (int) length);
-                try {
-                    byte[] output = decoder.decode(sourceData);
-                    targetBinaryData.insert(targetPosition, output);
-                } catch (IllegalArgumentException ex) {
-                    // ignore
+        BinaryDataInsertOutputStream outputStream = new BinaryDataInsertOutputStream(targetBinaryData, targetPosition);
+        try {
+            switch (operationType) {
+                case BASIC_ENCODER: {
+                    encodeData(Base64.getEncoder(), sourceBinaryData, position, length, outputStream);
+                    break;
                 }
-                break;
-            }
-            case MIME_ENCODER: {
-                Base64.Encoder encoder = Base64.getMimeEncoder();
-                byte[] sourceData = new byte[(int) length];
-                sourceBinaryData.copyToArray(position, sourceData, 0, (int) length);
-                try {
-                    byte[] output = encoder.encode(sourceData);
-                    targetBinaryData.insert(targetPosition, output);
-                } catch (IllegalArgumentException ex) {
-                    // ignore
+                case BASIC_DECODER: {
+                    decodeData(Base64.getDecoder(), sourceBinaryData, position, length, outputStream, Long.MAX_VALUE);
+                    break;
+                }
+                case MIME_ENCODER: {
+                    encodeData(Base64.getMimeEncoder(), sourceBinaryData, position, length, outputStream);
+                    break;
+                }
+                case MIME_DECODER: {
+                    decodeData(Base64.getMimeDecoder(), sourceBinaryData, position, length, outputStream, Long.MAX_VALUE);
+                    break;
+                }
+                case URL_ENCODER: {
+                    encodeData(Base64.getUrlEncoder(), sourceBinaryData, position, length, outputStream);
+                    break;
+                }
+                case URL_DECODER: {
+                    decodeData(Base64.getUrlDecoder(), sourceBinaryData, position, length, outputStream, Long.MAX_VALUE);
+                    break;
                 }
-                break;
+                default:
+                    throw CodeAreaUtils.getInvalidTypeException(operationType);
             }
-            case MIME_DECODER: {
-                Base64.Decoder decoder = Base64.getMimeDecoder();
-                byte[] sourceData = new byte[(int) length];
-                sourceBinaryData.copyToArray(position, sourceData, 0, (int) length);
-                byte[] output = decoder.decode(sourceData);
-                targetBinaryData.insert(targetPosition, output);
-                break;
+        } catch (IOException ex) {
+            // Invalid input, partially decoded data are dropped
+            outputStream.revert();
+            if (operationType == OperationType.MIME_DECODER) {
+                throw new IllegalArgumentException(ex.getMessage(), ex);
             }
-            case URL_ENCODER: {
-                Base64.Encoder encoder = Base64.getUrlEncoder();
-                byte[] sourceData = new byte[(int) length];
-                sourceBinaryData.copyToArray(position, sourceData, 0, (int) length);
-                try {
-                    byte[] output = encoder.encode(sourceData);
-                    targetBinaryData.insert(targetPosition, output);
-                } catch (IllegalArgumentException ex) {
-                    // ignore
+        }
+    }
+
+    /**
+     * Converts only data needed for the first part of converted data.
+     *
+     * @param sourceBinaryData source data
+     * @param position source position
+     * @param length source length
+     * @param operationType operation type
+     * @param targetBinaryData target data
+     * @param lengthLimit limit to length of converted data
+     */
+    public void convertPreviewData(BinaryData sourceBinaryData, long position, long length, OperationType operationType, EditableBinaryData targetBinaryData, long lengthLimit) {
+        BinaryDataInsertOutputStream outputStream = new BinaryDataInsertOutputStream(targetBinaryData, targetBinaryData.getDataSize());
+        try {
+            switch (operationType) {
+                case BASIC_ENCODER: {
+                    // Each 3 bytes are encoded to 4 characters
+                    encodeData(Base64.getEncoder(), sourceBinaryData, position, Math.min(length, (lengthLimit / 4 + 1) * 3), outputStream);
+                    break;
                 }
-                break;
-            }
-            case URL_DECODER: {
-                Base64.Decoder decoder = Base64.getUrlDecoder();
-                byte[] sourceData = new byte[(int) length];
-                sourceBinaryData.copyToArray(position, sourceData, 0, (int) length);
-                try {
-                    byte[] output = decoder.decode(sourceData);
-                    targetBinaryData.insert(targetPosition, output);
-                } catch (IllegalArgumentException ex) {
-                    // ignore
+                case MIME_ENCODER: {
+                    // Each line of 76 characters with separator encodes 57 bytes
+                    encodeData(Base64.getMimeEncoder(), sourceBinaryData, position, Math.min(length, (lengthLimit / MIME_LINE_LENGTH + 2) * MIME_LINE_DATA_LENGTH), outputStream);
+                    break;
+                }
+                case URL_ENCODER: {
+                    encodeData(Base64.getUrlEncoder(), sourceBinaryData, position, Math.min(length, (lengthLimit / 4 + 1) * 3), outputStream);
+                    break;
+                }
+                case BASIC_DECODER: {
+                    decodeData(Base64.getDecoder(), sourceBinaryData, position, length, outputStream, lengthLimit);
+                    break;
+                }
+                case MIME_DECODER: {
+                    decodeData(Base64.getMimeDecoder(), sourceBinaryData, position, length, outputStream, lengthLimit);
+                    break;
+                }
+                case URL_DECODER: {
+                    decodeData(Base64.getUrlDecoder(), sourceBinaryData, position, length, outputStream, lengthLimit);
+                    break;
                 }
-                break;
+                default:
+                    throw CodeAreaUtils.getInvalidTypeException(operationType);
             }
-            default:
-                throw CodeAreaUtils.getInvalidTypeException(operationType);
+        } catch (IOException | IllegalArgumentException ex) {
+            // Invalid input, no preview is provided
+            outputStream.revert();
+        }
+
+        long previewDataSize = targetBinaryData.getDataSize();
+        if (previewDataSize > lengthLimit) {
+            targetBinaryData.remove(lengthLimit, previewDataSize - lengthLimit);
+        }
+    }
+
+    private static void encodeData(Base64.Encoder encoder, BinaryData sourceBinaryData, long position, long length, BinaryDataInsertOutputStream outputStream) throws IOException {
+        try (OutputStream encodingStream = encoder.wrap(outputStream)) {
+            copyStream(new BinaryDataRangeInputStream(sourceBinaryData, position, length), encodingStream, Long.MAX_VALUE);
+        }
+    }
+
+    private static void decodeData(Base64.Decoder decoder, BinaryData sourceBinaryData, long position, long length, BinaryDataInsertOutputStream outputStream, long lengthLimit) throws IOException {
+        try (InputStream decodingStream = decoder.wrap(new BinaryDataRangeInputStream(sourceBinaryData, position, length))) {
+            copyStream(decodingStream, outputStream, lengthLimit);
+        }
+        outputStream.flush();
+    }
+
+    private static void copyStream(InputStream inputStream, OutputStream outputStream, long lengthLimit) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = lengthLimit;
+        int length;
+        while (remaining > 0 && (length = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining))) >= 0) {
+            outputStream.write(buffer, 0, length);
+            remaining -= length;
         }
     }
 
@@ -195,6 +254,10 @@ public class Base64DataMethod implements ConvertDataMethod {
 
     private void fillPreviewData(Base64DataPanel panel, CodeAreaCore codeArea) {
         SwingUtilities.invokeLater(() -> {
+            if (previewDataHandler == null) {
+                return;
+            }
+
             OperationType operationType = panel.getOperationType();
 
             EditableBinaryData previewBinaryData = new ByteArrayEditableData();
@@ -209,15 +272,16 @@ public class Base64DataMethod implements ConvertDataMethod {
                 position = selection.getFirst();
                 length = selection.getLength();
             }
-            convertData(codeArea.getContentData(), position, length, operationType, previewBinaryData, 0);
-            long previewDataSize = previewBinaryData.getDataSize();
-            if (previewDataSize > previewLengthLimit) {
-                previewBinaryData.remove(previewLengthLimit, previewDataSize - previewLengthLimit);
-            }
+            convertPreviewData(codeArea.getContentData(), position, length, operationType, previewBinaryData, previewLengthLimit);
             previewDataHandler.setPreviewData(previewBinaryData);
         });
     }
 
+    @Override
+    public void unregisterPreviewDataHandler() {
+        previewDataHandler = null;
+    }
+
     public enum OperationType {
         BASIC_ENCODER,
         BASIC_DECODER,
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.component;
+
+import java.io.OutputStream;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+
+/**
+ * Output stream inserting written data into binary data.
+ * <p>
+ * Data are collected in buffer of fixed size and inserted in blocks at
+ * advancing position.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BinaryDataInsertOutputStream extends OutputStream {
+
+    public static final int BUFFER_SIZE = 65536;
+
+    private final EditableBinaryData data;
+    private final long startPosition;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferLength = 0;
+    private long position;
+
+    public BinaryDataInsertOutputStream(EditableBinaryData data, long position) {
+        this.data = data;
+        this.startPosition = position;
+        this.position = position;
+    }
+
+    @Override
+    public void write(int value) {
+        if (bufferLength == buffer.length) {
+            flush();
+        }
+        buffer[bufferLength++] = (byte) value;
+    }
+
+    @Override
+    public void write(byte[] source, int offset, int length) {
+        if (length >= buffer.length) {
+            flush();
+            data.insert(position, source, offset, length);
+            position += length;
+            return;
+        }
+
+        if (bufferLength + length > buffer.length) {
+            flush();
+        }
+        System.arraycopy(source, offset, buffer, bufferLength, length);
+        bufferLength += length;
+    }
+
+    @Override
+    public void flush() {
+        if (bufferLength > 0) {
+            data.insert(position, buffer, 0, bufferLength);
+            position += bufferLength;
+            bufferLength = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Returns length of data inserted so far including buffered data.
+     *
+     * @return inserted length
+     */
+    public long getInsertedLength() {
+        return position - startPosition + bufferLength;
+    }
+
+    /**
+     * Removes all data inserted by this stream and drops buffered data.
+     */
+    public void revert() {
+        bufferLength = 0;
+        data.remove(startPosition, position - startPosition);
+        position = startPosition;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.component;
+
+import java.io.InputStream;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Input stream reading range of binary data.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BinaryDataRangeInputStream extends InputStream {
+
+    private final BinaryData data;
+    private final long endPosition;
+    private long position;
+
+    public BinaryDataRangeInputStream(BinaryData data, long position, long length) {
+        this.data = data;
+        this.position = position;
+        this.endPosition = position + length;
+    }
+
+    @Override
+    public int read() {
+        if (position >= endPosition) {
+            return -1;
+        }
+
+        return data.getByte(position++) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (position >= endPosition) {
+            return -1;
+        }
+
+        int readLength = (int) Math.min(length, endPosition - position);
+        data.copyToArray(position, buffer, offset, readLength);
+        position += readLength;
+        return readLength;
+    }
+
+    @Override
+    public long skip(long count) {
+        long skipped = Math.max(0, Math.min(count, endPosition - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, endPosition - position);
+    }
+}
@@ -29,6 +29,7 @@ import org.exbin.bined.capability.SelectionCapable;
 import org.exbin.bined.operation.swing.command.CodeAreaCommand;
 import org.exbin.bined.swing.CodeAreaCore;
 import org.exbin.framework.App;
+import org.exbin.framework.bined.UndoPayloadStore;
 import org.exbin.framework.bined.operation.api.ConvertDataMethod;
 import org.exbin.framework.language.api.LanguageModuleApi;
 import org.exbin.framework.bined.operation.api.PreviewDataHandler;
@@ -44,12 +45,17 @@ import org.exbin.framework.bined.operation.operation.ConvertDataOperation;
 @ParametersAreNonnullByDefault
 public class BitSwappingDataMethod implements ConvertDataMethod {
 
-    private static final int BUFFER_SIZE = 4096;
+    private static final int BUFFER_SIZE = 65536;
 
     private java.util.ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(BitSwappingDataPanel.class);
 
     private PreviewDataHandler previewDataHandler;
     private long previewLengthLimit = 0;
+    private final UndoPayloadStore undoPayloadStore;
+
+    public BitSwappingDataMethod(UndoPayloadStore undoPayloadStore) {
+        this.undoPayloadStore = undoPayloadStore;
+    }
 
     @Nonnull
     @Override
@@ -90,7 +96,7 @@ public class BitSwappingDataMethod implements ConvertDataMethod {
             convertData(binaryData, sourcePosition, sourceLength, operationType.get(), binaryData, targetPosition);
         };
 
-        return new ConvertDataOperation.ConvertDataCommand(new ConvertDataOperation(codeArea, position, length, length, conversionDataProvider));
+        return new ConvertDataOperation.ConvertDataCommand(new ConvertDataOperation(codeArea, undoPayloadStore, position, length, conversionDataProvider));
     }
 
     @Override
@@ -114,58 +120,103 @@ public class BitSwappingDataMethod implements ConvertDataMethod {
     }
 
     public void convertData(BinaryData sourceBinaryData, long position, long length, OperationType operationType, EditableBinaryData targetBinaryData, long targetPosition) throws IllegalStateException {
+        int bufferSize = length < BUFFER_SIZE ? (int) length : BUFFER_SIZE;
+        byte[] buffer = new byte[bufferSize];
+        byte[] reversedBuffer = operationType == OperationType.REVERT_BYTES_ORDER ? new byte[bufferSize] : null;
+
+        // Converted data has the same length, so target space is inserted
+        // once and replaced by converted blocks
+        targetBinaryData.insertUninitialized(targetPosition, length);
+        long offset = 0;
+        while (offset < length) {
+            int blockLength = (int) Math.min(bufferSize, length - offset);
+            if (operationType == OperationType.REVERT_BYTES_ORDER) {
+                // Beginning of reverted data comes from the end of source data
+                sourceBinaryData.copyToArray(position + length - offset - blockLength, buffer, 0, blockLength);
+                BitSwappingTransform.reverseBytes(buffer, reversedBuffer, blockLength);
+                targetBinaryData.replace(targetPosition + offset, reversedBuffer, 0, blockLength);
+            } else {
+                sourceBinaryData.copyToArray(position + offset, buffer, 0, blockLength);
+                transformBlock(operationType, buffer, blockLength);
+                targetBinaryData.replace(targetPosition + offset, buffer, 0, blockLength);
+            }
+            offset += blockLength;
+        }
+    }
+
+    private static void transformBlock(OperationType operationType, byte[] buffer, int length) {
         switch (operationType) {
             case INVERT_BITS: {
-                int bufferSize = length < BUFFER_SIZE ? (int) length : BUFFER_SIZE;
-                byte[] buffer = new byte[bufferSize];
-                long remaining = length;
-                while (remaining > 0) {
-                    sourceBinaryData.copyToArray(position, buffer, 0, bufferSize);
-                    for (int i = 0; i < buffer.length; i++) {
-                        buffer[i] ^= 0xff;
-                    }
-                    remaining -= bufferSize;
-                    targetBinaryData.insert(targetPosition, buffer);
-                    targetPosition += bufferSize;
-                }
+                BitSwappingTransform.invertBits(buffer, length);
+                break;
+            }
+            case SWAP_PAIRS: {
+                BitSwappingTransform.swapPairs(buffer, length);
+                break;
+            }
+            case SWAP_DWORD_BYTES: {
+                BitSwappingTransform.swapDwordBytes(buffer, length);
+                break;
+            }
+            case SWAP_QWORD_BYTES: {
+                BitSwappingTransform.swapQwordBytes(buffer, length);
+                break;
+            }
+            case REVERSE_BITS_IN_BYTES: {
+                BitSwappingTransform.reverseBitsInBytes(buffer, length);
+                break;
+            }
+            case SWAP_NIBBLES: {
+                BitSwappingTransform.swapNibbles(buffer, length);
+                break;
+            }
+            default:
+                throw CodeAreaUtils.getInvalidTypeException(operationType);
+        }
+    }
+
+    /**
+     * Converts only data needed for the first part of converted data.
+     *
+     * @param sourceBinaryData source data
+     * @param position source position
+     * @param length source length
+     * @param operationType operation type
+     * @param targetBinaryData target data
+     * @param lengthLimit limit to length of converted data
+     */
+    public void convertPreviewData(BinaryData sourceBinaryData, long position, long length, OperationType operationType, EditableBinaryData targetBinaryData, long lengthLimit) {
+        long targetPosition = targetBinaryData.getDataSize();
+        switch (operationType) {
+            case INVERT_BITS:
+            case REVERSE_BITS_IN_BYTES:
+            case SWAP_NIBBLES: {
+                convertData(sourceBinaryData, position, Math.min(length, lengthLimit), operationType, targetBinaryData, targetPosition);
                 break;
             }
             case REVERT_BYTES_ORDER: {
-                int bufferSize = length < BUFFER_SIZE ? (int) length : BUFFER_SIZE;
-                byte[] buffer = new byte[bufferSize];
-                long remaining = length;
-                while (remaining > 0) {
-                    sourceBinaryData.copyToArray(position, buffer, 0, bufferSize);
-                    for (int i = 0; i < (buffer.length + 1) / 2; i++) {
-                        byte swap = buffer[i];
-                        buffer[i] = buffer[buffer.length - i - 1];
-                        buffer[buffer.length - i - 1] = swap;
-                    }
-                    remaining -= bufferSize;
-                    targetBinaryData.insert(targetPosition, buffer);
-                }
+                // Beginning of reverted data comes from the end of source data
+                long previewLength = Math.min(length, lengthLimit);
+                convertData(sourceBinaryData, position + length - previewLength, previewLength, operationType, targetBinaryData, targetPosition);
                 break;
             }
-            case SWAP_PAIRS: {
-                int bufferSize = length < BUFFER_SIZE ? (int) length : BUFFER_SIZE;
-                byte[] buffer = new byte[bufferSize];
-                long remaining = length;
-                while (remaining > 0) {
-                    sourceBinaryData.copyToArray(position, buffer, 0, bufferSize);
-                    for (int i = 0; i < buffer.length / 2; i++) {
-                        byte swap = buffer[i * 2];
-                        buffer[i * 2] = buffer[i * 2 + 1];
-                        buffer[i * 2 + 1] = swap;
-                    }
-                    remaining -= bufferSize;
-                    targetBinaryData.insert(targetPosition, buffer);
-                    targetPosition += bufferSize;
-                }
+            case SWAP_PAIRS:
+            case SWAP_DWORD_BYTES:
+            case SWAP_QWORD_BYTES: {
+                // Whole groups of bytes are needed
+                long groupSize = operationType.getGroupSize();
+                long groupsLength = (lengthLimit + groupSize - 1) / groupSize * groupSize;
+                convertData(sourceBinaryData, position, Math.min(length, groupsLength), operationType, targetBinaryData, targetPosition);
                 break;
             }
             default:
                 throw CodeAreaUtils.getInvalidTypeException(operationType);
         }
+
+        long previewDataSize = targetBinaryData.getDataSize();
+        if (previewDataSize > lengthLimit) {
+            targetBinaryData.remove(lengthLimit, previewDataSize - lengthLimit);
+        }
     }
 
     @Override
@@ -181,6 +232,10 @@ public class BitSwappingDataMethod implements ConvertDataMethod {
 
     private void fillPreviewData(BitSwappingDataPanel panel, CodeAreaCore codeArea) {
         SwingUtilities.invokeLater(() -> {
+            if (previewDataHandler == null) {
+                return;
+            }
+
             Optional<OperationType> operationType = panel.getOperationType();
 
             EditableBinaryData previewBinaryData = new ByteArrayEditableData();
@@ -196,19 +251,39 @@ public class BitSwappingDataMethod implements ConvertDataMethod {
                     position = selection.getFirst();
                     length = selection.getLength();
                 }
-                convertData(codeArea.getContentData(), position, length, operationType.get(), previewBinaryData, 0);
-                long previewDataSize = previewBinaryData.getDataSize();
-                if (previewDataSize > previewLengthLimit) {
-                    previewBinaryData.remove(previewLengthLimit, previewDataSize - previewLengthLimit);
-                }
+                convertPreviewData(codeArea.getContentData(), position, length, operationType.get(), previewBinaryData, previewLengthLimit);
             }
             previewDataHandler.setPreviewData(previewBinaryData);
         });
     }
 
+    @Override
+    public void unregisterPreviewDataHandler() {
+        previewDataHandler = null;
+    }
+
     public enum OperationType {
-        INVERT_BITS,
-        REVERT_BYTES_ORDER,
-        SWAP_PAIRS
+        INVERT_BITS(1),
+        REVERT_BYTES_ORDER(1),
+        SWAP_PAIRS(2),
+        SWAP_DWORD_BYTES(4),
+        SWAP_QWORD_BYTES(8),
+        REVERSE_BITS_IN_BYTES(1),
+        SWAP_NIBBLES(1);
+
+        private final int groupSize;
+
+        private OperationType(int groupSize) {
+            this.groupSize = groupSize;
+        }
+
+        /**
+         * Returns size of group of bytes transformed together.
+         *
+         * @return group size in bytes
+         */
+        public int getGroupSize() {
+            return groupSize;
+        }
     }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.component;
+
+import java.nio.ByteBuffer;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Bulk bit and byte transformations of arrays.
+ * <p>
+ * Data are processed 8 bytes at a time as long values, remaining bytes are
+ * processed one by one. Transformations of groups of bytes expects array to
+ * start at the beginning of group.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BitSwappingTransform {
+
+    private static final long PAIRS_MASK = 0x00FF00FF00FF00FFL;
+    private static final long NIBBLES_MASK = 0x0F0F0F0F0F0F0F0FL;
+
+    private BitSwappingTransform() {
+    }
+
+    /**
+     * Inverts all bits.
+     *
+     * @param data data array
+     * @param length length of data
+     */
+    public static void invertBits(byte[] data, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int longsEnd = length & ~7;
+        for (int i = 0; i < longsEnd; i += 8) {
+            buffer.putLong(i, ~buffer.getLong(i));
+        }
+        for (int i = longsEnd; i < length; i++) {
+            data[i] = (byte) ~data[i];
+        }
+    }
+
+    /**
+     * Swaps order of bytes in each pair of bytes.
+     * <p>
+     * Odd last byte is left unchanged.
+     *
+     * @param data data array
+     * @param length length of data
+     */
+    public static void swapPairs(byte[] data, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int longsEnd = length & ~7;
+        for (int i = 0; i < longsEnd; i += 8) {
+            long value = buffer.getLong(i);
+            buffer.putLong(i, ((value >>> 8) & PAIRS_MASK) | ((value & PAIRS_MASK) << 8));
+        }
+        for (int i = longsEnd; i + 1 < length; i += 2) {
+            byte swap = data[i];
+            data[i] = data[i + 1];
+            data[i + 1] = swap;
+        }
+    }
+
+    /**
+     * Reverses order of bytes in each group of 4 bytes.
+     * <p>
+     * Incomplete last group is left unchanged.
+     *
+     * @param data data array
+     * @param length length of data
+     */
+    public static void swapDwordBytes(byte[] data, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int longsEnd = length & ~7;
+        for (int i = 0; i < longsEnd; i += 8) {
+            buffer.putLong(i, Long.rotateLeft(Long.reverseBytes(buffer.getLong(i)), 32));
+        }
+        if (longsEnd + 4 <= length) {
+            buffer.putInt(longsEnd, Integer.reverseBytes(buffer.getInt(longsEnd)));
+        }
+    }
+
+    /**
+     * Reverses order of bytes in each group of 8 bytes.
+     * <p>
+     * Incomplete last group is left unchanged.
+     *
+     * @param data data array
+     * @param length length of data
+     */
+    public static void swapQwordBytes(byte[] data, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int longsEnd = length & ~7;
+        for (int i = 0; i < longsEnd; i += 8) {
+            buffer.putLong(i, Long.reverseBytes(buffer.getLong(i)));
+        }
+    }
+
+    /**
+     * Reverses order of bits in each byte.
+     *
+     * @param data data array
+     * @param length length of data
+     */
+    public static void reverseBitsInBytes(byte[] data, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int longsEnd = length & ~7;
+        for (int i = 0; i < longsEnd; i += 8) {
+            buffer.putLong(i, Long.reverse(Long.reverseBytes(buffer.getLong(i))));
+        }
+        for (int i = longsEnd; i < length; i++) {
+            data[i] = (byte) (Integer.reverse(data[i]) >>> 24);
+        }
+    }
+
+    /**
+     * Swaps upper and lower half of each byte.
+     *
+     * @param data data array
+     * @param length length of data
+     */
+    public static void swapNibbles(byte[] data, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int longsEnd = length & ~7;
+        for (int i = 0; i < longsEnd; i += 8) {
+            long value = buffer.getLong(i);
+            buffer.putLong(i, ((value >>> 4) & NIBBLES_MASK) | ((value & NIBBLES_MASK) << 4));
+        }
+        for (int i = longsEnd; i < length; i++) {
+            data[i] = (byte) (((data[i] >>> 4) & 0x0F) | (data[i] << 4));
+        }
+    }
+
+    /**
+     * Copies data to target array in reversed order.
+     *
+     * @param source source array
+     * @param target target array
+     * @param length length of data
+     */
+    public static void reverseBytes(byte[] source, byte[] target, int length) {
+        ByteBuffer sourceBuffer = ByteBuffer.wrap(source);
+        ByteBuffer targetBuffer = ByteBuffer.wrap(target);
+        int longsEnd = length & ~7;
+        for (int i = 0; i < longsEnd; i += 8) {
+            targetBuffer.putLong(i, Long.reverseBytes(sourceBuffer.getLong(length - i - 8)));
+        }
+        for (int i = longsEnd; i < length; i++) {
+            target[i] = source[length - i - 1];
+        }
+    }
+}
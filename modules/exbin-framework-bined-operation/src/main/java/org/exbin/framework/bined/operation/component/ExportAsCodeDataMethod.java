@@ -71,4 +71,8 @@ public class ExportAsCodeDataMethod implements ConvertDataMethod {
     public void registerPreviewDataHandler(PreviewDataHandler previewDataHandler, Component component, CodeAreaCore codeArea, long lengthLimit) {
         throw new UnsupportedOperationException("Not supported yet.");
     }
+
+    @Override
+    public void unregisterPreviewDataHandler() {
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.SwingUtilities;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.ByteArrayEditableData;
+import org.exbin.framework.bined.operation.api.PreviewDataHandler;
+
+/**
+ * Worker computing preview data in background thread.
+ * <p>
+ * Intended for methods which has to process all source data to provide any
+ * preview. Only the last submitted computation is relevant, previously
+ * submitted computation is cancelled. Result is passed to preview data handler
+ * on event dispatch thread.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class PreviewDataWorker {
+
+    private PreviewJob currentJob = null;
+
+    /**
+     * Submits computation of preview data cancelling previous computation.
+     * <p>
+     * Has to be called on event dispatch thread.
+     *
+     * @param dataProvider preview data provider
+     * @param previewDataHandler preview data handler
+     */
+    public void submit(PreviewDataProvider dataProvider, PreviewDataHandler previewDataHandler) {
+        cancel();
+        PreviewJob job = new PreviewJob(dataProvider, previewDataHandler);
+        currentJob = job;
+        Thread workerThread = new Thread(job, "Preview data");
+        workerThread.setDaemon(true);
+        workerThread.start();
+    }
+
+    /**
+     * Cancels current computation if any.
+     * <p>
+     * Has to be called on event dispatch thread.
+     */
+    public void cancel() {
+        if (currentJob != null) {
+            currentJob.cancelled = true;
+            currentJob = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return currentJob != null;
+    }
+
+    /**
+     * Copies block of data to array on event dispatch thread.
+     * <p>
+     * Not all data support concurrent reading, so computation running in
+     * background should read source data of code area using this method.
+     *
+     * @param data source data
+     * @param position source position
+     * @param target target array
+     * @param offset target offset
+     * @param length length of block
+     */
+    public static void copyToArray(BinaryData data, long position, byte[] target, int offset, int length) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            data.copyToArray(position, target, offset, length);
+            return;
+        }
+
+        try {
+            SwingUtilities.invokeAndWait(() -> data.copyToArray(position, target, offset, length));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (InvocationTargetException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Provider of preview data.
+     */
+    public interface PreviewDataProvider {
+
+        /**
+         * Computes preview data.
+         * <p>
+         * Called in background thread.
+         *
+         * @param cancellation cancellation status, computation should be
+         * stopped as soon as possible when cancelled
+         * @return preview data or null if computation was cancelled
+         */
+        @Nullable
+        BinaryData computePreviewData(CancellationStatus cancellation);
+    }
+
+    /**
+     * Cancellation status of computation.
+     */
+    public interface CancellationStatus {
+
+        boolean isCancelled();
+    }
+
+    @ParametersAreNonnullByDefault
+    private class PreviewJob implements Runnable, CancellationStatus {
+
+        private final PreviewDataProvider dataProvider;
+        private final PreviewDataHandler previewDataHandler;
+        private volatile boolean cancelled = false;
+
+        public PreviewJob(PreviewDataProvider dataProvider, PreviewDataHandler previewDataHandler) {
+            this.dataProvider = dataProvider;
+            this.previewDataHandler = previewDataHandler;
+        }
+
+        @Override
+        public void run() {
+            BinaryData previewData = null;
+            try {
+                previewData = dataProvider.computePreviewData(this);
+            } catch (RuntimeException ex) {
+                if (!cancelled) {
+                    Logger.getLogger(PreviewDataWorker.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+
+            BinaryData resultData = previewData == null ? new ByteArrayEditableData() : previewData;
+            SwingUtilities.invokeLater(() -> {
+                if (cancelled || currentJob != this) {
+                    return;
+                }
+
+                currentJob = null;
+                previewDataHandler.setPreviewData(resultData);
+            });
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -16,7 +16,10 @@
 package org.exbin.framework.bined.operation.component;
 
 import java.awt.Component;
-import java.util.Random;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.swing.SwingUtilities;
@@ -29,6 +32,7 @@ import org.exbin.bined.swing.CodeAreaCore;
 import org.exbin.framework.App;
 import org.exbin.framework.bined.operation.component.gui.RandomDataPanel;
 import org.exbin.framework.language.api.LanguageModuleApi;
+import org.exbin.framework.bined.UndoPayloadStore;
 import org.exbin.framework.bined.operation.api.InsertDataMethod;
 import org.exbin.framework.bined.operation.api.PreviewDataHandler;
 import org.exbin.framework.bined.operation.operation.InsertDataOperation;
@@ -37,16 +41,29 @@ import org.exbin.framework.bined.operation.operation.InsertionDataProvider;
 
 /**
  * Generate random data method.
+ * <p>
+ * Data are generated in blocks, each block uses own generator split from
+ * generator of whole operation, so blocks of the same batch can be generated
+ * in parallel and result for given seed doesn't depend on number of
+ * processors.
  *
  * @author ExBin Project (https://exbin.org)
  */
 @ParametersAreNonnullByDefault
 public class RandomDataMethod implements InsertDataMethod {
 
+    private static final int BLOCK_SIZE = 65536;
+    private static final long LOWER_HALF_MASK = 0x7F7F7F7F7F7F7F7FL;
+
     private java.util.ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(RandomDataPanel.class);
 
     private PreviewDataHandler previewDataHandler;
     private long previewLengthLimit = 0;
+    private final UndoPayloadStore undoPayloadStore;
+
+    public RandomDataMethod(UndoPayloadStore undoPayloadStore) {
+        this.undoPayloadStore = undoPayloadStore;
+    }
 
     @Nonnull
     @Override
@@ -71,43 +88,110 @@ public class RandomDataMethod implements InsertDataMethod {
         RandomDataPanel panel = (RandomDataPanel) component;
         long length = panel.getDataLength();
         AlgorithmType algorithmType = panel.getAlgorithmType();
+        Optional<Long> seed = panel.getSeed();
 
         InsertionDataProvider dataOperationDataProvider = (EditableBinaryData binaryData, long insertPosition) -> {
-            generateData(binaryData, algorithmType, insertPosition, length);
+            generateData(binaryData, algorithmType, insertPosition, length, seed);
         };
 
         if (editOperation == EditOperation.OVERWRITE) {
-            return new ReplaceDataOperation.ReplaceDataCommand(new ReplaceDataOperation(codeArea, position, length, dataOperationDataProvider));
+            return new ReplaceDataOperation.ReplaceDataCommand(new ReplaceDataOperation(codeArea, undoPayloadStore, position, length, dataOperationDataProvider));
         } else {
             return new InsertDataOperation.InsertDataCommand(new InsertDataOperation(codeArea, position, length, dataOperationDataProvider));
         }
     }
 
-    public void generateData(EditableBinaryData binaryData, AlgorithmType algorithmType, long position, long length) throws IllegalStateException {
-        Random random = new Random();
-        for (long pos = position; pos < position + length; pos++) {
-            byte value;
-            switch (algorithmType) {
-                case FULL_BYTES:
-                    value = (byte) random.nextInt();
-                    break;
-                case LOWER_HALF: {
-                    value = (byte) random.nextInt(128);
-                    break;
+    /**
+     * Generates random data to existing range of binary data.
+     *
+     * @param binaryData binary data
+     * @param algorithmType algorithm type
+     * @param position start position
+     * @param length length of data
+     * @param seed seed of generator or empty for random seed
+     * @throws IllegalStateException if algorithm type is not supported
+     */
+    public void generateData(EditableBinaryData binaryData, AlgorithmType algorithmType, long position, long length, Optional<Long> seed) throws IllegalStateException {
+        if (length <= 0) {
+            return;
+        }
+
+        SplittableRandom random = seed.isPresent() ? new SplittableRandom(seed.get()) : new SplittableRandom();
+        long blocksCount = (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int batchSize = (int) Math.min(blocksCount, Runtime.getRuntime().availableProcessors() * 2);
+        byte[][] blocks = new byte[batchSize][];
+        SplittableRandom[] blockRandoms = new SplittableRandom[batchSize];
+        long pos = position;
+        long remaining = length;
+        while (remaining > 0) {
+            int batchBlocks = (int) Math.min(batchSize, (remaining + BLOCK_SIZE - 1) / BLOCK_SIZE);
+            long batchRemaining = remaining;
+            for (int i = 0; i < batchBlocks; i++) {
+                // Generators are split sequentially to keep result reproducible
+                blockRandoms[i] = random.split();
+                if (blocks[i] == null) {
+                    blocks[i] = new byte[(int) Math.min(BLOCK_SIZE, length)];
                 }
-                case ALPHABET_ONLY: {
-                    value = (byte) random.nextInt(52);
-                    value += (value < 26) ? 'A' : 'a' - 26;
-                    break;
+            }
+
+            IntStream blockIndexes = IntStream.range(0, batchBlocks);
+            if (batchBlocks > 1) {
+                blockIndexes = blockIndexes.parallel();
+            }
+            blockIndexes.forEach((index) -> {
+                int blockLength = (int) Math.min(BLOCK_SIZE, batchRemaining - (long) index * BLOCK_SIZE);
+                fillBlock(blocks[index], blockLength, algorithmType, blockRandoms[index]);
+            });
+
+            for (int i = 0; i < batchBlocks; i++) {
+                int blockLength = (int) Math.min(BLOCK_SIZE, remaining);
+                binaryData.replace(pos, blocks[i], 0, blockLength);
+                pos += blockLength;
+                remaining -= blockLength;
+            }
+        }
+    }
+
+    private static void fillBlock(byte[] block, int length, AlgorithmType algorithmType, SplittableRandom random) {
+        switch (algorithmType) {
+            case FULL_BYTES: {
+                fillLongs(block, length, random, -1L);
+                break;
+            }
+            case LOWER_HALF: {
+                fillLongs(block, length, random, LOWER_HALF_MASK);
+                break;
+            }
+            case ALPHABET_ONLY: {
+                for (int i = 0; i < length; i++) {
+                    int value = random.nextInt(52);
+                    block[i] = (byte) (value + ((value < 26) ? 'A' : 'a' - 26));
                 }
-                case NUMBER_DIGITS: {
-                    value = (byte) (random.nextInt(10) + '0');
-                    break;
+                break;
+            }
+            case NUMBER_DIGITS: {
+                for (int i = 0; i < length; i++) {
+                    block[i] = (byte) (random.nextInt(10) + '0');
                 }
-                default:
-                    throw CodeAreaUtils.getInvalidTypeException(algorithmType);
+                break;
+            }
+            default:
+                throw CodeAreaUtils.getInvalidTypeException(algorithmType);
+        }
+    }
+
+    private static void fillLongs(byte[] block, int length, SplittableRandom random, long mask) {
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        int longsEnd = length & ~7;
+        for (int i = 0; i < longsEnd; i += 8) {
+            buffer.putLong(i, random.nextLong() & mask);
+        }
+        if (longsEnd < length) {
+            long value = random.nextLong() & mask;
+            for (int i = longsEnd; i < length; i++) {
+                block[i] = (byte) value;
+                value >>>= 8;
             }
-            binaryData.setByte(pos, value);
         }
     }
 
@@ -125,6 +209,7 @@ public class RandomDataMethod implements InsertDataMethod {
     private void fillPreviewData(RandomDataPanel panel) {
         SwingUtilities.invokeLater(() -> {
             AlgorithmType algorithmType = panel.getAlgorithmType();
+            Optional<Long> seed = panel.getSeed();
             long dataLength = panel.getDataLength();
             if (dataLength > previewLengthLimit) {
                 dataLength = previewLengthLimit;
@@ -132,7 +217,7 @@ public class RandomDataMethod implements InsertDataMethod {
 
             EditableBinaryData previewBinaryData = new ByteArrayEditableData();
             previewBinaryData.insertUninitialized(0, dataLength);
-            generateData(previewBinaryData, algorithmType, 0, dataLength);
+            generateData(previewBinaryData, algorithmType, 0, dataLength, seed);
             previewDataHandler.setPreviewData(previewBinaryData);
         });
     }
@@ -17,6 +17,7 @@ package org.exbin.framework.bined.operation.component;
 
 import java.awt.Component;
 import java.awt.Dialog;
+import java.util.Arrays;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.swing.JPanel;
@@ -38,6 +39,7 @@ import org.exbin.framework.language.api.LanguageModuleApi;
 import org.exbin.framework.utils.WindowUtils;
 import org.exbin.framework.window.api.gui.DefaultControlPanel;
 import org.exbin.framework.window.api.handler.DefaultControlHandler;
+import org.exbin.framework.bined.UndoPayloadStore;
 import org.exbin.framework.bined.operation.api.InsertDataMethod;
 import org.exbin.framework.bined.operation.api.PreviewDataHandler;
 import org.exbin.framework.bined.operation.operation.InsertDataOperation;
@@ -53,10 +55,17 @@ import org.exbin.framework.window.api.WindowHandler;
 @ParametersAreNonnullByDefault
 public class SimpleFillDataMethod implements InsertDataMethod {
 
+    private static final int BLOCK_SIZE = 65536;
+
     private java.util.ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(SimpleFillDataPanel.class);
 
     private PreviewDataHandler previewDataHandler;
     private long previewLengthLimit = 0;
+    private final UndoPayloadStore undoPayloadStore;
+
+    public SimpleFillDataMethod(UndoPayloadStore undoPayloadStore) {
+        this.undoPayloadStore = undoPayloadStore;
+    }
 
     @Nonnull
     @Override
@@ -125,32 +134,31 @@ public class SimpleFillDataMethod implements InsertDataMethod {
         };
 
         if (editOperation == EditOperation.OVERWRITE) {
-            return new ReplaceDataOperation.ReplaceDataCommand(new ReplaceDataOperation(codeArea, position, length, dataOperationDataProvider));
+            return new ReplaceDataOperation.ReplaceDataCommand(new ReplaceDataOperation(codeArea, undoPayloadStore, position, length, dataOperationDataProvider));
         } else {
             return new InsertDataOperation.InsertDataCommand(new InsertDataOperation(codeArea, position, length, dataOperationDataProvider));
         }
     }
 
     public void generateData(EditableBinaryData binaryData, FillWithType fillWithType, long position, long length, BinaryData sampleBinaryData) throws IllegalStateException {
+        if (length <= 0) {
+            return;
+        }
+
+        byte[] block;
         switch (fillWithType) {
             case EMPTY: {
-                for (long pos = position; pos < position + length; pos++) {
-                    binaryData.setByte(pos, (byte) 0x0);
-                }
+                block = createFilledBlock(length, (byte) 0x0);
                 break;
             }
             case SPACE: {
-                for (long pos = position; pos < position + length; pos++) {
-                    binaryData.setByte(pos, (byte) 0x20);
-                }
+                block = createFilledBlock(length, (byte) 0x20);
                 break;
             }
             case SAMPLE: {
                 if (sampleBinaryData.isEmpty()) {
-                    for (long pos = position; pos < position + length; pos++) {
-                        binaryData.setByte(pos, (byte) 0xFF);
-                    }
-                } else {
+                    block = createFilledBlock(length, (byte) 0xFF);
+                } else if (sampleBinaryData.getDataSize() > BLOCK_SIZE) {
                     long sampleDataSize = sampleBinaryData.getDataSize();
                     long pos = position;
                     long remain = length;
@@ -160,6 +168,9 @@ public class SimpleFillDataMethod implements InsertDataMethod {
                         pos += segmentLength;
                         remain -= segmentLength;
                     }
+                    return;
+                } else {
+                    block = createSampleBlock(length, sampleBinaryData);
                 }
 
                 break;
@@ -167,6 +178,47 @@ public class SimpleFillDataMethod implements InsertDataMethod {
             default:
                 throw CodeAreaUtils.getInvalidTypeException(fillWithType);
         }
+
+        long pos = position;
+        long remain = length;
+        while (remain > 0) {
+            int segmentLength = (int) Math.min(remain, block.length);
+            binaryData.replace(pos, block, 0, segmentLength);
+            pos += segmentLength;
+            remain -= segmentLength;
+        }
+    }
+
+    @Nonnull
+    private static byte[] createFilledBlock(long length, byte value) {
+        byte[] block = new byte[(int) Math.min(length, BLOCK_SIZE)];
+        Arrays.fill(block, value);
+        return block;
+    }
+
+    /**
+     * Creates block of repeated sample data.
+     * <p>
+     * Block length is a multiple of sample length, so that block can be
+     * repeated.
+     *
+     * @param length length of filled data
+     * @param sampleBinaryData sample data not longer than block size
+     * @return block data
+     */
+    @Nonnull
+    private static byte[] createSampleBlock(long length, BinaryData sampleBinaryData) {
+        int sampleLength = (int) sampleBinaryData.getDataSize();
+        long samplesCount = Math.min(BLOCK_SIZE / sampleLength, (length + sampleLength - 1) / sampleLength);
+        byte[] block = new byte[(int) samplesCount * sampleLength];
+        sampleBinaryData.copyToArray(0, block, 0, sampleLength);
+        int filledLength = sampleLength;
+        while (filledLength < block.length) {
+            int copyLength = Math.min(filledLength, block.length - filledLength);
+            System.arraycopy(block, 0, block, filledLength, copyLength);
+            filledLength += copyLength;
+        }
+        return block;
     }
 
     @Override
@@ -15,9 +15,13 @@
  */
 package org.exbin.framework.bined.operation.component.gui;
 
+import java.util.Optional;
 import java.util.ResourceBundle;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import org.exbin.bined.CodeAreaUtils;
 import org.exbin.framework.App;
 import org.exbin.framework.bined.operation.component.RandomDataMethod;
@@ -40,6 +44,26 @@ public class RandomDataPanel extends javax.swing.JPanel {
 
     public RandomDataPanel() {
         initComponents();
+        init();
+    }
+
+    private void init() {
+        seedTextField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                modeChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                modeChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                modeChanged();
+            }
+        });
     }
 
     @Nonnull
@@ -64,6 +88,8 @@ public class RandomDataPanel extends javax.swing.JPanel {
         lowerHalfRadioButton = new javax.swing.JRadioButton();
         alphabetOnlyRadioButton = new javax.swing.JRadioButton();
         numberDigitsRadioButton = new javax.swing.JRadioButton();
+        useSeedCheckBox = new javax.swing.JCheckBox();
+        seedTextField = new javax.swing.JTextField();
 
         lengthLabel.setText(resourceBundle.getString("lengthLabel.text")); // NOI18N
 
@@ -109,6 +135,16 @@ public class RandomDataPanel extends javax.swing.JPanel {
             }
         });
 
+        useSeedCheckBox.setText(resourceBundle.getString("useSeedCheckBox.text")); // NOI18N
+        useSeedCheckBox.addItemListener(new java.awt.event.ItemListener() {
+            public void itemStateChanged(java.awt.event.ItemEvent evt) {
+                useSeedCheckBoxItemStateChanged(evt);
+            }
+        });
+
+        seedTextField.setText("0");
+        seedTextField.setEnabled(false);
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
         this.setLayout(layout);
         layout.setHorizontalGroup(
@@ -125,7 +161,11 @@ public class RandomDataPanel extends javax.swing.JPanel {
                             .addComponent(randomDataLabel))
                         .addGap(0, 0, Short.MAX_VALUE))
                     .addComponent(alphabetOnlyRadioButton, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-                    .addComponent(numberDigitsRadioButton, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                    .addComponent(numberDigitsRadioButton, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(useSeedCheckBox)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(seedTextField)))
                 .addContainerGap())
         );
         layout.setVerticalGroup(
@@ -145,6 +185,10 @@ public class RandomDataPanel extends javax.swing.JPanel {
                 .addComponent(alphabetOnlyRadioButton)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(numberDigitsRadioButton)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(useSeedCheckBox)
+                    .addComponent(seedTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
     }// </editor-fold>//GEN-END:initComponents
@@ -169,6 +213,11 @@ public class RandomDataPanel extends javax.swing.JPanel {
         modeChanged();
     }//GEN-LAST:event_numberDigitsRadioButtonItemStateChanged
 
+    private void useSeedCheckBoxItemStateChanged(java.awt.event.ItemEvent evt) {//GEN-FIRST:event_useSeedCheckBoxItemStateChanged
+        seedTextField.setEnabled(useSeedCheckBox.isSelected());
+        modeChanged();
+    }//GEN-LAST:event_useSeedCheckBoxItemStateChanged
+
     private void modeChanged() {
         if (modeChangeListener != null) {
             modeChangeListener.modeChanged();
@@ -219,6 +268,34 @@ public class RandomDataPanel extends javax.swing.JPanel {
         lengthBaseSwitchableSpinnerPanel.setValue(dataLength);
     }
 
+    /**
+     * Returns seed for reproducible random data.
+     * <p>
+     * Seed which is not a number is used as text.
+     *
+     * @return seed if enabled
+     */
+    @Nonnull
+    public Optional<Long> getSeed() {
+        if (!useSeedCheckBox.isSelected()) {
+            return Optional.empty();
+        }
+
+        String seedText = seedTextField.getText().trim();
+        try {
+            return Optional.of(Long.valueOf(seedText));
+        } catch (NumberFormatException ex) {
+            return Optional.of((long) seedText.hashCode());
+        }
+    }
+
+    public void setSeed(@Nullable Long seed) {
+        useSeedCheckBox.setSelected(seed != null);
+        if (seed != null) {
+            seedTextField.setText(seed.toString());
+        }
+    }
+
     public void setModeChangeListener(ModeChangeListener modeChangeListener) {
         this.modeChangeListener = modeChangeListener;
     }
@@ -253,6 +330,8 @@ public class RandomDataPanel extends javax.swing.JPanel {
     private javax.swing.JRadioButton lowerHalfRadioButton;
     private javax.swing.JRadioButton numberDigitsRadioButton;
     private javax.swing.JLabel randomDataLabel;
+    private javax.swing.JTextField seedTextField;
+    private javax.swing.JCheckBox useSeedCheckBox;
     // End of variables declaration//GEN-END:variables
 
     public interface ModeChangeListener {
@@ -29,25 +29,34 @@ import org.exbin.bined.operation.swing.command.CodeAreaCommand;
 import org.exbin.bined.operation.swing.command.CodeAreaCommandType;
 import org.exbin.bined.operation.undo.BinaryDataUndoableOperation;
 import org.exbin.bined.swing.CodeAreaCore;
+import org.exbin.framework.bined.BinEdUndoRedo;
+import org.exbin.framework.bined.UndoPayloadStore;
 
 /**
  * Operation to convert selection or all data into provided data.
+ * <p>
+ * Length of converted data is given by the amount of data inserted by
+ * conversion data provider.
+ * <p>
+ * Original data are kept for undo in undo payload store, which moves large
+ * data to temporary file.
  *
  * @author ExBin Project (https://exbin.org)
  */
 @ParametersAreNonnullByDefault
 public class ConvertDataOperation extends CodeAreaOperation {
 
+    private final UndoPayloadStore payloadStore;
     private final long startPosition;
     private final long length;
-    private final long convertedDataLength;
     private final ConversionDataProvider conversionDataProvider;
+    private long convertedLength = 0;
 
-    public ConvertDataOperation(CodeAreaCore codeArea, long startPosition, long length, long convertedDataLength, ConversionDataProvider conversionDataProvider) {
+    public ConvertDataOperation(CodeAreaCore codeArea, UndoPayloadStore payloadStore, long startPosition, long length, ConversionDataProvider conversionDataProvider) {
         super(codeArea);
+        this.payloadStore = payloadStore;
         this.startPosition = startPosition;
         this.length = length;
-        this.convertedDataLength = convertedDataLength;
         this.conversionDataProvider = conversionDataProvider;
     }
 
@@ -75,28 +84,64 @@ public class ConvertDataOperation extends CodeAreaOperation {
         CodeAreaOperation originalDataUndoOperation = null;
 
         if (withUndo) {
-            originalDataUndoOperation = new org.exbin.bined.operation.swing.InsertDataOperation(codeArea, startPosition, 0, contentData.copy(startPosition, length));
+            UndoPayloadStore.Payload originalData = payloadStore.storePayload(contentData, startPosition, length);
+            originalDataUndoOperation = new RestoreDataOperation(codeArea, payloadStore, startPosition, originalData, true);
+        }
+
+        long dataSize = contentData.getDataSize();
+        try {
+            conversionDataProvider.provideData(contentData, startPosition, length, startPosition + length);
+        } catch (RuntimeException ex) {
+            if (originalDataUndoOperation != null) {
+                originalDataUndoOperation.dispose();
+            }
+            throw ex;
+        }
+        long convertedDataLength = contentData.getDataSize() - dataSize;
+        contentData.remove(startPosition, length);
+        convertedLength = convertedDataLength;
+
+        if (withUndo) {
             undoOperation = new CompoundCodeAreaOperation(codeArea);
             ((CompoundCodeAreaOperation) undoOperation).addOperation(new RemoveDataOperation(codeArea, startPosition, 0, convertedDataLength));
             ((CompoundCodeAreaOperation) undoOperation).addOperation(originalDataUndoOperation);
         }
 
-        conversionDataProvider.provideData(contentData, startPosition, length, startPosition + length);
-        contentData.remove(startPosition, length);
-
         ((CaretCapable) codeArea).getCodeAreaCaret().setCaretPosition(startPosition + convertedDataLength, 0);
 
         ((SelectionCapable) codeArea).setSelection(startPosition, convertedDataLength);
         return undoOperation;
     }
 
+    /**
+     * Returns length of original data.
+     *
+     * @return length
+     */
+    public long getLength() {
+        return length;
+    }
+
+    public long getStartPosition() {
+        return startPosition;
+    }
+
+    /**
+     * Returns length of converted data of last execution.
+     *
+     * @return length
+     */
+    public long getConvertedLength() {
+        return convertedLength;
+    }
+
     @Override
     public void dispose() {
         super.dispose();
     }
 
     @ParametersAreNonnullByDefault
-    public static class ConvertDataCommand extends CodeAreaCommand {
+    public static class ConvertDataCommand extends CodeAreaCommand implements BinEdUndoRedo.PayloadSizeCapable, BinEdUndoRedo.DataChangesCapable {
 
         private final ConvertDataOperation operation;
         private BinaryDataUndoableOperation undoOperation;
@@ -123,14 +168,35 @@ public class ConvertDataOperation extends CodeAreaOperation {
         public void undo() {
             undoOperation.execute();
             undoOperation.dispose();
+            undoOperation = null;
             ((ScrollingCapable) codeArea).revealCursor();
             codeArea.notifyDataChanged();
         }
 
+        @Override
+        public long getPayloadSize() {
+            return operation.getLength();
+        }
+
+        @Override
+        public long getDataChangesCount() {
+            return 1;
+        }
+
+        @Nonnull
+        @Override
+        public BinEdUndoRedo.DataChange getDataChange(long index) {
+            return new BinEdUndoRedo.DataChange(operation.getStartPosition(), operation.getLength(), operation.getConvertedLength());
+        }
+
         @Override
         public void dispose() {
             super.dispose();
             operation.dispose();
+            if (undoOperation != null) {
+                undoOperation.dispose();
+                undoOperation = null;
+            }
         }
     }
 }
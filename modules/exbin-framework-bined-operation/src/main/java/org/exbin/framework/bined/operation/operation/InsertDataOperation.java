@@ -27,6 +27,7 @@ import org.exbin.bined.operation.swing.command.CodeAreaCommand;
 import org.exbin.bined.operation.swing.command.CodeAreaCommandType;
 import org.exbin.bined.operation.undo.BinaryDataUndoableOperation;
 import org.exbin.bined.swing.CodeAreaCore;
+import org.exbin.framework.bined.BinEdUndoRedo;
 
 /**
  * Insert data operation.
@@ -78,13 +79,21 @@ public class InsertDataOperation extends CodeAreaOperation {
         return undoOperation;
     }
 
+    public long getPosition() {
+        return position;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
     @Override
     public void dispose() {
         super.dispose();
     }
 
     @ParametersAreNonnullByDefault
-    public static class InsertDataCommand extends CodeAreaCommand {
+    public static class InsertDataCommand extends CodeAreaCommand implements BinEdUndoRedo.DataChangesCapable {
 
         private final InsertDataOperation operation;
         private CodeAreaOperation undoOperation;
@@ -115,6 +124,17 @@ public class InsertDataOperation extends CodeAreaOperation {
             codeArea.notifyDataChanged();
         }
 
+        @Override
+        public long getDataChangesCount() {
+            return 1;
+        }
+
+        @Nonnull
+        @Override
+        public BinEdUndoRedo.DataChange getDataChange(long index) {
+            return new BinEdUndoRedo.DataChange(operation.getPosition(), 0, operation.getLength());
+        }
+
         @Override
         public void dispose() {
             super.dispose();
@@ -18,18 +18,17 @@ package org.exbin.framework.bined.operation.operation;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.exbin.auxiliary.binary_data.EditableBinaryData;
-import org.exbin.auxiliary.binary_data.paged.ByteArrayPagedData;
-import org.exbin.auxiliary.binary_data.paged.PagedData;
 import org.exbin.bined.capability.CaretCapable;
 import org.exbin.bined.capability.ScrollingCapable;
 import org.exbin.bined.operation.swing.CodeAreaOperation;
 import org.exbin.bined.operation.swing.CodeAreaOperationType;
-import org.exbin.bined.operation.swing.ModifyDataOperation;
 import org.exbin.bined.operation.swing.RemoveDataOperation;
 import org.exbin.bined.operation.swing.command.CodeAreaCommand;
 import org.exbin.bined.operation.swing.command.CodeAreaCommandType;
 import org.exbin.bined.operation.undo.BinaryDataUndoableOperation;
 import org.exbin.bined.swing.CodeAreaCore;
+import org.exbin.framework.bined.BinEdUndoRedo;
+import org.exbin.framework.bined.UndoPayloadStore;
 
 /**
  * Replace data operation.
@@ -39,12 +38,15 @@ import org.exbin.bined.swing.CodeAreaCore;
 @ParametersAreNonnullByDefault
 public class ReplaceDataOperation extends CodeAreaOperation {
 
+    private final UndoPayloadStore payloadStore;
     private final long position;
     private final long length;
     private final InsertionDataProvider dataOperationDataProvider;
+    private long replacedLength = 0;
 
-    public ReplaceDataOperation(CodeAreaCore codeArea, long position, long length, InsertionDataProvider dataOperationDataProvider) {
+    public ReplaceDataOperation(CodeAreaCore codeArea, UndoPayloadStore payloadStore, long position, long length, InsertionDataProvider dataOperationDataProvider) {
         super(codeArea);
+        this.payloadStore = payloadStore;
         this.position = position;
         this.length = length;
         this.dataOperationDataProvider = dataOperationDataProvider;
@@ -75,6 +77,7 @@ public class ReplaceDataOperation extends CodeAreaOperation {
 
         CodeAreaOperation undoOperation = null;
         EditableBinaryData contentData = (EditableBinaryData) codeArea.getContentData();
+        replacedLength = Math.min(length, dataSize - position);
 
         if (position == dataSize) {
             if (withUndo) {
@@ -84,20 +87,16 @@ public class ReplaceDataOperation extends CodeAreaOperation {
         } else if (position + length > dataSize) {
             long diff = position + length - dataSize;
             if (withUndo) {
-                // TODO use copy directly once delta is fixed
-                PagedData origData = new ByteArrayPagedData();
-                origData.insert(0, contentData.copy(position, length - diff));
+                UndoPayloadStore.Payload origData = payloadStore.storePayload(contentData, position, length - diff);
                 undoOperation = new CompoundCodeAreaOperation(codeArea);
-                ((CompoundCodeAreaOperation) undoOperation).addOperation(new ModifyDataOperation(codeArea, position, origData));
+                ((CompoundCodeAreaOperation) undoOperation).addOperation(new RestoreDataOperation(codeArea, payloadStore, position, origData, false));
                 ((CompoundCodeAreaOperation) undoOperation).addOperation(new RemoveDataOperation(codeArea, dataSize, 0, diff));
             }
 
             contentData.insertUninitialized(dataSize, diff);
         } else if (withUndo) {
-            // TODO use copy directly once delta is fixed
-            PagedData origData = new ByteArrayPagedData();
-            origData.insert(0, contentData.copy(position, length));
-            undoOperation = new ModifyDataOperation(codeArea, position, origData);
+            UndoPayloadStore.Payload origData = payloadStore.storePayload(contentData, position, length);
+            undoOperation = new RestoreDataOperation(codeArea, payloadStore, position, origData, false);
         }
 
         dataOperationDataProvider.provideData(contentData, position);
@@ -106,13 +105,36 @@ public class ReplaceDataOperation extends CodeAreaOperation {
         return undoOperation;
     }
 
+    /**
+     * Returns length of original data.
+     *
+     * @return length
+     */
+    public long getLength() {
+        return length;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns length of original data replaced by last execution, data
+     * beyond end of document are inserted.
+     *
+     * @return length
+     */
+    public long getReplacedLength() {
+        return replacedLength;
+    }
+
     @Override
     public void dispose() {
         super.dispose();
     }
 
     @ParametersAreNonnullByDefault
-    public static class ReplaceDataCommand extends CodeAreaCommand {
+    public static class ReplaceDataCommand extends CodeAreaCommand implements BinEdUndoRedo.PayloadSizeCapable, BinEdUndoRedo.DataChangesCapable {
 
         private final ReplaceDataOperation operation;
         private CodeAreaOperation undoOperation;
@@ -139,14 +161,35 @@ public class ReplaceDataOperation extends CodeAreaOperation {
         public void undo() {
             undoOperation.execute();
             undoOperation.dispose();
+            undoOperation = null;
             ((ScrollingCapable) codeArea).revealCursor();
             codeArea.notifyDataChanged();
         }
 
+        @Override
+        public long getPayloadSize() {
+            return operation.getLength();
+        }
+
+        @Override
+        public long getDataChangesCount() {
+            return 1;
+        }
+
+        @Nonnull
+        @Override
+        public BinEdUndoRedo.DataChange getDataChange(long index) {
+            return new BinEdUndoRedo.DataChange(operation.getPosition(), operation.getReplacedLength(), operation.getLength());
+        }
+
         @Override
         public void dispose() {
             super.dispose();
             operation.dispose();
+            if (undoOperation != null) {
+                undoOperation.dispose();
+                undoOperation = null;
+            }
         }
     }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.operation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.bined.capability.CaretCapable;
+import org.exbin.bined.operation.swing.CodeAreaOperation;
+import org.exbin.bined.operation.swing.CodeAreaOperationType;
+import org.exbin.bined.operation.swing.RemoveDataOperation;
+import org.exbin.bined.operation.undo.BinaryDataUndoableOperation;
+import org.exbin.bined.swing.CodeAreaCore;
+import org.exbin.framework.bined.UndoPayloadStore;
+
+/**
+ * Operation to restore data stored in undo payload store.
+ * <p>
+ * Data are either inserted or replace existing data and are copied by blocks,
+ * so payload stored in temporary file is not loaded to memory at once.
+ * Payload is released when operation is disposed.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class RestoreDataOperation extends CodeAreaOperation {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final UndoPayloadStore payloadStore;
+    private final long position;
+    private final UndoPayloadStore.Payload payload;
+    private final boolean insert;
+
+    public RestoreDataOperation(CodeAreaCore codeArea, UndoPayloadStore payloadStore, long position, UndoPayloadStore.Payload payload, boolean insert) {
+        super(codeArea);
+        this.payloadStore = payloadStore;
+        this.position = position;
+        this.payload = payload;
+        this.insert = insert;
+    }
+
+    @Nonnull
+    @Override
+    public CodeAreaOperationType getType() {
+        return insert ? CodeAreaOperationType.INSERT_DATA : CodeAreaOperationType.MODIFY_DATA;
+    }
+
+    @Override
+    public void execute() {
+        execute(false);
+    }
+
+    @Nonnull
+    @Override
+    public BinaryDataUndoableOperation executeWithUndo() {
+        return execute(true);
+    }
+
+    private CodeAreaOperation execute(boolean withUndo) {
+        CodeAreaOperation undoOperation = null;
+        EditableBinaryData contentData = (EditableBinaryData) codeArea.getContentData();
+        long length = payload.getSize();
+
+        if (insert) {
+            contentData.insertUninitialized(position, length);
+            if (withUndo) {
+                undoOperation = new RemoveDataOperation(codeArea, position, 0, length);
+            }
+        } else if (withUndo) {
+            UndoPayloadStore.Payload originalData = payloadStore.storePayload(contentData, position, length);
+            undoOperation = new RestoreDataOperation(codeArea, payloadStore, position, originalData, false);
+        }
+
+        BinaryData data = payload.getData();
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, length)];
+        long offset = 0;
+        while (offset < length) {
+            int blockLength = (int) Math.min(buffer.length, length - offset);
+            data.copyToArray(offset, buffer, 0, blockLength);
+            contentData.replace(position + offset, buffer, 0, blockLength);
+            offset += blockLength;
+        }
+
+        ((CaretCapable) codeArea).getCodeAreaCaret().setCaretPosition(position + length, 0);
+        return undoOperation;
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        payload.release();
+    }
+}
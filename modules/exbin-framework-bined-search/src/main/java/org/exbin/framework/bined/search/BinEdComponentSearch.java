@@ -52,6 +52,32 @@ public interface BinEdComponentSearch extends BinEdComponentPanel.BinEdComponent
      */
     void performFindAgain();
 
+    /**
+     * Searches for first match of text from given position forward and waits
+     * for its result.
+     * <p>
+     * Following matches can be found using {@link #performFindAgainNow()}.
+     *
+     * @param text text to search
+     * @param startPosition start position
+     * @return true if match was found
+     */
+    boolean performSearchTextNow(String text, long startPosition);
+
+    /**
+     * Moves to next match and waits for search of it if needed.
+     *
+     * @return true if next match was found
+     */
+    boolean performFindAgainNow();
+
+    /**
+     * Returns data position of current match.
+     *
+     * @return data position or -1 if there is no current match
+     */
+    long getCurrentMatchPosition();
+
     /**
      * Sets popup menu handler for binary component.
      *
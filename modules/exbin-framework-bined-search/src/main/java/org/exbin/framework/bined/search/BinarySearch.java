@@ -19,12 +19,15 @@ import java.awt.Dialog;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.regex.PatternSyntaxException;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 import org.exbin.auxiliary.binary_data.ByteArrayEditableData;
 import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.bined.CodeAreaUtils;
 import org.exbin.framework.App;
 import org.exbin.framework.bined.handler.CodeAreaPopupMenuHandler;
 import org.exbin.framework.bined.search.gui.BinaryMultilinePanel;
@@ -32,6 +35,7 @@ import org.exbin.framework.bined.search.gui.BinarySearchPanel;
 import org.exbin.framework.bined.search.gui.FindBinaryPanel;
 import org.exbin.framework.bined.search.service.BinarySearchService;
 import org.exbin.framework.bined.search.service.BinarySearchService.FoundMatches;
+import org.exbin.framework.bined.search.service.SearchJob;
 import org.exbin.framework.window.api.WindowModuleApi;
 import org.exbin.framework.language.api.LanguageModuleApi;
 import org.exbin.framework.utils.WindowUtils;
@@ -50,8 +54,8 @@ public class BinarySearch {
     private final ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(BinarySearch.class);
     private static final int DEFAULT_DELAY = 500;
 
-    private InvokeSearchThread invokeSearchThread;
-    private SearchThread searchThread;
+    private final Timer invokeSearchTimer = new Timer(DEFAULT_DELAY, (event) -> performSearch());
+    private SearchJob searchJob = null;
 
     private SearchOperation currentSearchOperation = SearchOperation.FIND;
     private SearchParameters.SearchDirection currentSearchDirection = SearchParameters.SearchDirection.FORWARD;
@@ -91,6 +95,25 @@ public class BinarySearch {
                 updateMatchStatus();
             }
 
+            @Override
+            public void setProgress(long processedSize, long totalSize, int matchesCount) {
+                int percentage = totalSize > 0 ? (int) (processedSize * 100 / totalSize) : 100;
+                binarySearchPanel.setInfoLabel(java.text.MessageFormat.format(resourceBundle.getString("searchStatus.progress"), percentage, matchesCount));
+            }
+
+            @Override
+            public void setReplaceProgress(long processedSize, long totalSize, int matchesCount) {
+                int percentage = totalSize > 0 ? (int) (processedSize * 100 / totalSize) : 100;
+                binarySearchPanel.setInfoLabel(java.text.MessageFormat.format(resourceBundle.getString("searchStatus.replaceProgress"), percentage, matchesCount));
+            }
+
+            @Override
+            public void setReplacedMatches(int matchesCount) {
+                BinarySearch.this.foundMatches = new BinarySearchService.FoundMatches();
+                binarySearchPanel.setInfoLabel(java.text.MessageFormat.format(resourceBundle.getString("searchStatus.replacedMatches"), matchesCount));
+                updateMatchStatus();
+            }
+
             @Override
             public void clearStatus() {
                 binarySearchPanel.setInfoLabel("");
@@ -164,7 +187,8 @@ public class BinarySearch {
                 SearchCondition updatedSearchCondition = binarySearchPanel.getSearchParameters().getCondition();
 
                 switch (updatedSearchCondition.getSearchMode()) {
-                    case TEXT: {
+                    case TEXT:
+                    case PATTERN: {
                         String searchText = updatedSearchCondition.getSearchText();
                         if (searchText.isEmpty()) {
                             condition.setSearchText(searchText);
@@ -281,6 +305,7 @@ public class BinarySearch {
         });
         binarySearchPanel.setSearchHistory(searchHistory);
         binarySearchPanel.setReplaceHistory(replaceHistory);
+        invokeSearchTimer.setRepeats(false);
     }
 
     public void setBinarySearchService(BinarySearchService binarySearchService) {
@@ -314,23 +339,51 @@ public class BinarySearch {
     }
 
     private void invokeSearch(SearchOperation searchOperation, SearchParameters searchParameters, @Nullable ReplaceParameters replaceParameters, final int delay) {
-        if (invokeSearchThread != null) {
-            invokeSearchThread.interrupt();
-        }
-        invokeSearchThread = new InvokeSearchThread();
-        invokeSearchThread.delay = delay;
+        invokeSearchTimer.stop();
         currentSearchOperation = searchOperation;
         currentSearchParameters.setFromParameters(searchParameters);
         currentReplaceParameters.setFromParameters(replaceParameters);
-        invokeSearchThread.start();
+        invokeSearchTimer.setInitialDelay(delay);
+        invokeSearchTimer.start();
     }
 
-    public void cancelSearch() {
-        if (invokeSearchThread != null) {
-            invokeSearchThread.interrupt();
+    private void performSearch() {
+        if (searchJob != null) {
+            searchJob.cancel();
+            searchJob = null;
         }
-        if (searchThread != null) {
-            searchThread.interrupt();
+
+        switch (currentSearchOperation) {
+            case FIND:
+                try {
+                    searchJob = binarySearchService.performFind(currentSearchParameters, searchStatusListener);
+                } catch (PatternSyntaxException ex) {
+                    binarySearchPanel.setInfoLabel(java.text.MessageFormat.format(resourceBundle.getString("searchStatus.invalidPattern"), ex.getDescription()));
+                }
+                break;
+            case FIND_AGAIN:
+                searchJob = binarySearchService.performFindAgain(searchStatusListener);
+                break;
+            case REPLACE:
+                binarySearchService.performReplace(currentSearchParameters, currentReplaceParameters);
+                break;
+            case REPLACE_ALL:
+                try {
+                    searchJob = binarySearchService.performReplaceAll(currentSearchParameters, currentReplaceParameters, searchStatusListener);
+                } catch (PatternSyntaxException ex) {
+                    binarySearchPanel.setInfoLabel(java.text.MessageFormat.format(resourceBundle.getString("searchStatus.invalidPattern"), ex.getDescription()));
+                }
+                break;
+            default:
+                throw CodeAreaUtils.getInvalidTypeException(currentSearchOperation);
+        }
+    }
+
+    public void cancelSearch() {
+        invokeSearchTimer.stop();
+        if (searchJob != null) {
+            searchJob.cancel();
+            searchJob = null;
         }
     }
 
@@ -349,53 +402,9 @@ public class BinarySearch {
 
     public void dataChanged() {
         binarySearchService.clearMatches();
-        invokeSearch(currentSearchOperation, DEFAULT_DELAY);
-    }
-
-    private class InvokeSearchThread extends Thread {
-
-        private int delay = DEFAULT_DELAY;
-
-        public InvokeSearchThread() {
-            super("InvokeSearchThread");
-        }
-
-        @Override
-        public void run() {
-            try {
-                Thread.sleep(delay);
-                if (searchThread != null) {
-                    searchThread.interrupt();
-                }
-                searchThread = new SearchThread();
-                searchThread.start();
-            } catch (InterruptedException ex) {
-                // don't search
-            }
-        }
-    }
-
-    private class SearchThread extends Thread {
-
-        public SearchThread() {
-            super("SearchThread");
-        }
-
-        @Override
-        public void run() {
-            switch (currentSearchOperation) {
-                case FIND:
-                    binarySearchService.performFind(currentSearchParameters, searchStatusListener);
-                    break;
-                case FIND_AGAIN:
-                    binarySearchService.performFindAgain(searchStatusListener);
-                    break;
-                case REPLACE:
-                    binarySearchService.performReplace(currentSearchParameters, currentReplaceParameters);
-                    break;
-                default:
-                    throw new UnsupportedOperationException("Not supported yet.");
-            }
+        // Replace all is not repeated on its own change of data
+        if (currentSearchOperation != SearchOperation.REPLACE_ALL) {
+            invokeSearch(currentSearchOperation, DEFAULT_DELAY);
         }
     }
 
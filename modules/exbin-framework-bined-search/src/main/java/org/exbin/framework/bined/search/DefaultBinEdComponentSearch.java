@@ -16,6 +16,7 @@
 package org.exbin.framework.bined.search;
 
 import java.awt.BorderLayout;
+import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.exbin.bined.swing.section.SectCodeArea;
 import org.exbin.framework.App;
@@ -45,12 +46,11 @@ public class DefaultBinEdComponentSearch implements BinEdComponentSearch {
         this.componentPanel = componentPanel;
         SectCodeArea codeArea = componentPanel.getCodeArea();
 
-        binarySearchService = new BinarySearchServiceImpl(codeArea);
+        BinedModule binedModule = App.getModule(BinedModule.class);
+        binarySearchService = new BinarySearchServiceImpl(codeArea, binedModule.getFileManager().getUndoPayloadStore());
         binarySearch.setBinarySearchService(binarySearchService);
         binarySearch.setPanelClosingListener(this::hideSearchPanel);
 
-        BinedModule binedModule = App.getModule(BinedModule.class);
-
         binarySearch.setCodeAreaPopupMenuHandler(binedModule.createCodeAreaPopupMenuHandler(BinedModule.PopupMenuVariant.NORMAL));
     }
 
@@ -97,11 +97,7 @@ public class DefaultBinEdComponentSearch implements BinEdComponentSearch {
 
     @Override
     public void performSearchText(String text) {
-        SearchParameters searchParameters = new SearchParameters();
-        SearchCondition searchCondition = new SearchCondition();
-        searchCondition.setSearchText(text);
-        searchParameters.setCondition(searchCondition);
-        binarySearchService.performFind(searchParameters, binarySearch.getSearchStatusListener());
+        binarySearchService.performFind(createTextSearchParameters(text), binarySearch.getSearchStatusListener());
     }
 
     @Override
@@ -113,6 +109,33 @@ public class DefaultBinEdComponentSearch implements BinEdComponentSearch {
         }
     }
 
+    @Override
+    public boolean performSearchTextNow(String text, long startPosition) {
+        SearchParameters searchParameters = createTextSearchParameters(text);
+        searchParameters.setMatchMode(SearchParameters.MatchMode.SINGLE);
+        searchParameters.setStartPosition(startPosition);
+        return binarySearchService.performFindNow(searchParameters, binarySearch.getSearchStatusListener());
+    }
+
+    @Override
+    public boolean performFindAgainNow() {
+        return binarySearchService.performFindAgainNow(binarySearch.getSearchStatusListener());
+    }
+
+    @Override
+    public long getCurrentMatchPosition() {
+        return binarySearchService.getCurrentMatchPosition();
+    }
+
+    @Nonnull
+    private static SearchParameters createTextSearchParameters(String text) {
+        SearchParameters searchParameters = new SearchParameters();
+        SearchCondition searchCondition = new SearchCondition();
+        searchCondition.setSearchText(text);
+        searchParameters.setCondition(searchCondition);
+        return searchParameters;
+    }
+
     @Override
     public void setCodeAreaPopupMenuHandler(CodeAreaPopupMenuHandler codeAreaPopupMenuHandler) {
         binarySearch.getPanel().setCodeAreaPopupMenuHandler(codeAreaPopupMenuHandler);
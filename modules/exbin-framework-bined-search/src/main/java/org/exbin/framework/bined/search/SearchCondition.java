@@ -82,7 +82,8 @@ public class SearchCondition {
 
     public boolean isEmpty() {
         switch (searchMode) {
-            case TEXT: {
+            case TEXT:
+            case PATTERN: {
                 return searchText == null || searchText.isEmpty();
             }
             case BINARY: {
@@ -114,10 +115,10 @@ public class SearchCondition {
         if (this.searchMode != other.searchMode) {
             return false;
         }
-        if (searchMode == SearchMode.TEXT) {
-            return Objects.equals(this.searchText, other.searchText);
-        } else {
+        if (searchMode == SearchMode.BINARY) {
             return Objects.equals(this.binaryData, other.binaryData);
+        } else {
+            return Objects.equals(this.searchText, other.searchText);
         }
     }
 
@@ -128,7 +129,13 @@ public class SearchCondition {
         }
     }
 
+    /**
+     * Search mode.
+     * <p>
+     * Pattern mode uses search text as byte pattern with wildcards and
+     * alternations.
+     */
     public enum SearchMode {
-        TEXT, BINARY
+        TEXT, BINARY, PATTERN
     }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search;
+
+import java.awt.Color;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.bined.CodeAreaSection;
+import org.exbin.bined.highlight.swing.color.CodeAreaMatchColorType;
+import org.exbin.bined.swing.section.SectCodeArea;
+import org.exbin.bined.swing.section.SectionCodeAreaPainter;
+import org.exbin.bined.swing.section.color.SectionCodeAreaColorProfile;
+import org.exbin.framework.bined.BinEdCodeAreaAssessor;
+import org.exbin.framework.bined.search.service.SearchMatchIndex;
+
+/**
+ * Search matches position color modifier.
+ * <p>
+ * Matches are looked up in match index using binary search and last looked
+ * up range is cached, so painting of visible rows doesn't depend on total
+ * count of matches.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class SearchMatchesColorModifier implements BinEdCodeAreaAssessor.PositionColorModifier {
+
+    private static final Color DEFAULT_MATCH_BACKGROUND = new Color(180, 255, 180);
+    private static final Color DEFAULT_CURRENT_MATCH_BACKGROUND = new Color(255, 210, 180);
+
+    private final SectCodeArea codeArea;
+    private SearchMatchIndex matches = new SearchMatchIndex();
+    private int currentMatchIndex = -1;
+    private final RangeCache rangeCache = new RangeCache();
+
+    private Color matchColor;
+    private Color matchBackground = DEFAULT_MATCH_BACKGROUND;
+    private Color currentMatchColor;
+    private Color currentMatchBackground = DEFAULT_CURRENT_MATCH_BACKGROUND;
+
+    public SearchMatchesColorModifier(SectCodeArea codeArea) {
+        this.codeArea = codeArea;
+    }
+
+    @Nullable
+    @Override
+    public Color getPositionBackgroundColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection) {
+        switch (getMatchType(rowDataPosition + byteOnRow)) {
+            case CURRENT_MATCH:
+                return currentMatchBackground;
+            case MATCH:
+                return matchBackground;
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    @Override
+    public Color getPositionTextColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection) {
+        switch (getMatchType(rowDataPosition + byteOnRow)) {
+            case CURRENT_MATCH:
+                return currentMatchColor;
+            case MATCH:
+                return matchColor;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void resetColors() {
+        rangeCache.clear();
+        SectionCodeAreaColorProfile colorsProfile = (SectionCodeAreaColorProfile) ((SectionCodeAreaPainter) codeArea.getPainter()).getColorsProfile();
+        matchColor = colorsProfile.getColor(CodeAreaMatchColorType.MATCH_COLOR);
+        currentMatchColor = colorsProfile.getColor(CodeAreaMatchColorType.CURRENT_MATCH_COLOR);
+        Color color = colorsProfile.getColor(CodeAreaMatchColorType.MATCH_BACKGROUND);
+        matchBackground = color == null ? DEFAULT_MATCH_BACKGROUND : color;
+        color = colorsProfile.getColor(CodeAreaMatchColorType.CURRENT_MATCH_BACKGROUND);
+        currentMatchBackground = color == null ? DEFAULT_CURRENT_MATCH_BACKGROUND : color;
+    }
+
+    @Nonnull
+    public SearchMatchIndex getMatches() {
+        return matches;
+    }
+
+    public void setMatches(SearchMatchIndex matches) {
+        this.matches = matches;
+        currentMatchIndex = -1;
+        rangeCache.clear();
+    }
+
+    public void clearMatches() {
+        setMatches(new SearchMatchIndex());
+    }
+
+    public int getCurrentMatchIndex() {
+        return currentMatchIndex;
+    }
+
+    public void setCurrentMatchIndex(int currentMatchIndex) {
+        if (currentMatchIndex < -1 || currentMatchIndex >= matches.getMatchesCount()) {
+            throw new IndexOutOfBoundsException("Match index out of range: " + currentMatchIndex);
+        }
+        this.currentMatchIndex = currentMatchIndex;
+    }
+
+    /**
+     * Removes replaced match and matches overlapping it, shifts following
+     * matches and makes the first following match current.
+     *
+     * @param matchIndex match index
+     * @param replacementLength length of replacement data
+     */
+    public void replaceMatch(int matchIndex, long replacementLength) {
+        int followingIndex = matches.replaceMatch(matchIndex, replacementLength);
+        currentMatchIndex = Math.min(followingIndex, matches.getMatchesCount() - 1);
+        rangeCache.clear();
+    }
+
+    @Nonnull
+    private MatchType getMatchType(long dataPosition) {
+        if (matches.isEmpty()) {
+            return MatchType.NONE;
+        }
+
+        if (currentMatchIndex >= 0) {
+            long currentMatchPosition = matches.getPosition(currentMatchIndex);
+            if (dataPosition >= currentMatchPosition && dataPosition < currentMatchPosition + matches.getLength(currentMatchIndex)) {
+                return MatchType.CURRENT_MATCH;
+            }
+        }
+
+        if (dataPosition < rangeCache.start || dataPosition >= rangeCache.end) {
+            updateRangeCache(dataPosition);
+        }
+        return rangeCache.match ? MatchType.MATCH : MatchType.NONE;
+    }
+
+    private void updateRangeCache(long dataPosition) {
+        int matchIndex = matches.findMatchAt(dataPosition);
+        if (matchIndex >= 0) {
+            rangeCache.start = dataPosition;
+            rangeCache.end = matches.getPosition(matchIndex) + matches.getLength(matchIndex);
+            rangeCache.match = true;
+            return;
+        }
+
+        int nextMatchIndex = matches.findMatchFrom(dataPosition);
+        rangeCache.start = dataPosition;
+        rangeCache.end = nextMatchIndex < matches.getMatchesCount() ? matches.getPosition(nextMatchIndex) : Long.MAX_VALUE;
+        rangeCache.match = false;
+    }
+
+    private enum MatchType {
+        NONE,
+        MATCH,
+        CURRENT_MATCH
+    }
+
+    private static class RangeCache {
+
+        long start;
+        long end;
+        boolean match;
+
+        public void clear() {
+            start = -1;
+            end = -1;
+            match = false;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Search engine for multiple patterns using Aho-Corasick automaton.
+ * <p>
+ * All patterns are found in single pass over data regardless of count of
+ * patterns.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class AhoCorasickSearchEngine implements SearchEngine {
+
+    public static final int BLOCK_SIZE = 65536;
+
+    private final Automaton forwardAutomaton;
+    private final Automaton backwardAutomaton;
+    private final int maxLength;
+
+    public AhoCorasickSearchEngine(List<byte[]> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("At least one pattern is required");
+        }
+
+        int length = 0;
+        List<byte[]> reversedPatterns = new ArrayList<>();
+        for (byte[] pattern : patterns) {
+            if (pattern.length == 0) {
+                throw new IllegalArgumentException("Pattern cannot be empty");
+            }
+            length = Math.max(length, pattern.length);
+            byte[] reversedPattern = new byte[pattern.length];
+            for (int i = 0; i < pattern.length; i++) {
+                reversedPattern[i] = pattern[pattern.length - 1 - i];
+            }
+            reversedPatterns.add(reversedPattern);
+        }
+        maxLength = length;
+        forwardAutomaton = new Automaton(patterns);
+        backwardAutomaton = new Automaton(reversedPatterns);
+    }
+
+    @Override
+    public long getMaxMatchLength() {
+        return maxLength;
+    }
+
+    @Override
+    public void searchForward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        long dataSize = data.getDataSize();
+        long start = Math.max(startPosition, 0);
+        long limit = Math.min(endPosition, dataSize);
+        if (start >= limit) {
+            return;
+        }
+
+        long scanEnd = Math.min(dataSize, limit + maxLength - 1);
+        PendingMatches pendingMatches = new PendingMatches();
+        byte[] buffer = new byte[(int) Math.min(BLOCK_SIZE, scanEnd - start)];
+        int[][] transitions = forwardAutomaton.transitions;
+        int[][] outputs = forwardAutomaton.outputs;
+        int state = 0;
+        long blockStart = start;
+        while (blockStart < scanEnd) {
+            int blockLength = (int) Math.min(BLOCK_SIZE, scanEnd - blockStart);
+            data.copyToArray(blockStart, buffer, 0, blockLength);
+            for (int index = 0; index < blockLength; index++) {
+                state = transitions[state][buffer[index] & 0xff];
+                long position = blockStart + index;
+                int[] stateOutputs = outputs[state];
+                if (stateOutputs != null) {
+                    for (int matchLength : stateOutputs) {
+                        long matchPosition = position - matchLength + 1;
+                        if (matchPosition >= start && matchPosition < limit) {
+                            pendingMatches.add(matchPosition, matchLength);
+                        }
+                    }
+                }
+                if (!pendingMatches.flush(position - maxLength + 1, matchListener)) {
+                    return;
+                }
+            }
+            blockStart += blockLength;
+            if (!matchListener.searchProgress(blockStart)) {
+                return;
+            }
+        }
+        pendingMatches.flush(Long.MAX_VALUE, matchListener);
+    }
+
+    @Override
+    public void searchBackward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        long dataSize = data.getDataSize();
+        long start = Math.max(startPosition, 0);
+        long limit = Math.min(endPosition, dataSize);
+        if (start >= limit) {
+            return;
+        }
+
+        long blockEnd = Math.min(dataSize, limit + maxLength - 1);
+        byte[] buffer = new byte[(int) Math.min(BLOCK_SIZE, blockEnd - start)];
+        int[][] transitions = backwardAutomaton.transitions;
+        int[][] outputs = backwardAutomaton.outputs;
+        int state = 0;
+        while (blockEnd > start) {
+            long blockStart = Math.max(start, blockEnd - BLOCK_SIZE);
+            int blockLength = (int) (blockEnd - blockStart);
+            data.copyToArray(blockStart, buffer, 0, blockLength);
+            for (int index = blockLength - 1; index >= 0; index--) {
+                state = transitions[state][buffer[index] & 0xff];
+                long position = blockStart + index;
+                int[] stateOutputs = outputs[state];
+                if (stateOutputs != null && position < limit) {
+                    for (int matchLength : stateOutputs) {
+                        if (!matchListener.matchFound(position, matchLength)) {
+                            return;
+                        }
+                    }
+                }
+            }
+            blockEnd = blockStart;
+            if (!matchListener.searchProgress(blockEnd)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deterministic automaton with precomputed transitions for all bytes.
+     */
+    @ParametersAreNonnullByDefault
+    private static class Automaton {
+
+        private final int[][] transitions;
+        private final int[][] outputs;
+
+        public Automaton(List<byte[]> patterns) {
+            List<int[]> stateTransitions = new ArrayList<>();
+            List<int[]> stateOutputs = new ArrayList<>();
+            stateTransitions.add(createEmptyTransitions());
+            stateOutputs.add(null);
+            for (byte[] pattern : patterns) {
+                int state = 0;
+                for (byte value : pattern) {
+                    int[] current = stateTransitions.get(state);
+                    int next = current[value & 0xff];
+                    if (next < 0) {
+                        next = stateTransitions.size();
+                        current[value & 0xff] = next;
+                        stateTransitions.add(createEmptyTransitions());
+                        stateOutputs.add(null);
+                    }
+                    state = next;
+                }
+                stateOutputs.set(state, addOutput(stateOutputs.get(state), pattern.length));
+            }
+
+            int statesCount = stateTransitions.size();
+            transitions = stateTransitions.toArray(new int[statesCount][]);
+            outputs = stateOutputs.toArray(new int[statesCount][]);
+
+            // Breadth-first resolution of failure links into direct transitions
+            int[] failure = new int[statesCount];
+            int[] queue = new int[statesCount];
+            int queueStart = 0;
+            int queueEnd = 0;
+            int[] rootTransitions = transitions[0];
+            for (int i = 0; i < 256; i++) {
+                int next = rootTransitions[i];
+                if (next < 0) {
+                    rootTransitions[i] = 0;
+                } else {
+                    failure[next] = 0;
+                    queue[queueEnd++] = next;
+                }
+            }
+            while (queueStart < queueEnd) {
+                int state = queue[queueStart++];
+                int[] fallbackOutputs = outputs[failure[state]];
+                if (fallbackOutputs != null) {
+                    for (int matchLength : fallbackOutputs) {
+                        outputs[state] = addOutput(outputs[state], matchLength);
+                    }
+                }
+                int[] current = transitions[state];
+                int[] fallback = transitions[failure[state]];
+                for (int i = 0; i < 256; i++) {
+                    int next = current[i];
+                    if (next < 0) {
+                        current[i] = fallback[i];
+                    } else {
+                        failure[next] = fallback[i];
+                        queue[queueEnd++] = next;
+                    }
+                }
+            }
+        }
+
+        @Nonnull
+        private static int[] createEmptyTransitions() {
+            int[] result = new int[256];
+            Arrays.fill(result, -1);
+            return result;
+        }
+
+        /**
+         * Adds match length to sorted array of unique lengths.
+         */
+        @Nonnull
+        private static int[] addOutput(int[] lengths, int matchLength) {
+            if (lengths == null) {
+                return new int[]{matchLength};
+            }
+
+            int index = Arrays.binarySearch(lengths, matchLength);
+            if (index >= 0) {
+                return lengths;
+            }
+
+            int insertion = -index - 1;
+            int[] result = new int[lengths.length + 1];
+            System.arraycopy(lengths, 0, result, 0, insertion);
+            result[insertion] = matchLength;
+            System.arraycopy(lengths, insertion, result, insertion + 1, lengths.length - insertion);
+            return result;
+        }
+    }
+
+    /**
+     * Matches found by forward automaton are detected at their end position
+     * so they are kept until no earlier match can be found.
+     */
+    @ParametersAreNonnullByDefault
+    private static class PendingMatches {
+
+        private long[] positions = new long[16];
+        private int[] lengths = new int[16];
+        private int first = 0;
+        private int count = 0;
+
+        public void add(long position, int length) {
+            if (first + count == positions.length) {
+                if (first > 0) {
+                    System.arraycopy(positions, first, positions, 0, count);
+                    System.arraycopy(lengths, first, lengths, 0, count);
+                    first = 0;
+                } else {
+                    positions = Arrays.copyOf(positions, positions.length * 2);
+                    lengths = Arrays.copyOf(lengths, lengths.length * 2);
+                }
+            }
+
+            int index = first + count;
+            while (index > first && (positions[index - 1] > position || (positions[index - 1] == position && lengths[index - 1] > length))) {
+                positions[index] = positions[index - 1];
+                lengths[index] = lengths[index - 1];
+                index--;
+            }
+            positions[index] = position;
+            lengths[index] = length;
+            count++;
+        }
+
+        public boolean flush(long upToPosition, MatchListener matchListener) {
+            while (count > 0 && positions[first] <= upToPosition) {
+                long position = positions[first];
+                int length = lengths[first];
+                first++;
+                count--;
+                if (!matchListener.matchFound(position, length)) {
+                    return false;
+                }
+            }
+            if (count == 0) {
+                first = 0;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Nondeterministic automaton over bytes built from byte pattern.
+ * <p>
+ * Automaton itself is immutable and can be shared between threads.
+ * Deterministic automaton is constructed lazily from it for each search by
+ * {@link #createDfa(boolean)}, so only states reached by actual data are ever
+ * built and number of cached states is limited.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class ByteAutomaton {
+
+    public static final int MAX_STATES_COUNT = 1024 * 1024;
+
+    private static final int NO_TARGET = -1;
+
+    private final int statesCount;
+    private final int startState;
+    private final int acceptState;
+    private final int[] byteTargets;
+    private final long[] byteSets;
+    private final int[] epsilonOffsets;
+    private final int[] epsilonTargets;
+
+    private ByteAutomaton(Builder builder, int startState, int acceptState) {
+        statesCount = builder.statesCount;
+        this.startState = startState;
+        this.acceptState = acceptState;
+        byteTargets = Arrays.copyOf(builder.byteTargets, statesCount);
+        byteSets = Arrays.copyOf(builder.byteSets, statesCount * 4);
+
+        epsilonOffsets = new int[statesCount + 1];
+        for (int i = 0; i < builder.epsilonsCount; i++) {
+            epsilonOffsets[builder.epsilonSources[i] + 1]++;
+        }
+        for (int i = 0; i < statesCount; i++) {
+            epsilonOffsets[i + 1] += epsilonOffsets[i];
+        }
+        epsilonTargets = new int[builder.epsilonsCount];
+        int[] fillPositions = Arrays.copyOf(epsilonOffsets, statesCount);
+        for (int i = 0; i < builder.epsilonsCount; i++) {
+            epsilonTargets[fillPositions[builder.epsilonSources[i]]++] = builder.epsilonDestinations[i];
+        }
+    }
+
+    /**
+     * Creates automaton accepting given pattern.
+     *
+     * @param pattern byte pattern
+     * @param reverse true to accept reversed sequences
+     * @return automaton
+     * @throws IllegalArgumentException if pattern is too complex
+     */
+    @Nonnull
+    public static ByteAutomaton create(BytePattern pattern, boolean reverse) {
+        Builder builder = new Builder(reverse);
+        int[] fragment = builder.build(pattern.getRootNode());
+        return new ByteAutomaton(builder, fragment[0], fragment[1]);
+    }
+
+    /**
+     * Creates deterministic automaton cache for single search.
+     *
+     * @param unanchored true if match can start at any position of input
+     * @return deterministic automaton
+     */
+    @Nonnull
+    public Dfa createDfa(boolean unanchored) {
+        return new Dfa(unanchored);
+    }
+
+    /**
+     * Lazily constructed deterministic automaton.
+     * <p>
+     * Instance is not thread safe.
+     */
+    @ParametersAreNonnullByDefault
+    public class Dfa {
+
+        public static final int START_STATE = 0;
+
+        private static final int MAX_CACHED_STATES = 4096;
+        private static final int INITIAL_CAPACITY = 16;
+        private static final int UNKNOWN = -1;
+
+        private final boolean unanchored;
+        private final Map<StateSet, Integer> statesMap = new HashMap<>();
+        private final List<StateSet> states = new ArrayList<>();
+        private int[] transitions = new int[0];
+        private boolean[] accepting = new boolean[0];
+        private boolean[] dead = new boolean[0];
+
+        private final int[] marks = new int[statesCount];
+        private int markGeneration = 0;
+        private final int[] stack = new int[statesCount];
+        private final int[] moveTargets = new int[statesCount + 1];
+        private final StateSet startSet;
+
+        private Dfa(boolean unanchored) {
+            this.unanchored = unanchored;
+            moveTargets[0] = startState;
+            startSet = closure(moveTargets, 1);
+            reset();
+        }
+
+        /**
+         * Returns state after processing given byte.
+         *
+         * @param state current state
+         * @param value byte value
+         * @return next state
+         */
+        public int step(int state, int value) {
+            int next = transitions[(state << 8) | value];
+            return next != UNKNOWN ? next : computeTransition(state, value);
+        }
+
+        public boolean isAccepting(int state) {
+            return accepting[state];
+        }
+
+        /**
+         * Returns true if no accepting state can be reached from given state.
+         *
+         * @param state state
+         * @return true if state is dead
+         */
+        public boolean isDead(int state) {
+            return dead[state];
+        }
+
+        private int computeTransition(int state, int value) {
+            StateSet sourceSet = states.get(state);
+            int targetsCount = 0;
+            if (unanchored) {
+                moveTargets[targetsCount++] = startState;
+            }
+            for (int nfaState : sourceSet.nfaStates) {
+                int target = byteTargets[nfaState];
+                if (target != NO_TARGET && (byteSets[nfaState * 4 + (value >> 6)] & (1L << (value & 0x3f))) != 0) {
+                    moveTargets[targetsCount++] = target;
+                }
+            }
+
+            StateSet targetSet = closure(moveTargets, targetsCount);
+            if (!statesMap.containsKey(targetSet) && states.size() >= MAX_CACHED_STATES) {
+                reset();
+                state = addState(sourceSet);
+            }
+            int target = addState(targetSet);
+            transitions[(state << 8) | value] = target;
+            return target;
+        }
+
+        private void reset() {
+            statesMap.clear();
+            states.clear();
+            addState(startSet);
+        }
+
+        private int addState(StateSet stateSet) {
+            Integer index = statesMap.get(stateSet);
+            if (index != null) {
+                return index;
+            }
+
+            int newIndex = states.size();
+            if (newIndex == accepting.length) {
+                int capacity = Math.max(INITIAL_CAPACITY, newIndex * 2);
+                accepting = Arrays.copyOf(accepting, capacity);
+                dead = Arrays.copyOf(dead, capacity);
+                transitions = Arrays.copyOf(transitions, capacity << 8);
+            }
+            Arrays.fill(transitions, newIndex << 8, (newIndex + 1) << 8, UNKNOWN);
+            accepting[newIndex] = Arrays.binarySearch(stateSet.nfaStates, acceptState) >= 0;
+            dead[newIndex] = stateSet.nfaStates.length == 0;
+            states.add(stateSet);
+            statesMap.put(stateSet, newIndex);
+            return newIndex;
+        }
+
+        @Nonnull
+        private StateSet closure(int[] sourceStates, int sourceCount) {
+            markGeneration++;
+            int stackSize = 0;
+            int count = 0;
+            for (int i = 0; i < sourceCount; i++) {
+                int nfaState = sourceStates[i];
+                if (marks[nfaState] != markGeneration) {
+                    marks[nfaState] = markGeneration;
+                    stack[stackSize++] = nfaState;
+                }
+            }
+
+            int[] result = new int[16];
+            while (stackSize > 0) {
+                int nfaState = stack[--stackSize];
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = nfaState;
+                for (int i = epsilonOffsets[nfaState]; i < epsilonOffsets[nfaState + 1]; i++) {
+                    int target = epsilonTargets[i];
+                    if (marks[target] != markGeneration) {
+                        marks[target] = markGeneration;
+                        stack[stackSize++] = target;
+                    }
+                }
+            }
+
+            int[] nfaStates = Arrays.copyOf(result, count);
+            Arrays.sort(nfaStates);
+            return new StateSet(nfaStates);
+        }
+    }
+
+    /**
+     * Sorted set of states of nondeterministic automaton.
+     */
+    private static class StateSet {
+
+        private final int[] nfaStates;
+        private final int hashCode;
+
+        public StateSet(int[] nfaStates) {
+            this.nfaStates = nfaStates;
+            hashCode = Arrays.hashCode(nfaStates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            return Arrays.equals(nfaStates, ((StateSet) obj).nfaStates);
+        }
+    }
+
+    /**
+     * Thompson construction of automaton from pattern tree.
+     */
+    @ParametersAreNonnullByDefault
+    private static class Builder {
+
+        private final boolean reverse;
+        private int statesCount = 0;
+        private int[] byteTargets = new int[64];
+        private long[] byteSets = new long[64 * 4];
+        private int epsilonsCount = 0;
+        private int[] epsilonSources = new int[64];
+        private int[] epsilonDestinations = new int[64];
+
+        public Builder(boolean reverse) {
+            this.reverse = reverse;
+        }
+
+        /**
+         * Builds fragment of automaton for given node.
+         *
+         * @param node pattern node
+         * @return pair of start state and end state of fragment
+         */
+        @Nonnull
+        public int[] build(BytePattern.Node node) {
+            if (node instanceof BytePattern.ByteSetNode) {
+                BytePattern.ByteSetNode byteSetNode = (BytePattern.ByteSetNode) node;
+                int start = addState();
+                int end = addState();
+                byteTargets[start] = end;
+                for (int i = 0; i < 256; i++) {
+                    if (byteSetNode.contains(i)) {
+                        byteSets[start * 4 + (i >> 6)] |= 1L << (i & 0x3f);
+                    }
+                }
+                return new int[]{start, end};
+            }
+
+            if (node instanceof BytePattern.SequenceNode) {
+                List<BytePattern.Node> items = ((BytePattern.SequenceNode) node).getItems();
+                int start = addState();
+                int end = start;
+                for (int i = 0; i < items.size(); i++) {
+                    int[] fragment = build(items.get(reverse ? items.size() - 1 - i : i));
+                    addEpsilon(end, fragment[0]);
+                    end = fragment[1];
+                }
+                return new int[]{start, end};
+            }
+
+            if (node instanceof BytePattern.AlternationNode) {
+                int start = addState();
+                int end = addState();
+                for (BytePattern.Node alternative : ((BytePattern.AlternationNode) node).getAlternatives()) {
+                    int[] fragment = build(alternative);
+                    addEpsilon(start, fragment[0]);
+                    addEpsilon(fragment[1], end);
+                }
+                return new int[]{start, end};
+            }
+
+            if (node instanceof BytePattern.RepeatNode) {
+                BytePattern.RepeatNode repeatNode = (BytePattern.RepeatNode) node;
+                int start = addState();
+                int current = start;
+                for (int i = 0; i < repeatNode.getMinCount(); i++) {
+                    int[] fragment = build(repeatNode.getNode());
+                    addEpsilon(current, fragment[0]);
+                    current = fragment[1];
+                }
+                int end = addState();
+                for (int i = repeatNode.getMinCount(); i < repeatNode.getMaxCount(); i++) {
+                    addEpsilon(current, end);
+                    int[] fragment = build(repeatNode.getNode());
+                    addEpsilon(current, fragment[0]);
+                    current = fragment[1];
+                }
+                addEpsilon(current, end);
+                return new int[]{start, end};
+            }
+
+            throw new IllegalStateException("Unexpected pattern node " + node.getClass().getName());
+        }
+
+        private int addState() {
+            if (statesCount == MAX_STATES_COUNT) {
+                throw new IllegalArgumentException("Pattern is too complex");
+            }
+            if (statesCount == byteTargets.length) {
+                byteTargets = Arrays.copyOf(byteTargets, statesCount * 2);
+                byteSets = Arrays.copyOf(byteSets, statesCount * 2 * 4);
+            }
+            byteTargets[statesCount] = NO_TARGET;
+            return statesCount++;
+        }
+
+        private void addEpsilon(int source, int destination) {
+            if (epsilonsCount == epsilonSources.length) {
+                epsilonSources = Arrays.copyOf(epsilonSources, epsilonsCount * 2);
+                epsilonDestinations = Arrays.copyOf(epsilonDestinations, epsilonsCount * 2);
+            }
+            epsilonSources[epsilonsCount] = source;
+            epsilonDestinations[epsilonsCount] = destination;
+            epsilonsCount++;
+        }
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Parsed byte pattern.
+ * <p>
+ * Pattern syntax:
+ * <ul>
+ * <li><code>4D</code> - byte in hexadecimal, whitespace between tokens is
+ * ignored</li>
+ * <li><code>??</code>, <code>4?</code>, <code>?D</code> - any byte or byte
+ * with wildcard nibble</li>
+ * <li><code>40/F0</code> - byte value with bit mask</li>
+ * <li><code>.</code> - any byte</li>
+ * <li><code>[00-1F 7F]</code>, <code>[^00]</code> - set of byte values</li>
+ * <li><code>"MZ"</code> - ISO-8859-1 string, <code>\"</code> and
+ * <code>\\</code> are escaped characters</li>
+ * <li><code>(...)</code> - group, <code>|</code> - alternation</li>
+ * <li><code>{n}</code>, <code>{n,m}</code> - repetition of previous item</li>
+ * </ul>
+ * Pattern must have limited maximum length and cannot match empty data.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BytePattern {
+
+    public static final int MAX_PATTERN_LENGTH = 65536;
+    public static final int MAX_REPEAT_COUNT = 4096;
+
+    private final Node rootNode;
+    private final int minLength;
+    private final int maxLength;
+
+    private BytePattern(Node rootNode) {
+        this.rootNode = rootNode;
+        minLength = (int) rootNode.getMinLength();
+        maxLength = (int) rootNode.getMaxLength();
+    }
+
+    /**
+     * Parses pattern.
+     *
+     * @param pattern pattern text
+     * @return parsed pattern
+     * @throws PatternSyntaxException if pattern is not valid
+     */
+    @Nonnull
+    public static BytePattern parse(String pattern) {
+        Parser parser = new Parser(pattern);
+        Node rootNode = parser.parseAlternation();
+        if (parser.hasNext()) {
+            throw parser.createException(parser.peek() == ')' ? "Unmatched closing parenthesis" : "Unexpected character");
+        }
+        if (rootNode.getMaxLength() > MAX_PATTERN_LENGTH) {
+            throw new PatternSyntaxException("Pattern can match more than " + MAX_PATTERN_LENGTH + " bytes", pattern, -1);
+        }
+        if (rootNode.getMinLength() == 0) {
+            throw new PatternSyntaxException("Pattern can match empty data", pattern, -1);
+        }
+
+        return new BytePattern(rootNode);
+    }
+
+    @Nonnull
+    Node getRootNode() {
+        return rootNode;
+    }
+
+    public int getMinLength() {
+        return minLength;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Recursive descent parser of pattern text.
+     */
+    @ParametersAreNonnullByDefault
+    private static class Parser {
+
+        private final String pattern;
+        private int position = 0;
+
+        public Parser(String pattern) {
+            this.pattern = pattern;
+        }
+
+        @Nonnull
+        public Node parseAlternation() {
+            List<Node> alternatives = new ArrayList<>();
+            alternatives.add(parseSequence());
+            while (skipWhitespace() && peek() == '|') {
+                position++;
+                alternatives.add(parseSequence());
+            }
+            return alternatives.size() == 1 ? alternatives.get(0) : new AlternationNode(alternatives);
+        }
+
+        @Nonnull
+        private Node parseSequence() {
+            List<Node> items = new ArrayList<>();
+            while (skipWhitespace() && peek() != '|' && peek() != ')') {
+                Node atom = parseAtom();
+                if (skipWhitespace() && peek() == '{') {
+                    atom = parseRepeat(atom);
+                }
+                items.add(atom);
+            }
+            return items.size() == 1 ? items.get(0) : new SequenceNode(items);
+        }
+
+        @Nonnull
+        private Node parseAtom() {
+            char character = peek();
+            switch (character) {
+                case '(': {
+                    int groupPosition = position;
+                    position++;
+                    Node node = parseAlternation();
+                    if (!skipWhitespace() || peek() != ')') {
+                        throw new PatternSyntaxException("Unclosed group", pattern, groupPosition);
+                    }
+                    position++;
+                    return node;
+                }
+                case '[':
+                    return parseByteSet();
+                case '"':
+                    return parseString();
+                case '.': {
+                    position++;
+                    return ByteSetNode.createAny();
+                }
+                case '*':
+                case '+':
+                    throw createException("Unlimited repetition is not supported");
+                default:
+                    return parseByte();
+            }
+        }
+
+        @Nonnull
+        private Node parseByte() {
+            int valuePosition = position;
+            int value = 0;
+            int mask = 0;
+            for (int i = 0; i < 2; i++) {
+                if (!hasNext()) {
+                    throw createException("Incomplete byte value");
+                }
+                char character = pattern.charAt(position);
+                value <<= 4;
+                mask <<= 4;
+                if (character != '?') {
+                    value |= parseHexDigit(character);
+                    mask |= 0xf;
+                }
+                position++;
+            }
+
+            if (hasNext() && peek() == '/') {
+                if (mask != 0xff) {
+                    throw new PatternSyntaxException("Bit mask cannot be combined with wildcard", pattern, valuePosition);
+                }
+                position++;
+                mask = parseByteValue();
+            }
+
+            ByteSetNode node = new ByteSetNode();
+            for (int i = 0; i < 256; i++) {
+                if ((i & mask) == (value & mask)) {
+                    node.add(i);
+                }
+            }
+            return node;
+        }
+
+        @Nonnull
+        private Node parseByteSet() {
+            int setPosition = position;
+            position++;
+            boolean negated = false;
+            if (hasNext() && peek() == '^') {
+                negated = true;
+                position++;
+            }
+
+            ByteSetNode node = new ByteSetNode();
+            while (skipWhitespace() && peek() != ']') {
+                int fromValue = parseByteValue();
+                int toValue = fromValue;
+                if (skipWhitespace() && peek() == '-') {
+                    position++;
+                    skipWhitespace();
+                    toValue = parseByteValue();
+                    if (toValue < fromValue) {
+                        throw createException("Invalid range of byte values");
+                    }
+                }
+                for (int i = fromValue; i <= toValue; i++) {
+                    node.add(i);
+                }
+            }
+            if (!hasNext()) {
+                throw new PatternSyntaxException("Unclosed set of byte values", pattern, setPosition);
+            }
+            position++;
+
+            if (negated) {
+                node.invert();
+            }
+            if (node.isEmpty()) {
+                throw new PatternSyntaxException("Set of byte values is empty", pattern, setPosition);
+            }
+            return node;
+        }
+
+        @Nonnull
+        private Node parseString() {
+            int stringPosition = position;
+            position++;
+            List<Node> items = new ArrayList<>();
+            while (true) {
+                if (!hasNext()) {
+                    throw new PatternSyntaxException("Unclosed string", pattern, stringPosition);
+                }
+                char character = pattern.charAt(position++);
+                if (character == '"') {
+                    break;
+                }
+                if (character == '\\') {
+                    if (!hasNext()) {
+                        throw new PatternSyntaxException("Unclosed string", pattern, stringPosition);
+                    }
+                    character = pattern.charAt(position++);
+                }
+                if (character > 0xff) {
+                    position--;
+                    throw createException("Character is not in ISO-8859-1 range");
+                }
+                ByteSetNode node = new ByteSetNode();
+                node.add(character);
+                items.add(node);
+            }
+            if (items.isEmpty()) {
+                throw new PatternSyntaxException("Empty string", pattern, stringPosition);
+            }
+            return items.size() == 1 ? items.get(0) : new SequenceNode(items);
+        }
+
+        @Nonnull
+        private Node parseRepeat(Node node) {
+            int repeatPosition = position;
+            position++;
+            skipWhitespace();
+            int minCount = parseNumber();
+            int maxCount = minCount;
+            if (skipWhitespace() && peek() == ',') {
+                position++;
+                if (!skipWhitespace() || peek() == '}') {
+                    throw createException("Unlimited repetition is not supported");
+                }
+                maxCount = parseNumber();
+            }
+            if (!skipWhitespace() || peek() != '}') {
+                throw new PatternSyntaxException("Unclosed repetition", pattern, repeatPosition);
+            }
+            position++;
+            if (maxCount < minCount || maxCount == 0) {
+                throw new PatternSyntaxException("Invalid repetition count", pattern, repeatPosition);
+            }
+            if (maxCount > MAX_REPEAT_COUNT || node.getMaxLength() * maxCount > MAX_PATTERN_LENGTH) {
+                throw new PatternSyntaxException("Repetition count is too large", pattern, repeatPosition);
+            }
+            return new RepeatNode(node, minCount, maxCount);
+        }
+
+        private int parseNumber() {
+            int numberPosition = position;
+            long value = 0;
+            while (hasNext() && Character.isDigit(peek())) {
+                value = value * 10 + (pattern.charAt(position++) - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw new PatternSyntaxException("Number is too large", pattern, numberPosition);
+                }
+            }
+            if (position == numberPosition) {
+                throw createException("Number expected");
+            }
+            return (int) value;
+        }
+
+        private int parseByteValue() {
+            if (position + 2 > pattern.length()) {
+                throw createException("Incomplete byte value");
+            }
+            int value = (parseHexDigit(pattern.charAt(position)) << 4) | parseHexDigit(pattern.charAt(position + 1));
+            position += 2;
+            return value;
+        }
+
+        private int parseHexDigit(char character) {
+            int digit = Character.digit(character, 16);
+            if (digit < 0) {
+                throw createException("Hexadecimal digit expected");
+            }
+            return digit;
+        }
+
+        /**
+         * Skips whitespace characters.
+         *
+         * @return true if there are remaining characters
+         */
+        private boolean skipWhitespace() {
+            while (hasNext() && Character.isWhitespace(peek())) {
+                position++;
+            }
+            return hasNext();
+        }
+
+        public boolean hasNext() {
+            return position < pattern.length();
+        }
+
+        public char peek() {
+            return pattern.charAt(position);
+        }
+
+        @Nonnull
+        public PatternSyntaxException createException(String description) {
+            return new PatternSyntaxException(description, pattern, position);
+        }
+    }
+
+    /**
+     * Node of pattern tree.
+     */
+    static abstract class Node {
+
+        abstract long getMinLength();
+
+        abstract long getMaxLength();
+    }
+
+    /**
+     * Single byte matching set of values.
+     */
+    static class ByteSetNode extends Node {
+
+        private final long[] values = new long[4];
+
+        @Nonnull
+        static ByteSetNode createAny() {
+            ByteSetNode node = new ByteSetNode();
+            node.invert();
+            return node;
+        }
+
+        void add(int value) {
+            values[value >> 6] |= 1L << (value & 0x3f);
+        }
+
+        boolean contains(int value) {
+            return (values[value >> 6] & (1L << (value & 0x3f))) != 0;
+        }
+
+        void invert() {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = ~values[i];
+            }
+        }
+
+        boolean isEmpty() {
+            return (values[0] | values[1] | values[2] | values[3]) == 0;
+        }
+
+        @Override
+        long getMinLength() {
+            return 1;
+        }
+
+        @Override
+        long getMaxLength() {
+            return 1;
+        }
+    }
+
+    /**
+     * Sequence of nodes.
+     */
+    static class SequenceNode extends Node {
+
+        private final List<Node> items;
+
+        SequenceNode(List<Node> items) {
+            this.items = items;
+        }
+
+        @Nonnull
+        List<Node> getItems() {
+            return items;
+        }
+
+        @Override
+        long getMinLength() {
+            long length = 0;
+            for (Node item : items) {
+                length += item.getMinLength();
+            }
+            return length;
+        }
+
+        @Override
+        long getMaxLength() {
+            long length = 0;
+            for (Node item : items) {
+                length += item.getMaxLength();
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Alternation of nodes.
+     */
+    static class AlternationNode extends Node {
+
+        private final List<Node> alternatives;
+
+        AlternationNode(List<Node> alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        @Nonnull
+        List<Node> getAlternatives() {
+            return alternatives;
+        }
+
+        @Override
+        long getMinLength() {
+            long length = Long.MAX_VALUE;
+            for (Node alternative : alternatives) {
+                length = Math.min(length, alternative.getMinLength());
+            }
+            return length;
+        }
+
+        @Override
+        long getMaxLength() {
+            long length = 0;
+            for (Node alternative : alternatives) {
+                length = Math.max(length, alternative.getMaxLength());
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Repetition of node.
+     */
+    static class RepeatNode extends Node {
+
+        private final Node node;
+        private final int minCount;
+        private final int maxCount;
+
+        RepeatNode(Node node, int minCount, int maxCount) {
+            this.node = node;
+            this.minCount = minCount;
+            this.maxCount = maxCount;
+        }
+
+        @Nonnull
+        Node getNode() {
+            return node;
+        }
+
+        int getMinCount() {
+            return minCount;
+        }
+
+        int getMaxCount() {
+            return maxCount;
+        }
+
+        @Override
+        long getMinLength() {
+            return node.getMinLength() * minCount;
+        }
+
+        @Override
+        long getMaxLength() {
+            return node.getMaxLength() * maxCount;
+        }
+    }
+}
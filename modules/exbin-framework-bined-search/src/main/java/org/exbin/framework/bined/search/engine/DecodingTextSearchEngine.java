@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.bined.CharsetStreamTranslator;
+
+/**
+ * Search engine for text in charsets which doesn't support encoding.
+ * <p>
+ * Characters are decoded from data at each position using single decoder
+ * and buffers reused for whole search.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class DecodingTextSearchEngine implements SearchEngine {
+
+    public static final int BLOCK_SIZE = 65536;
+
+    private final char[] text;
+    private final boolean matchCase;
+    private final Charset charset;
+    private final int maxLength;
+
+    public DecodingTextSearchEngine(String text, boolean matchCase, Charset charset) {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Text cannot be empty");
+        }
+
+        this.text = text.toCharArray();
+        this.matchCase = matchCase;
+        this.charset = charset;
+        if (!matchCase) {
+            for (int i = 0; i < this.text.length; i++) {
+                this.text[i] = Character.toLowerCase(this.text[i]);
+            }
+        }
+        maxLength = this.text.length * CharsetStreamTranslator.DEFAULT_MAX_BYTES_PER_CHAR;
+    }
+
+    @Override
+    public long getMaxMatchLength() {
+        return maxLength;
+    }
+
+    @Override
+    public void searchForward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        long dataSize = data.getDataSize();
+        long limit = Math.min(endPosition, dataSize - text.length + 1);
+        long blockStart = Math.max(startPosition, 0);
+        if (blockStart >= limit) {
+            return;
+        }
+
+        Decoder decoder = new Decoder((int) Math.min(BLOCK_SIZE, limit - blockStart) + maxLength - 1);
+        while (blockStart < limit) {
+            int blockLength = (int) Math.min(BLOCK_SIZE, limit - blockStart);
+            int available = (int) Math.min(blockLength + maxLength - 1, dataSize - blockStart);
+            data.copyToArray(blockStart, decoder.buffer, 0, available);
+            for (int index = 0; index < blockLength; index++) {
+                int matchLength = decoder.matchLength(index, available);
+                if (matchLength >= 0 && !matchListener.matchFound(blockStart + index, matchLength)) {
+                    return;
+                }
+            }
+            blockStart += blockLength;
+            if (!matchListener.searchProgress(blockStart)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void searchBackward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        long dataSize = data.getDataSize();
+        long start = Math.max(startPosition, 0);
+        long blockEnd = Math.min(endPosition, dataSize - text.length + 1);
+        if (start >= blockEnd) {
+            return;
+        }
+
+        Decoder decoder = new Decoder((int) Math.min(BLOCK_SIZE, blockEnd - start) + maxLength - 1);
+        while (blockEnd > start) {
+            long blockStart = Math.max(start, blockEnd - BLOCK_SIZE);
+            int blockLength = (int) (blockEnd - blockStart);
+            int available = (int) Math.min(blockLength + maxLength - 1, dataSize - blockStart);
+            data.copyToArray(blockStart, decoder.buffer, 0, available);
+            for (int index = blockLength - 1; index >= 0; index--) {
+                int matchLength = decoder.matchLength(index, available);
+                if (matchLength >= 0 && !matchListener.matchFound(blockStart + index, matchLength)) {
+                    return;
+                }
+            }
+            blockEnd = blockStart;
+            if (!matchListener.searchProgress(blockEnd)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decoding state of single search.
+     */
+    private class Decoder {
+
+        private final byte[] buffer;
+        private final ByteBuffer byteBuffer;
+        private final CharBuffer charBuffer = CharBuffer.allocate(1);
+        private final CharsetDecoder charsetDecoder;
+
+        public Decoder(int bufferSize) {
+            buffer = new byte[bufferSize];
+            byteBuffer = ByteBuffer.wrap(buffer);
+            charsetDecoder = charset.newDecoder();
+            charsetDecoder.onMalformedInput(CodingErrorAction.REPLACE);
+            charsetDecoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        /**
+         * Returns length of match at given offset or -1 if there is no match.
+         */
+        public int matchLength(int offset, int available) {
+            byteBuffer.limit(available);
+            byteBuffer.position(offset);
+            for (char textChar : text) {
+                charBuffer.clear();
+                charsetDecoder.reset();
+                charsetDecoder.decode(byteBuffer, charBuffer, true);
+                if (charBuffer.position() == 0) {
+                    return -1;
+                }
+
+                char dataChar = charBuffer.get(0);
+                if (!matchCase) {
+                    dataChar = Character.toLowerCase(dataChar);
+                }
+                if (dataChar != textChar) {
+                    return -1;
+                }
+            }
+            return byteBuffer.position() - offset;
+        }
+    }
+}
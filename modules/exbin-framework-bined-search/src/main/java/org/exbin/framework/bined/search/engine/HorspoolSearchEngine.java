@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import java.util.Arrays;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Search engine for single pattern using Boyer-Moore-Horspool algorithm.
+ * <p>
+ * Data are read in blocks and pattern is shifted using bad character table.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class HorspoolSearchEngine implements SearchEngine {
+
+    public static final int BLOCK_SIZE = 65536;
+
+    private final byte[] pattern;
+    private final int[] forwardShift = new int[256];
+    private final int[] backwardShift = new int[256];
+
+    public HorspoolSearchEngine(byte[] pattern) {
+        if (pattern.length == 0) {
+            throw new IllegalArgumentException("Pattern cannot be empty");
+        }
+
+        this.pattern = pattern;
+        int length = pattern.length;
+        Arrays.fill(forwardShift, length);
+        for (int i = 0; i < length - 1; i++) {
+            forwardShift[pattern[i] & 0xff] = length - 1 - i;
+        }
+        Arrays.fill(backwardShift, length);
+        for (int i = length - 1; i > 0; i--) {
+            backwardShift[pattern[i] & 0xff] = i;
+        }
+    }
+
+    @Override
+    public long getMaxMatchLength() {
+        return pattern.length;
+    }
+
+    @Override
+    public void searchForward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        int length = pattern.length;
+        int last = length - 1;
+        long limit = Math.min(endPosition, data.getDataSize() - last);
+        long blockStart = Math.max(startPosition, 0);
+        if (blockStart >= limit) {
+            return;
+        }
+
+        byte lastByte = pattern[last];
+        byte[] buffer = new byte[(int) Math.min(BLOCK_SIZE, limit - blockStart) + last];
+        while (blockStart < limit) {
+            int blockLength = (int) Math.min(BLOCK_SIZE, limit - blockStart);
+            data.copyToArray(blockStart, buffer, 0, blockLength + last);
+            int index = 0;
+            while (index < blockLength) {
+                byte value = buffer[index + last];
+                if (value == lastByte && matchesAt(buffer, index, 0, last)) {
+                    if (!matchListener.matchFound(blockStart + index, length)) {
+                        return;
+                    }
+                }
+                index += forwardShift[value & 0xff];
+            }
+            blockStart += index;
+            if (!matchListener.searchProgress(blockStart)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void searchBackward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        int length = pattern.length;
+        int last = length - 1;
+        long start = Math.max(startPosition, 0);
+        long blockEnd = Math.min(endPosition, data.getDataSize() - last);
+        if (start >= blockEnd) {
+            return;
+        }
+
+        byte firstByte = pattern[0];
+        byte[] buffer = new byte[(int) Math.min(BLOCK_SIZE, blockEnd - start) + last];
+        while (blockEnd > start) {
+            long blockStart = Math.max(start, blockEnd - BLOCK_SIZE);
+            int blockLength = (int) (blockEnd - blockStart);
+            data.copyToArray(blockStart, buffer, 0, blockLength + last);
+            int index = blockLength - 1;
+            while (index >= 0) {
+                byte value = buffer[index];
+                if (value == firstByte && matchesAt(buffer, index + 1, 1, last)) {
+                    if (!matchListener.matchFound(blockStart + index, length)) {
+                        return;
+                    }
+                }
+                index -= backwardShift[value & 0xff];
+            }
+            blockEnd = blockStart + index + 1;
+            if (!matchListener.searchProgress(blockEnd)) {
+                return;
+            }
+        }
+    }
+
+    private boolean matchesAt(byte[] buffer, int offset, int patternOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            if (buffer[offset + i] != pattern[patternOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.framework.bined.BinaryDataSnapshot;
+
+/**
+ * Search engine splitting data into chunks searched in parallel.
+ * <p>
+ * Each chunk covers range of match start positions and is read up to
+ * maximum match length minus one bytes beyond its end, so matches crossing
+ * chunk boundary are found exactly once. Matches of chunks are passed to
+ * listener in order of chunks.
+ * <p>
+ * When data are snapshot, each running task reads its chunk through its own
+ * reader of snapshot, so tasks don't wait for each other. Other data are read
+ * by all tasks at once, which is safe only for data stored in memory.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class ParallelSearchEngine implements SearchEngine {
+
+    public static final long DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final SearchEngine searchEngine;
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+    private final int chunkMatchesLimit;
+
+    public ParallelSearchEngine(SearchEngine searchEngine) {
+        this(searchEngine, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates parallel search engine.
+     *
+     * @param searchEngine engine used for search in single chunk
+     * @param pool fork join pool
+     * @param chunkSize size of range of positions searched by single task
+     * @param chunkMatchesLimit maximum number of matches collected by single
+     * task, it's safe to use maximum number of matches accepted by listener
+     */
+    public ParallelSearchEngine(SearchEngine searchEngine, ForkJoinPool pool, long chunkSize, int chunkMatchesLimit) {
+        this.searchEngine = searchEngine;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.chunkMatchesLimit = chunkMatchesLimit;
+    }
+
+    /**
+     * Returns maximum number of chunks searched at once.
+     *
+     * @return parallelism level
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public long getMaxMatchLength() {
+        return searchEngine.getMaxMatchLength();
+    }
+
+    @Override
+    public void searchForward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        search(data, startPosition, endPosition, matchListener, true);
+    }
+
+    @Override
+    public void searchBackward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        search(data, startPosition, endPosition, matchListener, false);
+    }
+
+    private void search(BinaryData data, long startPosition, long endPosition, MatchListener matchListener, boolean forward) {
+        long start = Math.max(startPosition, 0);
+        long limit = Math.min(endPosition, data.getDataSize());
+        if (start >= limit) {
+            return;
+        }
+
+        long chunksCount = (limit - start + chunkSize - 1) / chunkSize;
+        if (chunksCount == 1 || pool.getParallelism() == 1) {
+            if (forward) {
+                searchEngine.searchForward(data, start, limit, matchListener);
+            } else {
+                searchEngine.searchBackward(data, start, limit, matchListener);
+            }
+            return;
+        }
+
+        AtomicBoolean stopped = new AtomicBoolean();
+        ArrayDeque<ChunkSearchTask> pendingTasks = new ArrayDeque<>();
+        int tasksLimit = pool.getParallelism() * 2;
+        long nextChunk = 0;
+        try {
+            while (nextChunk < chunksCount || !pendingTasks.isEmpty()) {
+                while (nextChunk < chunksCount && pendingTasks.size() < tasksLimit) {
+                    long chunkIndex = forward ? nextChunk : chunksCount - 1 - nextChunk;
+                    long chunkStart = start + chunkIndex * chunkSize;
+                    ChunkSearchTask task = new ChunkSearchTask(data, chunkStart, Math.min(limit, chunkStart + chunkSize), forward, stopped);
+                    pool.execute(task);
+                    pendingTasks.add(task);
+                    nextChunk++;
+                }
+
+                ChunkSearchTask task = pendingTasks.remove();
+                ChunkMatches chunkMatches = task.join();
+                for (int i = 0; i < chunkMatches.count; i++) {
+                    if (!matchListener.matchFound(chunkMatches.positions[i], chunkMatches.lengths[i])) {
+                        return;
+                    }
+                }
+                if (!matchListener.searchProgress(forward ? task.chunkEnd : task.chunkStart)) {
+                    return;
+                }
+            }
+        } finally {
+            stopped.set(true);
+            for (ChunkSearchTask task : pendingTasks) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Task searching single chunk of data.
+     */
+    @ParametersAreNonnullByDefault
+    private class ChunkSearchTask extends RecursiveTask<ChunkMatches> {
+
+        private final BinaryData data;
+        private final long chunkStart;
+        private final long chunkEnd;
+        private final boolean forward;
+        private final AtomicBoolean stopped;
+
+        public ChunkSearchTask(BinaryData data, long chunkStart, long chunkEnd, boolean forward, AtomicBoolean stopped) {
+            this.data = data;
+            this.chunkStart = chunkStart;
+            this.chunkEnd = chunkEnd;
+            this.forward = forward;
+            this.stopped = stopped;
+        }
+
+        @Nonnull
+        @Override
+        protected ChunkMatches compute() {
+            ChunkMatches chunkMatches = new ChunkMatches();
+            if (stopped.get()) {
+                return chunkMatches;
+            }
+
+            MatchListener chunkListener = new MatchListener() {
+                @Override
+                public boolean matchFound(long position, long length) {
+                    chunkMatches.add(position, length);
+                    return chunkMatches.count < chunkMatchesLimit && !stopped.get();
+                }
+
+                @Override
+                public boolean searchProgress(long position) {
+                    return !stopped.get();
+                }
+            };
+            BinaryDataSnapshot snapshot = data instanceof BinaryDataSnapshot ? (BinaryDataSnapshot) data : null;
+            BinaryData reader;
+            try {
+                reader = snapshot == null ? data : snapshot.acquireReader();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                stopped.set(true);
+                return chunkMatches;
+            }
+
+            try {
+                if (forward) {
+                    searchEngine.searchForward(reader, chunkStart, chunkEnd, chunkListener);
+                } else {
+                    searchEngine.searchBackward(reader, chunkStart, chunkEnd, chunkListener);
+                }
+            } finally {
+                if (snapshot != null) {
+                    snapshot.releaseReader(reader);
+                }
+            }
+            return chunkMatches;
+        }
+    }
+
+    /**
+     * Matches found in single chunk stored in primitive arrays.
+     */
+    private static class ChunkMatches {
+
+        private long[] positions = new long[16];
+        private long[] lengths = new long[16];
+        private int count = 0;
+
+        public void add(long position, long length) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            positions[count] = position;
+            lengths[count] = length;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Search engine for byte patterns with wildcards, byte sets and alternations.
+ * <p>
+ * Each block of data is scanned once from its end by deterministic automaton
+ * of reversed pattern, which reports every position where match starts.
+ * Length of match is then resolved by anchored automaton of pattern, so
+ * complexity of pattern affects only construction of automaton states, not
+ * number of passes over data. For each start position the longest match is
+ * reported.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class PatternSearchEngine implements SearchEngine {
+
+    public static final int BLOCK_SIZE = 65536;
+
+    private final BytePattern pattern;
+    private final ByteAutomaton forwardAutomaton;
+    private final ByteAutomaton reverseAutomaton;
+
+    public PatternSearchEngine(BytePattern pattern) {
+        this.pattern = pattern;
+        forwardAutomaton = ByteAutomaton.create(pattern, false);
+        reverseAutomaton = ByteAutomaton.create(pattern, true);
+    }
+
+    @Override
+    public long getMaxMatchLength() {
+        return pattern.getMaxLength();
+    }
+
+    @Override
+    public void searchForward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        long dataSize = data.getDataSize();
+        long limit = Math.min(endPosition, dataSize - pattern.getMinLength() + 1);
+        long blockStart = Math.max(startPosition, 0);
+        if (blockStart >= limit) {
+            return;
+        }
+
+        BlockScanner scanner = new BlockScanner(data, (int) Math.min(BLOCK_SIZE, limit - blockStart));
+        while (blockStart < limit) {
+            long blockEnd = Math.min(blockStart + BLOCK_SIZE, limit);
+            int startsCount = scanner.scanBlock(blockStart, blockEnd);
+            for (int i = startsCount - 1; i >= 0; i--) {
+                int offset = scanner.matchStarts[i];
+                if (!matchListener.matchFound(blockStart + offset, scanner.getMatchLength(offset))) {
+                    return;
+                }
+            }
+            blockStart = blockEnd;
+            if (!matchListener.searchProgress(blockStart)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void searchBackward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        long dataSize = data.getDataSize();
+        long start = Math.max(startPosition, 0);
+        long blockEnd = Math.min(endPosition, dataSize - pattern.getMinLength() + 1);
+        if (start >= blockEnd) {
+            return;
+        }
+
+        BlockScanner scanner = new BlockScanner(data, (int) Math.min(BLOCK_SIZE, blockEnd - start));
+        while (blockEnd > start) {
+            long blockStart = Math.max(start, blockEnd - BLOCK_SIZE);
+            int startsCount = scanner.scanBlock(blockStart, blockEnd);
+            for (int i = 0; i < startsCount; i++) {
+                int offset = scanner.matchStarts[i];
+                if (!matchListener.matchFound(blockStart + offset, scanner.getMatchLength(offset))) {
+                    return;
+                }
+            }
+            blockEnd = blockStart;
+            if (!matchListener.searchProgress(blockEnd)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Scanner of data blocks with automata and buffers of single search.
+     */
+    @ParametersAreNonnullByDefault
+    private class BlockScanner {
+
+        private final BinaryData data;
+        private final ByteAutomaton.Dfa reverseDfa;
+        private final ByteAutomaton.Dfa forwardDfa;
+        private final byte[] buffer;
+        private final int[] matchStarts;
+        private int bufferLength;
+
+        public BlockScanner(BinaryData data, int blockSize) {
+            this.data = data;
+            reverseDfa = reverseAutomaton.createDfa(true);
+            forwardDfa = forwardAutomaton.createDfa(false);
+            buffer = new byte[blockSize + pattern.getMaxLength() - 1];
+            matchStarts = new int[blockSize];
+        }
+
+        /**
+         * Finds all match start positions in given block.
+         * <p>
+         * Data following block are read so that matches starting in block
+         * are complete.
+         *
+         * @param blockStart block start position
+         * @param blockEnd block end position
+         * @return count of match starts stored in descending order
+         */
+        public int scanBlock(long blockStart, long blockEnd) {
+            int blockLength = (int) (blockEnd - blockStart);
+            bufferLength = (int) Math.min(blockLength + pattern.getMaxLength() - 1, data.getDataSize() - blockStart);
+            data.copyToArray(blockStart, buffer, 0, bufferLength);
+
+            int startsCount = 0;
+            int state = ByteAutomaton.Dfa.START_STATE;
+            int index = bufferLength - 1;
+            while (index >= blockLength) {
+                state = reverseDfa.step(state, buffer[index] & 0xff);
+                index--;
+            }
+            while (index >= 0) {
+                state = reverseDfa.step(state, buffer[index] & 0xff);
+                if (reverseDfa.isAccepting(state)) {
+                    matchStarts[startsCount++] = index;
+                }
+                index--;
+            }
+            return startsCount;
+        }
+
+        /**
+         * Returns length of longest match starting at given offset of block.
+         *
+         * @param offset offset in block
+         * @return match length
+         */
+        public int getMatchLength(int offset) {
+            int matchLength = 0;
+            int state = ByteAutomaton.Dfa.START_STATE;
+            int limit = Math.min(bufferLength, offset + pattern.getMaxLength());
+            for (int index = offset; index < limit; index++) {
+                state = forwardDfa.step(state, buffer[index] & 0xff);
+                if (forwardDfa.isDead(state)) {
+                    break;
+                }
+                if (forwardDfa.isAccepting(state)) {
+                    matchLength = index - offset + 1;
+                }
+            }
+            return matchLength;
+        }
+    }
+}
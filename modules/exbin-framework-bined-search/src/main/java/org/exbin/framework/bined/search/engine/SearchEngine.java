@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Search engine for finding occurrences of pattern in binary data.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public interface SearchEngine {
+
+    /**
+     * Returns maximum length of single match.
+     *
+     * @return maximum match length
+     */
+    long getMaxMatchLength();
+
+    /**
+     * Searches for matches starting in given range of positions and reports
+     * them in ascending order of position.
+     *
+     * @param data searched data
+     * @param startPosition first position where match can start
+     * @param endPosition position after last position where match can start
+     * @param matchListener match listener
+     */
+    void searchForward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener);
+
+    /**
+     * Searches for matches starting in given range of positions and reports
+     * them in descending order of position.
+     *
+     * @param data searched data
+     * @param startPosition first position where match can start
+     * @param endPosition position after last position where match can start
+     * @param matchListener match listener
+     */
+    void searchBackward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener);
+
+    @ParametersAreNonnullByDefault
+    public interface MatchListener {
+
+        /**
+         * Reports found match.
+         *
+         * @param position match position
+         * @param length match length
+         * @return true to continue searching
+         */
+        boolean matchFound(long position, long length);
+
+        /**
+         * Reports progress after each processed block of data.
+         *
+         * @param position position of next data to process
+         * @return true to continue searching
+         */
+        boolean searchProgress(long position);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Factory for search engines.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class SearchEngineFactory {
+
+    private SearchEngineFactory() {
+    }
+
+    /**
+     * Creates search engine for single pattern.
+     *
+     * @param pattern searched pattern
+     * @return search engine
+     */
+    @Nonnull
+    public static SearchEngine createEngine(byte[] pattern) {
+        return createEngine(Collections.singletonList(pattern));
+    }
+
+    /**
+     * Creates search engine for given patterns.
+     * <p>
+     * Horspool engine is used for single pattern, Aho-Corasick automaton for
+     * multiple patterns.
+     *
+     * @param patterns searched patterns
+     * @return search engine
+     */
+    @Nonnull
+    public static SearchEngine createEngine(List<byte[]> patterns) {
+        if (patterns.size() == 1) {
+            return new HorspoolSearchEngine(patterns.get(0));
+        }
+
+        return new AhoCorasickSearchEngine(patterns);
+    }
+
+    /**
+     * Creates search engine for text encoded in given charset.
+     * <p>
+     * Text is encoded once for all case variants of its characters so that
+     * data can be matched as bytes. Charsets without encoding support are
+     * matched by decoding of data.
+     *
+     * @param text searched text
+     * @param matchCase true for case sensitive search
+     * @param charset charset of data
+     * @return search engine
+     */
+    @Nonnull
+    public static SearchEngine createTextEngine(String text, boolean matchCase, Charset charset) {
+        if (!charset.canEncode()) {
+            return new DecodingTextSearchEngine(text, matchCase, charset);
+        }
+
+        int[] codePoints = text.codePoints().toArray();
+        Map<Integer, Set<Integer>> caseVariants = matchCase ? Collections.emptyMap() : getCaseVariants(codePoints);
+        CharsetEncoder encoder = charset.newEncoder();
+        int headerLength = getEncodingHeaderLength(encoder);
+        byte[][][] alternatives = new byte[codePoints.length][][];
+        for (int i = 0; i < codePoints.length; i++) {
+            int codePoint = codePoints[i];
+            Set<Integer> variants = matchCase ? Collections.singleton(codePoint) : caseVariants.get(Character.toLowerCase(codePoint));
+            List<byte[]> encodedVariants = new ArrayList<>();
+            for (int variant : variants) {
+                byte[] encoded = encodeCodePoint(encoder, variant, headerLength);
+                if (encoded != null && encodedVariants.stream().noneMatch((value) -> Arrays.equals(value, encoded))) {
+                    encodedVariants.add(encoded);
+                }
+            }
+            if (encodedVariants.isEmpty()) {
+                // Character cannot be encoded, data has to be decoded
+                return new DecodingTextSearchEngine(text, matchCase, charset);
+            }
+            alternatives[i] = encodedVariants.toArray(new byte[0][]);
+        }
+
+        return new TextSearchEngine(alternatives);
+    }
+
+    /**
+     * Creates search engine for byte pattern.
+     *
+     * @param pattern pattern text, see {@link BytePattern} for syntax
+     * @return search engine
+     * @throws PatternSyntaxException if pattern is not valid
+     */
+    @Nonnull
+    public static SearchEngine createPatternEngine(String pattern) {
+        BytePattern bytePattern = BytePattern.parse(pattern);
+        try {
+            return new PatternSearchEngine(bytePattern);
+        } catch (IllegalArgumentException ex) {
+            throw new PatternSyntaxException(ex.getMessage(), pattern, -1);
+        }
+    }
+
+    /**
+     * Returns all code points having the same lower case variant for each
+     * lower case variant of given code points.
+     */
+    @Nonnull
+    private static Map<Integer, Set<Integer>> getCaseVariants(int[] codePoints) {
+        Map<Integer, Set<Integer>> caseVariants = new HashMap<>();
+        for (int codePoint : codePoints) {
+            int lowerCase = Character.toLowerCase(codePoint);
+            Set<Integer> variants = caseVariants.computeIfAbsent(lowerCase, (key) -> new LinkedHashSet<>());
+            variants.add(lowerCase);
+            variants.add(codePoint);
+            variants.add(Character.toUpperCase(codePoint));
+            variants.add(Character.toTitleCase(codePoint));
+        }
+
+        // Multiple characters can share single lower case variant like K and Kelvin sign
+        for (int codePoint = 0; codePoint <= Character.MAX_VALUE; codePoint++) {
+            if (Character.isSurrogate((char) codePoint)) {
+                continue;
+            }
+
+            Set<Integer> variants = caseVariants.get(Character.toLowerCase(codePoint));
+            if (variants != null) {
+                variants.add(codePoint);
+            }
+        }
+        return caseVariants;
+    }
+
+    /**
+     * Returns length of header like byte order mark produced by encoder at
+     * the beginning of encoded text.
+     */
+    private static int getEncodingHeaderLength(CharsetEncoder encoder) {
+        byte[] single = encodeCodePoint(encoder, ' ', 0);
+        byte[] twice = encodeText(encoder, "  ");
+        if (single == null || twice == null) {
+            return 0;
+        }
+
+        return Math.max(0, single.length * 2 - twice.length);
+    }
+
+    @Nullable
+    private static byte[] encodeCodePoint(CharsetEncoder encoder, int codePoint, int headerLength) {
+        byte[] encoded = encodeText(encoder, new String(Character.toChars(codePoint)));
+        if (encoded == null || encoded.length <= headerLength) {
+            return null;
+        }
+
+        return headerLength == 0 ? encoded : Arrays.copyOfRange(encoded, headerLength, encoded.length);
+    }
+
+    @Nullable
+    private static byte[] encodeText(CharsetEncoder encoder, String text) {
+        try {
+            encoder.reset();
+            ByteBuffer encoded = encoder.encode(CharBuffer.wrap(text));
+            byte[] result = new byte[encoded.remaining()];
+            encoded.get(result);
+            return result;
+        } catch (CharacterCodingException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Copies binary data to byte array.
+     *
+     * @param data binary data
+     * @return byte array
+     */
+    @Nonnull
+    public static byte[] toByteArray(BinaryData data) {
+        long dataSize = data.getDataSize();
+        if (dataSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Pattern is too large");
+        }
+
+        byte[] result = new byte[(int) dataSize];
+        data.copyToArray(0, result, 0, (int) dataSize);
+        return result;
+    }
+}
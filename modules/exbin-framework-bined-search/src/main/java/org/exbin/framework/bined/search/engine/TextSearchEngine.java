@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.engine;
+
+import java.util.Arrays;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Search engine for text pre-encoded to sequence of characters where each
+ * character can be represented by multiple alternative byte sequences.
+ * <p>
+ * Alternatives are typically encoded case variants of the character. Data
+ * are matched directly as bytes without decoding. If all alternatives of each
+ * character have the same length, Horspool algorithm with sets of allowed
+ * bytes for each offset is used, otherwise candidate positions are detected
+ * by allowed first byte.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class TextSearchEngine implements SearchEngine {
+
+    public static final int BLOCK_SIZE = 65536;
+
+    private final byte[][][] alternatives;
+    private final int minLength;
+    private final int maxLength;
+    private final boolean fixedLength;
+    private final boolean[][] allowedBytes;
+    private final int[] forwardShift = new int[256];
+    private final int[] backwardShift = new int[256];
+
+    /**
+     * Creates search engine.
+     *
+     * @param alternatives array of alternative byte sequences for each
+     * character
+     */
+    public TextSearchEngine(byte[][][] alternatives) {
+        if (alternatives.length == 0) {
+            throw new IllegalArgumentException("Text cannot be empty");
+        }
+
+        this.alternatives = alternatives;
+        int minTotal = 0;
+        int maxTotal = 0;
+        boolean fixed = true;
+        for (byte[][] characterAlternatives : alternatives) {
+            if (characterAlternatives.length == 0) {
+                throw new IllegalArgumentException("Character has no alternatives");
+            }
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (byte[] alternative : characterAlternatives) {
+                if (alternative.length == 0) {
+                    throw new IllegalArgumentException("Alternative cannot be empty");
+                }
+                min = Math.min(min, alternative.length);
+                max = Math.max(max, alternative.length);
+            }
+            fixed &= min == max;
+            minTotal += min;
+            maxTotal += max;
+        }
+        minLength = minTotal;
+        maxLength = maxTotal;
+        fixedLength = fixed;
+
+        if (fixedLength) {
+            allowedBytes = new boolean[minLength][256];
+            int offset = 0;
+            for (byte[][] characterAlternatives : alternatives) {
+                for (byte[] alternative : characterAlternatives) {
+                    for (int i = 0; i < alternative.length; i++) {
+                        allowedBytes[offset + i][alternative[i] & 0xff] = true;
+                    }
+                }
+                offset += characterAlternatives[0].length;
+            }
+        } else {
+            // Only first byte is used for detection of candidates
+            allowedBytes = new boolean[1][256];
+            for (byte[] alternative : alternatives[0]) {
+                allowedBytes[0][alternative[0] & 0xff] = true;
+            }
+        }
+
+        int length = allowedBytes.length;
+        Arrays.fill(forwardShift, length);
+        for (int i = 0; i < length - 1; i++) {
+            for (int value = 0; value < 256; value++) {
+                if (allowedBytes[i][value]) {
+                    forwardShift[value] = length - 1 - i;
+                }
+            }
+        }
+        Arrays.fill(backwardShift, length);
+        for (int i = length - 1; i > 0; i--) {
+            for (int value = 0; value < 256; value++) {
+                if (allowedBytes[i][value]) {
+                    backwardShift[value] = i;
+                }
+            }
+        }
+    }
+
+    @Override
+    public long getMaxMatchLength() {
+        return maxLength;
+    }
+
+    @Override
+    public void searchForward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        long dataSize = data.getDataSize();
+        int last = allowedBytes.length - 1;
+        boolean[] lastAllowed = allowedBytes[last];
+        long limit = Math.min(endPosition, dataSize - minLength + 1);
+        long blockStart = Math.max(startPosition, 0);
+        if (blockStart >= limit) {
+            return;
+        }
+
+        byte[] buffer = new byte[(int) Math.min(BLOCK_SIZE, limit - blockStart) + maxLength - 1];
+        while (blockStart < limit) {
+            int blockLength = (int) Math.min(BLOCK_SIZE, limit - blockStart);
+            int available = (int) Math.min(blockLength + maxLength - 1, dataSize - blockStart);
+            data.copyToArray(blockStart, buffer, 0, available);
+            int index = 0;
+            while (index < blockLength) {
+                int value = buffer[index + last] & 0xff;
+                if (lastAllowed[value]) {
+                    int matchLength = matchLength(buffer, index, available - index, 0);
+                    if (matchLength >= 0 && !matchListener.matchFound(blockStart + index, matchLength)) {
+                        return;
+                    }
+                }
+                index += forwardShift[value];
+            }
+            blockStart += index;
+            if (!matchListener.searchProgress(blockStart)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void searchBackward(BinaryData data, long startPosition, long endPosition, MatchListener matchListener) {
+        long dataSize = data.getDataSize();
+        boolean[] firstAllowed = allowedBytes[0];
+        long start = Math.max(startPosition, 0);
+        long blockEnd = Math.min(endPosition, dataSize - minLength + 1);
+        if (start >= blockEnd) {
+            return;
+        }
+
+        byte[] buffer = new byte[(int) Math.min(BLOCK_SIZE, blockEnd - start) + maxLength - 1];
+        while (blockEnd > start) {
+            long blockStart = Math.max(start, blockEnd - BLOCK_SIZE);
+            int blockLength = (int) (blockEnd - blockStart);
+            int available = (int) Math.min(blockLength + maxLength - 1, dataSize - blockStart);
+            data.copyToArray(blockStart, buffer, 0, available);
+            int index = blockLength - 1;
+            while (index >= 0) {
+                int value = buffer[index] & 0xff;
+                if (firstAllowed[value]) {
+                    int matchLength = matchLength(buffer, index, available - index, 0);
+                    if (matchLength >= 0 && !matchListener.matchFound(blockStart + index, matchLength)) {
+                        return;
+                    }
+                }
+                index -= backwardShift[value];
+            }
+            blockEnd = blockStart + index + 1;
+            if (!matchListener.searchProgress(blockEnd)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns length of match of characters starting from given character or
+     * -1 if there is no match.
+     */
+    private int matchLength(byte[] buffer, int offset, int available, int characterIndex) {
+        int length = 0;
+        while (characterIndex < alternatives.length) {
+            byte[][] characterAlternatives = alternatives[characterIndex];
+            if (fixedLength || characterAlternatives.length == 1) {
+                // At most one of alternatives of the same length can match
+                byte[] matchingAlternative = null;
+                for (byte[] alternative : characterAlternatives) {
+                    if (matchesAt(buffer, offset, available, alternative)) {
+                        matchingAlternative = alternative;
+                        break;
+                    }
+                }
+                if (matchingAlternative == null) {
+                    return -1;
+                }
+                offset += matchingAlternative.length;
+                available -= matchingAlternative.length;
+                length += matchingAlternative.length;
+                characterIndex++;
+                continue;
+            }
+
+            for (byte[] alternative : characterAlternatives) {
+                if (matchesAt(buffer, offset, available, alternative)) {
+                    int restLength = matchLength(buffer, offset + alternative.length, available - alternative.length, characterIndex + 1);
+                    if (restLength >= 0) {
+                        return length + alternative.length + restLength;
+                    }
+                }
+            }
+            return -1;
+        }
+        return length;
+    }
+
+    private static boolean matchesAt(byte[] buffer, int offset, int available, byte[] alternative) {
+        if (alternative.length > available) {
+            return false;
+        }
+
+        for (int i = 0; i < alternative.length; i++) {
+            if (buffer[offset + i] != alternative[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -96,7 +96,7 @@ public class BinaryMultilinePanel extends javax.swing.JPanel {
 
     @Nonnull
     public SearchCondition getCondition() {
-        if (condition.getSearchMode() == SearchCondition.SearchMode.TEXT) {
+        if (condition.getSearchMode() != SearchCondition.SearchMode.BINARY) {
             condition.setSearchText(textArea.getText());
         } else {
             condition.setBinaryData((EditableBinaryData) codeArea.getContentData());
@@ -107,7 +107,7 @@ public class BinaryMultilinePanel extends javax.swing.JPanel {
 
     public void setCondition(SearchCondition condition) {
         this.condition = condition;
-        if (condition.getSearchMode() == SearchCondition.SearchMode.TEXT) {
+        if (condition.getSearchMode() != SearchCondition.SearchMode.BINARY) {
             scrollPane = new javax.swing.JScrollPane();
             textArea = new javax.swing.JTextArea();
             textArea.setColumns(20);
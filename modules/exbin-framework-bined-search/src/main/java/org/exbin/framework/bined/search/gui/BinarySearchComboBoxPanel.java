@@ -111,7 +111,8 @@ public class BinarySearchComboBoxPanel extends JPanel {
     @Nonnull
     public SearchCondition getItem() {
         switch (item.getSearchMode()) {
-            case TEXT: {
+            case TEXT:
+            case PATTERN: {
                 item.setSearchText(textField.getText());
                 break;
             }
@@ -130,7 +131,8 @@ public class BinarySearchComboBoxPanel extends JPanel {
         }
         this.item.setSearchMode(item.getSearchMode());
         switch (item.getSearchMode()) {
-            case TEXT: {
+            case TEXT:
+            case PATTERN: {
                 this.item.setSearchText(item.getSearchText());
                 this.item.setBinaryData(null);
                 runningUpdate = true;
@@ -161,7 +163,8 @@ public class BinarySearchComboBoxPanel extends JPanel {
 
     public void selectAll() {
         switch (item.getSearchMode()) {
-            case TEXT: {
+            case TEXT:
+            case PATTERN: {
                 textField.selectAll();
                 break;
             }
@@ -191,7 +194,8 @@ public class BinarySearchComboBoxPanel extends JPanel {
     public void requestFocus() {
         super.requestFocus();
         switch (item.getSearchMode()) {
-            case TEXT: {
+            case TEXT:
+            case PATTERN: {
                 textField.requestFocus();
                 break;
             }
@@ -240,7 +244,8 @@ public class BinarySearchComboBoxPanel extends JPanel {
 
     public void clear() {
         switch (item.getSearchMode()) {
-            case TEXT: {
+            case TEXT:
+            case PATTERN: {
                 String text = textField.getText();
                 if (!"".equals(text)) {
                     textField.setText("");
@@ -121,7 +121,7 @@ public class BinarySearchPanel extends javax.swing.JPanel {
                     return panel;
                 }
 
-                if (value.getSearchMode() == SearchCondition.SearchMode.TEXT) {
+                if (value.getSearchMode() != SearchCondition.SearchMode.BINARY) {
                     return listCellRenderer.getListCellRendererComponent(list, value.getSearchText(), index, isSelected, cellHasFocus);
                 } else {
                     searchCodeArea.setContentData(value.getBinaryData());
@@ -201,7 +201,7 @@ public class BinarySearchPanel extends javax.swing.JPanel {
                     return panel;
                 }
 
-                if (value.getSearchMode() == SearchCondition.SearchMode.TEXT) {
+                if (value.getSearchMode() != SearchCondition.SearchMode.BINARY) {
                     return listCellRenderer.getListCellRendererComponent(list, value.getSearchText(), index, isSelected, cellHasFocus);
                 } else {
                     searchCodeArea.setContentData(value.getBinaryData());
@@ -646,10 +646,16 @@ public class BinarySearchPanel extends javax.swing.JPanel {
 
     private void findTypeButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_findTypeButtonActionPerformed
         SearchCondition condition = findComboBoxEditorComponent.getItem();
-        if (condition.getSearchMode() == SearchCondition.SearchMode.TEXT) {
-            condition.setSearchMode(SearchCondition.SearchMode.BINARY);
-        } else {
-            condition.setSearchMode(SearchCondition.SearchMode.TEXT);
+        switch (condition.getSearchMode()) {
+            case TEXT:
+                condition.setSearchMode(SearchCondition.SearchMode.BINARY);
+                break;
+            case BINARY:
+                condition.setSearchMode(SearchCondition.SearchMode.PATTERN);
+                break;
+            default:
+                condition.setSearchMode(SearchCondition.SearchMode.TEXT);
+                break;
         }
 
         findComboBoxEditorComponent.setItem(condition);
@@ -662,12 +668,19 @@ public class BinarySearchPanel extends javax.swing.JPanel {
 
     public void updateFindStatus() {
         SearchCondition condition = findComboBoxEditorComponent.getItem();
-        if (condition.getSearchMode() == SearchCondition.SearchMode.TEXT) {
-            findTypeButton.setText(resourceBundle.getString("inputType.text"));
-            matchCaseToggleButton.setEnabled(true);
-        } else {
-            findTypeButton.setText(resourceBundle.getString("inputType.binary"));
-            matchCaseToggleButton.setEnabled(false);
+        switch (condition.getSearchMode()) {
+            case TEXT:
+                findTypeButton.setText(resourceBundle.getString("inputType.text"));
+                matchCaseToggleButton.setEnabled(true);
+                break;
+            case BINARY:
+                findTypeButton.setText(resourceBundle.getString("inputType.binary"));
+                matchCaseToggleButton.setEnabled(false);
+                break;
+            default:
+                findTypeButton.setText(resourceBundle.getString("inputType.pattern"));
+                matchCaseToggleButton.setEnabled(false);
+                break;
         }
     }
 
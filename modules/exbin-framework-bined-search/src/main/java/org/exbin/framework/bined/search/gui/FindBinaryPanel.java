@@ -107,7 +107,7 @@ public class FindBinaryPanel extends javax.swing.JPanel {
                     return emptyPanel;
                 }
 
-                if (value.getSearchMode() == SearchCondition.SearchMode.TEXT) {
+                if (value.getSearchMode() != SearchCondition.SearchMode.BINARY) {
                     return listCellRenderer.getListCellRendererComponent(list, value.getSearchText(), index, isSelected, cellHasFocus);
                 } else {
                     findCodeArea.setContentData(value.getBinaryData());
@@ -185,7 +185,7 @@ public class FindBinaryPanel extends javax.swing.JPanel {
                     return emptyPanel;
                 }
 
-                if (value.getSearchMode() == SearchCondition.SearchMode.TEXT) {
+                if (value.getSearchMode() != SearchCondition.SearchMode.BINARY) {
                     return listCellRenderer.getListCellRendererComponent(list, value.getSearchText(), index, isSelected, cellHasFocus);
                 } else {
                     replaceCodeArea.setContentData(value.getBinaryData());
@@ -440,10 +440,16 @@ public class FindBinaryPanel extends javax.swing.JPanel {
 
     private void searchTypeButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_searchTypeButtonActionPerformed
         SearchCondition condition = (SearchCondition) findComboBoxEditor.getItem();
-        if (condition.getSearchMode() == SearchCondition.SearchMode.TEXT) {
-            condition.setSearchMode(SearchCondition.SearchMode.BINARY);
-        } else {
-            condition.setSearchMode(SearchCondition.SearchMode.TEXT);
+        switch (condition.getSearchMode()) {
+            case TEXT:
+                condition.setSearchMode(SearchCondition.SearchMode.BINARY);
+                break;
+            case BINARY:
+                condition.setSearchMode(SearchCondition.SearchMode.PATTERN);
+                break;
+            default:
+                condition.setSearchMode(SearchCondition.SearchMode.TEXT);
+                break;
         }
         findComboBoxEditor.setItem(condition);
         findComboBox.setEditor(findComboBoxEditor);
@@ -479,12 +485,19 @@ public class FindBinaryPanel extends javax.swing.JPanel {
 
     private void updateFindStatus() {
         SearchCondition condition = (SearchCondition) findComboBoxEditor.getItem();
-        if (condition.getSearchMode() == SearchCondition.SearchMode.TEXT) {
-            searchTypeButton.setText("T");
-            matchCaseCheckBox.setEnabled(true);
-        } else {
-            searchTypeButton.setText("B");
-            matchCaseCheckBox.setEnabled(false);
+        switch (condition.getSearchMode()) {
+            case TEXT:
+                searchTypeButton.setText("T");
+                matchCaseCheckBox.setEnabled(true);
+                break;
+            case BINARY:
+                searchTypeButton.setText("B");
+                matchCaseCheckBox.setEnabled(false);
+                break;
+            default:
+                searchTypeButton.setText("P");
+                matchCaseCheckBox.setEnabled(false);
+                break;
         }
     }
 
@@ -0,0 +1,509 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.operation;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+import org.exbin.bined.capability.CaretCapable;
+import org.exbin.bined.capability.ScrollingCapable;
+import org.exbin.bined.operation.swing.CodeAreaOperation;
+import org.exbin.bined.operation.swing.CodeAreaOperationType;
+import org.exbin.bined.operation.swing.command.CodeAreaCommand;
+import org.exbin.bined.operation.swing.command.CodeAreaCommandType;
+import org.exbin.bined.operation.undo.BinaryDataUndoableOperation;
+import org.exbin.bined.swing.CodeAreaCore;
+import org.exbin.framework.bined.BinEdUndoRedo;
+import org.exbin.framework.bined.UndoPayloadStore;
+import org.exbin.framework.bined.search.service.SearchMatchIndex;
+
+/**
+ * Operation to replace all matches with replacement data.
+ * <p>
+ * Data stored in memory are replaced in range from the first to the last
+ * match, which is streamed once into new data with matches replaced and then
+ * replaces the range as a single block, so cost of operation doesn't depend on
+ * count of matches. Delta document only keeps references to unchanged data, so
+ * its matches are replaced one by one without copying of data between them.
+ * <p>
+ * Undo operation is of the same kind and keeps only positions of replacements
+ * and original data of matches, which is stored once if all matches contain
+ * the same data. Streamed data are written to payloads of undo payload store,
+ * so large data are stored in temporary files instead of memory.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class ReplaceAllDataOperation extends CodeAreaOperation {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final UndoPayloadStore payloadStore;
+    private final SearchMatchIndex matches;
+    private final BinaryData replacementData;
+    private final SearchMatchIndex replacementLengths;
+    private final UndoPayloadStore.Payload replacementPayload;
+    private PreparedData preparedData = null;
+
+    /**
+     * Creates operation replacing each match with whole replacement data.
+     *
+     * @param codeArea code area
+     * @param payloadStore store of data kept for undo
+     * @param matches non-overlapping matches in ascending order
+     * @param replacementData replacement data
+     */
+    public ReplaceAllDataOperation(CodeAreaCore codeArea, UndoPayloadStore payloadStore, SearchMatchIndex matches, BinaryData replacementData) {
+        this(codeArea, payloadStore, matches, replacementData, null, null);
+    }
+
+    /**
+     * Creates operation replacing matches with consecutive parts of
+     * replacement data.
+     *
+     * @param codeArea code area
+     * @param payloadStore store of data kept for undo
+     * @param matches non-overlapping matches in ascending order
+     * @param replacementData replacement data
+     * @param replacementLengths index with length of replacement for each
+     * match or null if each match is replaced with whole replacement data
+     * @param replacementPayload payload of replacement data released with
+     * operation or null
+     */
+    private ReplaceAllDataOperation(CodeAreaCore codeArea, UndoPayloadStore payloadStore, SearchMatchIndex matches, BinaryData replacementData, @Nullable SearchMatchIndex replacementLengths, @Nullable UndoPayloadStore.Payload replacementPayload) {
+        super(codeArea);
+        this.payloadStore = payloadStore;
+        this.matches = matches;
+        this.replacementData = replacementData;
+        this.replacementLengths = replacementLengths;
+        this.replacementPayload = replacementPayload;
+    }
+
+    @Nonnull
+    @Override
+    public CodeAreaOperationType getType() {
+        return CodeAreaOperationType.MODIFY_DATA;
+    }
+
+    public int getMatchesCount() {
+        return matches.getMatchesCount();
+    }
+
+    /**
+     * Returns replacement of single match.
+     * <p>
+     * Matches are replaced from the last one, so positions of replacements
+     * don't depend on preceding replacements.
+     *
+     * @param index index of replacement in order of application
+     * @return change of data
+     */
+    @Nonnull
+    public BinEdUndoRedo.DataChange getReplacement(int index) {
+        int matchIndex = matches.getMatchesCount() - 1 - index;
+        long replacementLength = replacementLengths == null ? replacementData.getDataSize() : replacementLengths.getLength(matchIndex);
+        return new BinEdUndoRedo.DataChange(matches.getPosition(matchIndex), matches.getLength(matchIndex), replacementLength);
+    }
+
+    /**
+     * Prepares replaced data in advance.
+     * <p>
+     * Can be called from background thread, but data must not be modified
+     * until operation is executed.
+     *
+     * @param data snapshot of content data of code area
+     * @param progressListener progress listener
+     * @return true if data was prepared, false if preparation was cancelled
+     */
+    public boolean prepare(BinaryData data, ProgressListener progressListener) {
+        if (preparedData != null) {
+            preparedData.dispose();
+            preparedData = null;
+        }
+        if (matches.isEmpty()) {
+            return true;
+        }
+
+        PreparedData prepared = prepareData(data, !(codeArea.getContentData() instanceof DeltaDocument), true, progressListener);
+        if (prepared == null) {
+            return false;
+        }
+
+        preparedData = prepared;
+        return true;
+    }
+
+    @Override
+    public void execute() {
+        execute(false);
+    }
+
+    @Nonnull
+    @Override
+    public BinaryDataUndoableOperation executeWithUndo() {
+        return execute(true);
+    }
+
+    @Nullable
+    private CodeAreaOperation execute(boolean withUndo) {
+        EditableBinaryData contentData = (EditableBinaryData) codeArea.getContentData();
+        if (matches.isEmpty()) {
+            return withUndo ? new ReplaceAllDataOperation(codeArea, payloadStore, matches, replacementData, replacementLengths, null) : null;
+        }
+
+        boolean replaceRange = !(contentData instanceof DeltaDocument);
+        PreparedData prepared = preparedData;
+        preparedData = null;
+        if (prepared == null || (prepared.rangeData != null) != replaceRange || (withUndo && prepared.targets == null)) {
+            if (prepared != null) {
+                prepared.dispose();
+            }
+            prepared = prepareData(contentData, replaceRange, withUndo, (processedSize) -> true);
+        }
+
+        ReplaceAllDataOperation undoOperation = null;
+        if (withUndo) {
+            UndoPayloadStore.Payload originalData = prepared.originalData;
+            prepared.originalData = null;
+            undoOperation = new ReplaceAllDataOperation(codeArea, payloadStore, prepared.targets, originalData.getData(), prepared.sharedOriginal ? null : matches, originalData);
+        }
+
+        long endPosition;
+        if (replaceRange) {
+            BinaryData rangeData = prepared.rangeData.getData();
+            contentData.remove(prepared.startPosition, prepared.length);
+            insertData(contentData, prepared.startPosition, rangeData, 0, rangeData.getDataSize());
+            endPosition = prepared.startPosition + rangeData.getDataSize();
+        } else {
+            endPosition = replaceMatches(contentData);
+        }
+        prepared.dispose();
+        ((CaretCapable) codeArea).getCodeAreaCaret().setCaretPosition(endPosition, 0);
+        return undoOperation;
+    }
+
+    /**
+     * Replaces matches one by one from the last one, so that positions of
+     * preceding matches are not shifted.
+     *
+     * @param contentData content data
+     * @return end position of the last replacement
+     */
+    private long replaceMatches(EditableBinaryData contentData) {
+        int matchesCount = matches.getMatchesCount();
+        long replacementOffset = replacementLengths == null ? 0 : replacementData.getDataSize();
+        long lastMatchShift = 0;
+        for (int i = matchesCount - 1; i >= 0; i--) {
+            long matchPosition = matches.getPosition(i);
+            long matchLength = matches.getLength(i);
+            long replacementLength = replacementLengths == null ? replacementData.getDataSize() : replacementLengths.getLength(i);
+            if (replacementLengths != null) {
+                replacementOffset -= replacementLength;
+            }
+            contentData.remove(matchPosition, matchLength);
+            insertData(contentData, matchPosition, replacementData, replacementOffset, replacementLength);
+            lastMatchShift += replacementLength - matchLength;
+        }
+
+        return matches.getPosition(matchesCount - 1) + matches.getLength(matchesCount - 1) + lastMatchShift;
+    }
+
+    /**
+     * Inserts data through buffer, so that data stored in temporary file are
+     * read in blocks.
+     */
+    private static void insertData(EditableBinaryData contentData, long position, BinaryData sourceData, long startFrom, long length) {
+        if (length == 0) {
+            return;
+        }
+
+        contentData.insertUninitialized(position, length);
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, length)];
+        long offset = 0;
+        while (offset < length) {
+            int blockLength = (int) Math.min(buffer.length, length - offset);
+            sourceData.copyToArray(startFrom + offset, buffer, 0, blockLength);
+            contentData.replace(position + offset, buffer, 0, blockLength);
+            offset += blockLength;
+        }
+    }
+
+    /**
+     * Streams data covering all matches into payloads.
+     *
+     * @param data source data
+     * @param withRangeData true to stream range of data with matches replaced
+     * @param withUndo true to collect data for undo operation
+     * @param progressListener progress listener
+     * @return prepared data or null if cancelled
+     */
+    @Nullable
+    private PreparedData prepareData(BinaryData data, boolean withRangeData, boolean withUndo, ProgressListener progressListener) {
+        int matchesCount = matches.getMatchesCount();
+        long startPosition = matches.getPosition(0);
+        long endPosition = matches.getPosition(matchesCount - 1) + matches.getLength(matchesCount - 1);
+        UndoPayloadStore.PayloadWriter rangeWriter = withRangeData ? payloadStore.createPayloadWriter() : null;
+        OriginalDataCollector originalCollector = withUndo ? new OriginalDataCollector(payloadStore.createPayloadWriter()) : null;
+        SearchMatchIndex targets = withUndo ? new SearchMatchIndex() : null;
+        boolean finished = false;
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long position = startPosition;
+            long targetPosition = startPosition;
+            long replacementOffset = 0;
+            for (int i = 0; i < matchesCount; i++) {
+                long matchPosition = matches.getPosition(i);
+                long matchLength = matches.getLength(i);
+                if (matchPosition < position) {
+                    throw new IllegalStateException("Overlapping match at position " + matchPosition);
+                }
+
+                if (rangeWriter != null) {
+                    while (position < matchPosition) {
+                        int length = (int) Math.min(BUFFER_SIZE, matchPosition - position);
+                        data.copyToArray(position, buffer, 0, length);
+                        rangeWriter.write(buffer, 0, length);
+                        position += length;
+                        if (!progressListener.progress(position - startPosition)) {
+                            return null;
+                        }
+                    }
+                }
+                targetPosition += matchPosition - position;
+
+                long replacementLength = replacementLengths == null ? replacementData.getDataSize() : replacementLengths.getLength(i);
+                if (originalCollector != null) {
+                    targets.addMatch(targetPosition, replacementLength);
+                    originalCollector.addOriginal(data, matchPosition, matchLength, i);
+                }
+                if (rangeWriter != null) {
+                    rangeWriter.write(replacementData, replacementOffset, replacementLength);
+                }
+                if (replacementLengths != null) {
+                    replacementOffset += replacementLength;
+                }
+                targetPosition += replacementLength;
+                position = matchPosition + matchLength;
+                if (!progressListener.progress(position - startPosition)) {
+                    return null;
+                }
+            }
+
+            PreparedData prepared = new PreparedData(startPosition, endPosition - startPosition);
+            if (rangeWriter != null) {
+                prepared.rangeData = rangeWriter.finish();
+            }
+            if (originalCollector != null) {
+                prepared.targets = targets;
+                prepared.sharedOriginal = originalCollector.isShared();
+                prepared.originalData = originalCollector.finish();
+            }
+            finished = true;
+            return prepared;
+        } finally {
+            if (!finished) {
+                if (rangeWriter != null) {
+                    rangeWriter.cancel();
+                }
+                if (originalCollector != null) {
+                    originalCollector.cancel();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (preparedData != null) {
+            preparedData.dispose();
+            preparedData = null;
+        }
+        if (replacementPayload != null) {
+            replacementPayload.release();
+        }
+    }
+
+    /**
+     * Listener for progress of preparation of replaced data.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Reports progress of preparation.
+         *
+         * @param processedSize size of already processed source data
+         * @return false to cancel preparation
+         */
+        boolean progress(long processedSize);
+    }
+
+    /**
+     * Data prepared for replacing of matches.
+     */
+    @ParametersAreNonnullByDefault
+    private static class PreparedData {
+
+        private final long startPosition;
+        private final long length;
+        private UndoPayloadStore.Payload rangeData = null;
+        private SearchMatchIndex targets = null;
+        private UndoPayloadStore.Payload originalData = null;
+        private boolean sharedOriginal;
+
+        public PreparedData(long startPosition, long length) {
+            this.startPosition = startPosition;
+            this.length = length;
+        }
+
+        public void dispose() {
+            if (rangeData != null) {
+                rangeData.release();
+                rangeData = null;
+            }
+            if (originalData != null) {
+                originalData.release();
+                originalData = null;
+            }
+        }
+    }
+
+    /**
+     * Collector of original data of matches.
+     * <p>
+     * Data of the first match is kept alone while all following matches
+     * contain the same data.
+     */
+    @ParametersAreNonnullByDefault
+    private static class OriginalDataCollector {
+
+        private final UndoPayloadStore.PayloadWriter writer;
+        private byte[] firstOriginal = null;
+        private byte[] compareBuffer = null;
+        private boolean shared = true;
+
+        public OriginalDataCollector(UndoPayloadStore.PayloadWriter writer) {
+            this.writer = writer;
+        }
+
+        public void addOriginal(BinaryData data, long position, long length, int matchIndex) {
+            if (shared) {
+                if (firstOriginal == null && length <= BUFFER_SIZE) {
+                    firstOriginal = new byte[(int) length];
+                    data.copyToArray(position, firstOriginal, 0, (int) length);
+                    return;
+                }
+
+                if (firstOriginal != null && firstOriginal.length == length && isEqual(data, position)) {
+                    return;
+                }
+
+                shared = false;
+                if (firstOriginal != null) {
+                    for (int i = 0; i < matchIndex; i++) {
+                        writer.write(firstOriginal, 0, firstOriginal.length);
+                    }
+                    firstOriginal = null;
+                }
+            }
+
+            writer.write(data, position, length);
+        }
+
+        private boolean isEqual(BinaryData data, long position) {
+            if (compareBuffer == null) {
+                compareBuffer = new byte[firstOriginal.length];
+            }
+            data.copyToArray(position, compareBuffer, 0, compareBuffer.length);
+            return Arrays.equals(compareBuffer, firstOriginal);
+        }
+
+        public boolean isShared() {
+            return shared;
+        }
+
+        @Nonnull
+        public UndoPayloadStore.Payload finish() {
+            if (shared) {
+                writer.write(firstOriginal, 0, firstOriginal.length);
+            }
+            return writer.finish();
+        }
+
+        public void cancel() {
+            writer.cancel();
+        }
+    }
+
+    @ParametersAreNonnullByDefault
+    public static class ReplaceAllDataCommand extends CodeAreaCommand implements BinEdUndoRedo.DataChangesCapable {
+
+        private final ReplaceAllDataOperation operation;
+        private BinaryDataUndoableOperation undoOperation;
+
+        public ReplaceAllDataCommand(ReplaceAllDataOperation operation) {
+            super(operation.getCodeArea());
+            this.operation = operation;
+        }
+
+        @Nonnull
+        @Override
+        public CodeAreaCommandType getType() {
+            return CodeAreaCommandType.DATA_MODIFIED;
+        }
+
+        @Override
+        public void execute() {
+            undoOperation = operation.executeWithUndo();
+            ((ScrollingCapable) codeArea).revealCursor();
+            codeArea.notifyDataChanged();
+        }
+
+        @Override
+        public void undo() {
+            undoOperation.execute();
+            undoOperation.dispose();
+            undoOperation = null;
+            ((ScrollingCapable) codeArea).revealCursor();
+            codeArea.notifyDataChanged();
+        }
+
+        @Override
+        public long getDataChangesCount() {
+            return operation.getMatchesCount();
+        }
+
+        @Nonnull
+        @Override
+        public BinEdUndoRedo.DataChange getDataChange(long index) {
+            return operation.getReplacement((int) index);
+        }
+
+        @Override
+        public void dispose() {
+            super.dispose();
+            operation.dispose();
+            if (undoOperation != null) {
+                undoOperation.dispose();
+                undoOperation = null;
+            }
+        }
+    }
+}
@@ -28,17 +28,99 @@ import org.exbin.framework.bined.search.SearchParameters;
 @ParametersAreNonnullByDefault
 public interface BinarySearchService {
 
-    void performFind(SearchParameters dialogSearchParameters, SearchStatusListener searchStatusListener);
+    /**
+     * Starts search in background.
+     * <p>
+     * Previously running search is cancelled.
+     *
+     * @param dialogSearchParameters search parameters
+     * @param searchStatusListener search status listener
+     * @return search job
+     * @throws java.util.regex.PatternSyntaxException if search pattern is not
+     * valid
+     */
+    @Nonnull
+    SearchJob performFind(SearchParameters dialogSearchParameters, SearchStatusListener searchStatusListener);
+
+    /**
+     * Searches for matches on calling thread and shows them.
+     * <p>
+     * Previously running search is cancelled. Search starts from start
+     * position of search parameters.
+     *
+     * @param searchParameters search parameters
+     * @param searchStatusListener search status listener
+     * @return true if match was found
+     * @throws java.util.regex.PatternSyntaxException if search pattern is not
+     * valid
+     */
+    boolean performFindNow(SearchParameters searchParameters, SearchStatusListener searchStatusListener);
 
     void setMatchPosition(int matchPosition);
 
-    void performFindAgain(SearchStatusListener searchStatusListener);
-
+    /**
+     * Returns data position of current match.
+     *
+     * @return data position or -1 if there is no current match
+     */
+    long getCurrentMatchPosition();
+
+    /**
+     * Moves to next match or starts search for next match in background.
+     *
+     * @param searchStatusListener search status listener
+     * @return search job
+     */
+    @Nonnull
+    SearchJob performFindAgain(SearchStatusListener searchStatusListener);
+
+    /**
+     * Moves to next match in search direction, next match is searched on
+     * calling thread if needed.
+     * <p>
+     * Unlike {@link #performFindAgain(SearchStatusListener)}, walking of
+     * found matches doesn't wrap around.
+     *
+     * @param searchStatusListener search status listener
+     * @return true if next match was found
+     */
+    boolean performFindAgainNow(SearchStatusListener searchStatusListener);
+
+    /**
+     * Replaces current match as single undoable command and moves to the
+     * following match.
+     * <p>
+     * Nothing is replaced while data are locked by running operation.
+     *
+     * @param searchParameters search parameters
+     * @param replaceParameters replace parameters
+     */
     void performReplace(SearchParameters searchParameters, ReplaceParameters replaceParameters);
 
+    /**
+     * Starts replacing of all matches in background.
+     * <p>
+     * All matches are replaced in single pass over data and recorded as
+     * single undoable command. Overlapping matches are skipped.
+     *
+     * @param searchParameters search parameters
+     * @param replaceParameters replace parameters
+     * @param searchStatusListener search status listener
+     * @return search job
+     * @throws java.util.regex.PatternSyntaxException if search pattern is not
+     * valid
+     */
+    @Nonnull
+    SearchJob performReplaceAll(SearchParameters searchParameters, ReplaceParameters replaceParameters, SearchStatusListener searchStatusListener);
+
     @Nonnull
     SearchParameters getLastSearchParameters();
 
+    /**
+     * Cancels currently running search if any.
+     */
+    void cancelSearch();
+
     void clearMatches();
 
     @ParametersAreNonnullByDefault
@@ -46,6 +128,31 @@ public interface BinarySearchService {
 
         void setStatus(FoundMatches foundMatches, SearchParameters.MatchMode matchMode);
 
+        /**
+         * Reports progress of running search.
+         *
+         * @param processedSize size of already processed data
+         * @param totalSize total size of data to process
+         * @param matchesCount count of matches found so far
+         */
+        void setProgress(long processedSize, long totalSize, int matchesCount);
+
+        /**
+         * Reports progress of replacing of all matches.
+         *
+         * @param processedSize size of already processed data
+         * @param totalSize total size of data to process
+         * @param matchesCount count of replaced matches
+         */
+        void setReplaceProgress(long processedSize, long totalSize, int matchesCount);
+
+        /**
+         * Reports finished replacing of all matches.
+         *
+         * @param matchesCount count of replaced matches
+         */
+        void setReplacedMatches(int matchesCount);
+
         void clearStatus();
     }
 
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.service;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Handle of search running in background.
+ * <p>
+ * Cancellation is cooperative, search checks the state after each processed
+ * block of data.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class SearchJob {
+
+    private volatile boolean cancelled = false;
+    private volatile boolean finished = false;
+
+    public SearchJob() {
+    }
+
+    /**
+     * Requests cancellation of the search.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished() {
+        finished = true;
+    }
+}
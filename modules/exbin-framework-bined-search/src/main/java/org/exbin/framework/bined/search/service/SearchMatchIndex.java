@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.search.service;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Compact index of search matches.
+ * <p>
+ * Matches are stored in primitive arrays sorted by position. Lengths are
+ * stored as single shared value until matches of different lengths are
+ * added.
+ * <p>
+ * Matches are appended in order of search, which is descending for backward
+ * search. Index positions are always in ascending order of match position.
+ * Snapshot of index shares arrays with source index and can be passed to
+ * other thread while search continues appending to the source.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class SearchMatchIndex {
+
+    public static final int MAX_MATCHES_COUNT = Integer.MAX_VALUE - 8;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long UNSET_LENGTH = -1;
+
+    private final boolean descending;
+    private long[] positions;
+    private long[] lengths = null;
+    private long sharedLength = UNSET_LENGTH;
+    private long maxLength = 0;
+    private int count = 0;
+
+    public SearchMatchIndex() {
+        this(false);
+    }
+
+    /**
+     * Creates empty index.
+     *
+     * @param descending true if matches are added in descending order
+     */
+    public SearchMatchIndex(boolean descending) {
+        this.descending = descending;
+        positions = new long[INITIAL_CAPACITY];
+    }
+
+    private SearchMatchIndex(SearchMatchIndex source) {
+        descending = source.descending;
+        positions = source.positions;
+        lengths = source.lengths;
+        sharedLength = source.sharedLength;
+        maxLength = source.maxLength;
+        count = source.count;
+    }
+
+    /**
+     * Appends match in order of search.
+     *
+     * @param position match position
+     * @param length match length
+     */
+    public void addMatch(long position, long length) {
+        if (count > 0) {
+            long lastPosition = positions[count - 1];
+            if (descending ? position > lastPosition : position < lastPosition) {
+                throw new IllegalArgumentException("Match position is out of order: " + position);
+            }
+        }
+        if (count == positions.length) {
+            if (count == MAX_MATCHES_COUNT) {
+                throw new IllegalStateException("Maximum count of matches reached");
+            }
+
+            int newCapacity = (int) Math.min((long) count * 2, MAX_MATCHES_COUNT);
+            positions = Arrays.copyOf(positions, newCapacity);
+            if (lengths != null) {
+                lengths = Arrays.copyOf(lengths, newCapacity);
+            }
+        }
+
+        if (lengths == null) {
+            if (sharedLength == UNSET_LENGTH) {
+                sharedLength = length;
+            } else if (sharedLength != length) {
+                lengths = new long[positions.length];
+                Arrays.fill(lengths, 0, count, sharedLength);
+            }
+        }
+        if (lengths != null) {
+            lengths[count] = length;
+        }
+        positions[count] = position;
+        if (length > maxLength) {
+            maxLength = length;
+        }
+        count++;
+    }
+
+    /**
+     * Returns snapshot of current state of the index.
+     * <p>
+     * Snapshot is not affected by matches added to this index later.
+     *
+     * @return snapshot
+     */
+    @Nonnull
+    public SearchMatchIndex createSnapshot() {
+        return new SearchMatchIndex(this);
+    }
+
+    public int getMatchesCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns maximum length of all matches.
+     *
+     * @return maximum length
+     */
+    public long getMaxLength() {
+        return maxLength;
+    }
+
+    public long getPosition(int index) {
+        return positions[toStorageIndex(index)];
+    }
+
+    public long getLength(int index) {
+        return lengths == null ? sharedLength : lengths[toStorageIndex(index)];
+    }
+
+    /**
+     * Returns index of first match with position equal or greater than given
+     * position.
+     *
+     * @param position position
+     * @return index of match or count of matches if there is no such match
+     */
+    public int findMatchFrom(long position) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getPosition(middle) < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns index of match covering given position.
+     *
+     * @param position position
+     * @return index of match or -1 if position is not covered by any match
+     */
+    public int findMatchAt(long position) {
+        int index = findMatchFrom(position - maxLength + 1);
+        while (index < count) {
+            long matchPosition = getPosition(index);
+            if (matchPosition > position) {
+                break;
+            }
+            if (matchPosition + getLength(index) > position) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes match replaced by data of given length together with matches
+     * overlapping it and shifts following matches.
+     * <p>
+     * Arrays are copied as they might be shared with other snapshots.
+     *
+     * @param index index of match
+     * @param replacementLength length of replacement data
+     * @return index of the first match following replacement or count of
+     * matches if there is no such match
+     */
+    public int replaceMatch(int index, long replacementLength) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Match index out of range: " + index);
+        }
+
+        long matchPosition = getPosition(index);
+        long matchEnd = matchPosition + getLength(index);
+        long shift = replacementLength - (matchEnd - matchPosition);
+        long[] sourcePositions = positions;
+        long[] sourceLengths = lengths;
+        int sourceCount = count;
+        positions = new long[Math.max(sourceCount, INITIAL_CAPACITY)];
+        lengths = sourceLengths == null ? null : new long[positions.length];
+        count = 0;
+        for (int i = 0; i < sourceCount; i++) {
+            long position = sourcePositions[i];
+            long length = sourceLengths == null ? sharedLength : sourceLengths[i];
+            if (position < matchEnd && position + length > matchPosition) {
+                continue;
+            }
+
+            positions[count] = position >= matchEnd ? position + shift : position;
+            if (lengths != null) {
+                lengths[count] = length;
+            }
+            count++;
+        }
+        return findMatchFrom(matchPosition + replacementLength);
+    }
+
+    private int toStorageIndex(int index) {
+        return descending ? count - 1 - index : index;
+    }
+}
@@ -15,328 +15,483 @@
  */
 package org.exbin.framework.bined.search.service.impl;
 
-import java.nio.charset.Charset;
-import java.nio.charset.CharsetEncoder;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.PatternSyntaxException;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.SwingUtilities;
 import org.exbin.bined.swing.section.SectCodeArea;
 import org.exbin.framework.bined.search.ReplaceParameters;
 import org.exbin.framework.bined.search.SearchCondition;
+import org.exbin.framework.bined.search.SearchMatchesColorModifier;
 import org.exbin.framework.bined.search.SearchParameters;
+import org.exbin.framework.bined.search.engine.ParallelSearchEngine;
+import org.exbin.framework.bined.search.engine.SearchEngine;
+import org.exbin.framework.bined.search.engine.SearchEngineFactory;
+import org.exbin.framework.bined.search.operation.ReplaceAllDataOperation;
 import org.exbin.framework.bined.search.service.BinarySearchService;
+import org.exbin.framework.bined.search.service.SearchJob;
+import org.exbin.framework.bined.search.service.SearchMatchIndex;
 import org.exbin.auxiliary.binary_data.BinaryData;
-import org.exbin.auxiliary.binary_data.EditableBinaryData;
-import org.exbin.bined.CharsetStreamTranslator;
+import org.exbin.auxiliary.binary_data.ByteArrayData;
 import org.exbin.bined.CodeAreaUtils;
-import org.exbin.bined.highlight.swing.SearchCodeAreaColorAssessor;
-import org.exbin.bined.highlight.swing.SearchMatch;
+import org.exbin.bined.operation.swing.CodeAreaOperationCommandHandler;
 import org.exbin.bined.swing.CodeAreaSwingUtils;
 import org.exbin.bined.swing.capability.ColorAssessorPainterCapable;
+import org.exbin.framework.bined.BinEdCodeAreaAssessor;
+import org.exbin.framework.bined.BinEdUndoRedo;
+import org.exbin.framework.bined.BinaryDataSnapshot;
+import org.exbin.framework.bined.UndoPayloadStore;
 
 /**
  * Binary search service.
+ * <p>
+ * Search itself is performed on background thread, progress and results are
+ * passed to event dispatch thread. Data are locked against modifications while
+ * search is running and background thread reads snapshot of data, so that
+ * painting of code area can continue. All matches are kept in compact match
+ * index which is painted by search matches color modifier. Replace all
+ * prepares replaced data on background thread as well and applies it as single
+ * undoable command.
+ * <p>
+ * Search can be also performed directly on event dispatch thread for callers
+ * which need to know result, such as macros.
  *
  * @author ExBin Project (https://exbin.org)
  */
 @ParametersAreNonnullByDefault
 public class BinarySearchServiceImpl implements BinarySearchService {
 
-    private static final int MAX_MATCHES_COUNT = 100;
+    private static final long PROGRESS_INTERVAL = 100;
+    private static final long PARALLEL_SEARCH_THRESHOLD = 16 * 1024 * 1024;
+
     private final SectCodeArea codeArea;
+    private final UndoPayloadStore undoPayloadStore;
+    private final SearchMatchesColorModifier matchesColorModifier;
     private final SearchParameters lastSearchParameters = new SearchParameters();
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor((runnable) -> {
+        Thread thread = new Thread(runnable, "SearchThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private SearchJob currentSearchJob = null;
 
-    public BinarySearchServiceImpl(SectCodeArea codeArea) {
+    public BinarySearchServiceImpl(SectCodeArea codeArea, UndoPayloadStore undoPayloadStore) {
         this.codeArea = codeArea;
+        this.undoPayloadStore = undoPayloadStore;
+        matchesColorModifier = new SearchMatchesColorModifier(codeArea);
+        BinEdCodeAreaAssessor codeAreaAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), BinEdCodeAreaAssessor.class);
+        codeAreaAssessor.addColorModifier(matchesColorModifier);
     }
 
+    @Nonnull
     @Override
-    public void performFind(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
+    public SearchJob performFind(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
+        cancelSearch();
         SearchCondition condition = searchParameters.getCondition();
         searchStatusListener.clearStatus();
         if (condition.isEmpty()) {
-            searchAssessor.clearMatches();
+            matchesColorModifier.clearMatches();
             codeArea.repaint();
-            return;
+            return createFinishedJob();
         }
 
-        long position;
+        searchParameters.setStartPosition(getStartPosition(searchParameters));
+
+        try {
+            return startSearch(searchParameters, searchStatusListener);
+        } catch (PatternSyntaxException ex) {
+            matchesColorModifier.clearMatches();
+            codeArea.repaint();
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean performFindNow(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
+        cancelSearch();
+        searchStatusListener.clearStatus();
+        if (searchParameters.getCondition().isEmpty()) {
+            matchesColorModifier.clearMatches();
+            codeArea.repaint();
+            return false;
+        }
+
+        SearchParameters findParameters = new SearchParameters();
+        findParameters.setFromParameters(searchParameters);
+        return findNow(findParameters, searchStatusListener);
+    }
+
+    private long getStartPosition(SearchParameters searchParameters) {
+        SearchCondition condition = searchParameters.getCondition();
         switch (searchParameters.getSearchDirection()) {
             case FORWARD: {
                 if (searchParameters.isSearchFromCursor()) {
-                    position = codeArea.getActiveCaretPosition().getDataPosition();
-                } else {
-                    position = 0;
+                    return codeArea.getActiveCaretPosition().getDataPosition();
                 }
-                break;
+                return 0;
             }
             case BACKWARD: {
                 if (searchParameters.isSearchFromCursor()) {
-                    position = codeArea.getActiveCaretPosition().getDataPosition() - 1;
-                } else {
-                    long searchDataSize;
-                    switch (condition.getSearchMode()) {
-                        case TEXT: {
-                            searchDataSize = condition.getSearchText().length();
-                            break;
-                        }
-                        case BINARY: {
-                            searchDataSize = condition.getBinaryData().getDataSize();
-                            break;
-                        }
-                        default:
-                            throw CodeAreaUtils.getInvalidTypeException(condition.getSearchMode());
+                    return codeArea.getActiveCaretPosition().getDataPosition() - 1;
+                }
+
+                long searchDataSize;
+                switch (condition.getSearchMode()) {
+                    case TEXT: {
+                        searchDataSize = condition.getSearchText().length();
+                        break;
+                    }
+                    case BINARY: {
+                        searchDataSize = condition.getBinaryData().getDataSize();
+                        break;
+                    }
+                    case PATTERN: {
+                        // Pattern has variable length of at least one byte
+                        searchDataSize = 1;
+                        break;
                     }
-                    position = codeArea.getDataSize() - searchDataSize;
+                    default:
+                        throw CodeAreaUtils.getInvalidTypeException(condition.getSearchMode());
                 }
-                break;
+                return codeArea.getDataSize() - searchDataSize;
             }
             default:
                 throw CodeAreaUtils.getInvalidTypeException(searchParameters.getSearchDirection());
         }
-        searchParameters.setStartPosition(position);
-
-        switch (condition.getSearchMode()) {
-            case TEXT: {
-                searchForText(searchParameters, searchStatusListener);
-                break;
-            }
-            case BINARY: {
-                searchForBinaryData(searchParameters, searchStatusListener);
-                break;
-            }
-            default:
-                throw CodeAreaUtils.getInvalidTypeException(condition.getSearchMode());
-        }
     }
 
     /**
-     * Performs search by binary data.
+     * Starts search job for given parameters.
+     * <p>
+     * Search condition is processed on calling thread so that background
+     * search doesn't depend on later changes of parameters.
      */
-    private void searchForBinaryData(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-        SearchCondition condition = searchParameters.getCondition();
-        long position = searchParameters.getStartPosition();
+    @Nonnull
+    private SearchJob startSearch(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
+        SearchEngine searchEngine = createSearchEngine(searchParameters);
 
-        BinaryData searchData = condition.getBinaryData();
-        long searchDataSize = searchData.getDataSize();
+        SearchJob searchJob = new SearchJob();
+        currentSearchJob = searchJob;
+        SearchParameters jobParameters = new SearchParameters();
+        jobParameters.setFromParameters(searchParameters);
         BinaryData data = codeArea.getContentData();
+        MatchCollector matchCollector = new MatchCollector(searchJob, jobParameters, searchStatusListener, data.getDataSize(), false, true);
 
-        List<SearchMatch> foundMatches = new ArrayList<>();
-
-        long dataSize = data.getDataSize();
-        while (position >= 0 && position <= dataSize - searchDataSize) {
-            int matchLength = 0;
-            while (matchLength < searchDataSize) {
-                if (data.getByte(position + matchLength) != searchData.getByte(matchLength)) {
-                    break;
-                }
-                matchLength++;
-            }
-
-            if (matchLength == searchDataSize) {
-                SearchMatch match = new SearchMatch();
-                match.setPosition(position);
-                match.setLength(searchDataSize);
-                if (searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
-                    foundMatches.add(0, match);
-                } else {
-                    foundMatches.add(match);
-                }
-
-                if (foundMatches.size() == MAX_MATCHES_COUNT || searchParameters.getMatchMode() == SearchParameters.MatchMode.SINGLE) {
-                    break;
-                }
+        SearchEngine jobSearchEngine = createParallelEngine(searchEngine, data.getDataSize(), jobParameters.getMatchMode());
+        JobData jobData = new JobData(data, getReadersCount(jobSearchEngine));
+        searchExecutor.execute(() -> {
+            try {
+                searchForData(jobData.getSnapshot(), jobSearchEngine, matchCollector);
+            } catch (RuntimeException ex) {
+                Logger.getLogger(BinarySearchServiceImpl.class.getName()).log(Level.SEVERE, "Search failed", ex);
             }
+            finishSearch(matchCollector, jobData);
+        });
+        return searchJob;
+    }
 
-            position++;
-        }
+    /**
+     * Searches for matches on calling thread and shows them.
+     *
+     * @return true if any match was found
+     */
+    private boolean findNow(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
+        SearchEngine searchEngine = createSearchEngine(searchParameters);
+        SearchJob searchJob = new SearchJob();
+        BinaryData data = codeArea.getContentData();
+        MatchCollector matchCollector = new MatchCollector(searchJob, searchParameters, searchStatusListener, data.getDataSize(), false, false);
+        searchForData(data, searchEngine, matchCollector);
+        searchJob.setFinished();
+        showFoundMatches(matchCollector);
+        return matchesColorModifier.getMatches().getMatchesCount() > 0;
+    }
 
-        searchAssessor.setMatches(foundMatches);
-        if (!foundMatches.isEmpty()) {
-            if (searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
-                searchAssessor.setCurrentMatchIndex(foundMatches.size() - 1);
-            } else {
-                searchAssessor.setCurrentMatchIndex(0);
-            }
-            SearchMatch firstMatch = Objects.requireNonNull(searchAssessor.getCurrentMatch());
-            codeArea.revealPosition(firstMatch.getPosition(), 0, codeArea.getActiveSection());
+    @Nonnull
+    private SearchEngine createSearchEngine(SearchParameters searchParameters) {
+        SearchCondition condition = searchParameters.getCondition();
+        switch (condition.getSearchMode()) {
+            case TEXT:
+                return SearchEngineFactory.createTextEngine(condition.getSearchText(), searchParameters.isMatchCase(), codeArea.getCharset());
+            case BINARY:
+                return SearchEngineFactory.createEngine(SearchEngineFactory.toByteArray(Objects.requireNonNull(condition.getBinaryData())));
+            case PATTERN:
+                return SearchEngineFactory.createPatternEngine(condition.getSearchText());
+            default:
+                throw CodeAreaUtils.getInvalidTypeException(condition.getSearchMode());
         }
-        lastSearchParameters.setFromParameters(searchParameters);
-        searchStatusListener.setStatus(new FoundMatches(foundMatches.size(), foundMatches.isEmpty() ? -1 : searchAssessor.getCurrentMatchIndex()), searchParameters.getMatchMode());
-        codeArea.repaint();
     }
 
     /**
-     * Performs search by text/characters.
+     * Wraps search engine to search chunks of large data on multiple cores.
      */
-    private void searchForText(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-        SearchCondition condition = searchParameters.getCondition();
-
-        long position = searchParameters.getStartPosition();
-        String findText;
-        if (searchParameters.isMatchCase()) {
-            findText = condition.getSearchText();
-        } else {
-            findText = condition.getSearchText().toLowerCase();
+    @Nonnull
+    private static SearchEngine createParallelEngine(SearchEngine searchEngine, long dataSize, SearchParameters.MatchMode matchMode) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        if (dataSize < PARALLEL_SEARCH_THRESHOLD || pool.getParallelism() < 2) {
+            return searchEngine;
         }
-        long searchDataSize = findText.length();
-        BinaryData data = codeArea.getContentData();
 
-        List<SearchMatch> foundMatches = new ArrayList<>();
+        int chunkMatchesLimit = matchMode == SearchParameters.MatchMode.SINGLE ? 1 : SearchMatchIndex.MAX_MATCHES_COUNT;
+        return new ParallelSearchEngine(searchEngine, pool, ParallelSearchEngine.DEFAULT_CHUNK_SIZE, chunkMatchesLimit);
+    }
 
-        Charset charset = codeArea.getCharset();
-        int maxBytesPerChar;
-        try {
-            CharsetEncoder encoder = charset.newEncoder();
-            maxBytesPerChar = (int) encoder.maxBytesPerChar();
-        } catch (UnsupportedOperationException ex) {
-            maxBytesPerChar = CharsetStreamTranslator.DEFAULT_MAX_BYTES_PER_CHAR;
-        }
-        byte[] charData = new byte[maxBytesPerChar];
-        long dataSize = data.getDataSize();
-        while (position >= 0 && position <= dataSize - searchDataSize) {
-            int matchCharLength = 0;
-            int matchLength = 0;
-            while (matchCharLength < searchDataSize) {
-                long searchPosition = position + matchLength;
-                int bytesToUse = maxBytesPerChar;
-                if (searchPosition + bytesToUse > dataSize) {
-                    bytesToUse = (int) (dataSize - searchPosition);
-                }
-                data.copyToArray(searchPosition, charData, 0, bytesToUse);
-                char singleChar = new String(charData, charset).charAt(0);
-                String singleCharString = String.valueOf(singleChar);
-                int characterLength = singleCharString.getBytes(charset).length;
+    private static int getReadersCount(SearchEngine searchEngine) {
+        // Coordinating thread can also execute chunk task while waiting for it
+        return searchEngine instanceof ParallelSearchEngine ? ((ParallelSearchEngine) searchEngine).getParallelism() + 1 : 1;
+    }
 
-                if (searchParameters.isMatchCase()) {
-                    if (singleChar != findText.charAt(matchCharLength)) {
-                        break;
-                    }
-                } else if (singleCharString.toLowerCase().charAt(0) != findText.charAt(matchCharLength)) {
-                    break;
-                }
-                matchCharLength++;
-                matchLength += characterLength;
+    /**
+     * Performs search using search engine.
+     */
+    private void searchForData(BinaryData data, SearchEngine searchEngine, MatchCollector matchCollector) {
+        SearchParameters searchParameters = matchCollector.getSearchParameters();
+        long position = searchParameters.getStartPosition();
+        switch (searchParameters.getSearchDirection()) {
+            case FORWARD: {
+                searchEngine.searchForward(data, position, data.getDataSize(), matchCollector);
+                break;
             }
-
-            if (matchCharLength == findText.length()) {
-                SearchMatch match = new SearchMatch();
-                match.setPosition(position);
-                match.setLength(matchLength);
-                if (searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
-                    foundMatches.add(0, match);
-                } else {
-                    foundMatches.add(match);
-                }
-
-                if (foundMatches.size() == MAX_MATCHES_COUNT || searchParameters.getMatchMode() == SearchParameters.MatchMode.SINGLE) {
-                    break;
+            case BACKWARD: {
+                if (position >= 0) {
+                    searchEngine.searchBackward(data, 0, position + 1, matchCollector);
                 }
+                break;
             }
+            default:
+                throw CodeAreaUtils.getInvalidTypeException(searchParameters.getSearchDirection());
+        }
+    }
 
-            switch (searchParameters.getSearchDirection()) {
-                case FORWARD: {
-                    position++;
-                    break;
-                }
-                case BACKWARD: {
-                    position--;
-                    break;
-                }
-                default:
-                    throw CodeAreaUtils.getInvalidTypeException(searchParameters.getSearchDirection());
+    /**
+     * Passes results of finished search to event dispatch thread.
+     */
+    private void finishSearch(MatchCollector matchCollector, JobData jobData) {
+        SearchJob searchJob = matchCollector.getSearchJob();
+        SwingUtilities.invokeLater(() -> {
+            jobData.release();
+            searchJob.setFinished();
+            if (searchJob.isCancelled()) {
+                return;
             }
-        }
 
-        searchAssessor.setMatches(foundMatches);
-        if (!foundMatches.isEmpty()) {
+            showFoundMatches(matchCollector);
+        });
+    }
+
+    private void showFoundMatches(MatchCollector matchCollector) {
+        SearchParameters searchParameters = matchCollector.getSearchParameters();
+        SearchMatchIndex foundMatches = matchCollector.getFoundMatches();
+        matchesColorModifier.setMatches(foundMatches);
+        int matchesCount = foundMatches.getMatchesCount();
+        if (matchesCount > 0) {
             if (searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
-                searchAssessor.setCurrentMatchIndex(foundMatches.size() - 1);
+                matchesColorModifier.setCurrentMatchIndex(matchesCount - 1);
             } else {
-                searchAssessor.setCurrentMatchIndex(0);
+                matchesColorModifier.setCurrentMatchIndex(0);
             }
-            SearchMatch firstMatch = searchAssessor.getCurrentMatch();
-            codeArea.revealPosition(firstMatch.getPosition(), 0, codeArea.getActiveSection());
+            codeArea.revealPosition(foundMatches.getPosition(matchesColorModifier.getCurrentMatchIndex()), 0, codeArea.getActiveSection());
         }
         lastSearchParameters.setFromParameters(searchParameters);
-        searchStatusListener.setStatus(new FoundMatches(foundMatches.size(), foundMatches.isEmpty() ? -1 : searchAssessor.getCurrentMatchIndex()), searchParameters.getMatchMode());
+        matchCollector.getSearchStatusListener().setStatus(new FoundMatches(matchesCount, matchesColorModifier.getCurrentMatchIndex()), searchParameters.getMatchMode());
         codeArea.repaint();
     }
 
+    @Override
+    public long getCurrentMatchPosition() {
+        int currentMatchIndex = matchesColorModifier.getCurrentMatchIndex();
+        return currentMatchIndex < 0 ? -1 : matchesColorModifier.getMatches().getPosition(currentMatchIndex);
+    }
+
     @Override
     public void setMatchPosition(int matchPosition) {
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-        searchAssessor.setCurrentMatchIndex(matchPosition);
-        SearchMatch currentMatch = searchAssessor.getCurrentMatch();
-        codeArea.revealPosition(currentMatch.getPosition(), 0, codeArea.getActiveSection());
+        matchesColorModifier.setCurrentMatchIndex(matchPosition);
+        codeArea.revealPosition(matchesColorModifier.getMatches().getPosition(matchPosition), 0, codeArea.getActiveSection());
         codeArea.repaint();
     }
 
+    @Nonnull
     @Override
-    public void performFindAgain(SearchStatusListener searchStatusListener) {
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-        List<SearchMatch> foundMatches = searchAssessor.getMatches();
-        int matchesCount = foundMatches.size();
+    public SearchJob performFindAgain(SearchStatusListener searchStatusListener) {
+        SearchMatchIndex foundMatches = matchesColorModifier.getMatches();
+        int matchesCount = foundMatches.getMatchesCount();
         if (matchesCount > 0) {
             switch (lastSearchParameters.getMatchMode()) {
                 case MULTIPLE:
+                    // Walk already found matches in search direction
                     if (matchesCount > 1) {
-                        int currentMatchIndex = searchAssessor.getCurrentMatchIndex();
-                        setMatchPosition(currentMatchIndex < matchesCount - 1 ? currentMatchIndex + 1 : 0);
-                        searchStatusListener.setStatus(new FoundMatches(foundMatches.size(), searchAssessor.getCurrentMatchIndex()), lastSearchParameters.getMatchMode());
+                        int currentMatchIndex = matchesColorModifier.getCurrentMatchIndex();
+                        if (lastSearchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
+                            setMatchPosition(currentMatchIndex > 0 ? currentMatchIndex - 1 : matchesCount - 1);
+                        } else {
+                            setMatchPosition(currentMatchIndex < matchesCount - 1 ? currentMatchIndex + 1 : 0);
+                        }
+                        searchStatusListener.setStatus(new FoundMatches(matchesCount, matchesColorModifier.getCurrentMatchIndex()), lastSearchParameters.getMatchMode());
                     }
 
                     break;
                 case SINGLE:
                     switch (lastSearchParameters.getSearchDirection()) {
                         case FORWARD:
-                            lastSearchParameters.setStartPosition(foundMatches.get(0).getPosition() + 1);
+                            lastSearchParameters.setStartPosition(foundMatches.getPosition(0) + 1);
                             break;
                         case BACKWARD:
-                            SearchMatch match = foundMatches.get(0);
-                            lastSearchParameters.setStartPosition(match.getPosition() - 1);
+                            lastSearchParameters.setStartPosition(foundMatches.getPosition(0) - 1);
                             break;
                     }
 
-                    SearchCondition condition = lastSearchParameters.getCondition();
-                    switch (condition.getSearchMode()) {
-                        case TEXT: {
-                            searchForText(lastSearchParameters, searchStatusListener);
-                            break;
-                        }
-                        case BINARY: {
-                            searchForBinaryData(lastSearchParameters, searchStatusListener);
-                            break;
-                        }
-                        default:
-                            throw CodeAreaUtils.getInvalidTypeException(condition.getSearchMode());
-                    }
-                    break;
+                    cancelSearch();
+                    return startSearch(lastSearchParameters, searchStatusListener);
             }
         }
+
+        return createFinishedJob();
+    }
+
+    @Override
+    public boolean performFindAgainNow(SearchStatusListener searchStatusListener) {
+        SearchMatchIndex foundMatches = matchesColorModifier.getMatches();
+        int matchesCount = foundMatches.getMatchesCount();
+        if (matchesCount == 0) {
+            return false;
+        }
+
+        switch (lastSearchParameters.getMatchMode()) {
+            case MULTIPLE: {
+                // Already found matches are walked without wrapping around
+                int currentMatchIndex = matchesColorModifier.getCurrentMatchIndex();
+                int nextMatchIndex = lastSearchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD ? currentMatchIndex - 1 : currentMatchIndex + 1;
+                if (nextMatchIndex < 0 || nextMatchIndex >= matchesCount) {
+                    return false;
+                }
+
+                setMatchPosition(nextMatchIndex);
+                searchStatusListener.setStatus(new FoundMatches(matchesCount, nextMatchIndex), lastSearchParameters.getMatchMode());
+                return true;
+            }
+            case SINGLE: {
+                long matchPosition = foundMatches.getPosition(0);
+                lastSearchParameters.setStartPosition(lastSearchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD ? matchPosition - 1 : matchPosition + 1);
+                cancelSearch();
+                return findNow(lastSearchParameters, searchStatusListener);
+            }
+            default:
+                throw CodeAreaUtils.getInvalidTypeException(lastSearchParameters.getMatchMode());
+        }
     }
 
     @Override
     public void performReplace(SearchParameters searchParameters, ReplaceParameters replaceParameters) {
-        SearchCondition replaceCondition = replaceParameters.getCondition();
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-        SearchMatch currentMatch = searchAssessor.getCurrentMatch();
-        if (currentMatch != null) {
-            EditableBinaryData editableData = ((EditableBinaryData) codeArea.getContentData());
-            editableData.remove(currentMatch.getPosition(), currentMatch.getLength());
-            if (replaceCondition.getSearchMode() == SearchCondition.SearchMode.BINARY) {
-                editableData.insert(currentMatch.getPosition(), replaceCondition.getBinaryData());
-            } else {
-                editableData.insert(currentMatch.getPosition(), replaceCondition.getSearchText().getBytes(codeArea.getCharset()));
+        int currentMatchIndex = matchesColorModifier.getCurrentMatchIndex();
+        if (currentMatchIndex < 0) {
+            return;
+        }
+
+        // Data are read by running search or other operation
+        BinEdUndoRedo undoRedo = BinEdUndoRedo.findUndoRedo(codeArea).orElse(null);
+        if (undoRedo != null && undoRedo.isDataLocked()) {
+            return;
+        }
+
+        cancelSearch();
+        SearchMatchIndex foundMatches = matchesColorModifier.getMatches();
+        SearchMatchIndex replacedMatch = new SearchMatchIndex();
+        replacedMatch.addMatch(foundMatches.getPosition(currentMatchIndex), foundMatches.getLength(currentMatchIndex));
+        BinaryData replacementData = getReplacementData(replaceParameters);
+        ReplaceAllDataOperation operation = new ReplaceAllDataOperation(codeArea, undoPayloadStore, replacedMatch, replacementData);
+        ((CodeAreaOperationCommandHandler) codeArea.getCommandHandler()).getUndoRedo().execute(new ReplaceAllDataOperation.ReplaceAllDataCommand(operation));
+        matchesColorModifier.replaceMatch(currentMatchIndex, replacementData.getDataSize());
+        codeArea.repaint();
+    }
+
+    @Nonnull
+    @Override
+    public SearchJob performReplaceAll(SearchParameters searchParameters, ReplaceParameters replaceParameters, SearchStatusListener searchStatusListener) {
+        cancelSearch();
+        searchStatusListener.clearStatus();
+        matchesColorModifier.clearMatches();
+        codeArea.repaint();
+        if (searchParameters.getCondition().isEmpty()) {
+            return createFinishedJob();
+        }
+
+        SearchParameters jobParameters = new SearchParameters();
+        jobParameters.setFromParameters(searchParameters);
+        jobParameters.setSearchDirection(SearchParameters.SearchDirection.FORWARD);
+        jobParameters.setMatchMode(SearchParameters.MatchMode.MULTIPLE);
+        jobParameters.setStartPosition(0);
+        SearchEngine searchEngine = createSearchEngine(jobParameters);
+        BinaryData replacementData = getReplacementData(replaceParameters);
+
+        SearchJob searchJob = new SearchJob();
+        currentSearchJob = searchJob;
+        BinaryData data = codeArea.getContentData();
+        MatchCollector matchCollector = new MatchCollector(searchJob, jobParameters, searchStatusListener, data.getDataSize(), true, true);
+
+        SearchEngine jobSearchEngine = createParallelEngine(searchEngine, data.getDataSize(), jobParameters.getMatchMode());
+        JobData jobData = new JobData(data, getReadersCount(jobSearchEngine));
+        searchExecutor.execute(() -> {
+            ReplaceAllDataOperation operation = null;
+            boolean prepared = false;
+            try {
+                searchForData(jobData.getSnapshot(), jobSearchEngine, matchCollector);
+                SearchMatchIndex foundMatches = matchCollector.getFoundMatches();
+                if (!searchJob.isCancelled() && !foundMatches.isEmpty()) {
+                    // Replaced data is prepared here so that only range swap is left to event dispatch thread
+                    operation = new ReplaceAllDataOperation(codeArea, undoPayloadStore, foundMatches, replacementData);
+                    long rangeStart = foundMatches.getPosition(0);
+                    int lastMatch = foundMatches.getMatchesCount() - 1;
+                    long rangeLength = foundMatches.getPosition(lastMatch) + foundMatches.getLength(lastMatch) - rangeStart;
+                    ReplaceProgressReporter progressReporter = new ReplaceProgressReporter(searchJob, searchStatusListener, rangeLength, foundMatches.getMatchesCount());
+                    prepared = operation.prepare(jobData.getSnapshot(), progressReporter);
+                }
+            } catch (RuntimeException ex) {
+                Logger.getLogger(BinarySearchServiceImpl.class.getName()).log(Level.SEVERE, "Replace failed", ex);
             }
-            searchAssessor.getMatches().remove(currentMatch);
-            codeArea.repaint();
+
+            if (operation == null) {
+                finishSearch(matchCollector, jobData);
+                return;
+            }
+
+            ReplaceAllDataOperation replaceOperation = operation;
+            boolean replacePrepared = prepared;
+            SwingUtilities.invokeLater(() -> {
+                jobData.release();
+                searchJob.setFinished();
+                BinEdUndoRedo undoRedo = BinEdUndoRedo.findUndoRedo(codeArea).orElse(null);
+                // Data might be still locked by other running operation
+                if (!replacePrepared || searchJob.isCancelled() || (undoRedo != null && undoRedo.isDataLocked())) {
+                    replaceOperation.dispose();
+                    if (!searchJob.isCancelled()) {
+                        searchStatusListener.clearStatus();
+                    }
+                    return;
+                }
+
+                ((CodeAreaOperationCommandHandler) codeArea.getCommandHandler()).getUndoRedo().execute(new ReplaceAllDataOperation.ReplaceAllDataCommand(replaceOperation));
+                matchesColorModifier.clearMatches();
+                searchStatusListener.setReplacedMatches(replaceOperation.getMatchesCount());
+                codeArea.repaint();
+            });
+        });
+        return searchJob;
+    }
+
+    @Nonnull
+    private BinaryData getReplacementData(ReplaceParameters replaceParameters) {
+        SearchCondition replaceCondition = replaceParameters.getCondition();
+        if (replaceCondition.getSearchMode() == SearchCondition.SearchMode.BINARY) {
+            BinaryData binaryData = replaceCondition.getBinaryData();
+            return binaryData == null ? new ByteArrayData() : binaryData;
         }
+
+        return new ByteArrayData(replaceCondition.getSearchText().getBytes(codeArea.getCharset()));
     }
 
     @Nonnull
@@ -345,9 +500,198 @@ public class BinarySearchServiceImpl implements BinarySearchService {
         return lastSearchParameters;
     }
 
+    @Override
+    public void cancelSearch() {
+        if (currentSearchJob != null) {
+            currentSearchJob.cancel();
+            currentSearchJob = null;
+        }
+    }
+
     @Override
     public void clearMatches() {
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-        searchAssessor.clearMatches();
+        cancelSearch();
+        matchesColorModifier.clearMatches();
+    }
+
+    @Nonnull
+    private static SearchJob createFinishedJob() {
+        SearchJob searchJob = new SearchJob();
+        searchJob.setFinished();
+        return searchJob;
+    }
+
+    /**
+     * Data of running job.
+     * <p>
+     * Data are locked against modifications while job is running and job
+     * reads them through snapshot. Has to be created and released on event
+     * dispatch thread.
+     */
+    @ParametersAreNonnullByDefault
+    private class JobData {
+
+        private final BinaryDataSnapshot snapshot;
+        private final BinEdUndoRedo undoRedo;
+
+        public JobData(BinaryData data, int readersCount) {
+            undoRedo = BinEdUndoRedo.findUndoRedo(codeArea).orElse(null);
+            if (undoRedo != null) {
+                undoRedo.lockData();
+            }
+            snapshot = BinaryDataSnapshot.create(data, readersCount);
+        }
+
+        @Nonnull
+        public BinaryDataSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public void release() {
+            snapshot.dispose();
+            if (undoRedo != null) {
+                undoRedo.unlockData();
+            }
+        }
+    }
+
+    /**
+     * Collects matches of single search job and reports progress.
+     */
+    @ParametersAreNonnullByDefault
+    private class MatchCollector implements SearchEngine.MatchListener {
+
+        private final SearchJob searchJob;
+        private final SearchParameters searchParameters;
+        private final SearchStatusListener searchStatusListener;
+        private final long totalSize;
+        private final SearchMatchIndex foundMatches;
+        private final boolean skipOverlapping;
+        private final boolean reportProgress;
+        private long lastMatchEnd = 0;
+        private long lastProgressTime = System.currentTimeMillis();
+
+        public MatchCollector(SearchJob searchJob, SearchParameters searchParameters, SearchStatusListener searchStatusListener, long dataSize, boolean skipOverlapping, boolean reportProgress) {
+            this.searchJob = searchJob;
+            this.searchParameters = searchParameters;
+            this.searchStatusListener = searchStatusListener;
+            this.skipOverlapping = skipOverlapping;
+            this.reportProgress = reportProgress;
+            foundMatches = new SearchMatchIndex(searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD);
+            long startPosition = searchParameters.getStartPosition();
+            totalSize = searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD ? startPosition + 1 : dataSize - startPosition;
+        }
+
+        @Override
+        public boolean matchFound(long position, long length) {
+            if (skipOverlapping) {
+                // Forward search only, match overlapping previous match is not replaced
+                if (position < lastMatchEnd) {
+                    return !searchJob.isCancelled();
+                }
+                lastMatchEnd = position + length;
+            }
+            foundMatches.addMatch(position, length);
+
+            return !searchJob.isCancelled() && foundMatches.getMatchesCount() < SearchMatchIndex.MAX_MATCHES_COUNT && searchParameters.getMatchMode() == SearchParameters.MatchMode.MULTIPLE;
+        }
+
+        @Override
+        public boolean searchProgress(long position) {
+            if (searchJob.isCancelled()) {
+                return false;
+            }
+
+            long currentTime = System.currentTimeMillis();
+            if (reportProgress && currentTime - lastProgressTime >= PROGRESS_INTERVAL) {
+                lastProgressTime = currentTime;
+                long startPosition = searchParameters.getStartPosition();
+                long processedSize = searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD ? startPosition - position : position - startPosition;
+                publishProgress(Math.max(0, Math.min(processedSize, totalSize)));
+            }
+            return true;
+        }
+
+        /**
+         * Passes progress and matches found so far to event dispatch thread.
+         */
+        private void publishProgress(long processedSize) {
+            SearchMatchIndex matches = getFoundMatches();
+            int matchesCount = matches.getMatchesCount();
+            SwingUtilities.invokeLater(() -> {
+                if (searchJob.isCancelled()) {
+                    return;
+                }
+
+                if (matchesCount > 0) {
+                    matchesColorModifier.setMatches(matches);
+                    codeArea.repaint();
+                }
+                searchStatusListener.setProgress(processedSize, totalSize, matchesCount);
+            });
+        }
+
+        @Nonnull
+        public SearchJob getSearchJob() {
+            return searchJob;
+        }
+
+        @Nonnull
+        public SearchParameters getSearchParameters() {
+            return searchParameters;
+        }
+
+        @Nonnull
+        public SearchStatusListener getSearchStatusListener() {
+            return searchStatusListener;
+        }
+
+        /**
+         * Returns snapshot of found matches.
+         *
+         * @return match index
+         */
+        @Nonnull
+        public SearchMatchIndex getFoundMatches() {
+            return foundMatches.createSnapshot();
+        }
+    }
+
+    /**
+     * Reports progress of preparation of replaced data.
+     */
+    @ParametersAreNonnullByDefault
+    private static class ReplaceProgressReporter implements ReplaceAllDataOperation.ProgressListener {
+
+        private final SearchJob searchJob;
+        private final SearchStatusListener searchStatusListener;
+        private final long totalSize;
+        private final int matchesCount;
+        private long lastProgressTime = System.currentTimeMillis();
+
+        public ReplaceProgressReporter(SearchJob searchJob, SearchStatusListener searchStatusListener, long totalSize, int matchesCount) {
+            this.searchJob = searchJob;
+            this.searchStatusListener = searchStatusListener;
+            this.totalSize = totalSize;
+            this.matchesCount = matchesCount;
+        }
+
+        @Override
+        public boolean progress(long processedSize) {
+            if (searchJob.isCancelled()) {
+                return false;
+            }
+
+            long currentTime = System.currentTimeMillis();
+            if (currentTime - lastProgressTime >= PROGRESS_INTERVAL) {
+                lastProgressTime = currentTime;
+                SwingUtilities.invokeLater(() -> {
+                    if (!searchJob.isCancelled()) {
+                        searchStatusListener.setReplaceProgress(processedSize, totalSize, matchesCount);
+                    }
+                });
+            }
+            return true;
+        }
     }
 }
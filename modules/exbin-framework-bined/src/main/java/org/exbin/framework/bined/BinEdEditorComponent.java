@@ -85,6 +85,11 @@ public class BinEdEditorComponent {
             ((CodeAreaOperationCommandHandler) codeArea.getCommandHandler()).setEnterKeyHandlingMode(editorOptions.getEnterKeyHandlingMode());
             ((CodeAreaOperationCommandHandler) codeArea.getCommandHandler()).setTabKeyHandlingMode(editorOptions.getTabKeyHandlingMode());
         }
+        Optional<BinaryDataUndoRedo> undoRedo = componentPanel.getUndoRedo();
+        if (undoRedo.isPresent() && undoRedo.get() instanceof BinEdUndoRedo) {
+            ((BinEdUndoRedo) undoRedo.get()).setMaximumCount(editorOptions.getUndoMaximumCount());
+            ((BinEdUndoRedo) undoRedo.get()).setMaximumSize(editorOptions.getUndoMaximumSize());
+        }
 
         applyProfileFromPreferences(preferences);
     }
@@ -17,13 +17,13 @@ package org.exbin.framework.bined;
 
 import java.awt.Font;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -41,9 +41,11 @@ import org.exbin.auxiliary.binary_data.delta.file.FileDataSource;
 import org.exbin.auxiliary.binary_data.delta.SegmentsRepository;
 import org.exbin.auxiliary.binary_data.paged.PagedData;
 import org.exbin.auxiliary.binary_data.paged.ByteArrayPagedData;
-import org.exbin.bined.operation.swing.CodeAreaUndoRedo;
+import org.exbin.bined.EditMode;
 import org.exbin.bined.operation.undo.BinaryDataUndoRedo;
 import org.exbin.bined.swing.CodeAreaCore;
+import org.exbin.bined.swing.CodeAreaSwingUtils;
+import org.exbin.bined.swing.capability.ColorAssessorPainterCapable;
 import org.exbin.bined.swing.section.SectCodeArea;
 import org.exbin.bined.swing.section.color.SectionCodeAreaColorProfile;
 import org.exbin.framework.action.api.ComponentActivationListener;
@@ -83,6 +85,13 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
     private long documentOriginalSize;
     private ComponentActivationListener componentActivationListener;
     private UndoRedoState undoRedoHandler = null;
+    private final PendingDataColorModifier pendingDataColorModifier = new PendingDataColorModifier();
+    private FileDataLoader fileDataLoader = null;
+    private DataLock loadingLock = null;
+    private FileDataLoader.LoadingListener loadingListener = null;
+    private FileDataSaver fileDataSaver = null;
+    private final List<FileDataSource> retainedFileSources = new ArrayList<>();
+    private FileDataSaver.SavingListener savingListener = null;
 
     public BinEdFileHandler() {
         editorComponent = new BinEdEditorComponent();
@@ -98,6 +107,8 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
         final SectCodeArea codeArea = getCodeArea();
         defaultFont = codeArea.getCodeFont();
         defaultColors = (SectionCodeAreaColorProfile) codeArea.getColorsProfile();
+        BinEdCodeAreaAssessor codeAreaAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), BinEdCodeAreaAssessor.class);
+        codeAreaAssessor.addPriorityColorModifier(pendingDataColorModifier);
         codeArea.addSelectionChangedListener(() -> {
             if (componentActivationListener != null) {
                 componentActivationListener.updated(ClipboardActionsHandler.class, this);
@@ -106,7 +117,7 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
     }
 
     public void registerUndoHandler() {
-        setUndoHandler(new CodeAreaUndoRedo(editorComponent.getCodeArea()));
+        setUndoHandler(new BinEdUndoRedo(editorComponent.getCodeArea()));
     }
 
     public void setUndoHandler(BinaryDataUndoRedo undoRedo) {
@@ -138,35 +149,126 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
             return;
         }
 
+        waitForSaving();
+        stopLoading();
         try {
             BinaryData oldData = editorComponent.getContentData();
-            if (fileHandlingMode == FileHandlingMode.DELTA) {
-                FileDataSource openFileSource = new FileDataSource(file);
+            if (fileHandlingMode == FileHandlingMode.DELTA || fileHandlingMode == FileHandlingMode.MAPPED) {
+                FileDataSource openFileSource = createFileDataSource(file, fileHandlingMode);
                 segmentsRepository.addDataSource(openFileSource);
                 DeltaDocument document = segmentsRepository.createDocument(openFileSource);
                 editorComponent.setContentData(document);
                 this.fileUri = fileUri;
-                oldData.dispose();
+                disposeData(oldData);
             } else {
-                try (FileInputStream fileStream = new FileInputStream(file)) {
-                    BinaryData data = oldData;
-                    if (!(data instanceof PagedData)) {
-                        data = new ByteArrayPagedData();
-                        oldData.dispose();
-                    }
-                    ((EditableBinaryData) data).loadFromStream(fileStream);
-                    editorComponent.setContentData(data);
-                    this.fileUri = fileUri;
+                PagedData data;
+                if (oldData instanceof PagedData) {
+                    data = (PagedData) oldData;
+                    data.clear();
+                } else {
+                    data = new ByteArrayPagedData();
+                    disposeData(oldData);
                 }
+                // Data are shown with full size right away and filled in background
+                data.insertUninitialized(0, file.length());
+                editorComponent.setContentData(data);
+                this.fileUri = fileUri;
+                startLoading(file, data);
             }
         } catch (IOException ex) {
             Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.SEVERE, null, ex);
         }
 
         getUndoRedo().clear();
+        closeRetainedFileSources();
         fileSync();
     }
 
+    private void startLoading(File file, EditableBinaryData data) {
+        if (data.isEmpty()) {
+            return;
+        }
+
+        SectCodeArea codeArea = getCodeArea();
+        loadingLock = new DataLock();
+        pendingDataColorModifier.setPendingPosition(0);
+        fileDataLoader = new FileDataLoader(file, data, new FileDataLoader.LoadingListener() {
+            @Override
+            public void loadingProgress(long loadedSize, long totalSize) {
+                pendingDataColorModifier.setPendingPosition(loadedSize);
+                codeArea.repaint();
+                if (loadingListener != null) {
+                    loadingListener.loadingProgress(loadedSize, totalSize);
+                }
+            }
+
+            @Override
+            public void loadingFinished(long loadedSize, boolean complete) {
+                fileDataLoader = null;
+                pendingDataColorModifier.clearPending();
+                loadingLock.release();
+                loadingLock = null;
+                if (!complete) {
+                    // Only loaded part is kept, it differs from file, so it's marked as modified and left read only to prevent overwriting file with it by accident
+                    data.remove(loadedSize, data.getDataSize() - loadedSize);
+                    codeArea.notifyDataChanged();
+                    codeArea.setEditMode(EditMode.READ_ONLY);
+                    getUndoRedo().setSyncPosition(-1);
+                }
+                codeArea.repaint();
+                if (loadingListener != null) {
+                    loadingListener.loadingFinished(loadedSize, complete);
+                }
+            }
+        });
+        fileDataLoader.start();
+    }
+
+    /**
+     * Stops loading of file content if running, loaded data are then expected
+     * to be dropped.
+     */
+    private void stopLoading() {
+        if (fileDataLoader == null) {
+            return;
+        }
+
+        FileDataLoader loader = fileDataLoader;
+        fileDataLoader = null;
+        loader.cancelAndWait();
+        pendingDataColorModifier.clearPending();
+        loadingLock.release();
+        loadingLock = null;
+        if (loadingListener != null) {
+            loadingListener.loadingFinished(loader.getLoadedSize(), false);
+        }
+    }
+
+    /**
+     * Requests cancellation of file content loading.
+     * <p>
+     * Already loaded part of file is kept in read only mode and marked as
+     * modified.
+     */
+    public void cancelLoading() {
+        if (fileDataLoader != null) {
+            fileDataLoader.cancel();
+        }
+    }
+
+    public boolean isLoading() {
+        return fileDataLoader != null;
+    }
+
+    @Nonnull
+    public Optional<FileDataLoader> getFileDataLoader() {
+        return Optional.ofNullable(fileDataLoader);
+    }
+
+    public void setLoadingListener(@Nullable FileDataLoader.LoadingListener loadingListener) {
+        this.loadingListener = loadingListener;
+    }
+
     @Override
     public boolean canSave() {
         return fileUri != null;
@@ -174,39 +276,171 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
 
     @Override
     public void saveToFile(URI fileUri, FileType fileType) {
-        File file = new File(fileUri);
-        try {
-            BinaryData contentData = editorComponent.getContentData();
-            if (contentData instanceof EmptyBinaryData) {
-                clearFile();
-                contentData = editorComponent.getContentData();
+        BinaryData contentData = editorComponent.getContentData();
+        if (contentData instanceof EmptyBinaryData) {
+            clearFile();
+            contentData = editorComponent.getContentData();
+        }
+        saveData(contentData, fileUri);
+    }
+
+    @Nonnull
+    private static FileDataSource createFileDataSource(File file, FileHandlingMode fileHandlingMode) throws IOException {
+        return fileHandlingMode == FileHandlingMode.MAPPED ? new MappedFileDataSource(file) : new ConcurrentFileDataSource(file);
+    }
+
+    /**
+     * Saves data to file in background and waits for it while user interface
+     * is kept responsive.
+     * <p>
+     * Data are locked and saved from snapshot. Save requested while other save
+     * is running waits for it, save is rejected while file is still loading.
+     *
+     * @param contentData content data
+     * @param targetUri target file URI
+     */
+    private void saveData(BinaryData contentData, URI targetUri) {
+        waitForSaving();
+        if (fileDataLoader != null) {
+            JOptionPane.showOptionDialog(editorComponent.getComponentPanel(),
+                    "File is still loading",
+                    "Unable to save file",
+                    JOptionPane.CLOSED_OPTION,
+                    JOptionPane.ERROR_MESSAGE,
+                    null, null, null);
+            if (savingListener != null) {
+                savingListener.savingFinished(null);
+            }
+            return;
+        }
+
+        File targetFile = new File(targetUri).getAbsoluteFile();
+        FileHandlingMode fileHandlingMode = getFileHandlingMode();
+        DataLock savingLock = new DataLock();
+        BinaryDataSnapshot snapshot = BinaryDataSnapshot.create(contentData);
+        FileDataSaver saver = new FileDataSaver(snapshot, targetFile, new FileDataSaver.SavingListener() {
+            @Override
+            public void savingProgress(long savedSize, long totalSize) {
+                if (savingListener != null) {
+                    savingListener.savingProgress(savedSize, totalSize);
+                }
             }
-            if (contentData instanceof DeltaDocument) {
-                // TODO freezes window / replace with progress bar
-                DeltaDocument document = (DeltaDocument) contentData;
-                FileDataSource fileSource = (FileDataSource) document.getDataSource();
-                if (fileSource == null || !file.equals(fileSource.getFile())) {
-                    fileSource = new FileDataSource(file);
-                    segmentsRepository.addDataSource(fileSource);
-                    document.setDataSource(fileSource);
+
+            @Override
+            public void savingFinished(@Nullable File savedFile) {
+                fileDataSaver = null;
+                snapshot.dispose();
+                if (savedFile != null && contentData instanceof DeltaDocument) {
+                    // Segments of document refer to replaced file
+                    reopenDocument((DeltaDocument) contentData, savedFile, fileHandlingMode);
                 }
-                segmentsRepository.saveDocument(document);
-                this.fileUri = fileUri;
-            } else {
-                try (FileOutputStream outputStream = new FileOutputStream(file)) {
-                    Objects.requireNonNull(contentData).saveToStream(outputStream);
-                    this.fileUri = fileUri;
+                savingLock.release();
+                if (savedFile != null) {
+                    fileUri = targetUri;
+                    fileSync();
+                }
+                if (savingListener != null) {
+                    savingListener.savingFinished(savedFile);
                 }
             }
-            // TODO
-//            documentOriginalSize = codeArea.getDataSize();
-//            updateCurrentDocumentSize();
-//            updateCurrentMemoryMode();
+        });
+        fileDataSaver = saver;
+        saver.start();
+        saver.waitForFinish();
+    }
+
+    /**
+     * Replaces document with document of saved file.
+     * <p>
+     * Undo history is kept as saved file has the same content. File source
+     * of old document is kept open, as undo commands might still refer to its
+     * data, until undo history is discarded.
+     */
+    private void reopenDocument(DeltaDocument oldDocument, File file, FileHandlingMode fileHandlingMode) {
+        try {
+            FileDataSource fileSource = createFileDataSource(file, fileHandlingMode);
+            segmentsRepository.addDataSource(fileSource);
+            DeltaDocument document = segmentsRepository.createDocument(fileSource);
+            FileDataSource oldFileSource = (FileDataSource) oldDocument.getDataSource();
+            editorComponent.setContentData(document);
+            oldDocument.dispose();
+            if (oldFileSource != null) {
+                retainedFileSources.add(oldFileSource);
+            }
         } catch (IOException ex) {
             Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.SEVERE, null, ex);
         }
+    }
 
-        fileSync();
+    /**
+     * Closes file sources of documents replaced by save, called when undo
+     * history is discarded.
+     */
+    private void closeRetainedFileSources() {
+        for (FileDataSource fileSource : retainedFileSources) {
+            closeFileSource(fileSource);
+        }
+        retainedFileSources.clear();
+    }
+
+    /**
+     * Disposes data no longer used by editor.
+     * <p>
+     * File source of delta document is detached from segments repository and
+     * closed as well.
+     *
+     * @param data data
+     */
+    private void disposeData(BinaryData data) {
+        if (data instanceof DeltaDocument) {
+            FileDataSource fileSource = (FileDataSource) ((DeltaDocument) data).getDataSource();
+            data.dispose();
+            if (fileSource != null) {
+                closeFileSource(fileSource);
+            }
+        } else {
+            data.dispose();
+        }
+    }
+
+    private void closeFileSource(FileDataSource fileSource) {
+        segmentsRepository.detachFileSource(fileSource);
+        try {
+            fileSource.close();
+        } catch (IOException ex) {
+            Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Waits for running save to finish.
+     */
+    private void waitForSaving() {
+        if (fileDataSaver != null) {
+            fileDataSaver.waitForFinish();
+        }
+    }
+
+    /**
+     * Requests cancellation of running save, target file is left untouched.
+     */
+    public void cancelSaving() {
+        if (fileDataSaver != null) {
+            fileDataSaver.cancel();
+        }
+    }
+
+    public boolean isSaving() {
+        return fileDataSaver != null;
+    }
+
+    @Nonnull
+    public Optional<FileDataSaver> getFileDataSaver() {
+        return Optional.ofNullable(fileDataSaver);
+    }
+
+    public void setSavingListener(@Nullable FileDataSaver.SavingListener savingListener) {
+        this.savingListener = savingListener;
     }
 
     private void fileSync() {
@@ -307,24 +541,7 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
 
     @Override
     public void saveFile() {
-        SectCodeArea codeArea = editorComponent.getCodeArea();
-        BinaryData data = codeArea.getContentData();
-        if (data instanceof DeltaDocument) {
-            try {
-                segmentsRepository.saveDocument((DeltaDocument) data);
-            } catch (IOException ex) {
-                Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        } else {
-            File file = new File(fileUri);
-            try (OutputStream stream = new FileOutputStream(file)) {
-                BinaryData contentData = codeArea.getContentData();
-                contentData.saveToStream(stream);
-                stream.flush();
-            } catch (IOException ex) {
-                Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
+        saveData(editorComponent.getCodeArea().getContentData(), fileUri);
     }
 
     public void reloadFile() {
@@ -335,23 +552,13 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
 
     @Override
     public void closeData() {
+        waitForSaving();
+        stopLoading();
         SectCodeArea codeArea = editorComponent.getCodeArea();
         BinaryData data = codeArea.getContentData();
         editorComponent.setContentData(EmptyBinaryData.INSTANCE);
-        if (data instanceof DeltaDocument) {
-            FileDataSource fileSource = (FileDataSource) ((DeltaDocument) data).getDataSource();
-            data.dispose();
-            if (fileSource != null) {
-                segmentsRepository.detachFileSource(fileSource);
-                try {
-                    fileSource.close();
-                } catch (IOException ex) {
-                    Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        } else {
-            data.dispose();
-        }
+        disposeData(data);
+        closeRetainedFileSources();
     }
 
     @Override
@@ -370,7 +577,8 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
         if (handlingMode != oldFileHandlingMode) {
             if (fileUri != null) {
                 loadFromFile(fileUri, null, handlingMode);
-            } else {
+            } else if (handlingMode == FileHandlingMode.MEMORY || oldFileHandlingMode == FileHandlingMode.MEMORY) {
+                // Delta and mapped modes differ only for data loaded from file
                 BinaryData oldData = codeArea.getContentData();
                 if (oldData instanceof DeltaDocument) {
                     PagedData data = new ByteArrayPagedData();
@@ -386,14 +594,19 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
                     undoHandlerWrapper.clear();
                 }
 
-                oldData.dispose();
+                disposeData(oldData);
             }
         }
     }
 
     @Nonnull
     public FileHandlingMode getFileHandlingMode() {
-        return getCodeArea().getContentData() instanceof DeltaDocument ? FileHandlingMode.DELTA : FileHandlingMode.MEMORY;
+        BinaryData data = getCodeArea().getContentData();
+        if (data instanceof DeltaDocument) {
+            return ((DeltaDocument) data).getDataSource() instanceof MappedFileDataSource ? FileHandlingMode.MAPPED : FileHandlingMode.DELTA;
+        }
+
+        return FileHandlingMode.MEMORY;
     }
 
     @Nonnull
@@ -427,7 +640,7 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
     }
 
     public void setNewData(FileHandlingMode fileHandlingMode) {
-        if (fileHandlingMode == FileHandlingMode.DELTA) {
+        if (fileHandlingMode == FileHandlingMode.DELTA || fileHandlingMode == FileHandlingMode.MAPPED) {
             editorComponent.setContentData(segmentsRepository.createDocument());
         } else {
             editorComponent.setContentData(new ByteArrayPagedData());
@@ -459,7 +672,7 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
 
     @Override
     public boolean isSaveSupported() {
-        return true;
+        return fileDataLoader == null && fileDataSaver == null;
     }
 
     @Override
@@ -574,6 +787,40 @@ public class BinEdFileHandler implements EditableFileHandler, EditorFileHandler,
         }
     }
 
+    /**
+     * Lock of data against modifications while they are used by background
+     * operation.
+     * <p>
+     * Binary editor undo handler locks data, if it's not available, code area
+     * is only switched to read only mode.
+     */
+    @ParametersAreNonnullByDefault
+    private class DataLock {
+
+        private final BinEdUndoRedo undoRedo;
+        private final EditMode editMode;
+
+        public DataLock() {
+            SectCodeArea codeArea = getCodeArea();
+            undoRedo = BinEdUndoRedo.findUndoRedo(codeArea).orElse(null);
+            if (undoRedo != null) {
+                undoRedo.lockData();
+                editMode = null;
+            } else {
+                editMode = codeArea.getEditMode();
+                codeArea.setEditMode(EditMode.READ_ONLY);
+            }
+        }
+
+        public void release() {
+            if (undoRedo != null) {
+                undoRedo.unlockData();
+            } else {
+                getCodeArea().setEditMode(editMode);
+            }
+        }
+    }
+
     @ParametersAreNonnullByDefault
     private class UndoRedoControlImpl implements UndoRedoControl, UndoRedoFileHandler {
 
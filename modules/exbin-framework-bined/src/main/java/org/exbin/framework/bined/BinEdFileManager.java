@@ -32,6 +32,7 @@ import org.exbin.framework.App;
 import org.exbin.framework.preferences.api.Preferences;
 import org.exbin.framework.bined.gui.BinEdComponentPanel;
 import org.exbin.framework.bined.gui.BinaryStatusPanel;
+import org.exbin.framework.bined.options.EditorOptions;
 import org.exbin.framework.bined.options.impl.StatusOptionsImpl;
 import org.exbin.framework.bined.preferences.BinaryEditorPreferences;
 import org.exbin.framework.bined.preferences.CodeAreaPreferences;
@@ -54,6 +55,7 @@ public class BinEdFileManager {
 
     private BinaryStatusPanel binaryStatusPanel;
     private final SegmentsRepository segmentsRepository = new SegmentsRepository();
+    private final UndoPayloadStore undoPayloadStore = new UndoPayloadStore();
     private final List<BinEdFileExtension> binEdComponentExtensions = new ArrayList<>();
     private final List<BinEdCodeAreaAssessor.PositionColorModifier> painterPositionColorModifiers = new ArrayList<>();
     private final List<BinEdCodeAreaAssessor.PositionColorModifier> painterPriorityPositionColorModifiers = new ArrayList<>();
@@ -95,6 +97,7 @@ public class BinEdFileManager {
         Preferences preferences = preferencesModule.getAppPreferences();
         BinaryEditorPreferences binaryEditorPreferences = new BinaryEditorPreferences(preferences);
         componentPanel.onInitFromPreferences(binaryEditorPreferences);
+        applyUndoOptions(binaryEditorPreferences.getEditorPreferences());
         String encoding = binaryEditorPreferences.getEncodingPreferences().getSelectedEncoding();
         if (!encoding.isEmpty()) {
             codeArea.setCharset(Charset.forName(encoding));
@@ -153,6 +156,19 @@ public class BinEdFileManager {
         binaryStatusPanel.setStatusOptions(options);
     }
 
+    /**
+     * Applies limits of undo data kept in memory.
+     * <p>
+     * Memory budget is limited by maximum size of undo history, as undo data
+     * over it are dropped anyway.
+     *
+     * @param editorOptions editor options
+     */
+    public void applyUndoOptions(EditorOptions editorOptions) {
+        undoPayloadStore.setMemoryBudget(Math.min(editorOptions.getUndoMemoryBudget(), editorOptions.getUndoMaximumSize()));
+        undoPayloadStore.setSpillThreshold(editorOptions.getUndoSpillThreshold());
+    }
+
     public void setStatusControlHandler(BinaryStatusPanel.StatusControlHandler statusControlHandler) {
         binaryStatusPanel.setStatusControlHandler(statusControlHandler);
     }
@@ -179,6 +195,16 @@ public class BinEdFileManager {
         return binaryStatusPanel;
     }
 
+    /**
+     * Returns store of undo data shared by all files.
+     *
+     * @return undo payload store
+     */
+    @Nonnull
+    public UndoPayloadStore getUndoPayloadStore() {
+        return undoPayloadStore;
+    }
+
     @ParametersAreNonnullByDefault
     public interface BinEdFileExtension {
 
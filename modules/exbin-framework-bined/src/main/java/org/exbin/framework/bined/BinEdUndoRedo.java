@@ -0,0 +1,754 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.bined.EditMode;
+import org.exbin.bined.SelectionRange;
+import org.exbin.bined.capability.CaretCapable;
+import org.exbin.bined.capability.EditModeCapable;
+import org.exbin.bined.capability.SelectionCapable;
+import org.exbin.bined.operation.BinaryDataCommand;
+import org.exbin.bined.operation.BinaryDataCommandType;
+import org.exbin.bined.operation.swing.CodeAreaOperationCommandHandler;
+import org.exbin.bined.operation.undo.BinaryDataUndoRedo;
+import org.exbin.bined.operation.undo.BinaryDataUndoRedoChangeListener;
+import org.exbin.bined.operation.undo.BinaryDataUndoableCommand;
+import org.exbin.bined.swing.CodeAreaCore;
+
+/**
+ * Undo redo with limited history.
+ * <p>
+ * Small commands of the same type executed shortly after each other at
+ * adjacent positions are coalesced into single command. Size of payload of
+ * each command is estimated from lengths of data it changed and oldest
+ * commands are dropped when history exceeds maximum count of commands or
+ * maximum payload size.
+ * <p>
+ * Changes of data are reported by commands implementing
+ * {@link DataChangesCapable}, changes made by other commands are recorded
+ * from state of code area before and after execution. Listeners are notified
+ * about changes of data made by execution, undo and redo of commands.
+ * <p>
+ * Commands executed within group are undone and redone as single command.
+ * <p>
+ * Data can be locked while background operation reads them, no command can be
+ * executed, undone or redone until data are unlocked.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BinEdUndoRedo implements BinaryDataUndoRedo {
+
+    public static final int DEFAULT_MAXIMUM_COUNT = 1024;
+    public static final long DEFAULT_MAXIMUM_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * Estimated size of command without payload.
+     */
+    public static final long COMMAND_SIZE = 64;
+    /**
+     * Maximum size of payload of coalesced command.
+     */
+    public static final long COALESCE_SIZE_LIMIT = 4096;
+    /**
+     * Maximum delay between coalesced commands in milliseconds.
+     */
+    public static final long COALESCE_TIMEOUT = 2000;
+
+    private final CodeAreaCore codeArea;
+    private final List<HistoryEntry> commands = new ArrayList<>();
+    private final List<BinaryDataUndoRedoChangeListener> listeners = new ArrayList<>();
+    private final List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+    private int commandPosition = 0;
+    private int syncPosition = 0;
+    private long usedSize = 0;
+    private int maximumCount = DEFAULT_MAXIMUM_COUNT;
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private boolean coalescing = true;
+    private int groupDepth = 0;
+    private HistoryEntry groupEntry = null;
+    private int lockDepth = 0;
+    private EditMode lockedEditMode = null;
+
+    public BinEdUndoRedo(CodeAreaCore codeArea) {
+        this.codeArea = codeArea;
+    }
+
+    /**
+     * Returns binary editor undo handler used by command handler of given code
+     * area.
+     *
+     * @param codeArea code area
+     * @return undo handler or empty if code area uses other undo handler
+     */
+    @Nonnull
+    public static Optional<BinEdUndoRedo> findUndoRedo(CodeAreaCore codeArea) {
+        if (codeArea.getCommandHandler() instanceof CodeAreaOperationCommandHandler) {
+            BinaryDataUndoRedo undoRedo = ((CodeAreaOperationCommandHandler) codeArea.getCommandHandler()).getUndoRedo();
+            if (undoRedo instanceof BinEdUndoRedo) {
+                return Optional.of((BinEdUndoRedo) undoRedo);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean canUndo() {
+        return lockDepth == 0 && commandPosition > 0;
+    }
+
+    @Override
+    public boolean canRedo() {
+        return lockDepth == 0 && commandPosition < commands.size();
+    }
+
+    @Override
+    public void clear() {
+        for (HistoryEntry entry : commands) {
+            entry.command.dispose();
+        }
+        commands.clear();
+        groupEntry = null;
+        commandPosition = 0;
+        syncPosition = 0;
+        usedSize = 0;
+        notifyChange();
+    }
+
+    @Override
+    public void execute(BinaryDataCommand command) {
+        checkUnlocked();
+        long startPosition = getCaretDataPosition();
+        long startDataSize = codeArea.getDataSize();
+        SelectionRange startSelection = codeArea instanceof SelectionCapable ? ((SelectionCapable) codeArea).getSelection() : null;
+        command.execute();
+        long endPosition = getCaretDataPosition();
+        long executionTime = System.currentTimeMillis();
+
+        DataChangesCapable changes = command instanceof DataChangesCapable
+                ? (DataChangesCapable) command
+                : new RecordedChanges(recordDataChange(startSelection, startDataSize, startPosition, endPosition));
+        removeRedoCommands();
+        notifyDataChanges(changes, false);
+        long size = estimateSize(command, changes);
+        if (groupDepth > 0) {
+            if (groupEntry == null) {
+                groupEntry = new HistoryEntry(new CoalescedCommand((BinaryDataUndoableCommand) command), changes, size, endPosition, executionTime);
+                groupEntry.closed = true;
+                commands.add(groupEntry);
+                commandPosition++;
+            } else {
+                groupEntry.append(command, changes, size, endPosition, executionTime);
+            }
+            usedSize += size;
+            // Listeners are notified when group is finished
+            return;
+        }
+
+        HistoryEntry lastEntry = commandPosition > 0 ? commands.get(commandPosition - 1) : null;
+        if (lastEntry != null && canCoalesce(lastEntry, command, size, startPosition, executionTime)) {
+            lastEntry.append(command, changes, size, endPosition, executionTime);
+        } else {
+            commands.add(new HistoryEntry(command, changes, size, endPosition, executionTime));
+            commandPosition++;
+        }
+        usedSize += size;
+
+        evictCommands();
+        notifyChange();
+    }
+
+    private boolean canCoalesce(HistoryEntry lastEntry, BinaryDataCommand command, long size, long startPosition, long executionTime) {
+        // Saved state must stay reachable by undo
+        return coalescing && !lastEntry.closed && commandPosition != syncPosition
+                && startPosition >= 0 && startPosition == lastEntry.endPosition
+                && executionTime - lastEntry.executionTime <= COALESCE_TIMEOUT
+                && lastEntry.size + size <= COALESCE_SIZE_LIMIT
+                && command instanceof BinaryDataUndoableCommand
+                && command.getType().equals(lastEntry.command.getType());
+    }
+
+    /**
+     * Starts group of commands, all commands executed until group is finished
+     * are undone and redone as single command.
+     * <p>
+     * Groups can be nested, commands are grouped until outermost group is
+     * finished.
+     */
+    public void startGroup() {
+        groupDepth++;
+    }
+
+    /**
+     * Finishes group of commands started by {@link #startGroup()}.
+     */
+    public void finishGroup() {
+        if (groupDepth == 0) {
+            throw new IllegalStateException("No group of commands was started");
+        }
+
+        groupDepth--;
+        if (groupDepth == 0) {
+            boolean executed = groupEntry != null;
+            groupEntry = null;
+            if (executed) {
+                evictCommands();
+                notifyChange();
+            }
+        }
+    }
+
+    public boolean isGroupStarted() {
+        return groupDepth > 0;
+    }
+
+    /**
+     * Locks data against modifications.
+     * <p>
+     * Code area is switched to read only mode and commands are rejected until
+     * data are unlocked. Locks can be nested, data are unlocked when all
+     * locks are released.
+     */
+    public void lockData() {
+        if (lockDepth == 0 && codeArea instanceof EditModeCapable) {
+            lockedEditMode = ((EditModeCapable) codeArea).getEditMode();
+            ((EditModeCapable) codeArea).setEditMode(EditMode.READ_ONLY);
+        }
+        lockDepth++;
+        notifyChange();
+    }
+
+    /**
+     * Releases lock acquired by {@link #lockData()}.
+     */
+    public void unlockData() {
+        if (lockDepth == 0) {
+            throw new IllegalStateException("Data are not locked");
+        }
+
+        lockDepth--;
+        if (lockDepth == 0 && lockedEditMode != null) {
+            ((EditModeCapable) codeArea).setEditMode(lockedEditMode);
+            lockedEditMode = null;
+        }
+        notifyChange();
+    }
+
+    public boolean isDataLocked() {
+        return lockDepth > 0;
+    }
+
+    private void checkUnlocked() {
+        if (lockDepth > 0) {
+            throw new IllegalStateException("Data are locked by running operation");
+        }
+    }
+
+    private void removeRedoCommands() {
+        while (commands.size() > commandPosition) {
+            HistoryEntry entry = commands.remove(commands.size() - 1);
+            usedSize -= entry.size;
+            entry.command.dispose();
+        }
+        if (syncPosition > commandPosition) {
+            syncPosition = -1;
+        }
+    }
+
+    /**
+     * Drops oldest commands while limits are exceeded, last executed command
+     * is always kept.
+     */
+    private void evictCommands() {
+        while (commandPosition > 1 && (commands.size() > maximumCount || usedSize > maximumSize)) {
+            HistoryEntry entry = commands.remove(0);
+            usedSize -= entry.size;
+            entry.command.dispose();
+            commandPosition--;
+            if (syncPosition >= 0) {
+                syncPosition--;
+            }
+        }
+    }
+
+    @Nonnull
+    @Override
+    public List<BinaryDataCommand> getCommandList() {
+        List<BinaryDataCommand> result = new ArrayList<>();
+        for (HistoryEntry entry : commands) {
+            result.add(entry.command);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<BinaryDataCommand> getTopUndoCommand() {
+        return commandPosition > 0 ? Optional.of(commands.get(commandPosition - 1).command) : Optional.empty();
+    }
+
+    @Override
+    public int getCommandsCount() {
+        return commands.size();
+    }
+
+    @Override
+    public boolean isModified() {
+        return commandPosition != syncPosition;
+    }
+
+    @Override
+    public int getCommandPosition() {
+        return commandPosition;
+    }
+
+    @Override
+    public int getSyncPosition() {
+        return syncPosition;
+    }
+
+    @Override
+    public void performUndo() {
+        performUndoInt();
+        notifyChange();
+    }
+
+    @Override
+    public void performUndo(int count) {
+        for (int i = 0; i < count; i++) {
+            performUndoInt();
+        }
+        notifyChange();
+    }
+
+    private void performUndoInt() {
+        checkUnlocked();
+        if (!canUndo()) {
+            throw new IllegalStateException("No command to undo");
+        }
+
+        commandPosition--;
+        HistoryEntry entry = commands.get(commandPosition);
+        ((BinaryDataUndoableCommand) entry.command).undo();
+        for (int i = entry.changes.size() - 1; i >= 0; i--) {
+            notifyDataChanges(entry.changes.get(i), true);
+        }
+    }
+
+    @Override
+    public void performRedo() {
+        performRedoInt();
+        notifyChange();
+    }
+
+    @Override
+    public void performRedo(int count) {
+        for (int i = 0; i < count; i++) {
+            performRedoInt();
+        }
+        notifyChange();
+    }
+
+    private void performRedoInt() {
+        checkUnlocked();
+        if (!canRedo()) {
+            throw new IllegalStateException("No command to redo");
+        }
+
+        HistoryEntry entry = commands.get(commandPosition);
+        ((BinaryDataUndoableCommand) entry.command).redo();
+        commandPosition++;
+        for (DataChangesCapable changes : entry.changes) {
+            notifyDataChanges(changes, false);
+        }
+    }
+
+    @Override
+    public void performSync() {
+        if (syncPosition < 0) {
+            throw new IllegalStateException("Synchronized state was dropped from history");
+        }
+
+        while (commandPosition > syncPosition) {
+            performUndoInt();
+        }
+        while (commandPosition < syncPosition) {
+            performRedoInt();
+        }
+        notifyChange();
+    }
+
+    @Override
+    public void setSyncPosition(int syncPosition) {
+        this.syncPosition = syncPosition;
+        notifyChange();
+    }
+
+    @Override
+    public void setSyncPosition() {
+        setSyncPosition(commandPosition);
+    }
+
+    @Override
+    public void addChangeListener(BinaryDataUndoRedoChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(BinaryDataUndoRedoChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void addDataChangeListener(DataChangeListener listener) {
+        dataChangeListeners.add(listener);
+    }
+
+    public void removeDataChangeListener(DataChangeListener listener) {
+        dataChangeListeners.remove(listener);
+    }
+
+    /**
+     * Returns estimated size of payload of all commands in history.
+     *
+     * @return size in bytes
+     */
+    public long getUsedSize() {
+        return usedSize;
+    }
+
+    public int getMaximumCount() {
+        return maximumCount;
+    }
+
+    public void setMaximumCount(int maximumCount) {
+        this.maximumCount = maximumCount;
+        evictCommands();
+        notifyChange();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+        evictCommands();
+        notifyChange();
+    }
+
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    public void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    private long getCaretDataPosition() {
+        return codeArea instanceof CaretCapable ? ((CaretCapable) codeArea).getDataPosition() : -1;
+    }
+
+    /**
+     * Determines change of data made by command which doesn't report its
+     * changes.
+     * <p>
+     * Editing commands replace selection if there is any, otherwise they
+     * insert, overwrite or remove data at caret.
+     */
+    @Nonnull
+    private DataChange recordDataChange(@Nullable SelectionRange startSelection, long startDataSize, long startPosition, long endPosition) {
+        long sizeDifference = codeArea.getDataSize() - startDataSize;
+        if (startPosition < 0) {
+            return new DataChange(0, startDataSize, startDataSize + sizeDifference);
+        }
+
+        if (startSelection != null && !startSelection.isEmpty()) {
+            long removedLength = startSelection.getLength();
+            return new DataChange(startSelection.getFirst(), removedLength, Math.max(removedLength + sizeDifference, 0));
+        }
+
+        if (sizeDifference < 0) {
+            // Caret is moved before data removed by backspace
+            return new DataChange(Math.min(startPosition, endPosition), -sizeDifference, 0);
+        }
+
+        long insertedLength = Math.max(sizeDifference, endPosition - startPosition);
+        if (insertedLength == 0 && startPosition < startDataSize) {
+            // Caret stays at modified byte when only part of it was changed
+            insertedLength = 1;
+        }
+        return new DataChange(startPosition, insertedLength - sizeDifference, insertedLength);
+    }
+
+    private static long estimateSize(BinaryDataCommand command, DataChangesCapable changes) {
+        if (command instanceof PayloadSizeCapable) {
+            return COMMAND_SIZE + ((PayloadSizeCapable) command).getPayloadSize();
+        }
+
+        // Removed data are kept for undo, inserted data for redo
+        long payloadSize = 0;
+        long changesCount = changes.getDataChangesCount();
+        for (long index = 0; index < changesCount; index++) {
+            DataChange change = changes.getDataChange(index);
+            payloadSize += change.getRemovedLength() + change.getInsertedLength();
+        }
+        return COMMAND_SIZE + payloadSize;
+    }
+
+    /**
+     * Notifies listeners about changes of data made by command.
+     *
+     * @param changes changes of data
+     * @param undo true if changes were reverted, inverse changes are reported
+     * in reverse order
+     */
+    private void notifyDataChanges(DataChangesCapable changes, boolean undo) {
+        if (dataChangeListeners.isEmpty()) {
+            return;
+        }
+
+        long changesCount = changes.getDataChangesCount();
+        for (long i = 0; i < changesCount; i++) {
+            DataChange change = undo ? changes.getDataChange(changesCount - 1 - i).inverse() : changes.getDataChange(i);
+            for (DataChangeListener listener : dataChangeListeners) {
+                listener.dataChanged(change);
+            }
+        }
+        for (DataChangeListener listener : dataChangeListeners) {
+            listener.dataChangesFinished();
+        }
+    }
+
+    private void notifyChange() {
+        for (BinaryDataUndoRedoChangeListener listener : listeners) {
+            listener.undoChanged();
+        }
+    }
+
+    @ParametersAreNonnullByDefault
+    private static class HistoryEntry {
+
+        private BinaryDataCommand command;
+        private final List<DataChangesCapable> changes = new ArrayList<>();
+        private long size;
+        private long endPosition;
+        private long executionTime;
+        private boolean closed = false;
+
+        public HistoryEntry(BinaryDataCommand command, DataChangesCapable changes, long size, long endPosition, long executionTime) {
+            this.command = command;
+            this.changes.add(changes);
+            this.size = size;
+            this.endPosition = endPosition;
+            this.executionTime = executionTime;
+        }
+
+        public void append(BinaryDataCommand appendedCommand, DataChangesCapable appendedChanges, long appendedSize, long endPosition, long executionTime) {
+            if (!(command instanceof CoalescedCommand)) {
+                command = new CoalescedCommand((BinaryDataUndoableCommand) command);
+            }
+            ((CoalescedCommand) command).addCommand((BinaryDataUndoableCommand) appendedCommand);
+            changes.add(appendedChanges);
+            size += appendedSize;
+            this.endPosition = endPosition;
+            this.executionTime = executionTime;
+        }
+    }
+
+    /**
+     * Sequence of commands undone and redone as single command.
+     */
+    @ParametersAreNonnullByDefault
+    private static class CoalescedCommand implements BinaryDataUndoableCommand {
+
+        private final List<BinaryDataUndoableCommand> commands = new ArrayList<>();
+
+        public CoalescedCommand(BinaryDataUndoableCommand command) {
+            commands.add(command);
+        }
+
+        public void addCommand(BinaryDataUndoableCommand command) {
+            commands.add(command);
+        }
+
+        @Nonnull
+        @Override
+        public BinaryDataCommandType getType() {
+            return commands.get(0).getType();
+        }
+
+        @Override
+        public void execute() {
+            for (BinaryDataUndoableCommand command : commands) {
+                command.execute();
+            }
+        }
+
+        @Override
+        public void redo() {
+            for (BinaryDataUndoableCommand command : commands) {
+                command.redo();
+            }
+        }
+
+        @Override
+        public void undo() {
+            for (int i = commands.size() - 1; i >= 0; i--) {
+                commands.get(i).undo();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            for (BinaryDataUndoableCommand command : commands) {
+                command.dispose();
+            }
+        }
+    }
+
+    /**
+     * Command which can report size of data it keeps for undo.
+     */
+    public interface PayloadSizeCapable {
+
+        /**
+         * Returns size of data kept by command, whether in memory or in
+         * temporary file.
+         *
+         * @return size in bytes
+         */
+        long getPayloadSize();
+    }
+
+    /**
+     * Command which can report changes of data made by its execution.
+     * <p>
+     * Changes are reported in order in which they are applied, position of
+     * each change is relative to data with all previous changes applied.
+     */
+    public interface DataChangesCapable {
+
+        /**
+         * Returns count of changes made by execution of command.
+         *
+         * @return count of changes
+         */
+        long getDataChangesCount();
+
+        /**
+         * Returns change of data.
+         *
+         * @param index index of change
+         * @return change of data
+         */
+        @Nonnull
+        DataChange getDataChange(long index);
+    }
+
+    /**
+     * Listener for changes of data made by execution, undo and redo of
+     * commands.
+     */
+    public interface DataChangeListener {
+
+        /**
+         * Reports change of data, changes are reported in order in which they
+         * were applied.
+         *
+         * @param change change of data
+         */
+        void dataChanged(DataChange change);
+
+        /**
+         * Reports that all changes of data made by command were reported.
+         */
+        void dataChangesFinished();
+    }
+
+    /**
+     * Replacement of range of data by other data.
+     */
+    @ParametersAreNonnullByDefault
+    public static class DataChange {
+
+        private final long position;
+        private final long removedLength;
+        private final long insertedLength;
+
+        public DataChange(long position, long removedLength, long insertedLength) {
+            this.position = position;
+            this.removedLength = removedLength;
+            this.insertedLength = insertedLength;
+        }
+
+        public long getPosition() {
+            return position;
+        }
+
+        public long getRemovedLength() {
+            return removedLength;
+        }
+
+        public long getInsertedLength() {
+            return insertedLength;
+        }
+
+        /**
+         * Returns change which reverts this change.
+         *
+         * @return change of data
+         */
+        @Nonnull
+        public DataChange inverse() {
+            return new DataChange(position, insertedLength, removedLength);
+        }
+    }
+
+    /**
+     * Changes of data recorded for command which doesn't report them.
+     */
+    @ParametersAreNonnullByDefault
+    private static class RecordedChanges implements DataChangesCapable {
+
+        private final DataChange change;
+
+        public RecordedChanges(DataChange change) {
+            this.change = change;
+        }
+
+        @Override
+        public long getDataChangesCount() {
+            return 1;
+        }
+
+        @Nonnull
+        @Override
+        public DataChange getDataChange(long index) {
+            if (index != 0) {
+                throw new IndexOutOfBoundsException("Invalid change index " + index);
+            }
+            return change;
+        }
+    }
+}
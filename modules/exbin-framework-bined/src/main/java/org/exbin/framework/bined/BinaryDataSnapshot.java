@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+
+/**
+ * Snapshot of binary data for reading on background threads.
+ * <p>
+ * Snapshot has to be created and disposed on event dispatch thread while data
+ * are locked against modifications. Document which keeps reading state is
+ * copied for each reader, so readers can be used in parallel with each other
+ * and with painting of code area. Data stored in memory don't change on
+ * reading and are shared by all readers.
+ * <p>
+ * Snapshot itself reads data using its first reader.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BinaryDataSnapshot implements BinaryData {
+
+    private final BinaryData data;
+    private final List<BinaryData> readers = new ArrayList<>();
+    private final BlockingQueue<BinaryData> availableReaders;
+
+    private BinaryDataSnapshot(BinaryData data, int readersCount) {
+        this.data = data;
+        availableReaders = new ArrayBlockingQueue<>(readersCount);
+        for (int i = 0; i < readersCount; i++) {
+            BinaryData reader = data instanceof DeltaDocument ? data.copy() : data;
+            readers.add(reader);
+            availableReaders.add(reader);
+        }
+    }
+
+    /**
+     * Creates snapshot of data with single reader.
+     *
+     * @param data source data
+     * @return snapshot
+     */
+    @Nonnull
+    public static BinaryDataSnapshot create(BinaryData data) {
+        return new BinaryDataSnapshot(data, 1);
+    }
+
+    /**
+     * Creates snapshot of data with given count of independent readers.
+     *
+     * @param data source data
+     * @param readersCount count of readers
+     * @return snapshot
+     */
+    @Nonnull
+    public static BinaryDataSnapshot create(BinaryData data, int readersCount) {
+        if (readersCount < 1) {
+            throw new IllegalArgumentException("At least one reader is required");
+        }
+
+        return new BinaryDataSnapshot(data, readersCount);
+    }
+
+    public int getReadersCount() {
+        return readers.size();
+    }
+
+    /**
+     * Takes reader for exclusive use by current thread, waits if all readers
+     * are used.
+     *
+     * @return reader
+     * @throws InterruptedException if waiting was interrupted
+     */
+    @Nonnull
+    public BinaryData acquireReader() throws InterruptedException {
+        return availableReaders.take();
+    }
+
+    /**
+     * Returns reader taken by {@link #acquireReader()}.
+     *
+     * @param reader reader
+     */
+    public void releaseReader(BinaryData reader) {
+        availableReaders.add(reader);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return readers.get(0).isEmpty();
+    }
+
+    @Override
+    public long getDataSize() {
+        return readers.get(0).getDataSize();
+    }
+
+    @Override
+    public byte getByte(long position) {
+        return readers.get(0).getByte(position);
+    }
+
+    @Nonnull
+    @Override
+    public BinaryData copy() {
+        return readers.get(0).copy();
+    }
+
+    @Nonnull
+    @Override
+    public BinaryData copy(long startFrom, long length) {
+        return readers.get(0).copy(startFrom, length);
+    }
+
+    @Override
+    public void copyToArray(long startFrom, byte[] target, int offset, int length) {
+        readers.get(0).copyToArray(startFrom, target, offset, length);
+    }
+
+    @Override
+    public void saveToStream(OutputStream outputStream) throws IOException {
+        readers.get(0).saveToStream(outputStream);
+    }
+
+    @Nonnull
+    @Override
+    public InputStream getDataInputStream() {
+        return readers.get(0).getDataInputStream();
+    }
+
+    /**
+     * Disposes copies of data made for readers, source data are kept.
+     */
+    @Override
+    public void dispose() {
+        for (BinaryData reader : readers) {
+            if (reader != data) {
+                reader.dispose();
+            }
+        }
+        readers.clear();
+        availableReaders.clear();
+    }
+}
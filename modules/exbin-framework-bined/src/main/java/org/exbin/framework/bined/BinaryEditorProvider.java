@@ -34,12 +34,12 @@ import java.util.logging.Logger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
-import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
 import org.exbin.bined.CodeAreaCaretPosition;
 import org.exbin.bined.EditMode;
 import org.exbin.bined.EditOperation;
 import org.exbin.bined.SelectionRange;
 import org.exbin.bined.capability.EditModeCapable;
+import org.exbin.bined.operation.undo.BinaryDataUndoRedo;
 import org.exbin.bined.swing.section.SectCodeArea;
 import org.exbin.framework.App;
 import org.exbin.framework.bined.gui.BinEdComponentPanel;
@@ -153,6 +153,7 @@ public class BinaryEditorProvider implements EditorProvider, BinEdEditorProvider
                 editorModificationListener.modified();
             }
             updateCurrentDocumentSize();
+            updateCurrentUndoHistorySize();
         });
 
         codeArea.addSelectionChangedListener(() -> {
@@ -168,16 +169,42 @@ public class BinaryEditorProvider implements EditorProvider, BinEdEditorProvider
             binaryStatus.setEditMode(mode, operation);
         });
 
+        activeFile.setLoadingListener(new FileDataLoader.LoadingListener() {
+            @Override
+            public void loadingProgress(long loadedSize, long totalSize) {
+                binaryStatus.setLoadProgress(loadedSize, totalSize);
+            }
+
+            @Override
+            public void loadingFinished(long loadedSize, boolean complete) {
+                updateStatus();
+            }
+        });
+
+        activeFile.setSavingListener(new FileDataSaver.SavingListener() {
+            @Override
+            public void savingProgress(long savedSize, long totalSize) {
+                binaryStatus.setSaveProgress(savedSize, totalSize);
+            }
+
+            @Override
+            public void savingFinished(@Nullable File savedFile) {
+                updateStatus();
+            }
+        });
+
         updateStatus();
     }
 
     @Override
     public void updateStatus() {
         updateCurrentDocumentSize();
+        updateCurrentUndoHistorySize();
         updateCurrentCaretPosition();
         updateCurrentSelectionRange();
         updateCurrentMemoryMode();
         updateCurrentEditMode();
+        updateCurrentOperationProgress();
     }
 
     @Override
@@ -196,6 +223,15 @@ public class BinaryEditorProvider implements EditorProvider, BinEdEditorProvider
         binaryStatus.setCurrentDocumentSize(dataSize, documentOriginalSize);
     }
 
+    private void updateCurrentUndoHistorySize() {
+        if (binaryStatus == null) {
+            return;
+        }
+
+        Optional<BinaryDataUndoRedo> undoRedo = activeFile.getCodeAreaUndoHandler();
+        binaryStatus.setUndoHistorySize(undoRedo.isPresent() && undoRedo.get() instanceof BinEdUndoRedo ? ((BinEdUndoRedo) undoRedo.get()).getUsedSize() : -1);
+    }
+
     private void updateCurrentCaretPosition() {
         if (binaryStatus == null) {
             return;
@@ -225,8 +261,15 @@ public class BinaryEditorProvider implements EditorProvider, BinEdEditorProvider
         BinaryStatusApi.MemoryMode newMemoryMode = BinaryStatusApi.MemoryMode.RAM_MEMORY;
         if (((EditModeCapable) codeArea).getEditMode() == EditMode.READ_ONLY) {
             newMemoryMode = BinaryStatusApi.MemoryMode.READ_ONLY;
-        } else if (codeArea.getContentData() instanceof DeltaDocument) {
-            newMemoryMode = BinaryStatusApi.MemoryMode.DELTA_MODE;
+        } else {
+            switch (activeFile.getFileHandlingMode()) {
+                case DELTA:
+                    newMemoryMode = BinaryStatusApi.MemoryMode.DELTA_MODE;
+                    break;
+                case MAPPED:
+                    newMemoryMode = BinaryStatusApi.MemoryMode.MAPPED_MODE;
+                    break;
+            }
         }
 
         binaryStatus.setMemoryMode(newMemoryMode);
@@ -241,6 +284,22 @@ public class BinaryEditorProvider implements EditorProvider, BinEdEditorProvider
         binaryStatus.setEditMode(codeArea.getEditMode(), codeArea.getActiveOperation());
     }
 
+    private void updateCurrentOperationProgress() {
+        if (binaryStatus == null) {
+            return;
+        }
+
+        Optional<FileDataLoader> fileDataLoader = activeFile.getFileDataLoader();
+        Optional<FileDataSaver> fileDataSaver = activeFile.getFileDataSaver();
+        if (fileDataLoader.isPresent()) {
+            binaryStatus.setLoadProgress(fileDataLoader.get().getLoadedSize(), fileDataLoader.get().getTotalSize());
+        } else if (fileDataSaver.isPresent()) {
+            binaryStatus.setSaveProgress(fileDataSaver.get().getSavedSize(), fileDataSaver.get().getTotalSize());
+        } else {
+            binaryStatus.setLoadProgress(-1, 0);
+        }
+    }
+
     @Override
     public void registerEncodingStatus(TextEncodingStatusApi encodingStatus) {
         encodingStatus.setEncoding(activeFile.getCharset().name());
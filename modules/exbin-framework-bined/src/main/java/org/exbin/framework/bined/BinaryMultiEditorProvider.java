@@ -27,20 +27,22 @@ import java.awt.dnd.DropTargetDropEvent;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.swing.JPopupMenu;
 import javax.swing.JViewport;
 import javax.swing.event.PopupMenuEvent;
 import javax.swing.event.PopupMenuListener;
-import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
 import org.exbin.bined.CodeAreaCaretPosition;
 import org.exbin.bined.EditMode;
 import org.exbin.bined.EditOperation;
 import org.exbin.bined.SelectionRange;
 import org.exbin.bined.capability.EditModeCapable;
+import org.exbin.bined.operation.undo.BinaryDataUndoRedo;
 import org.exbin.bined.swing.section.SectCodeArea;
 import org.exbin.framework.App;
 import org.exbin.framework.bined.handler.CodeAreaPopupMenuHandler;
@@ -149,6 +151,7 @@ public class BinaryMultiEditorProvider extends DefaultMultiEditorProvider implem
         fileHandler.getUndoRedo().addChangeListener(() -> {
             // TODO undoRedo.notifyUndoUpdate();
             updateCurrentDocumentSize();
+            updateCurrentUndoHistorySize();
             // notifyModified();
         });
         fileManager.initCommandHandler(fileHandler.getComponent());
@@ -161,6 +164,7 @@ public class BinaryMultiEditorProvider extends DefaultMultiEditorProvider implem
                     editorModificationListener.modified();
                 }
                 updateCurrentDocumentSize();
+                updateCurrentUndoHistorySize();
             }
         });
 
@@ -183,6 +187,38 @@ public class BinaryMultiEditorProvider extends DefaultMultiEditorProvider implem
             }
         });
 
+        fileHandler.setLoadingListener(new FileDataLoader.LoadingListener() {
+            @Override
+            public void loadingProgress(long loadedSize, long totalSize) {
+                if (fileHandler == activeFile && binaryStatus != null) {
+                    binaryStatus.setLoadProgress(loadedSize, totalSize);
+                }
+            }
+
+            @Override
+            public void loadingFinished(long loadedSize, boolean complete) {
+                if (fileHandler == activeFile && binaryStatus != null) {
+                    updateStatus();
+                }
+            }
+        });
+
+        fileHandler.setSavingListener(new FileDataSaver.SavingListener() {
+            @Override
+            public void savingProgress(long savedSize, long totalSize) {
+                if (fileHandler == activeFile && binaryStatus != null) {
+                    binaryStatus.setSaveProgress(savedSize, totalSize);
+                }
+            }
+
+            @Override
+            public void savingFinished(@Nullable File savedFile) {
+                if (fileHandler == activeFile && binaryStatus != null) {
+                    updateStatus();
+                }
+            }
+        });
+
         PreferencesModuleApi preferencesModule = App.getModule(PreferencesModuleApi.class);
         fileHandler.onInitFromPreferences(new BinaryEditorPreferences(preferencesModule.getAppPreferences()));
 
@@ -209,10 +245,12 @@ public class BinaryMultiEditorProvider extends DefaultMultiEditorProvider implem
     @Override
     public void updateStatus() {
         updateCurrentDocumentSize();
+        updateCurrentUndoHistorySize();
         updateCurrentCaretPosition();
         updateCurrentSelectionRange();
         updateCurrentMemoryMode();
         updateCurrentEditMode();
+        updateCurrentOperationProgress();
     }
 
     @Override
@@ -294,6 +332,17 @@ public class BinaryMultiEditorProvider extends DefaultMultiEditorProvider implem
         }
     }
 
+    private void updateCurrentUndoHistorySize() {
+        if (binaryStatus == null) {
+            return;
+        }
+
+        if (activeFile instanceof BinEdFileHandler) {
+            Optional<BinaryDataUndoRedo> undoRedo = ((BinEdFileHandler) activeFile).getCodeAreaUndoHandler();
+            binaryStatus.setUndoHistorySize(undoRedo.isPresent() && undoRedo.get() instanceof BinEdUndoRedo ? ((BinEdUndoRedo) undoRedo.get()).getUsedSize() : -1);
+        }
+    }
+
     private void updateCurrentCaretPosition() {
         if (binaryStatus == null) {
             return;
@@ -328,8 +377,15 @@ public class BinaryMultiEditorProvider extends DefaultMultiEditorProvider implem
             BinaryStatusApi.MemoryMode newMemoryMode = BinaryStatusApi.MemoryMode.RAM_MEMORY;
             if (((EditModeCapable) codeArea).getEditMode() == EditMode.READ_ONLY) {
                 newMemoryMode = BinaryStatusApi.MemoryMode.READ_ONLY;
-            } else if (codeArea.getContentData() instanceof DeltaDocument) {
-                newMemoryMode = BinaryStatusApi.MemoryMode.DELTA_MODE;
+            } else {
+                switch (((BinEdFileHandler) activeFile).getFileHandlingMode()) {
+                    case DELTA:
+                        newMemoryMode = BinaryStatusApi.MemoryMode.DELTA_MODE;
+                        break;
+                    case MAPPED:
+                        newMemoryMode = BinaryStatusApi.MemoryMode.MAPPED_MODE;
+                        break;
+                }
             }
 
             binaryStatus.setMemoryMode(newMemoryMode);
@@ -347,6 +403,26 @@ public class BinaryMultiEditorProvider extends DefaultMultiEditorProvider implem
         }
     }
 
+    private void updateCurrentOperationProgress() {
+        if (binaryStatus == null) {
+            return;
+        }
+
+        if (activeFile instanceof BinEdFileHandler) {
+            Optional<FileDataLoader> fileDataLoader = ((BinEdFileHandler) activeFile).getFileDataLoader();
+            Optional<FileDataSaver> fileDataSaver = ((BinEdFileHandler) activeFile).getFileDataSaver();
+            if (fileDataLoader.isPresent()) {
+                binaryStatus.setLoadProgress(fileDataLoader.get().getLoadedSize(), fileDataLoader.get().getTotalSize());
+            } else if (fileDataSaver.isPresent()) {
+                binaryStatus.setSaveProgress(fileDataSaver.get().getSavedSize(), fileDataSaver.get().getTotalSize());
+            } else {
+                binaryStatus.setLoadProgress(-1, 0);
+            }
+        } else {
+            binaryStatus.setLoadProgress(-1, 0);
+        }
+    }
+
     private void updateCurrentEncoding() {
         if (textEncodingStatusApi == null) {
             return;
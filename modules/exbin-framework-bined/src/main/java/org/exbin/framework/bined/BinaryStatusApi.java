@@ -68,12 +68,38 @@ public interface BinaryStatusApi {
      */
     void setMemoryMode(MemoryMode memoryMode);
 
+    /**
+     * Reports estimated size of data kept in undo history.
+     *
+     * @param historySize size of undo history in bytes or -1 if not known
+     */
+    void setUndoHistorySize(long historySize);
+
+    /**
+     * Reports progress of file content loading.
+     *
+     * @param loadedSize size of already loaded data or -1 if no loading is in
+     * progress
+     * @param totalSize total size of loaded data
+     */
+    void setLoadProgress(long loadedSize, long totalSize);
+
+    /**
+     * Reports progress of file saving.
+     *
+     * @param savedSize size of already saved data or -1 if no saving is in
+     * progress
+     * @param totalSize total size of saved data
+     */
+    void setSaveProgress(long savedSize, long totalSize);
+
     @ParametersAreNonnullByDefault
     public enum MemoryMode {
 
         READ_ONLY("R", "read_only"),
         RAM_MEMORY("M", "ram"),
-        DELTA_MODE("\u0394", "delta");
+        DELTA_MODE("\u0394", "delta"),
+        MAPPED_MODE("F", "mapped");
 
         private final String displayChar;
         private final String value;
@@ -299,7 +299,18 @@ public class BinedModule implements Module {
                 if (activeFile.isPresent()) {
                     BinEdFileHandler fileHandler = (BinEdFileHandler) activeFile.get();
                     FileHandlingMode fileHandlingMode = fileHandler.getFileHandlingMode();
-                    FileHandlingMode newHandlingMode = memoryMode == BinaryStatusApi.MemoryMode.DELTA_MODE ? FileHandlingMode.DELTA : FileHandlingMode.MEMORY;
+                    FileHandlingMode newHandlingMode;
+                    switch (memoryMode) {
+                        case DELTA_MODE:
+                            newHandlingMode = FileHandlingMode.DELTA;
+                            break;
+                        case MAPPED_MODE:
+                            newHandlingMode = FileHandlingMode.MAPPED;
+                            break;
+                        default:
+                            newHandlingMode = FileHandlingMode.MEMORY;
+                            break;
+                    }
                     if (newHandlingMode != fileHandlingMode) {
                         PreferencesModuleApi preferencesModule = App.getModule(PreferencesModuleApi.class);
                         BinaryEditorPreferences preferences = new BinaryEditorPreferences(preferencesModule.getAppPreferences());
@@ -311,6 +322,22 @@ public class BinedModule implements Module {
                     }
                 }
             }
+
+            @Override
+            public void cancelLoading() {
+                Optional<FileHandler> activeFile = editorProvider.getActiveFile();
+                if (activeFile.isPresent()) {
+                    ((BinEdFileHandler) activeFile.get()).cancelLoading();
+                }
+            }
+
+            @Override
+            public void cancelSaving() {
+                Optional<FileHandler> activeFile = editorProvider.getActiveFile();
+                if (activeFile.isPresent()) {
+                    ((BinEdFileHandler) activeFile.get()).cancelSaving();
+                }
+            }
         });
 
         if (encodingsHandler != null) {
@@ -387,6 +387,18 @@ public class BinedOptionsManager {
                     ((CodeAreaOperationCommandHandler) commandHandler).setTabKeyHandlingMode(tabKeyHandlingMode);
                 }
             }
+
+            @Override
+            public void setUndoLimits(int maximumCount, long maximumSize) {
+                Optional<FileHandler> activeFile = editorProvider.getActiveFile();
+                if (activeFile.isPresent()) {
+                    SectCodeArea codeArea = ((BinEdFileHandler) activeFile.get()).getCodeArea();
+                    BinEdUndoRedo.findUndoRedo(codeArea).ifPresent((undoRedo) -> {
+                        undoRedo.setMaximumCount(maximumCount);
+                        undoRedo.setMaximumSize(maximumSize);
+                    });
+                }
+            }
         };
         editorOptionsPage = new DefaultOptionsPage<EditorOptionsImpl>() {
             private EditorOptionsPanel panel;
@@ -399,6 +411,7 @@ public class BinedOptionsManager {
                     List<String> fileHandlingModes = new ArrayList<>();
                     fileHandlingModes.add(resourceBundle.getString("fileHandlingMode.memory"));
                     fileHandlingModes.add(resourceBundle.getString("fileHandlingMode.delta"));
+                    fileHandlingModes.add(resourceBundle.getString("fileHandlingMode.mapped"));
                     panel.setFileHandlingModes(fileHandlingModes);
                     List<String> enderKeyHandlingModes = new ArrayList<>();
                     enderKeyHandlingModes.add(resourceBundle.getString("enterKeyHandlingMode.platformSpecific"));
@@ -448,6 +461,8 @@ public class BinedOptionsManager {
                 // editorOptionsService.setFileHandlingMode(options.getFileHandlingMode());
                 editorOptionsService.setEnterKeyHandlingMode(options.getEnterKeyHandlingMode());
                 editorOptionsService.setTabKeyHandlingMode(options.getTabKeyHandlingMode());
+                editorOptionsService.setUndoLimits(options.getUndoMaximumCount(), options.getUndoMaximumSize());
+                fileManager.applyUndoOptions(options);
             }
         };
         optionsModule.addOptionsPage(editorOptionsPage);
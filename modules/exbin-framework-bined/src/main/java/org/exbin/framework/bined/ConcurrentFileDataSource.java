@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.delta.file.FileDataSource;
+
+/**
+ * File data source which can be read from multiple threads at once.
+ * <p>
+ * Reading uses positional reads of file channel which don't share any state,
+ * so document and its snapshots can be read by background operations while
+ * document is painted. Single bytes are read through small page kept for each
+ * thread. Writing is left to file data source.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class ConcurrentFileDataSource extends FileDataSource {
+
+    public static final int PAGE_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final ThreadLocal<CachedPage> cachedPage = ThreadLocal.withInitial(CachedPage::new);
+
+    public ConcurrentFileDataSource(File sourceFile) throws IOException {
+        super(sourceFile);
+        channel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+    }
+
+    @Override
+    public byte getByte(long position) {
+        CachedPage page = cachedPage.get();
+        if (position < page.position || position >= page.position + page.length) {
+            long pagePosition = position - (position % PAGE_SIZE);
+            try {
+                int length = read(pagePosition, page.data, 0, PAGE_SIZE);
+                page.position = pagePosition;
+                page.length = Math.max(length, 0);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            if (position >= page.position + page.length) {
+                throw new IndexOutOfBoundsException("Position is out of file range: " + position);
+            }
+        }
+
+        return page.data[(int) (position - page.position)];
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+        int processed = 0;
+        while (processed < length) {
+            int readLength = channel.read(target, position + processed);
+            if (readLength < 0) {
+                break;
+            }
+            processed += readLength;
+        }
+
+        return processed == 0 && length > 0 ? -1 : processed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            super.close();
+        }
+    }
+
+    private static class CachedPage {
+
+        private final byte[] data = new byte[PAGE_SIZE];
+        private long position = 0;
+        private int length = 0;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.bined.operation.BinaryDataCommandType;
+import org.exbin.bined.operation.undo.BinaryDataUndoableCommand;
+
+/**
+ * Command with known change of data.
+ * <p>
+ * Wraps command which doesn't report change of data it makes, so that undo
+ * handler doesn't have to determine it from state of code area.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class DataChangeCommand implements BinaryDataUndoableCommand, BinEdUndoRedo.DataChangesCapable {
+
+    private final BinaryDataUndoableCommand command;
+    private final BinEdUndoRedo.DataChange change;
+
+    /**
+     * Creates command.
+     *
+     * @param command wrapped command
+     * @param position position of change
+     * @param removedLength length of data removed or overwritten by command
+     * @param insertedLength length of data inserted or written by command
+     */
+    public DataChangeCommand(BinaryDataUndoableCommand command, long position, long removedLength, long insertedLength) {
+        this.command = command;
+        change = new BinEdUndoRedo.DataChange(position, removedLength, insertedLength);
+    }
+
+    @Nonnull
+    @Override
+    public BinaryDataCommandType getType() {
+        return command.getType();
+    }
+
+    @Override
+    public void execute() {
+        command.execute();
+    }
+
+    @Override
+    public void redo() {
+        command.redo();
+    }
+
+    @Override
+    public void undo() {
+        command.undo();
+    }
+
+    @Override
+    public long getDataChangesCount() {
+        return 1;
+    }
+
+    @Nonnull
+    @Override
+    public BinEdUndoRedo.DataChange getDataChange(long index) {
+        return change;
+    }
+
+    @Override
+    public void dispose() {
+        command.dispose();
+    }
+}
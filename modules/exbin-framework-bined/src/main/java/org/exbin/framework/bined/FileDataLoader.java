@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.SwingUtilities;
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+
+/**
+ * Loader filling data of file content in background thread.
+ * <p>
+ * Target data has to be already of the size of the file, loader only replaces
+ * its content, so data can be shown while it is loaded. File is read on
+ * background thread, but read blocks are written to data on event dispatch
+ * thread, so data are never modified while they are painted. Count of read
+ * blocks waiting for event dispatch thread is limited. Data must not be
+ * modified until loading is finished. Listener is always notified on event
+ * dispatch thread.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class FileDataLoader {
+
+    public static final int BUFFER_SIZE = 1024 * 1024;
+    public static final int MAX_PENDING_BLOCKS = 4;
+
+    private static final long OFFER_TIMEOUT = 100;
+
+    private final File file;
+    private final EditableBinaryData data;
+    private final long totalSize;
+    private final LoadingListener loadingListener;
+    private final BlockingQueue<DataBlock> pendingBlocks = new ArrayBlockingQueue<>(MAX_PENDING_BLOCKS);
+    private final AtomicBoolean writePending = new AtomicBoolean();
+    private volatile long loadedSize = 0;
+    private volatile boolean cancelled = false;
+    private volatile boolean finished = false;
+    private Thread loaderThread;
+
+    public FileDataLoader(File file, EditableBinaryData data, LoadingListener loadingListener) {
+        this.file = file;
+        this.data = data;
+        this.totalSize = data.getDataSize();
+        this.loadingListener = loadingListener;
+    }
+
+    /**
+     * Starts loading in background thread.
+     */
+    public void start() {
+        loaderThread = new Thread(this::load, "Loading " + file.getName());
+        loaderThread.setDaemon(true);
+        loaderThread.start();
+    }
+
+    /**
+     * Requests cancellation of loading.
+     * <p>
+     * Already loaded data are kept and listener is notified about finished
+     * loading as usual.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Cancels loading and waits until background thread is finished.
+     * <p>
+     * Listener is not notified afterwards, as caller is expected to drop the
+     * data.
+     */
+    public void cancelAndWait() {
+        cancelled = true;
+        finished = true;
+        if (loaderThread != null) {
+            try {
+                loaderThread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        pendingBlocks.clear();
+    }
+
+    /**
+     * Returns size of data loaded so far.
+     * <p>
+     * Data before this position are fully written to target data.
+     *
+     * @return loaded size
+     */
+    public long getLoadedSize() {
+        return loadedSize;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Nonnull
+    public File getFile() {
+        return file;
+    }
+
+    private void load() {
+        try (InputStream stream = new FileInputStream(file)) {
+            int bufferSize = (int) Math.min(BUFFER_SIZE, Math.max(totalSize, 1));
+            long position = 0;
+            while (position < totalSize && !cancelled) {
+                byte[] buffer = new byte[bufferSize];
+                int length = stream.read(buffer, 0, (int) Math.min(buffer.length, totalSize - position));
+                if (length < 0) {
+                    break;
+                }
+
+                DataBlock block = new DataBlock(position, buffer, length);
+                while (!cancelled && !pendingBlocks.offer(block, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    // Waiting for event dispatch thread to write previous blocks
+                }
+                position += length;
+                if (writePending.compareAndSet(false, true)) {
+                    SwingUtilities.invokeLater(this::writePendingBlocks);
+                }
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(FileDataLoader.class.getName()).log(Level.SEVERE, null, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            if (!finished) {
+                writePendingBlocks();
+                finished = true;
+                loadingListener.loadingFinished(loadedSize, loadedSize == totalSize);
+            }
+        });
+    }
+
+    /**
+     * Writes read blocks to data, called on event dispatch thread.
+     */
+    private void writePendingBlocks() {
+        writePending.set(false);
+        if (finished) {
+            return;
+        }
+
+        long position = loadedSize;
+        DataBlock block;
+        while ((block = pendingBlocks.poll()) != null) {
+            data.replace(block.position, block.buffer, 0, block.length);
+            position = block.position + block.length;
+        }
+        if (position != loadedSize) {
+            loadedSize = position;
+            loadingListener.loadingProgress(loadedSize, totalSize);
+        }
+    }
+
+    /**
+     * Block of file content waiting to be written to data.
+     */
+    @ParametersAreNonnullByDefault
+    private static class DataBlock {
+
+        private final long position;
+        private final byte[] buffer;
+        private final int length;
+
+        public DataBlock(long position, byte[] buffer, int length) {
+            this.position = position;
+            this.buffer = buffer;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Listener for loading progress.
+     */
+    public interface LoadingListener {
+
+        /**
+         * Reports progress of loading.
+         *
+         * @param loadedSize size of already loaded data
+         * @param totalSize total size of data
+         */
+        void loadingProgress(long loadedSize, long totalSize);
+
+        /**
+         * Reports end of loading.
+         *
+         * @param loadedSize size of loaded data
+         * @param complete true if whole file was loaded, false if loading was
+         * cancelled or failed
+         */
+        void loadingFinished(long loadedSize, boolean complete);
+    }
+}
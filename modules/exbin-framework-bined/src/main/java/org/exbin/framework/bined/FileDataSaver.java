@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import java.awt.SecondaryLoop;
+import java.awt.Toolkit;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.SwingUtilities;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Saver writing data to file in background thread.
+ * <p>
+ * Data are written to temporary file in the same directory, which is synced
+ * to disk and then atomically renamed to target file, so target file is never
+ * left partially written. Target file is replaced while it might be still
+ * open for reading of data which were loaded from it, if replacing fails,
+ * target file is kept as it was and temporary file is deleted.
+ * <p>
+ * Data are read on background thread, so they have to support reading from
+ * other thread, such as {@link BinaryDataSnapshot}, and must not be modified
+ * while saving is running. Listener is always notified on event dispatch
+ * thread.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class FileDataSaver {
+
+    public static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final BinaryData data;
+    private final File targetFile;
+    private final long totalSize;
+    private final SavingListener savingListener;
+    private final AtomicBoolean progressPending = new AtomicBoolean();
+    private volatile long savedSize = 0;
+    private volatile boolean cancelled = false;
+    private boolean finished = false;
+    private SecondaryLoop finishLoop = null;
+
+    public FileDataSaver(BinaryData data, File targetFile, SavingListener savingListener) {
+        this.data = data;
+        this.targetFile = targetFile.getAbsoluteFile();
+        this.totalSize = data.getDataSize();
+        this.savingListener = savingListener;
+    }
+
+    /**
+     * Starts saving in background thread.
+     * <p>
+     * Has to be called on event dispatch thread.
+     */
+    public void start() {
+        Thread saverThread = new Thread(this::save, "Saving " + targetFile.getName());
+        saverThread.start();
+    }
+
+    /**
+     * Requests cancellation of saving.
+     * <p>
+     * Target file is left untouched if saving wasn't finished yet.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Waits until saving is finished.
+     * <p>
+     * When called on event dispatch thread, events are still processed while
+     * waiting, so user interface stays responsive.
+     */
+    public void waitForFinish() {
+        if (finished) {
+            return;
+        }
+
+        SecondaryLoop loop = Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop();
+        SecondaryLoop parentLoop = finishLoop;
+        finishLoop = loop;
+        loop.enter();
+        if (parentLoop != null) {
+            parentLoop.exit();
+        }
+    }
+
+    public long getSavedSize() {
+        return savedSize;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Nonnull
+    public File getTargetFile() {
+        return targetFile;
+    }
+
+    private void save() {
+        File tempFile = createTempFile();
+        boolean written = false;
+        try {
+            written = writeData(tempFile);
+        } catch (IOException | RuntimeException ex) {
+            Logger.getLogger(FileDataSaver.class.getName()).log(Level.SEVERE, null, ex);
+        }
+
+        boolean dataWritten = written;
+        SwingUtilities.invokeLater(() -> finish(tempFile, dataWritten));
+    }
+
+    private boolean writeData(File tempFile) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(totalSize, 1))];
+        try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
+            FileChannel channel = outputStream.getChannel();
+            long position = 0;
+            while (position < totalSize) {
+                if (cancelled) {
+                    return false;
+                }
+
+                int length = (int) Math.min(buffer.length, totalSize - position);
+                data.copyToArray(position, buffer, 0, length);
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+                position += length;
+                savedSize = position;
+                if (progressPending.compareAndSet(false, true)) {
+                    SwingUtilities.invokeLater(this::notifyProgress);
+                }
+            }
+
+            channel.force(true);
+        }
+        copyPermissions(tempFile);
+        return !cancelled;
+    }
+
+    private void finish(File tempFile, boolean written) {
+        File savedFile = null;
+        if (written && !cancelled) {
+            try {
+                replaceTarget(tempFile.toPath());
+                savedFile = targetFile;
+            } catch (IOException ex) {
+                Logger.getLogger(FileDataSaver.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+
+        if (savedFile == null) {
+            tempFile.delete();
+        }
+
+        finished = true;
+        savingListener.savingFinished(savedFile);
+        if (finishLoop != null) {
+            finishLoop.exit();
+        }
+    }
+
+    private void replaceTarget(Path tempPath) throws IOException {
+        try {
+            Files.move(tempPath, targetFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tempPath, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Nonnull
+    private File createTempFile() {
+        File directory = targetFile.getParentFile();
+        String prefix = "." + targetFile.getName() + ".";
+        int index = 0;
+        File tempFile;
+        do {
+            tempFile = new File(directory, prefix + Long.toHexString(System.nanoTime() + index) + TEMP_FILE_SUFFIX);
+            index++;
+        } while (tempFile.exists());
+        return tempFile;
+    }
+
+    private void copyPermissions(File tempFile) {
+        if (!targetFile.exists()) {
+            return;
+        }
+
+        try {
+            Files.setPosixFilePermissions(tempFile.toPath(), Files.getPosixFilePermissions(targetFile.toPath()));
+        } catch (UnsupportedOperationException | IOException ex) {
+            // Permissions are kept as default for file system without POSIX permissions
+        }
+    }
+
+    private void notifyProgress() {
+        progressPending.set(false);
+        if (!finished) {
+            savingListener.savingProgress(savedSize, totalSize);
+        }
+    }
+
+    /**
+     * Listener for saving progress.
+     */
+    public interface SavingListener {
+
+        /**
+         * Reports progress of saving.
+         *
+         * @param savedSize size of already written data
+         * @param totalSize total size of data
+         */
+        void savingProgress(long savedSize, long totalSize);
+
+        /**
+         * Reports end of saving.
+         *
+         * @param savedFile target file if data was saved or null if saving
+         * was cancelled, failed or was rejected
+         */
+        void savingFinished(@Nullable File savedFile);
+    }
+}
@@ -32,5 +32,10 @@ public enum FileHandlingMode {
     /**
      * File is handled using delta changes.
      */
-    DELTA;
+    DELTA,
+    /**
+     * File is accessed using memory mapped regions with changes handled as
+     * deltas.
+     */
+    MAPPED;
 }
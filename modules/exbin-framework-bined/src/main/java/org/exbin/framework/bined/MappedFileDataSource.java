@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.delta.file.FileDataSource;
+
+/**
+ * File data source reading file content through memory mapped windows.
+ * <p>
+ * File is mapped lazily in windows of fixed size and only limited count of
+ * recently used windows is kept, so opening of file doesn't depend on its
+ * size and reading of random positions doesn't require system call for each
+ * page. Writing is left to file data source.
+ * <p>
+ * Windows can be read from multiple threads at once. Dropped windows are
+ * unmapped explicitly as soon as no thread reads them, as file cannot be
+ * replaced or deleted on some systems while it is mapped.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class MappedFileDataSource extends FileDataSource {
+
+    public static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    public static final int MAX_MAPPED_WINDOWS = 16;
+
+    private static final int WINDOW_SHIFT = 26;
+
+    private final RandomAccessFile mappedFile;
+    private final FileChannel channel;
+    private final Map<Long, MappedWindow> windows = new LinkedHashMap<Long, MappedWindow>(MAX_MAPPED_WINDOWS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, MappedWindow> eldest) {
+            if (size() > MAX_MAPPED_WINDOWS) {
+                eldest.getValue().drop();
+                return true;
+            }
+            return false;
+        }
+    };
+    private long mappedFileSize = -1;
+
+    public MappedFileDataSource(File sourceFile) throws IOException {
+        super(sourceFile);
+        mappedFile = new RandomAccessFile(sourceFile, "r");
+        channel = mappedFile.getChannel();
+    }
+
+    @Override
+    public byte getByte(long position) {
+        MappedWindow window;
+        try {
+            window = acquireWindow(position >> WINDOW_SHIFT);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        int offset = (int) (position & (WINDOW_SIZE - 1));
+        if (window == null) {
+            throw new IndexOutOfBoundsException("Position is out of file range: " + position);
+        }
+
+        try {
+            if (offset >= window.buffer.limit()) {
+                throw new IndexOutOfBoundsException("Position is out of file range: " + position);
+            }
+            return window.buffer.get(offset);
+        } finally {
+            releaseWindow(window);
+        }
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        int processed = 0;
+        while (processed < length) {
+            MappedWindow window = acquireWindow((position + processed) >> WINDOW_SHIFT);
+            if (window == null) {
+                break;
+            }
+
+            try {
+                int windowOffset = (int) ((position + processed) & (WINDOW_SIZE - 1));
+                if (windowOffset >= window.buffer.limit()) {
+                    break;
+                }
+
+                int copyLength = Math.min(length - processed, window.buffer.limit() - windowOffset);
+                ByteBuffer view = window.buffer.duplicate();
+                view.position(windowOffset);
+                view.get(buffer, offset + processed, copyLength);
+                processed += copyLength;
+            } finally {
+                releaseWindow(window);
+            }
+        }
+
+        return processed == 0 && length > 0 ? -1 : processed;
+    }
+
+    /**
+     * Drops all mapped windows.
+     * <p>
+     * Has to be called before and after file is modified, as windows are
+     * mapped only up to size of file at time of mapping.
+     */
+    public synchronized void releaseWindows() {
+        for (MappedWindow window : windows.values()) {
+            window.drop();
+        }
+        windows.clear();
+        mappedFileSize = -1;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        releaseWindows();
+        try {
+            mappedFile.close();
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * Returns mapped window for reading, window is mapped if it is not in
+     * cache.
+     *
+     * @param windowIndex index of window
+     * @return window or null if window is beyond end of file
+     * @throws IOException if file region cannot be mapped
+     */
+    @Nullable
+    private synchronized MappedWindow acquireWindow(long windowIndex) throws IOException {
+        MappedWindow window = windows.get(windowIndex);
+        if (window == null) {
+            MappedByteBuffer buffer = mapWindow(windowIndex);
+            if (buffer == null) {
+                return null;
+            }
+            window = new MappedWindow(buffer);
+            windows.put(windowIndex, window);
+        }
+
+        window.readers++;
+        return window;
+    }
+
+    private synchronized void releaseWindow(MappedWindow window) {
+        window.readers--;
+        if (window.dropped && window.readers == 0) {
+            unmap(window.buffer);
+        }
+    }
+
+    @Nullable
+    private MappedByteBuffer mapWindow(long windowIndex) throws IOException {
+        if (mappedFileSize < 0) {
+            mappedFileSize = channel.size();
+        }
+        long windowStart = windowIndex << WINDOW_SHIFT;
+        if (windowStart >= mappedFileSize) {
+            return null;
+        }
+
+        long windowLength = Math.min(WINDOW_SIZE, mappedFileSize - windowStart);
+        return channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+    }
+
+    /**
+     * Unmaps buffer without waiting for garbage collector.
+     * <p>
+     * There is no public API for this, so cleaner of buffer is invoked
+     * through reflection. If it's not accessible, buffer is left to garbage
+     * collector.
+     *
+     * @param buffer mapped buffer
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException ex) {
+                invokeCleaner = null;
+            }
+
+            if (invokeCleaner != null) {
+                // Java 9 and later
+                Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+                unsafeField.setAccessible(true);
+                invokeCleaner.invoke(unsafeField.get(null), buffer);
+            } else {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            Logger.getLogger(MappedFileDataSource.class.getName()).log(Level.FINE, "Unable to unmap file window", ex);
+        }
+    }
+
+    /**
+     * Mapped window with count of threads reading it.
+     */
+    @ParametersAreNonnullByDefault
+    private static class MappedWindow {
+
+        private final MappedByteBuffer buffer;
+        private int readers = 0;
+        private boolean dropped = false;
+
+        public MappedWindow(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Drops window, window is unmapped now or when last reader releases
+         * it.
+         */
+        public void drop() {
+            dropped = true;
+            if (readers == 0) {
+                unmap(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import java.awt.Color;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.bined.CodeAreaSection;
+import org.exbin.framework.utils.UiUtils;
+
+/**
+ * Position color modifier marking data which are not loaded yet.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class PendingDataColorModifier implements BinEdCodeAreaAssessor.PositionColorModifier {
+
+    private long pendingPosition = -1;
+    private Color backgroundColor;
+    private Color textColor;
+
+    public PendingDataColorModifier() {
+        resetColors();
+    }
+
+    @Nullable
+    @Override
+    public Color getPositionBackgroundColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection) {
+        return isPending(rowDataPosition + byteOnRow) ? backgroundColor : null;
+    }
+
+    @Nullable
+    @Override
+    public Color getPositionTextColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection) {
+        return isPending(rowDataPosition + byteOnRow) ? textColor : null;
+    }
+
+    @Override
+    public void resetColors() {
+        boolean darkUI = UiUtils.isDarkUI();
+        backgroundColor = darkUI ? Color.DARK_GRAY : Color.LIGHT_GRAY;
+        textColor = darkUI ? Color.GRAY.darker() : Color.GRAY;
+    }
+
+    /**
+     * Sets position from which all data are pending.
+     *
+     * @param pendingPosition start position of pending data
+     */
+    public void setPendingPosition(long pendingPosition) {
+        this.pendingPosition = pendingPosition;
+    }
+
+    public void clearPending() {
+        pendingPosition = -1;
+    }
+
+    private boolean isPending(long dataPosition) {
+        return pendingPosition >= 0 && dataPosition >= pendingPosition;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.ByteArrayEditableData;
+
+/**
+ * Read only binary data stored in temporary file.
+ * <p>
+ * Data are written once when created and file is deleted when data are
+ * disposed. Files are created in temporary directory of application, which is
+ * deleted on exit together with files of data which were not disposed.
+ * <p>
+ * File is closed once written and opened again for reading on demand, only
+ * limited number of recently read files is kept open.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class TempFileBinaryData implements BinaryData {
+
+    private static final String TEMP_FILE_PREFIX = "bined-data-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String TEMP_DIRECTORY_PREFIX = "bined-undo-";
+    private static final int BUFFER_SIZE = 65536;
+    private static final int MAX_OPEN_FILES = 8;
+
+    private static File tempDirectory = null;
+    /**
+     * Files opened for reading in order of access, access to all files is
+     * synchronized on this map.
+     */
+    private static final Map<TempFileBinaryData, RandomAccessFile> openFiles = new LinkedHashMap<TempFileBinaryData, RandomAccessFile>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TempFileBinaryData, RandomAccessFile> eldest) {
+            if (size() > MAX_OPEN_FILES) {
+                closeFile(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final File file;
+    private final long dataSize;
+
+    private TempFileBinaryData(File file, long dataSize) {
+        this.file = file;
+        this.dataSize = dataSize;
+    }
+
+    /**
+     * Creates temporary file with copy of range of given data.
+     *
+     * @param sourceData source data
+     * @param startFrom start position
+     * @param length length of data
+     * @return binary data stored in temporary file
+     * @throws IOException if temporary file cannot be written
+     */
+    @Nonnull
+    public static TempFileBinaryData create(BinaryData sourceData, long startFrom, long length) throws IOException {
+        Writer writer = new Writer();
+        try {
+            writer.write(sourceData, startFrom, length);
+        } catch (IOException | RuntimeException ex) {
+            writer.cancel();
+            throw ex;
+        }
+        return writer.finish();
+    }
+
+    /**
+     * Returns temporary directory of application, directory is created on
+     * first use and deleted on exit.
+     *
+     * @return temporary directory
+     * @throws IOException if directory cannot be created
+     */
+    @Nonnull
+    private static synchronized File getTempDirectory() throws IOException {
+        if (tempDirectory == null) {
+            File directory = Files.createTempDirectory(TEMP_DIRECTORY_PREFIX).toFile();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteTempDirectory(directory), "Deleting " + directory.getName()));
+            tempDirectory = directory;
+        }
+
+        return tempDirectory;
+    }
+
+    private static void deleteTempDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static void closeFile(RandomAccessFile dataFile) {
+        try {
+            dataFile.close();
+        } catch (IOException ex) {
+            Logger.getLogger(TempFileBinaryData.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Returns file opened for reading, must be called while synchronized on
+     * open files.
+     *
+     * @return opened file
+     * @throws IOException if file cannot be opened
+     */
+    @Nonnull
+    private RandomAccessFile getOpenFile() throws IOException {
+        RandomAccessFile dataFile = openFiles.get(this);
+        if (dataFile == null) {
+            dataFile = new RandomAccessFile(file, "r");
+            openFiles.put(this, dataFile);
+        }
+        return dataFile;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return dataSize == 0;
+    }
+
+    @Override
+    public long getDataSize() {
+        return dataSize;
+    }
+
+    @Override
+    public byte getByte(long position) {
+        if (position < 0 || position >= dataSize) {
+            throw new IndexOutOfBoundsException("Position is out of data range: " + position);
+        }
+
+        synchronized (openFiles) {
+            try {
+                RandomAccessFile dataFile = getOpenFile();
+                dataFile.seek(position);
+                return (byte) dataFile.read();
+            } catch (IOException ex) {
+                throw new IllegalStateException("Unable to read temporary data", ex);
+            }
+        }
+    }
+
+    @Nonnull
+    @Override
+    public BinaryData copy() {
+        return copy(0, dataSize);
+    }
+
+    @Nonnull
+    @Override
+    public BinaryData copy(long startFrom, long length) {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Data are too large to be copied to memory: " + length);
+        }
+
+        byte[] data = new byte[(int) length];
+        copyToArray(startFrom, data, 0, (int) length);
+        return new ByteArrayEditableData(data);
+    }
+
+    @Override
+    public void copyToArray(long startFrom, byte[] target, int offset, int length) {
+        if (startFrom < 0 || startFrom + length > dataSize) {
+            throw new IndexOutOfBoundsException("Range is out of data range: " + startFrom + ", " + length);
+        }
+
+        synchronized (openFiles) {
+            try {
+                RandomAccessFile dataFile = getOpenFile();
+                dataFile.seek(startFrom);
+                dataFile.readFully(target, offset, length);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Unable to read temporary data", ex);
+            }
+        }
+    }
+
+    @Override
+    public void saveToStream(OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, dataSize)];
+        long position = 0;
+        while (position < dataSize) {
+            int blockLength = (int) Math.min(buffer.length, dataSize - position);
+            copyToArray(position, buffer, 0, blockLength);
+            outputStream.write(buffer, 0, blockLength);
+            position += blockLength;
+        }
+    }
+
+    @Nonnull
+    @Override
+    public InputStream getDataInputStream() {
+        return new InputStream() {
+            private long position = 0;
+
+            @Override
+            public int read() throws IOException {
+                if (position >= dataSize) {
+                    return -1;
+                }
+
+                return getByte(position++) & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (position >= dataSize) {
+                    return -1;
+                }
+
+                int blockLength = (int) Math.min(length, dataSize - position);
+                copyToArray(position, buffer, offset, blockLength);
+                position += blockLength;
+                return blockLength;
+            }
+
+            @Override
+            public int available() throws IOException {
+                return (int) Math.min(Integer.MAX_VALUE, dataSize - position);
+            }
+        };
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (openFiles) {
+            RandomAccessFile dataFile = openFiles.remove(this);
+            if (dataFile != null) {
+                closeFile(dataFile);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Writer appending data to new temporary file.
+     */
+    @ParametersAreNonnullByDefault
+    public static class Writer {
+
+        private final File file;
+        private final RandomAccessFile dataFile;
+        private long dataSize = 0;
+
+        public Writer() throws IOException {
+            file = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX, getTempDirectory());
+            try {
+                dataFile = new RandomAccessFile(file, "rw");
+            } catch (IOException ex) {
+                file.delete();
+                throw ex;
+            }
+        }
+
+        public void write(byte[] data, int offset, int length) throws IOException {
+            dataFile.write(data, offset, length);
+            dataSize += length;
+        }
+
+        public void write(BinaryData sourceData, long startFrom, long length) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, length)];
+            long position = 0;
+            while (position < length) {
+                int blockLength = (int) Math.min(buffer.length, length - position);
+                sourceData.copyToArray(startFrom + position, buffer, 0, blockLength);
+                write(buffer, 0, blockLength);
+                position += blockLength;
+            }
+        }
+
+        public long getDataSize() {
+            return dataSize;
+        }
+
+        /**
+         * Finishes writing and closes file.
+         *
+         * @return binary data stored in temporary file
+         */
+        @Nonnull
+        public TempFileBinaryData finish() {
+            closeFile(dataFile);
+            return new TempFileBinaryData(file, dataSize);
+        }
+
+        /**
+         * Drops written data and deletes temporary file.
+         */
+        public void cancel() {
+            closeFile(dataFile);
+            file.delete();
+        }
+    }
+}
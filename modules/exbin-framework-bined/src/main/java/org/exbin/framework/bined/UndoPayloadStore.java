@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.ByteArrayEditableData;
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.auxiliary.binary_data.paged.ByteArrayPagedData;
+
+/**
+ * Store of data kept by undo history.
+ * <p>
+ * Small payloads are kept in memory as long as total size of payloads in
+ * memory fits into memory budget, other payloads are stored in temporary
+ * files. Budget is shared by undo history of all opened files.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class UndoPayloadStore {
+
+    public static final long DEFAULT_MEMORY_BUDGET = 128L * 1024 * 1024;
+    public static final long DEFAULT_SPILL_THRESHOLD = 4L * 1024 * 1024;
+
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private long spillThreshold = DEFAULT_SPILL_THRESHOLD;
+    private long memoryUsage = 0;
+    private long spilledSize = 0;
+
+    public UndoPayloadStore() {
+    }
+
+    /**
+     * Stores copy of range of data.
+     *
+     * @param sourceData source data
+     * @param startFrom start position
+     * @param length length of data
+     * @return stored payload
+     */
+    @Nonnull
+    public Payload storePayload(BinaryData sourceData, long startFrom, long length) {
+        if (shouldSpill(length)) {
+            try {
+                TempFileBinaryData data = TempFileBinaryData.create(sourceData, startFrom, length);
+                synchronized (this) {
+                    spilledSize += length;
+                }
+                return new Payload(data, length, true);
+            } catch (IOException ex) {
+                // Data are kept in memory if temporary file is not available
+                Logger.getLogger(UndoPayloadStore.class.getName()).log(Level.WARNING, "Unable to store undo data to temporary file", ex);
+            }
+        }
+
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Unable to store undo data of size " + length);
+        }
+
+        byte[] data = new byte[(int) length];
+        sourceData.copyToArray(startFrom, data, 0, (int) length);
+        synchronized (this) {
+            memoryUsage += length;
+        }
+        return new Payload(new ByteArrayEditableData(data), length, false);
+    }
+
+    /**
+     * Creates writer of payload appended in parts.
+     * <p>
+     * Written data are kept in memory until they exceed limits, then they are
+     * moved to temporary file.
+     *
+     * @return payload writer
+     */
+    @Nonnull
+    public PayloadWriter createPayloadWriter() {
+        return new PayloadWriter();
+    }
+
+    private synchronized boolean shouldSpill(long length) {
+        return length >= spillThreshold || memoryUsage + length > memoryBudget;
+    }
+
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public synchronized long getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    public synchronized void setSpillThreshold(long spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Returns size of payloads kept in memory.
+     *
+     * @return size in bytes
+     */
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * Returns size of payloads stored in temporary files.
+     *
+     * @return size in bytes
+     */
+    public synchronized long getSpilledSize() {
+        return spilledSize;
+    }
+
+    private synchronized void addPayload(long size, boolean spilled) {
+        if (spilled) {
+            spilledSize += size;
+        } else {
+            memoryUsage += size;
+        }
+    }
+
+    private synchronized void release(Payload payload) {
+        if (payload.isSpilled()) {
+            spilledSize -= payload.getSize();
+        } else {
+            memoryUsage -= payload.getSize();
+        }
+    }
+
+    /**
+     * Writer of payload appended in parts.
+     */
+    @ParametersAreNonnullByDefault
+    public class PayloadWriter {
+
+        private EditableBinaryData memoryData = new ByteArrayPagedData();
+        private TempFileBinaryData.Writer fileWriter = null;
+        private long size = 0;
+
+        private PayloadWriter() {
+        }
+
+        public void write(byte[] data, int offset, int length) {
+            spillIfNeeded(length);
+            if (fileWriter != null) {
+                try {
+                    fileWriter.write(data, offset, length);
+                    size += length;
+                    return;
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Unable to write undo data to temporary file", ex);
+                }
+            }
+
+            memoryData.insert(size, data, offset, length);
+            size += length;
+        }
+
+        public void write(BinaryData sourceData, long startFrom, long length) {
+            spillIfNeeded(length);
+            if (fileWriter != null) {
+                try {
+                    fileWriter.write(sourceData, startFrom, length);
+                    size += length;
+                    return;
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Unable to write undo data to temporary file", ex);
+                }
+            }
+
+            memoryData.insert(size, sourceData, startFrom, length);
+            size += length;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        private void spillIfNeeded(long length) {
+            if (fileWriter != null || !shouldSpill(size + length)) {
+                return;
+            }
+
+            TempFileBinaryData.Writer writer = null;
+            try {
+                writer = new TempFileBinaryData.Writer();
+                writer.write(memoryData, 0, size);
+            } catch (IOException ex) {
+                if (writer != null) {
+                    writer.cancel();
+                }
+                // Data are kept in memory if temporary file is not available
+                Logger.getLogger(UndoPayloadStore.class.getName()).log(Level.WARNING, "Unable to store undo data to temporary file", ex);
+                return;
+            }
+            fileWriter = writer;
+            memoryData.dispose();
+            memoryData = null;
+        }
+
+        /**
+         * Finishes writing, writer cannot be used afterwards.
+         *
+         * @return stored payload
+         */
+        @Nonnull
+        public Payload finish() {
+            boolean spilled = fileWriter != null;
+            addPayload(size, spilled);
+            return new Payload(spilled ? fileWriter.finish() : memoryData, size, spilled);
+        }
+
+        /**
+         * Drops written data.
+         */
+        public void cancel() {
+            if (fileWriter != null) {
+                fileWriter.cancel();
+            } else {
+                memoryData.dispose();
+            }
+        }
+    }
+
+    /**
+     * Data stored for undo operation.
+     */
+    @ParametersAreNonnullByDefault
+    public class Payload {
+
+        private final BinaryData data;
+        private final long size;
+        private final boolean spilled;
+        private boolean released = false;
+
+        private Payload(BinaryData data, long size, boolean spilled) {
+            this.data = data;
+            this.size = size;
+            this.spilled = spilled;
+        }
+
+        @Nonnull
+        public BinaryData getData() {
+            return data;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public boolean isSpilled() {
+            return spilled;
+        }
+
+        /**
+         * Releases stored data, payload cannot be used afterwards.
+         */
+        public void release() {
+            synchronized (UndoPayloadStore.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                UndoPayloadStore.this.release(this);
+            }
+            data.dispose();
+        }
+    }
+}
@@ -71,6 +71,7 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
     private SelectionRange selectionRange;
     private long documentSize;
     private long initialDocumentSize;
+    private boolean savingProgress;
 
     public BinaryStatusPanel() {
         initComponents();
@@ -169,14 +170,17 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
         memoryModePopupMenu = new javax.swing.JPopupMenu();
         deltaMemoryModeRadioButtonMenuItem = new javax.swing.JRadioButtonMenuItem();
         ramMemoryModeRadioButtonMenuItem = new javax.swing.JRadioButtonMenuItem();
+        mappedMemoryModeRadioButtonMenuItem = new javax.swing.JRadioButtonMenuItem();
         memoryModeButtonGroup = new javax.swing.ButtonGroup();
         documentSizeModeButtonGroup = new javax.swing.ButtonGroup();
         cursorPositionModeButtonGroup = new javax.swing.ButtonGroup();
         encodingLabel = new EncodingLabel();
         documentSizeLabel = new javax.swing.JLabel();
         cursorPositionLabel = new javax.swing.JLabel();
+        undoHistoryLabel = new javax.swing.JLabel();
         memoryModeLabel = new javax.swing.JLabel();
         editModeLabel = new javax.swing.JLabel();
+        operationProgressBar = new javax.swing.JProgressBar();
 
         positionPopupMenu.setName("positionPopupMenu"); // NOI18N
 
@@ -326,6 +330,16 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
         });
         memoryModePopupMenu.add(ramMemoryModeRadioButtonMenuItem);
 
+        memoryModeButtonGroup.add(mappedMemoryModeRadioButtonMenuItem);
+        mappedMemoryModeRadioButtonMenuItem.setText(resourceBundle.getString("mappedMemoryModeRadioButtonMenuItem.text")); // NOI18N
+        mappedMemoryModeRadioButtonMenuItem.setName("mappedMemoryModeRadioButtonMenuItem"); // NOI18N
+        mappedMemoryModeRadioButtonMenuItem.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                mappedMemoryModeRadioButtonMenuItemActionPerformed(evt);
+            }
+        });
+        memoryModePopupMenu.add(mappedMemoryModeRadioButtonMenuItem);
+
         setName("Form"); // NOI18N
 
         encodingLabel.setHorizontalAlignment(javax.swing.SwingConstants.CENTER);
@@ -361,6 +375,11 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
             }
         });
 
+        undoHistoryLabel.setHorizontalAlignment(javax.swing.SwingConstants.CENTER);
+        undoHistoryLabel.setText("-");
+        undoHistoryLabel.setToolTipText(resourceBundle.getString("undoHistoryLabel.toolTipText")); // NOI18N
+        undoHistoryLabel.setBorder(javax.swing.BorderFactory.createEtchedBorder());
+
         memoryModeLabel.setHorizontalAlignment(javax.swing.SwingConstants.CENTER);
         memoryModeLabel.setText(resourceBundle.getString("memoryModeLabel.text")); // NOI18N
         memoryModeLabel.setToolTipText(resourceBundle.getString("memoryModeLabel.toolTipText")); // NOI18N
@@ -377,12 +396,25 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
             }
         });
 
+        operationProgressBar.setToolTipText(resourceBundle.getString("operationProgressBar.toolTipText")); // NOI18N
+        operationProgressBar.setStringPainted(true);
+        operationProgressBar.setVisible(false);
+        operationProgressBar.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                operationProgressBarMouseClicked(evt);
+            }
+        });
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
         this.setLayout(layout);
         layout.setHorizontalGroup(
             layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addGroup(javax.swing.GroupLayout.Alignment.TRAILING, layout.createSequentialGroup()
-                .addContainerGap(195, Short.MAX_VALUE)
+                .addContainerGap(115, Short.MAX_VALUE)
+                .addComponent(operationProgressBar, javax.swing.GroupLayout.PREFERRED_SIZE, 120, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addGap(0, 0, 0)
+                .addComponent(undoHistoryLabel, javax.swing.GroupLayout.PREFERRED_SIZE, 80, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addGap(0, 0, 0)
                 .addComponent(encodingLabel, javax.swing.GroupLayout.PREFERRED_SIZE, 148, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addGap(0, 0, 0)
                 .addComponent(documentSizeLabel, javax.swing.GroupLayout.PREFERRED_SIZE, 168, javax.swing.GroupLayout.PREFERRED_SIZE)
@@ -400,6 +432,8 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
             .addComponent(memoryModeLabel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
             .addComponent(cursorPositionLabel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
             .addComponent(encodingLabel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+            .addComponent(operationProgressBar, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+            .addComponent(undoHistoryLabel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
         );
     }// </editor-fold>//GEN-END:initComponents
 
@@ -465,6 +499,20 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
         statusControlHandler.changeMemoryMode(MemoryMode.RAM_MEMORY);
     }//GEN-LAST:event_ramMemoryModeRadioButtonMenuItemActionPerformed
 
+    private void mappedMemoryModeRadioButtonMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_mappedMemoryModeRadioButtonMenuItemActionPerformed
+        statusControlHandler.changeMemoryMode(MemoryMode.MAPPED_MODE);
+    }//GEN-LAST:event_mappedMemoryModeRadioButtonMenuItemActionPerformed
+
+    private void operationProgressBarMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_operationProgressBarMouseClicked
+        if (statusControlHandler != null && evt.getButton() == MouseEvent.BUTTON1) {
+            if (savingProgress) {
+                statusControlHandler.cancelSaving();
+            } else {
+                statusControlHandler.cancelLoading();
+            }
+        }
+    }//GEN-LAST:event_operationProgressBarMouseClicked
+
     private void cursorPositionShowOffsetCheckBoxMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_cursorPositionShowOffsetCheckBoxMenuItemActionPerformed
         cursorPositionFormat.setShowOffset(cursorPositionShowOffsetCheckBoxMenuItem.isSelected());
         updateCaretPosition();
@@ -558,10 +606,13 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
     private javax.swing.JPopupMenu memoryModePopupMenu;
     private javax.swing.JRadioButtonMenuItem octalCursorPositionModeRadioButtonMenuItem;
     private javax.swing.JRadioButtonMenuItem octalDocumentSizeModeRadioButtonMenuItem;
+    private javax.swing.JProgressBar operationProgressBar;
     private javax.swing.JMenuItem positionCopyMenuItem;
     private javax.swing.JMenuItem positionGoToMenuItem;
     private javax.swing.JPopupMenu positionPopupMenu;
+    private javax.swing.JRadioButtonMenuItem mappedMemoryModeRadioButtonMenuItem;
     private javax.swing.JRadioButtonMenuItem ramMemoryModeRadioButtonMenuItem;
+    private javax.swing.JLabel undoHistoryLabel;
     // End of variables declaration//GEN-END:variables
 
     @Override
@@ -642,13 +693,71 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
         boolean enabled = memoryMode != MemoryMode.READ_ONLY;
         deltaMemoryModeRadioButtonMenuItem.setEnabled(enabled);
         ramMemoryModeRadioButtonMenuItem.setEnabled(enabled);
+        mappedMemoryModeRadioButtonMenuItem.setEnabled(enabled);
         if (memoryMode == MemoryMode.DELTA_MODE) {
             deltaMemoryModeRadioButtonMenuItem.setSelected(true);
+        } else if (memoryMode == MemoryMode.MAPPED_MODE) {
+            mappedMemoryModeRadioButtonMenuItem.setSelected(true);
         } else {
             ramMemoryModeRadioButtonMenuItem.setSelected(true);
         }
     }
 
+    @Override
+    public void setUndoHistorySize(long historySize) {
+        if (historySize < 0) {
+            undoHistoryLabel.setText("-");
+            undoHistoryLabel.setToolTipText(resourceBundle.getString("undoHistoryLabel.toolTipText"));
+            return;
+        }
+
+        undoHistoryLabel.setText(formatSize(historySize));
+        undoHistoryLabel.setToolTipText("<html>" + resourceBundle.getString("undoHistoryLabel.toolTipText") + BR_TAG + historySize + " B</html>");
+    }
+
+    @Nonnull
+    private static String formatSize(long size) {
+        if (size < 1024) {
+            return size + " B";
+        }
+
+        String[] units = {"KiB", "MiB", "GiB", "TiB"};
+        double value = size;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+
+    @Override
+    public void setLoadProgress(long loadedSize, long totalSize) {
+        savingProgress = false;
+        updateOperationProgress(loadedSize, totalSize, "operationProgressBar.loading");
+    }
+
+    @Override
+    public void setSaveProgress(long savedSize, long totalSize) {
+        savingProgress = true;
+        updateOperationProgress(savedSize, totalSize, "operationProgressBar.saving");
+    }
+
+    private void updateOperationProgress(long processedSize, long totalSize, String textKey) {
+        if (processedSize < 0) {
+            operationProgressBar.setVisible(false);
+            return;
+        }
+
+        int progress = totalSize > 0 ? (int) (processedSize * 100 / totalSize) : 0;
+        operationProgressBar.setValue(progress);
+        operationProgressBar.setString(String.format(resourceBundle.getString(textKey), progress));
+        if (!operationProgressBar.isVisible()) {
+            operationProgressBar.setVisible(true);
+            revalidate();
+        }
+    }
+
     private void updateCaretPosition() {
         if (caretPosition == null) {
             cursorPositionLabel.setText("-");
@@ -840,6 +949,16 @@ public class BinaryStatusPanel extends javax.swing.JPanel implements BinaryStatu
          * @param memoryMode memory mode
          */
         void changeMemoryMode(MemoryMode memoryMode);
+
+        /**
+         * Requests cancellation of file loading.
+         */
+        void cancelLoading();
+
+        /**
+         * Requests cancellation of file saving.
+         */
+        void cancelSaving();
     }
 
     @ParametersAreNonnullByDefault
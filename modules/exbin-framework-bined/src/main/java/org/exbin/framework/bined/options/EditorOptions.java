@@ -44,4 +44,41 @@ public interface EditorOptions {
 
     void setTabKeyHandlingMode(TabKeyHandlingMode tabKeyHandlingMode);
 
+    /**
+     * Returns maximum count of commands kept in undo history.
+     *
+     * @return maximum count
+     */
+    int getUndoMaximumCount();
+
+    void setUndoMaximumCount(int undoMaximumCount);
+
+    /**
+     * Returns maximum estimated size of data kept in undo history.
+     *
+     * @return maximum size in bytes
+     */
+    long getUndoMaximumSize();
+
+    void setUndoMaximumSize(long undoMaximumSize);
+
+    /**
+     * Returns maximum size of undo data kept in memory, shared by all files.
+     * <p>
+     * Memory budget is limited by maximum size of undo history.
+     *
+     * @return memory budget in bytes
+     */
+    long getUndoMemoryBudget();
+
+    void setUndoMemoryBudget(long undoMemoryBudget);
+
+    /**
+     * Returns size of undo data which are always stored in temporary file.
+     *
+     * @return threshold in bytes
+     */
+    long getUndoSpillThreshold();
+
+    void setUndoSpillThreshold(long undoSpillThreshold);
 }
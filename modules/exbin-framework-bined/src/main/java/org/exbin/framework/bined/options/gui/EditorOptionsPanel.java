@@ -39,6 +39,8 @@ import org.exbin.framework.utils.UtilsModule;
 @ParametersAreNonnullByDefault
 public class EditorOptionsPanel extends javax.swing.JPanel implements OptionsComponent<EditorOptionsImpl> {
 
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
     private final java.util.ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(EditorOptionsPanel.class);
 
     public EditorOptionsPanel() {
@@ -75,6 +77,10 @@ public class EditorOptionsPanel extends javax.swing.JPanel implements OptionsCom
         options.setFileHandlingMode(FileHandlingMode.values()[fileHandlingModeComboBox.getSelectedIndex() + 1]);
         options.setEnterKeyHandlingMode(EnterKeyHandlingMode.values()[enterKeyHandlingModeComboBox.getSelectedIndex()]);
         options.setTabKeyHandlingMode(TabKeyHandlingMode.values()[tabKeyHandlingModeComboBox.getSelectedIndex()]);
+        options.setUndoMaximumCount((Integer) undoMaximumCountSpinner.getValue());
+        options.setUndoMaximumSize((Integer) undoMaximumSizeSpinner.getValue() * BYTES_PER_MEGABYTE);
+        options.setUndoMemoryBudget((Integer) undoMemoryBudgetSpinner.getValue() * BYTES_PER_MEGABYTE);
+        options.setUndoSpillThreshold((Integer) undoSpillThresholdSpinner.getValue() * BYTES_PER_MEGABYTE);
     }
 
     @Override
@@ -83,6 +89,14 @@ public class EditorOptionsPanel extends javax.swing.JPanel implements OptionsCom
         fileHandlingModeComboBox.setSelectedIndex(options.getFileHandlingMode().ordinal() - 1);
         enterKeyHandlingModeComboBox.setSelectedIndex(options.getEnterKeyHandlingMode().ordinal());
         tabKeyHandlingModeComboBox.setSelectedIndex(options.getTabKeyHandlingMode().ordinal());
+        undoMaximumCountSpinner.setValue(options.getUndoMaximumCount());
+        undoMaximumSizeSpinner.setValue(toMegabytes(options.getUndoMaximumSize()));
+        undoMemoryBudgetSpinner.setValue(toMegabytes(options.getUndoMemoryBudget()));
+        undoSpillThresholdSpinner.setValue(toMegabytes(options.getUndoSpillThreshold()));
+    }
+
+    private static int toMegabytes(long size) {
+        return (int) Math.min(Integer.MAX_VALUE, size / BYTES_PER_MEGABYTE);
     }
 
     /**
@@ -100,6 +114,14 @@ public class EditorOptionsPanel extends javax.swing.JPanel implements OptionsCom
         enterKeyHandlingModeComboBox = new javax.swing.JComboBox<>();
         tabKeyHandlingModeLabel = new javax.swing.JLabel();
         tabKeyHandlingModeComboBox = new javax.swing.JComboBox<>();
+        undoMaximumCountLabel = new javax.swing.JLabel();
+        undoMaximumCountSpinner = new javax.swing.JSpinner();
+        undoMaximumSizeLabel = new javax.swing.JLabel();
+        undoMaximumSizeSpinner = new javax.swing.JSpinner();
+        undoMemoryBudgetLabel = new javax.swing.JLabel();
+        undoMemoryBudgetSpinner = new javax.swing.JSpinner();
+        undoSpillThresholdLabel = new javax.swing.JLabel();
+        undoSpillThresholdSpinner = new javax.swing.JSpinner();
 
         fileHandlingModeLabel.setText(resourceBundle.getString("fileHandlingModeLabel.text")); // NOI18N
 
@@ -107,6 +129,22 @@ public class EditorOptionsPanel extends javax.swing.JPanel implements OptionsCom
 
         tabKeyHandlingModeLabel.setText(resourceBundle.getString("tabKeyHandlingModeLabel.text")); // NOI18N
 
+        undoMaximumCountLabel.setText(resourceBundle.getString("undoMaximumCountLabel.text")); // NOI18N
+
+        undoMaximumCountSpinner.setModel(new javax.swing.SpinnerNumberModel(1024, 0, null, 1));
+
+        undoMaximumSizeLabel.setText(resourceBundle.getString("undoMaximumSizeLabel.text")); // NOI18N
+
+        undoMaximumSizeSpinner.setModel(new javax.swing.SpinnerNumberModel(256, 0, null, 1));
+
+        undoMemoryBudgetLabel.setText(resourceBundle.getString("undoMemoryBudgetLabel.text")); // NOI18N
+
+        undoMemoryBudgetSpinner.setModel(new javax.swing.SpinnerNumberModel(128, 0, null, 1));
+
+        undoSpillThresholdLabel.setText(resourceBundle.getString("undoSpillThresholdLabel.text")); // NOI18N
+
+        undoSpillThresholdSpinner.setModel(new javax.swing.SpinnerNumberModel(4, 0, null, 1));
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
         this.setLayout(layout);
         layout.setHorizontalGroup(
@@ -117,11 +155,19 @@ public class EditorOptionsPanel extends javax.swing.JPanel implements OptionsCom
                     .addComponent(fileHandlingModeComboBox, 0, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(enterKeyHandlingModeComboBox, 0, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(tabKeyHandlingModeComboBox, 0, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(undoMaximumCountSpinner)
+                    .addComponent(undoMaximumSizeSpinner)
+                    .addComponent(undoMemoryBudgetSpinner)
+                    .addComponent(undoSpillThresholdSpinner)
                     .addGroup(layout.createSequentialGroup()
                         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                             .addComponent(fileHandlingModeLabel)
                             .addComponent(enterKeyHandlingModeLabel)
-                            .addComponent(tabKeyHandlingModeLabel))
+                            .addComponent(tabKeyHandlingModeLabel)
+                            .addComponent(undoMaximumCountLabel)
+                            .addComponent(undoMaximumSizeLabel)
+                            .addComponent(undoMemoryBudgetLabel)
+                            .addComponent(undoSpillThresholdLabel))
                         .addGap(0, 0, Short.MAX_VALUE)))
                 .addContainerGap())
         );
@@ -140,6 +186,22 @@ public class EditorOptionsPanel extends javax.swing.JPanel implements OptionsCom
                 .addComponent(tabKeyHandlingModeLabel)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(tabKeyHandlingModeComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoMaximumCountLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoMaximumCountSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoMaximumSizeLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoMaximumSizeSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoMemoryBudgetLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoMemoryBudgetSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoSpillThresholdLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoSpillThresholdSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
     }// </editor-fold>//GEN-END:initComponents
@@ -164,6 +226,14 @@ public class EditorOptionsPanel extends javax.swing.JPanel implements OptionsCom
     private javax.swing.JLabel fileHandlingModeLabel;
     private javax.swing.JComboBox<String> tabKeyHandlingModeComboBox;
     private javax.swing.JLabel tabKeyHandlingModeLabel;
+    private javax.swing.JLabel undoMaximumCountLabel;
+    private javax.swing.JSpinner undoMaximumCountSpinner;
+    private javax.swing.JLabel undoMaximumSizeLabel;
+    private javax.swing.JSpinner undoMaximumSizeSpinner;
+    private javax.swing.JLabel undoMemoryBudgetLabel;
+    private javax.swing.JSpinner undoMemoryBudgetSpinner;
+    private javax.swing.JLabel undoSpillThresholdLabel;
+    private javax.swing.JSpinner undoSpillThresholdSpinner;
     // End of variables declaration//GEN-END:variables
 
     @Override
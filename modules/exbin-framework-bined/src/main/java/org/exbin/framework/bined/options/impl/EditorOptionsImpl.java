@@ -20,7 +20,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.exbin.bined.basic.EnterKeyHandlingMode;
 import org.exbin.bined.basic.TabKeyHandlingMode;
+import org.exbin.framework.bined.BinEdUndoRedo;
 import org.exbin.framework.bined.FileHandlingMode;
+import org.exbin.framework.bined.UndoPayloadStore;
 import org.exbin.framework.bined.preferences.EditorPreferences;
 import org.exbin.framework.options.api.OptionsData;
 
@@ -35,6 +37,10 @@ public class EditorOptionsImpl implements OptionsData, EditorOptions {
     private FileHandlingMode fileHandlingMode = FileHandlingMode.DELTA;
     private EnterKeyHandlingMode enterKeyHandlingMode = EnterKeyHandlingMode.PLATFORM_SPECIFIC;
     private TabKeyHandlingMode tabKeyHandlingMode = TabKeyHandlingMode.PLATFORM_SPECIFIC;
+    private int undoMaximumCount = BinEdUndoRedo.DEFAULT_MAXIMUM_COUNT;
+    private long undoMaximumSize = BinEdUndoRedo.DEFAULT_MAXIMUM_SIZE;
+    private long undoMemoryBudget = UndoPayloadStore.DEFAULT_MEMORY_BUDGET;
+    private long undoSpillThreshold = UndoPayloadStore.DEFAULT_SPILL_THRESHOLD;
 
     @Nonnull
     @Override
@@ -69,21 +75,73 @@ public class EditorOptionsImpl implements OptionsData, EditorOptions {
         this.tabKeyHandlingMode = tabKeyHandlingMode;
     }
 
+    @Override
+    public int getUndoMaximumCount() {
+        return undoMaximumCount;
+    }
+
+    @Override
+    public void setUndoMaximumCount(int undoMaximumCount) {
+        this.undoMaximumCount = undoMaximumCount;
+    }
+
+    @Override
+    public long getUndoMaximumSize() {
+        return undoMaximumSize;
+    }
+
+    @Override
+    public void setUndoMaximumSize(long undoMaximumSize) {
+        this.undoMaximumSize = undoMaximumSize;
+    }
+
+    @Override
+    public long getUndoMemoryBudget() {
+        return undoMemoryBudget;
+    }
+
+    @Override
+    public void setUndoMemoryBudget(long undoMemoryBudget) {
+        this.undoMemoryBudget = undoMemoryBudget;
+    }
+
+    @Override
+    public long getUndoSpillThreshold() {
+        return undoSpillThreshold;
+    }
+
+    @Override
+    public void setUndoSpillThreshold(long undoSpillThreshold) {
+        this.undoSpillThreshold = undoSpillThreshold;
+    }
+
     public void loadFromPreferences(EditorPreferences preferences) {
         fileHandlingMode = preferences.getFileHandlingMode();
         enterKeyHandlingMode = preferences.getEnterKeyHandlingMode();
         tabKeyHandlingMode = preferences.getTabKeyHandlingMode();
+        undoMaximumCount = preferences.getUndoMaximumCount();
+        undoMaximumSize = preferences.getUndoMaximumSize();
+        undoMemoryBudget = preferences.getUndoMemoryBudget();
+        undoSpillThreshold = preferences.getUndoSpillThreshold();
     }
 
     public void saveToPreferences(EditorPreferences preferences) {
         preferences.setFileHandlingMode(fileHandlingMode);
         preferences.setEnterKeyHandlingMode(enterKeyHandlingMode);
         preferences.setTabKeyHandlingMode(tabKeyHandlingMode);
+        preferences.setUndoMaximumCount(undoMaximumCount);
+        preferences.setUndoMaximumSize(undoMaximumSize);
+        preferences.setUndoMemoryBudget(undoMemoryBudget);
+        preferences.setUndoSpillThreshold(undoSpillThreshold);
     }
 
     public void setOptions(EditorOptionsImpl editorOptions) {
         fileHandlingMode = editorOptions.fileHandlingMode;
         enterKeyHandlingMode = editorOptions.enterKeyHandlingMode;
         tabKeyHandlingMode = editorOptions.tabKeyHandlingMode;
+        undoMaximumCount = editorOptions.undoMaximumCount;
+        undoMaximumSize = editorOptions.undoMaximumSize;
+        undoMemoryBudget = editorOptions.undoMemoryBudget;
+        undoSpillThreshold = editorOptions.undoSpillThreshold;
     }
 }
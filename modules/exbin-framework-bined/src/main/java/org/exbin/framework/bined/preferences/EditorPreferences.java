@@ -22,7 +22,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.exbin.bined.basic.EnterKeyHandlingMode;
 import org.exbin.bined.basic.TabKeyHandlingMode;
+import org.exbin.framework.bined.BinEdUndoRedo;
 import org.exbin.framework.bined.FileHandlingMode;
+import org.exbin.framework.bined.UndoPayloadStore;
 import org.exbin.framework.bined.options.EditorOptions;
 
 /**
@@ -36,6 +38,10 @@ public class EditorPreferences implements EditorOptions {
     public static final String PREFERENCES_FILE_HANDLING_MODE = "fileHandlingMode";
     public static final String PREFERENCES_ENTER_KEY_HANDLING_MODE = "enterKeyHandlingMode";
     public static final String PREFERENCES_TAB_KEY_HANDLING_MODE = "tabKeyHandlingMode";
+    public static final String PREFERENCES_UNDO_MAXIMUM_COUNT = "undoMaximumCount";
+    public static final String PREFERENCES_UNDO_MAXIMUM_SIZE = "undoMaximumSize";
+    public static final String PREFERENCES_UNDO_MEMORY_BUDGET = "undoMemoryBudget";
+    public static final String PREFERENCES_UNDO_SPILL_THRESHOLD = "undoSpillThreshold";
 
     private final Preferences preferences;
 
@@ -91,4 +97,44 @@ public class EditorPreferences implements EditorOptions {
     public void setTabKeyHandlingMode(TabKeyHandlingMode tabKeyHandlingMode) {
         preferences.put(PREFERENCES_TAB_KEY_HANDLING_MODE, tabKeyHandlingMode.name());
     }
+
+    @Override
+    public int getUndoMaximumCount() {
+        return preferences.getInt(PREFERENCES_UNDO_MAXIMUM_COUNT, BinEdUndoRedo.DEFAULT_MAXIMUM_COUNT);
+    }
+
+    @Override
+    public void setUndoMaximumCount(int undoMaximumCount) {
+        preferences.putInt(PREFERENCES_UNDO_MAXIMUM_COUNT, undoMaximumCount);
+    }
+
+    @Override
+    public long getUndoMaximumSize() {
+        return preferences.getLong(PREFERENCES_UNDO_MAXIMUM_SIZE, BinEdUndoRedo.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    @Override
+    public void setUndoMaximumSize(long undoMaximumSize) {
+        preferences.putLong(PREFERENCES_UNDO_MAXIMUM_SIZE, undoMaximumSize);
+    }
+
+    @Override
+    public long getUndoMemoryBudget() {
+        return preferences.getLong(PREFERENCES_UNDO_MEMORY_BUDGET, UndoPayloadStore.DEFAULT_MEMORY_BUDGET);
+    }
+
+    @Override
+    public void setUndoMemoryBudget(long undoMemoryBudget) {
+        preferences.putLong(PREFERENCES_UNDO_MEMORY_BUDGET, undoMemoryBudget);
+    }
+
+    @Override
+    public long getUndoSpillThreshold() {
+        return preferences.getLong(PREFERENCES_UNDO_SPILL_THRESHOLD, UndoPayloadStore.DEFAULT_SPILL_THRESHOLD);
+    }
+
+    @Override
+    public void setUndoSpillThreshold(long undoSpillThreshold) {
+        preferences.putLong(PREFERENCES_UNDO_SPILL_THRESHOLD, undoSpillThreshold);
+    }
 }
@@ -33,4 +33,6 @@ public interface EditorOptionsService {
     void setEnterKeyHandlingMode(EnterKeyHandlingMode enterKeyHandlingMode);
 
     void setTabKeyHandlingMode(TabKeyHandlingMode tabKeyHandlingMode);
+
+    void setUndoLimits(int maximumCount, long maximumSize);
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.bookmarks;
+
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.bined.operation.undo.BinaryDataUndoRedo;
+import org.exbin.bined.operation.undo.BinaryDataUndoRedoChangeListener;
+import org.exbin.bined.swing.CodeAreaSwingUtils;
+import org.exbin.bined.swing.capability.ColorAssessorPainterCapable;
+import org.exbin.bined.swing.section.SectCodeArea;
+import org.exbin.framework.bined.BinEdCodeAreaAssessor;
+import org.exbin.framework.bined.BinEdUndoRedo;
+import org.exbin.framework.bined.bookmarks.model.BookmarkRecord;
+import org.exbin.framework.bined.gui.BinEdComponentPanel;
+import org.exbin.framework.bined.preferences.BinaryEditorPreferences;
+
+/**
+ * Bookmarks extension of binary editor component.
+ * <p>
+ * Keeps bookmarks of file opened in component, which are loaded from
+ * bookmarks store when file is opened and written back when they change.
+ * Bookmarks are only written while document matches content of file, changes
+ * made in modified document are written when document is saved.
+ * <p>
+ * Bookmarks are shifted by changes of data reported by undo handler for
+ * execution, undo and redo of commands.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BinEdComponentBookmarks implements BinEdComponentPanel.BinEdComponentExtension {
+
+    private final BookmarksManager bookmarksManager;
+    private final List<BookmarkRecord> bookmarkRecords = new ArrayList<>();
+    private final BookmarksIndex bookmarksIndex = new BookmarksIndex(bookmarkRecords);
+    private final BookmarksPositionColorModifier colorModifier = new BookmarksPositionColorModifier(bookmarksIndex);
+    private final BinaryDataUndoRedoChangeListener undoChangeListener = this::undoChanged;
+    private final BinEdUndoRedo.DataChangeListener dataChangeListener = new BinEdUndoRedo.DataChangeListener() {
+        @Override
+        public void dataChanged(BinEdUndoRedo.DataChange change) {
+            if (!bookmarkRecords.isEmpty()) {
+                bookmarksIndex.dataReplaced(change.getPosition(), change.getRemovedLength(), change.getInsertedLength());
+                bookmarksShifted = true;
+            }
+        }
+
+        @Override
+        public void dataChangesFinished() {
+            if (bookmarksShifted) {
+                bookmarksShifted = false;
+                bookmarksIndex.rebuild();
+                colorModifier.notifyBookmarksChanged();
+            }
+        }
+    };
+    private BinEdComponentPanel componentPanel;
+    private SectCodeArea codeArea;
+    private BinaryDataUndoRedo undoRedo;
+    private boolean bookmarksShifted = false;
+    private BinaryData syncedData;
+    private URI fileUri;
+    private BookmarksStore.Entry storeEntry;
+    private BookmarksStore.FileIdentity fileIdentity;
+    private boolean syncPending = false;
+
+    public BinEdComponentBookmarks(BookmarksManager bookmarksManager) {
+        this.bookmarksManager = bookmarksManager;
+    }
+
+    @Override
+    public void onCreate(BinEdComponentPanel componentPanel) {
+        this.componentPanel = componentPanel;
+        codeArea = componentPanel.getCodeArea();
+        BinEdCodeAreaAssessor codeAreaAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), BinEdCodeAreaAssessor.class);
+        codeAreaAssessor.addColorModifier(colorModifier);
+        componentPanel.addBinaryAreaFocusListener(new FocusAdapter() {
+            @Override
+            public void focusGained(FocusEvent e) {
+                if (syncPending) {
+                    bookmarksManager.synchronizeBookmarks(BinEdComponentBookmarks.this);
+                }
+            }
+        });
+        bookmarksManager.addComponentBookmarks(this);
+    }
+
+    @Override
+    public void onInitFromPreferences(BinaryEditorPreferences preferences) {
+    }
+
+    @Override
+    public void onDataChange() {
+    }
+
+    @Override
+    public void onClose() {
+        detachUndoRedo();
+        bookmarksManager.removeComponentBookmarks(this);
+    }
+
+    @Override
+    public void onUndoHandlerChange() {
+        detachUndoRedo();
+        undoRedo = componentPanel.getUndoRedo().orElse(null);
+        if (undoRedo != null) {
+            undoRedo.addChangeListener(undoChangeListener);
+            if (undoRedo instanceof BinEdUndoRedo) {
+                ((BinEdUndoRedo) undoRedo).addDataChangeListener(dataChangeListener);
+            }
+        }
+    }
+
+    private void detachUndoRedo() {
+        if (undoRedo != null) {
+            undoRedo.removeChangeListener(undoChangeListener);
+            if (undoRedo instanceof BinEdUndoRedo) {
+                ((BinEdUndoRedo) undoRedo).removeDataChangeListener(dataChangeListener);
+            }
+            undoRedo = null;
+        }
+    }
+
+    @Nonnull
+    public SectCodeArea getCodeArea() {
+        return codeArea;
+    }
+
+    @Nonnull
+    public List<BookmarkRecord> getBookmarkRecords() {
+        return bookmarkRecords;
+    }
+
+    @Nonnull
+    public BookmarksIndex getBookmarksIndex() {
+        return bookmarksIndex;
+    }
+
+    public boolean isSyncPending() {
+        return syncPending;
+    }
+
+    /**
+     * Updates index and stored bookmarks after records were changed.
+     */
+    public void notifyBookmarksChanged() {
+        bookmarksIndex.rebuild();
+        colorModifier.notifyBookmarksChanged();
+        codeArea.repaint();
+        saveBookmarks();
+    }
+
+    /**
+     * Binds bookmarks to file after document was loaded from or saved to
+     * file.
+     *
+     * @param fileUri file URI or null for new document
+     */
+    public void fileSynchronized(@Nullable URI fileUri) {
+        syncPending = false;
+        BinaryData data = codeArea.getContentData();
+        boolean reloaded = data != syncedData;
+        syncedData = data;
+
+        BookmarksStore.FileIdentity identity = null;
+        if (fileUri != null) {
+            try {
+                identity = BookmarksStore.computeIdentity(new File(fileUri));
+            } catch (IOException | IllegalArgumentException ex) {
+                Logger.getLogger(BinEdComponentBookmarks.class.getName()).log(Level.WARNING, "Unable to read file for bookmarks", ex);
+            }
+        }
+
+        if (identity == null) {
+            this.fileUri = null;
+            storeEntry = null;
+            fileIdentity = null;
+            if (reloaded) {
+                bookmarkRecords.clear();
+                notifyBookmarksChanged();
+            }
+            return;
+        }
+
+        if (reloaded || storeEntry == null || !fileUri.equals(this.fileUri)) {
+            storeEntry = bookmarksManager.getBookmarksStore().getEntry(new File(fileUri));
+        }
+        this.fileUri = fileUri;
+        fileIdentity = identity;
+        if (reloaded) {
+            bookmarkRecords.clear();
+            bookmarkRecords.addAll(storeEntry.load(identity));
+            if (bookmarkRecords.isEmpty()) {
+                bookmarkRecords.addAll(bookmarksManager.migrateLegacyRecords());
+            }
+        }
+        notifyBookmarksChanged();
+    }
+
+    private void saveBookmarks() {
+        if (storeEntry == null || fileIdentity == null || (undoRedo != null && undoRedo.isModified())) {
+            return;
+        }
+
+        try {
+            storeEntry.write(fileIdentity, bookmarkRecords);
+        } catch (IOException ex) {
+            Logger.getLogger(BinEdComponentBookmarks.class.getName()).log(Level.WARNING, "Unable to write bookmarks to " + storeEntry.getSidecarFile(), ex);
+        }
+    }
+
+    private void undoChanged() {
+        // Undo history is synchronized when file is loaded or saved
+        if (!undoRedo.isModified()) {
+            syncPending = true;
+            bookmarksManager.synchronizeBookmarks(this);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.bookmarks;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.framework.bined.bookmarks.model.BookmarkRecord;
+
+/**
+ * Index of bookmarks for fast lookup by position.
+ * <p>
+ * Bookmarks are kept in arrays sorted by start position with maximum end
+ * position of each subtree of implicit balanced tree, which allows to find
+ * bookmarks in range in logarithmic time. Colors are precomputed as sorted
+ * list of segments, bookmark later in list has priority for overlapping
+ * ranges.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BookmarksIndex {
+
+    private final List<BookmarkRecord> records;
+
+    private long[] starts = new long[0];
+    private long[] ends = new long[0];
+    private int[] recordIndexes = new int[0];
+    private long[] maxEnds = new long[0];
+    private long[] segmentStarts = new long[]{0};
+    private Color[] segmentColors = new Color[1];
+
+    public BookmarksIndex(List<BookmarkRecord> records) {
+        this.records = records;
+        rebuild();
+    }
+
+    /**
+     * Rebuilds index from current state of records.
+     */
+    public void rebuild() {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (!records.get(i).isEmpty()) {
+                indexes.add(i);
+            }
+        }
+        indexes.sort((first, second) -> Long.compare(records.get(first).getStartPosition(), records.get(second).getStartPosition()));
+
+        int count = indexes.size();
+        starts = new long[count];
+        ends = new long[count];
+        recordIndexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            BookmarkRecord record = records.get(indexes.get(i));
+            recordIndexes[i] = indexes.get(i);
+            starts[i] = record.getStartPosition();
+            ends[i] = record.getStartPosition() + record.getLength();
+        }
+        maxEnds = new long[count];
+        computeMaxEnds(0, count);
+        buildSegments();
+    }
+
+    private long computeMaxEnds(int low, int high) {
+        if (low >= high) {
+            return Long.MIN_VALUE;
+        }
+
+        int middle = (low + high) >>> 1;
+        long maxEnd = Math.max(ends[middle], Math.max(computeMaxEnds(low, middle), computeMaxEnds(middle + 1, high)));
+        maxEnds[middle] = maxEnd;
+        return maxEnd;
+    }
+
+    /**
+     * Splits positions to segments of the same color.
+     * <p>
+     * Boundaries are processed in order while bookmarks covering current
+     * position are kept in queue ordered by priority.
+     */
+    private void buildSegments() {
+        int count = starts.length;
+        long[] boundaries = new long[count * 2 + 1];
+        System.arraycopy(starts, 0, boundaries, 0, count);
+        System.arraycopy(ends, 0, boundaries, count, count);
+        boundaries[count * 2] = 0;
+        Arrays.sort(boundaries);
+
+        List<Long> resultStarts = new ArrayList<>();
+        List<Color> resultColors = new ArrayList<>();
+        PriorityQueue<Integer> active = new PriorityQueue<>((first, second) -> Integer.compare(recordIndexes[second], recordIndexes[first]));
+        int nextBookmark = 0;
+        for (int i = 0; i < boundaries.length; i++) {
+            long position = boundaries[i];
+            if (i > 0 && position == boundaries[i - 1]) {
+                continue;
+            }
+
+            while (nextBookmark < count && starts[nextBookmark] <= position) {
+                active.add(nextBookmark);
+                nextBookmark++;
+            }
+            while (!active.isEmpty() && ends[active.peek()] <= position) {
+                active.poll();
+            }
+
+            Color color = active.isEmpty() ? null : records.get(recordIndexes[active.peek()]).getColor();
+            int lastIndex = resultColors.size() - 1;
+            if (lastIndex < 0 || !isSameColor(resultColors.get(lastIndex), color)) {
+                resultStarts.add(position);
+                resultColors.add(color);
+            }
+        }
+
+        segmentStarts = new long[resultStarts.size()];
+        for (int i = 0; i < segmentStarts.length; i++) {
+            segmentStarts[i] = resultStarts.get(i);
+        }
+        segmentColors = resultColors.toArray(new Color[0]);
+    }
+
+    private static boolean isSameColor(@Nullable Color first, @Nullable Color second) {
+        return first == null ? second == null : first.equals(second);
+    }
+
+    /**
+     * Returns index of color segment containing given position.
+     *
+     * @param position data position
+     * @return segment index
+     */
+    public int findSegment(long position) {
+        int index = Arrays.binarySearch(segmentStarts, position);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    public long getSegmentStart(int segment) {
+        return segmentStarts[segment];
+    }
+
+    /**
+     * Returns last position of segment.
+     *
+     * @param segment segment index
+     * @return position or -1 for last segment
+     */
+    public long getSegmentEnd(int segment) {
+        return segment + 1 < segmentStarts.length ? segmentStarts[segment + 1] - 1 : -1;
+    }
+
+    @Nullable
+    public Color getSegmentColor(int segment) {
+        return segmentColors[segment];
+    }
+
+    /**
+     * Returns color of bookmark at given position.
+     *
+     * @param position data position
+     * @return color or null if there is no bookmark
+     */
+    @Nullable
+    public Color getColor(long position) {
+        return position < 0 ? null : segmentColors[findSegment(position)];
+    }
+
+    /**
+     * Returns bookmarks overlapping given range sorted by start position.
+     *
+     * @param startPosition start position
+     * @param length length of range
+     * @return list of bookmarks
+     */
+    @Nonnull
+    public List<BookmarkRecord> getRecordsInRange(long startPosition, long length) {
+        List<BookmarkRecord> result = new ArrayList<>();
+        collectRecords(0, starts.length, startPosition, startPosition + length, result);
+        return result;
+    }
+
+    private void collectRecords(int low, int high, long startPosition, long endPosition, List<BookmarkRecord> result) {
+        if (low >= high) {
+            return;
+        }
+
+        int middle = (low + high) >>> 1;
+        if (maxEnds[middle] <= startPosition) {
+            return;
+        }
+
+        collectRecords(low, middle, startPosition, endPosition, result);
+        if (starts[middle] < endPosition) {
+            if (ends[middle] > startPosition) {
+                result.add(records.get(recordIndexes[middle]));
+            }
+            collectRecords(middle + 1, high, startPosition, endPosition, result);
+        }
+    }
+
+    /**
+     * Shifts bookmarks after range of data was replaced.
+     * <p>
+     * Data are treated as modified in place up to the shorter of both
+     * lengths, the rest is treated as inserted or removed. Index has to be
+     * rebuilt by {@link #rebuild()} after all changes are applied.
+     *
+     * @param position position of change
+     * @param removedLength length of removed data
+     * @param insertedLength length of inserted data
+     */
+    public void dataReplaced(long position, long removedLength, long insertedLength) {
+        if (insertedLength > removedLength) {
+            dataInserted(position + removedLength, insertedLength - removedLength);
+        } else if (removedLength > insertedLength) {
+            dataRemoved(position + insertedLength, removedLength - insertedLength);
+        }
+    }
+
+    /**
+     * Shifts bookmarks after data were inserted.
+     * <p>
+     * Bookmarks starting at or after insertion position are moved, bookmarks
+     * containing insertion position are extended.
+     *
+     * @param position insertion position
+     * @param length length of inserted data
+     */
+    private void dataInserted(long position, long length) {
+        for (BookmarkRecord record : records) {
+            if (record.isEmpty()) {
+                continue;
+            }
+
+            long startPosition = record.getStartPosition();
+            if (startPosition >= position) {
+                record.setStartPosition(startPosition + length);
+            } else if (startPosition + record.getLength() > position) {
+                record.setLength(record.getLength() + length);
+            }
+        }
+    }
+
+    /**
+     * Shifts and clips bookmarks after data were removed.
+     * <p>
+     * Bookmarks fully inside removed range are cleared.
+     *
+     * @param position removal position
+     * @param length length of removed data
+     */
+    private void dataRemoved(long position, long length) {
+        for (BookmarkRecord record : records) {
+            if (record.isEmpty()) {
+                continue;
+            }
+
+            long startPosition = record.getStartPosition();
+            long endPosition = startPosition + record.getLength();
+            long shiftedStart = startPosition < position ? startPosition : Math.max(position, startPosition - length);
+            long shiftedEnd = endPosition < position ? endPosition : Math.max(position, endPosition - length);
+            if (endPosition > position) {
+                record.setStartPosition(shiftedStart);
+                record.setLength(shiftedEnd - shiftedStart);
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -56,10 +57,12 @@ import org.exbin.framework.bined.bookmarks.action.AddBookmarkAction;
 import org.exbin.framework.bined.bookmarks.action.EditBookmarkAction;
 import org.exbin.framework.bined.bookmarks.action.ManageBookmarksAction;
 import org.exbin.framework.bined.bookmarks.gui.BookmarksManagerPanel;
+import org.exbin.framework.bined.gui.BinEdComponentPanel;
 import org.exbin.framework.bined.bookmarks.model.BookmarkRecord;
 import org.exbin.framework.bined.bookmarks.preferences.BookmarkPreferences;
 import org.exbin.framework.editor.api.EditorModuleApi;
 import org.exbin.framework.editor.api.EditorProvider;
+import org.exbin.framework.editor.api.MultiEditorProvider;
 import org.exbin.framework.file.api.FileHandler;
 import org.exbin.framework.preferences.api.PreferencesModuleApi;
 import org.exbin.framework.utils.ActionUtils;
@@ -78,9 +81,10 @@ public class BookmarksManager {
 
     private final ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(BookmarksManager.class);
 
-    private final List<BookmarkRecord> bookmarkRecords = new ArrayList<>();
+    private final BookmarksStore bookmarksStore = new BookmarksStore(BookmarksStore.getDefaultDirectory());
+    private final List<BinEdComponentBookmarks> componentBookmarks = new ArrayList<>();
+    private final List<BookmarkRecord> legacyRecords = new ArrayList<>();
     private BookmarkPreferences bookmarkPreferences;
-    private BookmarksPositionColorModifier bookmarksPositionColorModifier;
 
     private EditorProvider editorProvider;
 
@@ -109,32 +113,123 @@ public class BookmarksManager {
         PreferencesModuleApi preferencesModule = App.getModule(PreferencesModuleApi.class);
         Preferences preferences = preferencesModule.getAppPreferences();
         bookmarkPreferences = new BookmarkPreferences(preferences);
-        loadBookmarkRecords();
-        updateBookmarksMenu();
-        bookmarksPositionColorModifier = new BookmarksPositionColorModifier(bookmarkRecords);
+        loadLegacyRecords();
         BinEdFileManager fileManager = binedModule.getFileManager();
-        fileManager.addPainterColorModifier(bookmarksPositionColorModifier);
+        fileManager.addBinEdComponentExtension((BinEdComponentPanel component) -> Optional.of(new BinEdComponentBookmarks(this)));
     }
 
-    private void loadBookmarkRecords() {
+    /**
+     * Loads bookmarks stored globally in preferences by previous versions.
+     */
+    private void loadLegacyRecords() {
         int bookmarksCount = bookmarkPreferences.getBookmarksCount();
         for (int i = 0; i < bookmarksCount; i++) {
             BookmarkRecord bookmarkRecord = bookmarkPreferences.getBookmarkRecord(i);
-            bookmarkRecords.add(bookmarkRecord);
+            legacyRecords.add(bookmarkRecord);
         }
     }
 
-    private void saveBookmarkRecords() {
-        int bookmarksCount = bookmarkRecords.size();
-        bookmarkPreferences.setBookmarksCount(bookmarksCount);
-        for (int i = 0; i < bookmarksCount; i++) {
-            bookmarkPreferences.setBookmarkRecord(i, bookmarkRecords.get(i));
+    /**
+     * Returns bookmarks stored in preferences to be moved to first opened
+     * file without bookmarks and removes them from preferences.
+     *
+     * @return bookmark records
+     */
+    @Nonnull
+    public List<BookmarkRecord> migrateLegacyRecords() {
+        if (legacyRecords.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<BookmarkRecord> records = new ArrayList<>(legacyRecords);
+        legacyRecords.clear();
+        bookmarkPreferences.setBookmarksCount(0);
+        return records;
+    }
+
+    @Nonnull
+    public BookmarksStore getBookmarksStore() {
+        return bookmarksStore;
+    }
+
+    public void addComponentBookmarks(BinEdComponentBookmarks bookmarks) {
+        componentBookmarks.add(bookmarks);
+    }
+
+    public void removeComponentBookmarks(BinEdComponentBookmarks bookmarks) {
+        componentBookmarks.remove(bookmarks);
+    }
+
+    /**
+     * Binds bookmarks of component to file opened in it, binding is postponed
+     * if file handler of component is not available yet.
+     *
+     * @param bookmarks component bookmarks
+     */
+    public void synchronizeBookmarks(BinEdComponentBookmarks bookmarks) {
+        Optional<BinEdFileHandler> fileHandler = findFileHandler(bookmarks.getCodeArea());
+        if (fileHandler.isPresent()) {
+            bookmarks.fileSynchronized(fileHandler.get().getFileUri().orElse(null));
+        }
+    }
+
+    @Nonnull
+    private Optional<BinEdFileHandler> findFileHandler(SectCodeArea codeArea) {
+        if (editorProvider == null) {
+            return Optional.empty();
+        }
+
+        List<FileHandler> fileHandlers;
+        if (editorProvider instanceof MultiEditorProvider) {
+            fileHandlers = ((MultiEditorProvider) editorProvider).getFileHandlers();
+        } else {
+            fileHandlers = new ArrayList<>();
+            editorProvider.getActiveFile().ifPresent(fileHandlers::add);
+        }
+        for (FileHandler fileHandler : fileHandlers) {
+            if (fileHandler instanceof BinEdFileHandler && ((BinEdFileHandler) fileHandler).getCodeArea() == codeArea) {
+                return Optional.of((BinEdFileHandler) fileHandler);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Nonnull
+    private Optional<BinEdComponentBookmarks> findBookmarks(SectCodeArea codeArea) {
+        for (BinEdComponentBookmarks bookmarks : componentBookmarks) {
+            if (bookmarks.getCodeArea() == codeArea) {
+                if (bookmarks.isSyncPending()) {
+                    synchronizeBookmarks(bookmarks);
+                }
+                return Optional.of(bookmarks);
+            }
         }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns bookmarks of active file.
+     *
+     * @return component bookmarks
+     */
+    @Nonnull
+    public Optional<BinEdComponentBookmarks> getActiveBookmarks() {
+        if (editorProvider == null) {
+            return Optional.empty();
+        }
+
+        Optional<FileHandler> activeFile = editorProvider.getActiveFile();
+        if (!activeFile.isPresent() || !(activeFile.get() instanceof BinEdFileHandler)) {
+            return Optional.empty();
+        }
+
+        return findBookmarks(((BinEdFileHandler) activeFile.get()).getCodeArea());
     }
 
     @Nonnull
     public List<BookmarkRecord> getBookmarkRecords() {
-        return bookmarkRecords;
+        Optional<BinEdComponentBookmarks> activeBookmarks = getActiveBookmarks();
+        return activeBookmarks.isPresent() ? activeBookmarks.get().getBookmarkRecords() : Collections.emptyList();
     }
 
     @Nonnull
@@ -143,10 +238,15 @@ public class BookmarksManager {
     }
 
     public void setBookmarkRecords(List<BookmarkRecord> records) {
+        Optional<BinEdComponentBookmarks> activeBookmarks = getActiveBookmarks();
+        if (!activeBookmarks.isPresent()) {
+            return;
+        }
+
+        List<BookmarkRecord> bookmarkRecords = activeBookmarks.get().getBookmarkRecords();
         bookmarkRecords.clear();
         bookmarkRecords.addAll(records);
-        saveBookmarkRecords();
-        bookmarksPositionColorModifier.notifyBookmarksChanged();
+        activeBookmarks.get().notifyBookmarksChanged();
         updateBookmarksMenu();
     }
 
@@ -258,6 +358,20 @@ public class BookmarksManager {
             bookmarksMenuAction.putValue(Action.SHORT_DESCRIPTION, resourceBundle.getString("bookmarksMenu.shortDescription"));
             bookmarksMenu = UiUtils.createMenu();
             bookmarksMenu.setAction(bookmarksMenuAction);
+            bookmarksMenu.addMenuListener(new MenuListener() {
+                @Override
+                public void menuSelected(MenuEvent e) {
+                    updateBookmarksMenu();
+                }
+
+                @Override
+                public void menuDeselected(MenuEvent e) {
+                }
+
+                @Override
+                public void menuCanceled(MenuEvent e) {
+                }
+            });
             updateBookmarksMenu();
         }
         return bookmarksMenu;
@@ -355,6 +469,12 @@ public class BookmarksManager {
     }
 
     public void goToBookmark(SectCodeArea codeArea, int bookmarkIndex) {
+        Optional<BinEdComponentBookmarks> bookmarks = findBookmarks(codeArea);
+        if (!bookmarks.isPresent()) {
+            return;
+        }
+
+        List<BookmarkRecord> bookmarkRecords = bookmarks.get().getBookmarkRecords();
         if (bookmarkRecords.size() > bookmarkIndex) {
             BookmarkRecord record = bookmarkRecords.get(bookmarkIndex);
             if (record.isEmpty()) {
@@ -367,6 +487,12 @@ public class BookmarksManager {
     }
 
     public void addBookmark(SectCodeArea codeArea, int bookmarkIndex) {
+        Optional<BinEdComponentBookmarks> bookmarks = findBookmarks(codeArea);
+        if (!bookmarks.isPresent()) {
+            return;
+        }
+
+        List<BookmarkRecord> bookmarkRecords = bookmarks.get().getBookmarkRecords();
         long position = codeArea.getDataPosition();
 
         if (bookmarkRecords.size() <= bookmarkIndex) {
@@ -379,20 +505,24 @@ public class BookmarksManager {
         BookmarkRecord record = bookmarkRecords.get(bookmarkIndex);
         record.setStartPosition(position);
         record.setLength(1);
-        saveBookmarkRecords();
-        bookmarksPositionColorModifier.notifyBookmarksChanged();
+        bookmarks.get().notifyBookmarksChanged();
         updateBookmarksMenu();
     }
 
     public void clearBookmark(int bookmarkIndex) {
+        Optional<BinEdComponentBookmarks> activeBookmarks = getActiveBookmarks();
+        if (!activeBookmarks.isPresent()) {
+            return;
+        }
+
+        List<BookmarkRecord> bookmarkRecords = activeBookmarks.get().getBookmarkRecords();
         if (bookmarkRecords.size() > bookmarkIndex) {
             if (bookmarkRecords.size() == bookmarkIndex + 1) {
                 bookmarkRecords.remove(bookmarkIndex);
             } else {
                 bookmarkRecords.get(bookmarkIndex).setEmpty();
             }
-            saveBookmarkRecords();
-            bookmarksPositionColorModifier.notifyBookmarksChanged();
+            activeBookmarks.get().notifyBookmarksChanged();
             updateBookmarksMenu();
         }
     }
@@ -407,6 +537,7 @@ public class BookmarksManager {
         menu.removeAll();
 
         ActionModuleApi actionModule = App.getModule(ActionModuleApi.class);
+        List<BookmarkRecord> bookmarkRecords = getBookmarkRecords();
         int recordsLimit = Math.min(bookmarkRecords.size(), 10);
         int metaMask = ActionUtils.getMetaMask();
         String bookmarkActionName = resourceBundle.getString("bookmarkAction.text");
@@ -16,12 +16,10 @@
 package org.exbin.framework.bined.bookmarks;
 
 import java.awt.Color;
-import java.util.List;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.exbin.bined.CodeAreaSection;
 import org.exbin.framework.bined.BinEdCodeAreaAssessor;
-import org.exbin.framework.bined.bookmarks.model.BookmarkRecord;
 
 /**
  * Bookmarks position color modifier.
@@ -31,11 +29,11 @@ import org.exbin.framework.bined.bookmarks.model.BookmarkRecord;
 @ParametersAreNonnullByDefault
 public class BookmarksPositionColorModifier implements BinEdCodeAreaAssessor.PositionColorModifier {
 
-    private final List<BookmarkRecord> records;
+    private final BookmarksIndex bookmarksIndex;
     private final ColorCache colorCache = new ColorCache();
 
-    public BookmarksPositionColorModifier(List<BookmarkRecord> records) {
-        this.records = records;
+    public BookmarksPositionColorModifier(BookmarksIndex bookmarksIndex) {
+        this.bookmarksIndex = bookmarksIndex;
     }
 
     @Nullable
@@ -43,24 +41,10 @@ public class BookmarksPositionColorModifier implements BinEdCodeAreaAssessor.Pos
     public Color getPositionBackgroundColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection) {
         long dataPosition = rowDataPosition + byteOnRow;
         if (colorCache.start < 0 || colorCache.start > dataPosition || (colorCache.end >= 0 && colorCache.end < dataPosition)) {
-            colorCache.fullRange();
-            for (BookmarkRecord record : records) {
-                if (record.isEmpty()) {
-                    continue;
-                }
-
-                long startPosition = record.getStartPosition();
-                long endPosition = startPosition + record.getLength() - 1;
-                if (startPosition <= dataPosition && endPosition >= dataPosition) {
-                    colorCache.start = startPosition;
-                    colorCache.end = endPosition;
-                    colorCache.color = record.getColor();
-                } else if (startPosition > dataPosition && startPosition > colorCache.start && (startPosition <= colorCache.end || colorCache.end == -1)) {
-                    colorCache.end = startPosition - 1;
-                } else if (endPosition < dataPosition && endPosition >= colorCache.start && (endPosition <= colorCache.end || colorCache.end == -1)) {
-                    colorCache.start = endPosition + 1;
-                }
-            }
+            int segment = bookmarksIndex.findSegment(dataPosition);
+            colorCache.start = bookmarksIndex.getSegmentStart(segment);
+            colorCache.end = bookmarksIndex.getSegmentEnd(segment);
+            colorCache.color = bookmarksIndex.getSegmentColor(segment);
         }
 
         return colorCache.color;
@@ -97,11 +81,5 @@ public class BookmarksPositionColorModifier implements BinEdCodeAreaAssessor.Pos
             end = -1;
             color = null;
         }
-
-        private void fullRange() {
-            start = 0;
-            end = -1;
-            color = null;
-        }
     }
 }
@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.bookmarks;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.framework.bined.bookmarks.model.BookmarkRecord;
+
+/**
+ * Store of bookmarks of files.
+ * <p>
+ * Bookmarks of each file are kept in separate sidecar file in store directory
+ * named by hash of file path. Sidecar file contains path, size and sampled
+ * hash of file and bookmarks are only used when file still matches, as it
+ * might have been modified outside of editor. Records have fixed size, so
+ * only changed records are rewritten.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BookmarksStore {
+
+    public static final String DEFAULT_STORE_DIRECTORY = ".exbin" + File.separator + "bined" + File.separator + "bookmarks";
+    public static final String SIDECAR_FILE_SUFFIX = ".bookmarks";
+
+    /**
+     * Sidecar file signature "BMK1".
+     */
+    private static final int SIGNATURE = 0x424d4b31;
+    private static final int FILE_SIZE_OFFSET = 4;
+    private static final int RECORDS_COUNT_OFFSET = 20;
+    private static final int HEADER_SIZE = 28;
+    private static final int RECORD_SIZE = 20;
+
+    private static final int SAMPLES_COUNT = 16;
+    private static final int SAMPLE_SIZE = 4096;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final File directory;
+
+    public BookmarksStore(File directory) {
+        this.directory = directory;
+    }
+
+    @Nonnull
+    public static File getDefaultDirectory() {
+        return new File(System.getProperty("user.home"), DEFAULT_STORE_DIRECTORY);
+    }
+
+    @Nonnull
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns entry of store for given file.
+     *
+     * @param file file
+     * @return store entry
+     */
+    @Nonnull
+    public Entry getEntry(File file) {
+        String path = file.getAbsoluteFile().toPath().normalize().toString();
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        String sidecarName = String.format("%016x", hash(FNV_OFFSET_BASIS, pathBytes, 0, pathBytes.length)) + SIDECAR_FILE_SUFFIX;
+        return new Entry(pathBytes, new File(directory, sidecarName));
+    }
+
+    /**
+     * Computes identity of file from its size and from hash of evenly
+     * distributed samples of its content.
+     *
+     * @param file file
+     * @return file identity
+     * @throws IOException if file cannot be read
+     */
+    @Nonnull
+    public static FileIdentity computeIdentity(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            long fileSize = randomAccessFile.length();
+            byte[] buffer = new byte[SAMPLE_SIZE];
+            long sampleHash = FNV_OFFSET_BASIS;
+            if (fileSize <= (long) SAMPLES_COUNT * SAMPLE_SIZE) {
+                long position = 0;
+                while (position < fileSize) {
+                    int length = (int) Math.min(SAMPLE_SIZE, fileSize - position);
+                    randomAccessFile.readFully(buffer, 0, length);
+                    sampleHash = hash(sampleHash, buffer, 0, length);
+                    position += length;
+                }
+            } else {
+                for (int i = 0; i < SAMPLES_COUNT; i++) {
+                    randomAccessFile.seek((fileSize - SAMPLE_SIZE) / (SAMPLES_COUNT - 1) * i);
+                    randomAccessFile.readFully(buffer);
+                    sampleHash = hash(sampleHash, buffer, 0, SAMPLE_SIZE);
+                }
+            }
+
+            return new FileIdentity(fileSize, sampleHash);
+        }
+    }
+
+    private static long hash(long hash, byte[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            hash ^= data[i] & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Identity of file content.
+     */
+    @ParametersAreNonnullByDefault
+    public static class FileIdentity {
+
+        private final long fileSize;
+        private final long sampleHash;
+
+        public FileIdentity(long fileSize, long sampleHash) {
+            this.fileSize = fileSize;
+            this.sampleHash = sampleHash;
+        }
+
+        public long getFileSize() {
+            return fileSize;
+        }
+
+        public long getSampleHash() {
+            return sampleHash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileSize, sampleHash);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            FileIdentity other = (FileIdentity) obj;
+            return fileSize == other.fileSize && sampleHash == other.sampleHash;
+        }
+    }
+
+    /**
+     * Sidecar file of single file.
+     * <p>
+     * Keeps copy of written content to write only differences.
+     */
+    @ParametersAreNonnullByDefault
+    public class Entry {
+
+        private final byte[] pathBytes;
+        private final File sidecarFile;
+        private FileIdentity writtenIdentity = null;
+        private long[] writtenStarts = new long[0];
+        private long[] writtenLengths = new long[0];
+        private int[] writtenColors = new int[0];
+
+        private Entry(byte[] pathBytes, File sidecarFile) {
+            this.pathBytes = pathBytes;
+            this.sidecarFile = sidecarFile;
+        }
+
+        @Nonnull
+        public File getSidecarFile() {
+            return sidecarFile;
+        }
+
+        /**
+         * Reads bookmarks stored for file.
+         *
+         * @param identity current identity of file
+         * @return bookmark records, empty if none are stored or file doesn't
+         * match
+         */
+        @Nonnull
+        public List<BookmarkRecord> load(FileIdentity identity) {
+            writtenIdentity = null;
+            List<BookmarkRecord> records = new ArrayList<>();
+            if (!sidecarFile.isFile()) {
+                return records;
+            }
+
+            try (FileChannel channel = FileChannel.open(sidecarFile.toPath(), StandardOpenOption.READ)) {
+                long sidecarSize = channel.size();
+                int headerSize = HEADER_SIZE + pathBytes.length;
+                if (sidecarSize < headerSize) {
+                    return records;
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(headerSize);
+                readFully(channel, header, 0);
+                header.flip();
+                if (header.getInt() != SIGNATURE) {
+                    return records;
+                }
+                FileIdentity storedIdentity = new FileIdentity(header.getLong(), header.getLong());
+                int recordsCount = header.getInt();
+                byte[] storedPath = new byte[header.getInt()];
+                if (storedPath.length != pathBytes.length) {
+                    return records;
+                }
+                header.get(storedPath);
+                // Different file with colliding name of sidecar file is overwritten
+                if (!Arrays.equals(storedPath, pathBytes) || !storedIdentity.equals(identity) || recordsCount < 0 || sidecarSize < headerSize + (long) recordsCount * RECORD_SIZE) {
+                    return records;
+                }
+
+                ByteBuffer data = ByteBuffer.allocate(recordsCount * RECORD_SIZE);
+                readFully(channel, data, headerSize);
+                data.flip();
+                for (int i = 0; i < recordsCount; i++) {
+                    records.add(new BookmarkRecord(data.getLong(), data.getLong(), new Color(data.getInt(), true)));
+                }
+                writtenIdentity = storedIdentity;
+                updateWritten(records);
+            } catch (IOException ex) {
+                Logger.getLogger(BookmarksStore.class.getName()).log(Level.WARNING, "Unable to read bookmarks from " + sidecarFile, ex);
+                records.clear();
+            }
+            return records;
+        }
+
+        /**
+         * Writes bookmarks of file, only changes against last loaded or
+         * written state are written.
+         *
+         * @param identity current identity of file
+         * @param records bookmark records
+         * @throws IOException if sidecar file cannot be written
+         */
+        public void write(FileIdentity identity, List<BookmarkRecord> records) throws IOException {
+            if (records.isEmpty()) {
+                if (writtenIdentity != null || sidecarFile.exists()) {
+                    if (!sidecarFile.delete() && sidecarFile.exists()) {
+                        throw new IOException("Unable to delete " + sidecarFile);
+                    }
+                }
+                writtenIdentity = null;
+                updateWritten(records);
+                return;
+            }
+
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Unable to create directory " + directory);
+            }
+
+            int headerSize = HEADER_SIZE + pathBytes.length;
+            int recordsCount = records.size();
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(sidecarFile, "rw")) {
+                if (writtenIdentity == null) {
+                    ByteBuffer buffer = ByteBuffer.allocate(headerSize + recordsCount * RECORD_SIZE);
+                    buffer.putInt(SIGNATURE);
+                    buffer.putLong(identity.getFileSize());
+                    buffer.putLong(identity.getSampleHash());
+                    buffer.putInt(recordsCount);
+                    buffer.putInt(pathBytes.length);
+                    buffer.put(pathBytes);
+                    for (BookmarkRecord record : records) {
+                        putRecord(buffer, record);
+                    }
+                    randomAccessFile.write(buffer.array());
+                    randomAccessFile.setLength(buffer.capacity());
+                } else {
+                    if (!writtenIdentity.equals(identity)) {
+                        ByteBuffer buffer = ByteBuffer.allocate(16);
+                        buffer.putLong(identity.getFileSize());
+                        buffer.putLong(identity.getSampleHash());
+                        randomAccessFile.seek(FILE_SIZE_OFFSET);
+                        randomAccessFile.write(buffer.array());
+                    }
+                    if (writtenStarts.length != recordsCount) {
+                        randomAccessFile.seek(RECORDS_COUNT_OFFSET);
+                        randomAccessFile.writeInt(recordsCount);
+                    }
+
+                    ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+                    for (int i = 0; i < recordsCount; i++) {
+                        BookmarkRecord record = records.get(i);
+                        if (i < writtenStarts.length && writtenStarts[i] == record.getStartPosition() && writtenLengths[i] == record.getLength() && writtenColors[i] == getColorValue(record)) {
+                            continue;
+                        }
+
+                        buffer.clear();
+                        putRecord(buffer, record);
+                        randomAccessFile.seek(headerSize + (long) i * RECORD_SIZE);
+                        randomAccessFile.write(buffer.array());
+                    }
+                    randomAccessFile.setLength(headerSize + (long) recordsCount * RECORD_SIZE);
+                }
+            } catch (IOException ex) {
+                // Sidecar file is rewritten next time as its content is unknown
+                writtenIdentity = null;
+                throw ex;
+            }
+
+            writtenIdentity = identity;
+            updateWritten(records);
+        }
+
+        private void updateWritten(List<BookmarkRecord> records) {
+            int recordsCount = records.size();
+            writtenStarts = new long[recordsCount];
+            writtenLengths = new long[recordsCount];
+            writtenColors = new int[recordsCount];
+            for (int i = 0; i < recordsCount; i++) {
+                BookmarkRecord record = records.get(i);
+                writtenStarts[i] = record.getStartPosition();
+                writtenLengths[i] = record.getLength();
+                writtenColors[i] = getColorValue(record);
+            }
+        }
+    }
+
+    private static void putRecord(ByteBuffer buffer, BookmarkRecord record) {
+        buffer.putLong(record.getStartPosition());
+        buffer.putLong(record.getLength());
+        buffer.putInt(getColorValue(record));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private static int getColorValue(BookmarkRecord record) {
+        Color color = record.getColor();
+        return color == null ? Color.GRAY.getRGB() : color.getRGB();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+}
@@ -19,7 +19,6 @@ import java.awt.Dialog;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
@@ -33,8 +32,9 @@ import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.swing.AbstractAction;
 import org.exbin.auxiliary.binary_data.BinaryData;
-import org.exbin.auxiliary.binary_data.paged.ByteArrayPagedData;
-import org.exbin.auxiliary.binary_data.paged.PagedData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+import org.exbin.auxiliary.binary_data.delta.SegmentsRepository;
+import org.exbin.auxiliary.binary_data.delta.file.FileDataSource;
 import org.exbin.framework.App;
 import org.exbin.framework.action.api.ActionActiveComponent;
 import org.exbin.framework.action.api.ActionConsts;
@@ -45,6 +45,7 @@ import org.exbin.framework.window.api.gui.CloseControlPanel;
 import org.exbin.framework.editor.api.EditorProvider;
 import org.exbin.framework.bined.BinEdFileHandler;
 import org.exbin.framework.bined.BinedModule;
+import org.exbin.framework.bined.MappedFileDataSource;
 import org.exbin.framework.editor.api.MultiEditorProvider;
 import org.exbin.framework.file.api.AllFileTypes;
 import org.exbin.framework.file.api.FileHandler;
@@ -89,6 +90,8 @@ public class CompareFilesAction extends AbstractAction implements ActionActiveCo
         windowModule.setWindowTitle(dialog, panelResourceBundle);
         Dimension preferredSize = dialog.getWindow().getPreferredSize();
         dialog.getWindow().setSize(new Dimension(preferredSize.width, preferredSize.height + 450));
+        final SegmentsRepository segmentsRepository = new SegmentsRepository();
+        final List<DeltaDocument> openedDocuments = new ArrayList<>();
         controlPanel.setHandler(dialog::close);
         Optional<FileHandler> activeFile = editorProvider.getActiveFile();
         if (activeFile.isPresent()) {
@@ -128,10 +131,13 @@ public class CompareFilesAction extends AbstractAction implements ActionActiveCo
                     return null;
                 }
 
-                try (FileInputStream stream = new FileInputStream(result[0])) {
-                    PagedData pagedData = new ByteArrayPagedData();
-                    pagedData.loadFromStream(stream);
-                    return new CompareFilesPanel.FileRecord(result[0].getAbsolutePath(), pagedData);
+                // File is accessed directly instead of loading it to memory
+                try {
+                    FileDataSource fileSource = new MappedFileDataSource(result[0]);
+                    segmentsRepository.addDataSource(fileSource);
+                    DeltaDocument document = segmentsRepository.createDocument(fileSource);
+                    openedDocuments.add(document);
+                    return new CompareFilesPanel.FileRecord(result[0].getAbsolutePath(), document);
                 } catch (IOException ex) {
                     Logger.getLogger(CompareFilesAction.class.getName()).log(Level.SEVERE, null, ex);
 
@@ -146,6 +152,24 @@ public class CompareFilesAction extends AbstractAction implements ActionActiveCo
             }
         });
         dialog.showCentered(editorProvider.getEditorComponent());
+        compareFilesPanel.stopComparing();
+        closeDocuments(segmentsRepository, openedDocuments);
+    }
+
+    private static void closeDocuments(SegmentsRepository segmentsRepository, List<DeltaDocument> documents) {
+        for (DeltaDocument document : documents) {
+            FileDataSource fileSource = (FileDataSource) document.getDataSource();
+            document.dispose();
+            if (fileSource != null) {
+                segmentsRepository.detachFileSource(fileSource);
+                try {
+                    fileSource.close();
+                } catch (IOException ex) {
+                    Logger.getLogger(CompareFilesAction.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+        }
+        documents.clear();
     }
 
     @Override
@@ -17,8 +17,10 @@ package org.exbin.framework.bined.compare.gui;
 
 import java.awt.Component;
 import java.awt.event.ItemEvent;
+import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -29,8 +31,13 @@ import javax.swing.SwingUtilities;
 import javax.swing.event.PopupMenuEvent;
 import javax.swing.event.PopupMenuListener;
 import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.bined.SelectionRange;
 import org.exbin.bined.swing.section.SectCodeArea;
 import org.exbin.framework.App;
+import org.exbin.framework.bined.compare.service.AnchoredDiffService;
+import org.exbin.framework.bined.compare.service.BinaryDiffResult;
+import org.exbin.framework.bined.compare.service.BinaryDiffService;
+import org.exbin.framework.bined.compare.service.DiffRange;
 import org.exbin.framework.bined.handler.CodeAreaPopupMenuHandler;
 import org.exbin.framework.language.api.LanguageModuleApi;
 import org.exbin.framework.utils.TestApplication;
@@ -49,6 +56,12 @@ public class CompareFilesPanel extends javax.swing.JPanel {
     private Controller controller;
     private FileRecord leftCustomFile;
     private FileRecord rightCustomFile;
+    private BinaryData leftData;
+    private BinaryData rightData;
+    private BinaryDiffResult diffResult;
+    private int currentDifference = -1;
+    private Thread diffThread;
+    private AtomicBoolean diffCancelled;
 
     public CompareFilesPanel() {
         initComponents();
@@ -131,11 +144,143 @@ public class CompareFilesPanel extends javax.swing.JPanel {
     }
 
     public void setLeftFile(BinaryData contentData) {
+        leftData = contentData;
         codeAreaDiffPanel.setLeftContentData(contentData);
+        updateDifferences();
     }
 
     public void setRightFile(BinaryData contentData) {
+        rightData = contentData;
         codeAreaDiffPanel.setRightContentData(contentData);
+        updateDifferences();
+    }
+
+    /**
+     * Returns result of last finished comparison.
+     *
+     * @return comparison result or null if not available
+     */
+    @Nullable
+    public BinaryDiffResult getDiffResult() {
+        return diffResult;
+    }
+
+    /**
+     * Stops running comparison.
+     * <p>
+     * Data are no longer read after comparison is stopped, so they can be
+     * disposed afterwards.
+     */
+    public void stopComparing() {
+        if (diffThread == null) {
+            return;
+        }
+
+        diffCancelled.set(true);
+        diffThread = null;
+    }
+
+    private void updateDifferences() {
+        stopComparing();
+        diffResult = null;
+        currentDifference = -1;
+        updateDiffStatus();
+        if (leftData == null || rightData == null) {
+            return;
+        }
+
+        final BinaryData left = leftData;
+        final BinaryData right = rightData;
+        final boolean detectInsertions = detectInsertionsCheckBox.isSelected();
+        // Insertion detection reads both sides completely
+        final long totalSize = Math.max(1, detectInsertions ? left.getDataSize() + right.getDataSize() : Math.min(left.getDataSize(), right.getDataSize()));
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        diffCancelled = cancelled;
+        diffStatusLabel.setText(java.text.MessageFormat.format(resourceBundle.getString("diffStatus.progress"), 0));
+        diffThread = new Thread(() -> {
+            BinaryDiffService.DataReader leftReader = (position, target, offset, length) -> copyToArray(left, position, target, offset, length, cancelled);
+            BinaryDiffService.DataReader rightReader = (position, target, offset, length) -> copyToArray(right, position, target, offset, length, cancelled);
+            int[] lastPercentage = new int[1];
+            BinaryDiffService.ProgressListener progressListener = (processedSize) -> {
+                int percentage = (int) (processedSize * 100 / totalSize);
+                if (percentage != lastPercentage[0]) {
+                    lastPercentage[0] = percentage;
+                    SwingUtilities.invokeLater(() -> {
+                        if (!cancelled.get()) {
+                            diffStatusLabel.setText(java.text.MessageFormat.format(resourceBundle.getString("diffStatus.progress"), percentage));
+                        }
+                    });
+                }
+                return !cancelled.get();
+            };
+            BinaryDiffResult result = detectInsertions
+                    ? new AnchoredDiffService().computeDiff(leftReader, left.getDataSize(), rightReader, right.getDataSize(), progressListener)
+                    : new BinaryDiffService().computeDiff(leftReader, left.getDataSize(), rightReader, right.getDataSize(), progressListener);
+            if (result != null) {
+                SwingUtilities.invokeLater(() -> {
+                    if (!cancelled.get()) {
+                        diffResult = result;
+                        updateDiffStatus();
+                    }
+                });
+            }
+        }, "Compare files");
+        diffThread.setDaemon(true);
+        diffThread.start();
+    }
+
+    /**
+     * Copies block of data to array on event dispatch thread.
+     * <p>
+     * Data are shown in code areas and not all data support concurrent
+     * reading.
+     */
+    private static void copyToArray(BinaryData data, long position, byte[] target, int offset, int length, AtomicBoolean cancelled) {
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                if (!cancelled.get()) {
+                    data.copyToArray(position, target, offset, length);
+                }
+            });
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (InvocationTargetException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private void updateDiffStatus() {
+        int differencesCount = diffResult == null ? 0 : diffResult.getRanges().size();
+        previousDifferenceButton.setEnabled(currentDifference > 0);
+        nextDifferenceButton.setEnabled(currentDifference < differencesCount - 1);
+        if (diffResult == null) {
+            diffStatusLabel.setText("");
+        } else if (diffResult.isIdentical()) {
+            diffStatusLabel.setText(resourceBundle.getString("diffStatus.identical"));
+        } else {
+            String status = java.text.MessageFormat.format(resourceBundle.getString(diffResult.isTruncated() ? "diffStatus.truncated" : "diffStatus.differences"), differencesCount, diffResult.getModifiedBytesCount(), diffResult.getInsertedBytesCount(), diffResult.getDeletedBytesCount());
+            if (diffResult.getMovedBytesCount() > 0) {
+                status += java.text.MessageFormat.format(resourceBundle.getString("diffStatus.moved"), diffResult.getMovedBytesCount());
+            }
+            if (currentDifference >= 0) {
+                status = java.text.MessageFormat.format(resourceBundle.getString("diffStatus.currentDifference"), currentDifference + 1, status);
+            }
+            diffStatusLabel.setText(status);
+        }
+    }
+
+    private void showDifference(int index) {
+        currentDifference = index;
+        DiffRange range = diffResult.getRanges().get(index);
+        revealRange(codeAreaDiffPanel.getLeftCodeArea(), range.getLeftPosition(), range.getLeftLength());
+        revealRange(codeAreaDiffPanel.getRightCodeArea(), range.getRightPosition(), range.getRightLength());
+        updateDiffStatus();
+    }
+
+    private static void revealRange(SectCodeArea codeArea, long position, long length) {
+        codeArea.setSelection(new SelectionRange(position, position + length));
+        codeArea.revealPosition(position, 0, codeArea.getActiveSection());
     }
 
     public void setCodeAreaPopupMenu(CodeAreaPopupMenuHandler codeAreaPopupMenuHandler) {
@@ -199,6 +344,11 @@ public class CompareFilesPanel extends javax.swing.JPanel {
         rightComboBox = new javax.swing.JComboBox<>();
         rightOpenButton = new javax.swing.JButton();
         codeAreaDiffPanel = new org.exbin.bined.swing.section.diff.SectCodeAreaDiffPanel();
+        diffPanel = new javax.swing.JPanel();
+        detectInsertionsCheckBox = new javax.swing.JCheckBox();
+        previousDifferenceButton = new javax.swing.JButton();
+        nextDifferenceButton = new javax.swing.JButton();
+        diffStatusLabel = new javax.swing.JLabel();
 
         setLayout(new java.awt.BorderLayout());
 
@@ -261,6 +411,41 @@ public class CompareFilesPanel extends javax.swing.JPanel {
 
         add(optionsPanel, java.awt.BorderLayout.PAGE_START);
         add(codeAreaDiffPanel, java.awt.BorderLayout.CENTER);
+
+        diffPanel.setLayout(new java.awt.FlowLayout(java.awt.FlowLayout.LEFT));
+
+        detectInsertionsCheckBox.setSelected(true);
+        detectInsertionsCheckBox.setText(resourceBundle.getString("detectInsertionsCheckBox.text")); // NOI18N
+        detectInsertionsCheckBox.setToolTipText(resourceBundle.getString("detectInsertionsCheckBox.toolTipText")); // NOI18N
+        detectInsertionsCheckBox.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                detectInsertionsCheckBoxActionPerformed(evt);
+            }
+        });
+        diffPanel.add(detectInsertionsCheckBox);
+
+        previousDifferenceButton.setText(resourceBundle.getString("previousDifferenceButton.text")); // NOI18N
+        previousDifferenceButton.setToolTipText(resourceBundle.getString("previousDifferenceButton.toolTipText")); // NOI18N
+        previousDifferenceButton.setEnabled(false);
+        previousDifferenceButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                previousDifferenceButtonActionPerformed(evt);
+            }
+        });
+        diffPanel.add(previousDifferenceButton);
+
+        nextDifferenceButton.setText(resourceBundle.getString("nextDifferenceButton.text")); // NOI18N
+        nextDifferenceButton.setToolTipText(resourceBundle.getString("nextDifferenceButton.toolTipText")); // NOI18N
+        nextDifferenceButton.setEnabled(false);
+        nextDifferenceButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                nextDifferenceButtonActionPerformed(evt);
+            }
+        });
+        diffPanel.add(nextDifferenceButton);
+        diffPanel.add(diffStatusLabel);
+
+        add(diffPanel, java.awt.BorderLayout.PAGE_END);
     }// </editor-fold>//GEN-END:initComponents
 
     private void rightOpenButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_rightOpenButtonActionPerformed
@@ -289,6 +474,22 @@ public class CompareFilesPanel extends javax.swing.JPanel {
         }
     }//GEN-LAST:event_leftOpenButtonActionPerformed
 
+    private void previousDifferenceButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_previousDifferenceButtonActionPerformed
+        if (diffResult != null && currentDifference > 0) {
+            showDifference(currentDifference - 1);
+        }
+    }//GEN-LAST:event_previousDifferenceButtonActionPerformed
+
+    private void nextDifferenceButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_nextDifferenceButtonActionPerformed
+        if (diffResult != null && currentDifference < diffResult.getRanges().size() - 1) {
+            showDifference(currentDifference + 1);
+        }
+    }//GEN-LAST:event_nextDifferenceButtonActionPerformed
+
+    private void detectInsertionsCheckBoxActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_detectInsertionsCheckBoxActionPerformed
+        updateDifferences();
+    }//GEN-LAST:event_detectInsertionsCheckBoxActionPerformed
+
     private void switchToLeftCustomFile() {
         setLeftFile(leftCustomFile.getData());
     }
@@ -308,10 +509,15 @@ public class CompareFilesPanel extends javax.swing.JPanel {
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private org.exbin.bined.swing.section.diff.SectCodeAreaDiffPanel codeAreaDiffPanel;
+    private javax.swing.JCheckBox detectInsertionsCheckBox;
+    private javax.swing.JPanel diffPanel;
+    private javax.swing.JLabel diffStatusLabel;
     private javax.swing.JComboBox<String> leftComboBox;
     private javax.swing.JLabel leftLabel;
     private javax.swing.JButton leftOpenButton;
+    private javax.swing.JButton nextDifferenceButton;
     private javax.swing.JPanel optionsPanel;
+    private javax.swing.JButton previousDifferenceButton;
     private javax.swing.JComboBox<String> rightComboBox;
     private javax.swing.JLabel rightLabel;
     private javax.swing.JButton rightOpenButton;
@@ -0,0 +1,627 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.compare.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Service comparing two binary data with detection of inserted and deleted
+ * data.
+ * <p>
+ * Both data are split to chunks with boundaries defined by rolling hash of
+ * content, so chunks following inserted or deleted data are the same on both
+ * sides. Chunks are split in parallel in segments of fixed size. Sequences of
+ * chunks are matched using chunks unique on both sides as anchors and exact
+ * differences are computed using Myers algorithm only in gaps between matched
+ * chunks. Gaps too large or too different for exact comparison are reported
+ * as single range.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class AnchoredDiffService {
+
+    public static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    public static final int MIN_CHUNK_SIZE = 2 * 1024;
+    public static final int MAX_CHUNK_SIZE = 64 * 1024;
+    public static final int MAX_GAP_SIZE = 64 * 1024;
+    public static final int MAX_EDIT_DISTANCE = 1024;
+
+    private static final int READ_SIZE = 1024 * 1024;
+    /**
+     * Mask of rolling hash for average chunk size of 8 KiB.
+     */
+    private static final long CHUNK_MASK = 0xfff8000000000000L;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long[] GEAR_TABLE = createGearTable();
+
+    private final int threadsCount;
+    private final int maximumRanges;
+
+    public AnchoredDiffService() {
+        this(Runtime.getRuntime().availableProcessors(), BinaryDiffService.DEFAULT_MAXIMUM_RANGES);
+    }
+
+    public AnchoredDiffService(int threadsCount, int maximumRanges) {
+        this.threadsCount = Math.max(1, threadsCount);
+        this.maximumRanges = Math.max(1, maximumRanges);
+    }
+
+    /**
+     * Compares data.
+     *
+     * @param leftData left data
+     * @param rightData right data
+     * @param progressListener progress listener reporting count of processed
+     * bytes of both sides
+     * @return comparison result or null if comparison was cancelled
+     */
+    @Nullable
+    public BinaryDiffResult computeDiff(BinaryData leftData, BinaryData rightData, BinaryDiffService.ProgressListener progressListener) {
+        // Binary data are not required to support concurrent reading
+        BinaryDiffService.DataReader leftReader = (position, target, offset, length) -> {
+            synchronized (leftData) {
+                leftData.copyToArray(position, target, offset, length);
+            }
+        };
+        BinaryDiffService.DataReader rightReader = (position, target, offset, length) -> {
+            synchronized (rightData) {
+                rightData.copyToArray(position, target, offset, length);
+            }
+        };
+        return computeDiff(leftReader, leftData.getDataSize(), rightReader, rightData.getDataSize(), progressListener);
+    }
+
+    /**
+     * Compares data read using data readers.
+     * <p>
+     * Readers are called from multiple threads.
+     *
+     * @param leftReader left data reader
+     * @param leftSize size of left data
+     * @param rightReader right data reader
+     * @param rightSize size of right data
+     * @param progressListener progress listener reporting count of processed
+     * bytes of both sides
+     * @return comparison result or null if comparison was cancelled
+     */
+    @Nullable
+    public BinaryDiffResult computeDiff(BinaryDiffService.DataReader leftReader, long leftSize, BinaryDiffService.DataReader rightReader, long rightSize, BinaryDiffService.ProgressListener progressListener) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ExecutorService executor = createExecutor(threadsCount);
+        ChunkList leftChunks;
+        ChunkList rightChunks;
+        try {
+            List<Future<ChunkList>> leftSegments = submitSegments(executor, leftReader, leftSize, cancelled);
+            List<Future<ChunkList>> rightSegments = submitSegments(executor, rightReader, rightSize, cancelled);
+            long[] processedSize = new long[1];
+            leftChunks = collectSegments(leftSegments, processedSize, progressListener);
+            rightChunks = leftChunks == null ? null : collectSegments(rightSegments, processedSize, progressListener);
+            if (rightChunks == null) {
+                return null;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            cancelled.set(true);
+            executor.shutdownNow();
+        }
+
+        List<int[]> anchors = matchChunks(leftChunks, rightChunks);
+        long movedSize = computeMovedSize(leftChunks, rightChunks, anchors);
+
+        RangeCollector collector = new RangeCollector(maximumRanges);
+        int leftIndex = 0;
+        int rightIndex = 0;
+        for (int i = 0; i <= anchors.size(); i++) {
+            int leftAnchor = i < anchors.size() ? anchors.get(i)[0] : leftChunks.size();
+            int rightAnchor = i < anchors.size() ? anchors.get(i)[1] : rightChunks.size();
+            long leftStart = leftChunks.getStart(leftIndex, leftSize);
+            long rightStart = rightChunks.getStart(rightIndex, rightSize);
+            long leftEnd = leftChunks.getStart(leftAnchor, leftSize);
+            long rightEnd = rightChunks.getStart(rightAnchor, rightSize);
+            if (leftEnd > leftStart || rightEnd > rightStart) {
+                compareGap(leftReader, leftStart, leftEnd - leftStart, rightReader, rightStart, rightEnd - rightStart, collector);
+                if (collector.isFull()) {
+                    return new BinaryDiffResult(leftSize, rightSize, collector.getRanges(), true, movedSize);
+                }
+            }
+            leftIndex = leftAnchor + 1;
+            rightIndex = rightAnchor + 1;
+        }
+
+        return new BinaryDiffResult(leftSize, rightSize, collector.getRanges(), false, movedSize);
+    }
+
+    @Nonnull
+    private static List<Future<ChunkList>> submitSegments(ExecutorService executor, BinaryDiffService.DataReader reader, long dataSize, AtomicBoolean cancelled) {
+        List<Future<ChunkList>> segments = new ArrayList<>();
+        for (long segmentStart = 0; segmentStart < dataSize; segmentStart += SEGMENT_SIZE) {
+            long start = segmentStart;
+            long end = Math.min(dataSize, segmentStart + SEGMENT_SIZE);
+            segments.add(executor.submit(() -> splitChunks(reader, start, end, cancelled)));
+        }
+        return segments;
+    }
+
+    @Nullable
+    private static ChunkList collectSegments(List<Future<ChunkList>> segments, long[] processedSize, BinaryDiffService.ProgressListener progressListener) throws InterruptedException {
+        ChunkList chunks = new ChunkList();
+        for (Future<ChunkList> segment : segments) {
+            ChunkList segmentChunks;
+            try {
+                segmentChunks = segment.get();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Data comparison failed", ex.getCause());
+            }
+            chunks.addAll(segmentChunks);
+            processedSize[0] += segmentChunks.getTotalLength();
+            if (!progressListener.progress(processedSize[0])) {
+                return null;
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Splits range of data to chunks with boundaries defined by content.
+     * <p>
+     * Gear rolling hash is used for boundaries and FNV-1a hash identifies
+     * content of each chunk.
+     */
+    @Nonnull
+    private static ChunkList splitChunks(BinaryDiffService.DataReader reader, long start, long end, AtomicBoolean cancelled) {
+        ChunkList chunks = new ChunkList();
+        byte[] buffer = new byte[(int) Math.min(READ_SIZE, end - start)];
+        long chunkStart = start;
+        long rollingHash = 0;
+        long contentHash = FNV_OFFSET;
+        long position = start;
+        while (position < end) {
+            if (cancelled.get()) {
+                return chunks;
+            }
+
+            int length = (int) Math.min(buffer.length, end - position);
+            reader.copyToArray(position, buffer, 0, length);
+            for (int i = 0; i < length; i++) {
+                int value = buffer[i] & 0xff;
+                rollingHash = (rollingHash << 1) + GEAR_TABLE[value];
+                contentHash = (contentHash ^ value) * FNV_PRIME;
+                long chunkLength = position + i + 1 - chunkStart;
+                if ((chunkLength >= MIN_CHUNK_SIZE && (rollingHash & CHUNK_MASK) == 0) || chunkLength >= MAX_CHUNK_SIZE) {
+                    chunks.add(chunkStart, (int) chunkLength, contentHash);
+                    chunkStart += chunkLength;
+                    rollingHash = 0;
+                    contentHash = FNV_OFFSET;
+                }
+            }
+            position += length;
+        }
+
+        if (chunkStart < end) {
+            chunks.add(chunkStart, (int) (end - chunkStart), contentHash);
+        }
+        return chunks;
+    }
+
+    /**
+     * Matches sequences of chunks.
+     * <p>
+     * Common leading and trailing chunks are matched first, then longest
+     * increasing sequence of chunks unique on both sides is used as anchors
+     * and ranges between anchors are processed the same way.
+     *
+     * @return sorted list of pairs of indexes of matched chunks
+     */
+    @Nonnull
+    private static List<int[]> matchChunks(ChunkList leftChunks, ChunkList rightChunks) {
+        List<int[]> anchors = new ArrayList<>();
+        Deque<int[]> pendingRanges = new ArrayDeque<>();
+        pendingRanges.push(new int[]{0, leftChunks.size(), 0, rightChunks.size()});
+        while (!pendingRanges.isEmpty()) {
+            int[] range = pendingRanges.pop();
+            int leftStart = range[0];
+            int leftEnd = range[1];
+            int rightStart = range[2];
+            int rightEnd = range[3];
+            while (leftStart < leftEnd && rightStart < rightEnd && leftChunks.isSame(leftStart, rightChunks, rightStart)) {
+                anchors.add(new int[]{leftStart, rightStart});
+                leftStart++;
+                rightStart++;
+            }
+            while (leftStart < leftEnd && rightStart < rightEnd && leftChunks.isSame(leftEnd - 1, rightChunks, rightEnd - 1)) {
+                leftEnd--;
+                rightEnd--;
+                anchors.add(new int[]{leftEnd, rightEnd});
+            }
+            if (leftStart == leftEnd || rightStart == rightEnd) {
+                continue;
+            }
+
+            List<int[]> uniqueAnchors = findUniqueAnchors(leftChunks, leftStart, leftEnd, rightChunks, rightStart, rightEnd);
+            int previousLeft = leftStart;
+            int previousRight = rightStart;
+            for (int[] anchor : uniqueAnchors) {
+                anchors.add(anchor);
+                if (anchor[0] > previousLeft && anchor[1] > previousRight) {
+                    pendingRanges.push(new int[]{previousLeft, anchor[0], previousRight, anchor[1]});
+                }
+                previousLeft = anchor[0] + 1;
+                previousRight = anchor[1] + 1;
+            }
+            if (!uniqueAnchors.isEmpty() && leftEnd > previousLeft && rightEnd > previousRight) {
+                pendingRanges.push(new int[]{previousLeft, leftEnd, previousRight, rightEnd});
+            }
+        }
+
+        anchors.sort((first, second) -> Integer.compare(first[0], second[0]));
+        return anchors;
+    }
+
+    /**
+     * Finds longest increasing sequence of pairs of chunks which occur
+     * exactly once in both ranges.
+     */
+    @Nonnull
+    private static List<int[]> findUniqueAnchors(ChunkList leftChunks, int leftStart, int leftEnd, ChunkList rightChunks, int rightStart, int rightEnd) {
+        Map<Long, Integer> leftUnique = findUniqueChunks(leftChunks, leftStart, leftEnd);
+        Map<Long, Integer> rightUnique = findUniqueChunks(rightChunks, rightStart, rightEnd);
+        List<int[]> candidates = new ArrayList<>();
+        for (int leftIndex = leftStart; leftIndex < leftEnd; leftIndex++) {
+            Integer leftMatch = leftUnique.get(leftChunks.getHash(leftIndex));
+            Integer rightIndex = rightUnique.get(leftChunks.getHash(leftIndex));
+            if (leftMatch != null && leftMatch == leftIndex && rightIndex != null && rightIndex >= 0 && leftChunks.isSame(leftIndex, rightChunks, rightIndex)) {
+                candidates.add(new int[]{leftIndex, rightIndex});
+            }
+        }
+
+        // Patience sorting of right indexes in order of left indexes
+        int[] tails = new int[candidates.size()];
+        int[] predecessors = new int[candidates.size()];
+        int length = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            int rightIndex = candidates.get(i)[1];
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (candidates.get(tails[middle])[1] < rightIndex) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            predecessors[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        int[][] sequence = new int[length][];
+        int index = length > 0 ? tails[length - 1] : -1;
+        for (int i = length - 1; i >= 0; i--) {
+            sequence[i] = candidates.get(index);
+            index = predecessors[index];
+        }
+        return Arrays.asList(sequence);
+    }
+
+    /**
+     * Returns map of chunk hashes to index of chunk or -1 if chunk is not
+     * unique in given range.
+     */
+    @Nonnull
+    private static Map<Long, Integer> findUniqueChunks(ChunkList chunks, int start, int end) {
+        Map<Long, Integer> uniqueChunks = new HashMap<>();
+        for (int index = start; index < end; index++) {
+            uniqueChunks.merge(chunks.getHash(index), index, (first, second) -> -1);
+        }
+        return uniqueChunks;
+    }
+
+    /**
+     * Returns size of chunks which are not matched, but occur in unmatched
+     * chunks of other side.
+     */
+    private static long computeMovedSize(ChunkList leftChunks, ChunkList rightChunks, List<int[]> anchors) {
+        boolean[] leftMatched = new boolean[leftChunks.size()];
+        boolean[] rightMatched = new boolean[rightChunks.size()];
+        for (int[] anchor : anchors) {
+            leftMatched[anchor[0]] = true;
+            rightMatched[anchor[1]] = true;
+        }
+
+        Map<Long, Integer> leftUnmatched = new HashMap<>();
+        for (int index = 0; index < leftChunks.size(); index++) {
+            if (!leftMatched[index]) {
+                leftUnmatched.merge(leftChunks.getHash(index), 1, Integer::sum);
+            }
+        }
+
+        long movedSize = 0;
+        for (int index = 0; index < rightChunks.size(); index++) {
+            if (!rightMatched[index]) {
+                Integer count = leftUnmatched.get(rightChunks.getHash(index));
+                if (count != null && count > 0) {
+                    leftUnmatched.put(rightChunks.getHash(index), count - 1);
+                    movedSize += rightChunks.getLength(index);
+                }
+            }
+        }
+        return movedSize;
+    }
+
+    /**
+     * Computes differences in gap between matched chunks.
+     */
+    private static void compareGap(BinaryDiffService.DataReader leftReader, long leftPosition, long leftLength, BinaryDiffService.DataReader rightReader, long rightPosition, long rightLength, RangeCollector collector) {
+        if (leftLength == 0 || rightLength == 0 || leftLength > MAX_GAP_SIZE || rightLength > MAX_GAP_SIZE) {
+            collector.add(leftPosition, leftLength, rightPosition, rightLength);
+            return;
+        }
+
+        byte[] leftData = new byte[(int) leftLength];
+        byte[] rightData = new byte[(int) rightLength];
+        leftReader.copyToArray(leftPosition, leftData, 0, leftData.length);
+        rightReader.copyToArray(rightPosition, rightData, 0, rightData.length);
+
+        int prefix = 0;
+        while (prefix < leftData.length && prefix < rightData.length && leftData[prefix] == rightData[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < leftData.length - prefix && suffix < rightData.length - prefix && leftData[leftData.length - suffix - 1] == rightData[rightData.length - suffix - 1]) {
+            suffix++;
+        }
+
+        int leftStart = prefix;
+        int rightStart = prefix;
+        int leftEnd = leftData.length - suffix;
+        int rightEnd = rightData.length - suffix;
+        if (leftStart == leftEnd && rightStart == rightEnd) {
+            return;
+        }
+
+        List<int[]> edits = leftStart == leftEnd || rightStart == rightEnd ? null : computeEdits(leftData, leftStart, leftEnd, rightData, rightStart, rightEnd);
+        if (edits == null) {
+            collector.add(leftPosition + leftStart, leftEnd - leftStart, rightPosition + rightStart, rightEnd - rightStart);
+            return;
+        }
+
+        for (int[] edit : edits) {
+            collector.add(leftPosition + edit[0], edit[1], rightPosition + edit[2], edit[3]);
+        }
+    }
+
+    /**
+     * Computes shortest edit script using Myers algorithm.
+     *
+     * @return list of differing ranges as left position, left length, right
+     * position and right length or null if edit distance exceeds limit
+     */
+    @Nullable
+    private static List<int[]> computeEdits(byte[] leftData, int leftStart, int leftEnd, byte[] rightData, int rightStart, int rightEnd) {
+        int leftLength = leftEnd - leftStart;
+        int rightLength = rightEnd - rightStart;
+        int maxDistance = Math.min(MAX_EDIT_DISTANCE, leftLength + rightLength);
+        int offset = maxDistance + 1;
+        int[] furthest = new int[2 * maxDistance + 3];
+        List<int[]> trace = new ArrayList<>();
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            trace.add(furthest.clone());
+            for (int diagonal = -distance; diagonal <= distance; diagonal += 2) {
+                int x;
+                if (diagonal == -distance || (diagonal != distance && furthest[offset + diagonal - 1] < furthest[offset + diagonal + 1])) {
+                    x = furthest[offset + diagonal + 1];
+                } else {
+                    x = furthest[offset + diagonal - 1] + 1;
+                }
+                int y = x - diagonal;
+                while (x < leftLength && y < rightLength && leftData[leftStart + x] == rightData[rightStart + y]) {
+                    x++;
+                    y++;
+                }
+                furthest[offset + diagonal] = x;
+                if (x >= leftLength && y >= rightLength) {
+                    return collectEdits(trace, offset, distance, leftLength, rightLength, leftStart, rightStart);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Nonnull
+    private static List<int[]> collectEdits(List<int[]> trace, int offset, int distance, int leftLength, int rightLength, int leftStart, int rightStart) {
+        List<int[]> edits = new ArrayList<>();
+        int x = leftLength;
+        int y = rightLength;
+        for (int step = distance; step > 0; step--) {
+            int[] furthest = trace.get(step);
+            int diagonal = x - y;
+            boolean inserted = diagonal == -step || (diagonal != step && furthest[offset + diagonal - 1] < furthest[offset + diagonal + 1]);
+            int previousDiagonal = inserted ? diagonal + 1 : diagonal - 1;
+            int previousX = furthest[offset + previousDiagonal];
+            int previousY = previousX - previousDiagonal;
+            addEdit(edits, leftStart + previousX, inserted ? 0 : 1, rightStart + previousY, inserted ? 1 : 0);
+            x = previousX;
+            y = previousY;
+        }
+        Collections.reverse(edits);
+        return edits;
+    }
+
+    /**
+     * Adds single byte edit to list of edits collected in reverse order,
+     * edits adjacent to first edit are merged with it.
+     */
+    private static void addEdit(List<int[]> edits, int leftPosition, int leftLength, int rightPosition, int rightLength) {
+        if (!edits.isEmpty()) {
+            int[] firstEdit = edits.get(edits.size() - 1);
+            if (leftPosition + leftLength == firstEdit[0] && rightPosition + rightLength == firstEdit[2]) {
+                firstEdit[0] = leftPosition;
+                firstEdit[1] += leftLength;
+                firstEdit[2] = rightPosition;
+                firstEdit[3] += rightLength;
+                return;
+            }
+        }
+        edits.add(new int[]{leftPosition, leftLength, rightPosition, rightLength});
+    }
+
+    @Nonnull
+    private static long[] createGearTable() {
+        SplittableRandom random = new SplittableRandom(0x62696e6564L);
+        long[] table = new long[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = random.nextLong();
+        }
+        return table;
+    }
+
+    @Nonnull
+    private static ExecutorService createExecutor(int threadsCount) {
+        return Executors.newFixedThreadPool(threadsCount, (runnable) -> {
+            Thread thread = new Thread(runnable, "Diff worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * List of chunks stored in arrays of primitive values.
+     */
+    @ParametersAreNonnullByDefault
+    private static class ChunkList {
+
+        private long[] positions = new long[256];
+        private int[] lengths = new int[256];
+        private long[] hashes = new long[256];
+        private int size = 0;
+        private long totalLength = 0;
+
+        public void add(long position, int length, long hash) {
+            if (size == positions.length) {
+                int capacity = size * 2;
+                positions = Arrays.copyOf(positions, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+            }
+            positions[size] = position;
+            lengths[size] = length;
+            hashes[size] = hash;
+            size++;
+            totalLength += length;
+        }
+
+        public void addAll(ChunkList chunks) {
+            for (int i = 0; i < chunks.size; i++) {
+                add(chunks.positions[i], chunks.lengths[i], chunks.hashes[i]);
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long getTotalLength() {
+            return totalLength;
+        }
+
+        /**
+         * Returns start position of chunk or data size for index after last
+         * chunk.
+         */
+        public long getStart(int index, long dataSize) {
+            return index < size ? positions[index] : dataSize;
+        }
+
+        public int getLength(int index) {
+            return lengths[index];
+        }
+
+        public long getHash(int index) {
+            return hashes[index];
+        }
+
+        public boolean isSame(int index, ChunkList other, int otherIndex) {
+            return hashes[index] == other.hashes[otherIndex] && lengths[index] == other.lengths[otherIndex];
+        }
+    }
+
+    /**
+     * Collector of sorted ranges merging adjacent ranges.
+     */
+    @ParametersAreNonnullByDefault
+    private static class RangeCollector {
+
+        private final List<DiffRange> ranges = new ArrayList<>();
+        private final int maximumRanges;
+        private boolean full = false;
+
+        public RangeCollector(int maximumRanges) {
+            this.maximumRanges = maximumRanges;
+        }
+
+        public void add(long leftPosition, long leftLength, long rightPosition, long rightLength) {
+            int lastIndex = ranges.size() - 1;
+            if (lastIndex >= 0) {
+                DiffRange lastRange = ranges.get(lastIndex);
+                if (lastRange.getLeftEnd() == leftPosition && lastRange.getRightEnd() == rightPosition) {
+                    ranges.set(lastIndex, new DiffRange(lastRange.getLeftPosition(), lastRange.getLeftLength() + leftLength, lastRange.getRightPosition(), lastRange.getRightLength() + rightLength));
+                    return;
+                }
+            }
+
+            if (ranges.size() >= maximumRanges) {
+                full = true;
+                return;
+            }
+
+            ranges.add(new DiffRange(leftPosition, leftLength, rightPosition, rightLength));
+        }
+
+        public boolean isFull() {
+            return full;
+        }
+
+        @Nonnull
+        public List<DiffRange> getRanges() {
+            return ranges;
+        }
+    }
+}
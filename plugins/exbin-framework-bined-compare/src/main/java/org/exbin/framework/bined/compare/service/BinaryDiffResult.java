@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.compare.service;
+
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Result of comparison of two binary data.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BinaryDiffResult {
+
+    private final long leftSize;
+    private final long rightSize;
+    private final List<DiffRange> ranges;
+    private final boolean truncated;
+    private final long movedSize;
+
+    public BinaryDiffResult(long leftSize, long rightSize, List<DiffRange> ranges, boolean truncated) {
+        this(leftSize, rightSize, ranges, truncated, 0);
+    }
+
+    public BinaryDiffResult(long leftSize, long rightSize, List<DiffRange> ranges, boolean truncated, long movedSize) {
+        this.leftSize = leftSize;
+        this.rightSize = rightSize;
+        this.ranges = Collections.unmodifiableList(ranges);
+        this.truncated = truncated;
+        this.movedSize = movedSize;
+    }
+
+    public long getLeftSize() {
+        return leftSize;
+    }
+
+    public long getRightSize() {
+        return rightSize;
+    }
+
+    /**
+     * Returns differing ranges sorted by position.
+     *
+     * @return list of ranges
+     */
+    @Nonnull
+    public List<DiffRange> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Returns whether comparison was stopped after reaching maximum count of
+     * ranges.
+     *
+     * @return true if ranges after last range were not compared
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public boolean isIdentical() {
+        return ranges.isEmpty() && leftSize == rightSize;
+    }
+
+    /**
+     * Returns count of differing bytes, longer side of each range is counted.
+     *
+     * @return count of bytes
+     */
+    public long getDifferentBytesCount() {
+        long count = 0;
+        for (DiffRange range : ranges) {
+            count += Math.max(range.getLeftLength(), range.getRightLength());
+        }
+        return count;
+    }
+
+    /**
+     * Returns count of bytes replaced by other bytes.
+     *
+     * @return count of bytes
+     */
+    public long getModifiedBytesCount() {
+        long count = 0;
+        for (DiffRange range : ranges) {
+            count += Math.min(range.getLeftLength(), range.getRightLength());
+        }
+        return count;
+    }
+
+    /**
+     * Returns count of bytes present on right side only.
+     *
+     * @return count of bytes
+     */
+    public long getInsertedBytesCount() {
+        long count = 0;
+        for (DiffRange range : ranges) {
+            count += Math.max(0, range.getRightLength() - range.getLeftLength());
+        }
+        return count;
+    }
+
+    /**
+     * Returns count of bytes present on left side only.
+     *
+     * @return count of bytes
+     */
+    public long getDeletedBytesCount() {
+        long count = 0;
+        for (DiffRange range : ranges) {
+            count += Math.max(0, range.getLeftLength() - range.getRightLength());
+        }
+        return count;
+    }
+
+    /**
+     * Returns count of bytes of blocks present on both sides at different
+     * positions.
+     * <p>
+     * Moved bytes are included in differing ranges.
+     *
+     * @return count of bytes
+     */
+    public long getMovedBytesCount() {
+        return movedSize;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.compare.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Service comparing two binary data in single streaming pass.
+ * <p>
+ * Data are read in chunks of limited size, so data backed by files don't
+ * need to be loaded to memory. Equal blocks are skipped comparing eight bytes
+ * at a time and exact byte ranges are searched only inside differing blocks.
+ * Data are compared at the same positions, tail of longer data is reported as
+ * single range.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BinaryDiffService {
+
+    public static final int CHUNK_SIZE = 1024 * 1024;
+    public static final int DEFAULT_MAXIMUM_RANGES = 1000000;
+
+    private final int maximumRanges;
+
+    public BinaryDiffService() {
+        this(DEFAULT_MAXIMUM_RANGES);
+    }
+
+    public BinaryDiffService(int maximumRanges) {
+        this.maximumRanges = Math.max(1, maximumRanges);
+    }
+
+    /**
+     * Compares data.
+     *
+     * @param leftData left data
+     * @param rightData right data
+     * @param progressListener progress listener reporting count of compared
+     * bytes
+     * @return comparison result or null if comparison was cancelled
+     */
+    @Nullable
+    public BinaryDiffResult computeDiff(BinaryData leftData, BinaryData rightData, ProgressListener progressListener) {
+        return computeDiff(leftData::copyToArray, leftData.getDataSize(), rightData::copyToArray, rightData.getDataSize(), progressListener);
+    }
+
+    /**
+     * Compares data read using data readers.
+     *
+     * @param leftReader left data reader
+     * @param leftSize size of left data
+     * @param rightReader right data reader
+     * @param rightSize size of right data
+     * @param progressListener progress listener reporting count of compared
+     * bytes
+     * @return comparison result or null if comparison was cancelled
+     */
+    @Nullable
+    public BinaryDiffResult computeDiff(DataReader leftReader, long leftSize, DataReader rightReader, long rightSize, ProgressListener progressListener) {
+        long commonSize = Math.min(leftSize, rightSize);
+        List<DiffRange> ranges = new ArrayList<>();
+
+        int bufferSize = (int) Math.min(CHUNK_SIZE, commonSize);
+        byte[] leftBuffer = new byte[bufferSize];
+        byte[] rightBuffer = new byte[bufferSize];
+        ByteBuffer leftView = ByteBuffer.wrap(leftBuffer);
+        ByteBuffer rightView = ByteBuffer.wrap(rightBuffer);
+        long position = 0;
+        while (position < commonSize) {
+            int chunkLength = (int) Math.min(bufferSize, commonSize - position);
+            leftReader.copyToArray(position, leftBuffer, 0, chunkLength);
+            rightReader.copyToArray(position, rightBuffer, 0, chunkLength);
+
+            int offset = findMismatch(leftView, rightView, 0, chunkLength);
+            while (offset < chunkLength) {
+                int matchOffset = findMatch(leftBuffer, rightBuffer, offset, chunkLength);
+                if (!addRange(ranges, position + offset, matchOffset - offset)) {
+                    return new BinaryDiffResult(leftSize, rightSize, ranges, true);
+                }
+                offset = findMismatch(leftView, rightView, matchOffset, chunkLength);
+            }
+
+            position += chunkLength;
+            if (!progressListener.progress(position)) {
+                return null;
+            }
+        }
+
+        if (leftSize != rightSize) {
+            DiffRange lastRange = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (lastRange != null && lastRange.getLeftEnd() == commonSize) {
+                ranges.set(ranges.size() - 1, new DiffRange(lastRange.getLeftPosition(), leftSize - lastRange.getLeftPosition(), lastRange.getRightPosition(), rightSize - lastRange.getRightPosition()));
+            } else {
+                ranges.add(new DiffRange(commonSize, leftSize - commonSize, commonSize, rightSize - commonSize));
+            }
+        }
+
+        return new BinaryDiffResult(leftSize, rightSize, ranges, false);
+    }
+
+    /**
+     * Adds range of bytes differing at the same position, range continuing
+     * previous range is merged with it.
+     *
+     * @return false if maximum count of ranges was reached
+     */
+    private boolean addRange(List<DiffRange> ranges, long position, long length) {
+        int lastIndex = ranges.size() - 1;
+        if (lastIndex >= 0) {
+            DiffRange lastRange = ranges.get(lastIndex);
+            if (lastRange.getLeftEnd() == position) {
+                long mergedLength = lastRange.getLeftLength() + length;
+                ranges.set(lastIndex, new DiffRange(lastRange.getLeftPosition(), mergedLength, lastRange.getRightPosition(), mergedLength));
+                return true;
+            }
+        }
+
+        if (ranges.size() >= maximumRanges) {
+            return false;
+        }
+
+        ranges.add(new DiffRange(position, length, position, length));
+        return true;
+    }
+
+    /**
+     * Returns offset of first differing byte.
+     *
+     * @return offset or end offset if all bytes are equal
+     */
+    private static int findMismatch(ByteBuffer leftView, ByteBuffer rightView, int offset, int endOffset) {
+        int index = offset;
+        int wordsEnd = endOffset - 7;
+        while (index < wordsEnd && leftView.getLong(index) == rightView.getLong(index)) {
+            index += 8;
+        }
+        while (index < endOffset && leftView.get(index) == rightView.get(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns offset of first equal byte.
+     *
+     * @return offset or end offset if all bytes differ
+     */
+    private static int findMatch(byte[] leftBuffer, byte[] rightBuffer, int offset, int endOffset) {
+        int index = offset;
+        while (index < endOffset && leftBuffer[index] != rightBuffer[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Reader of compared data.
+     */
+    public interface DataReader {
+
+        /**
+         * Copies block of data to array.
+         *
+         * @param position source position
+         * @param target target array
+         * @param offset target offset
+         * @param length length of block
+         */
+        void copyToArray(long position, byte[] target, int offset, int length);
+    }
+
+    /**
+     * Comparison progress listener.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Reports progress.
+         *
+         * @param processedSize count of compared bytes
+         * @return false if comparison should be cancelled
+         */
+        boolean progress(long processedSize);
+    }
+}
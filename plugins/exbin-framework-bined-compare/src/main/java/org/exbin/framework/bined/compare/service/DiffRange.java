@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.compare.service;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Range of data which differs between left and right side of comparison.
+ * <p>
+ * Range is empty on one side if data are present on other side only.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class DiffRange {
+
+    private final long leftPosition;
+    private final long leftLength;
+    private final long rightPosition;
+    private final long rightLength;
+
+    public DiffRange(long leftPosition, long leftLength, long rightPosition, long rightLength) {
+        this.leftPosition = leftPosition;
+        this.leftLength = leftLength;
+        this.rightPosition = rightPosition;
+        this.rightLength = rightLength;
+    }
+
+    public long getLeftPosition() {
+        return leftPosition;
+    }
+
+    public long getLeftLength() {
+        return leftLength;
+    }
+
+    public long getLeftEnd() {
+        return leftPosition + leftLength;
+    }
+
+    public long getRightPosition() {
+        return rightPosition;
+    }
+
+    public long getRightLength() {
+        return rightLength;
+    }
+
+    public long getRightEnd() {
+        return rightPosition + rightLength;
+    }
+}
@@ -17,13 +17,18 @@ package org.exbin.framework.bined.macro;
 
 import java.awt.Component;
 import java.awt.event.ActionEvent;
-import java.text.ParseException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -35,6 +40,8 @@ import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
 import javax.swing.event.MenuEvent;
 import javax.swing.event.MenuListener;
+import org.exbin.bined.basic.SelectingMode;
+import org.exbin.bined.capability.CaretCapable;
 import org.exbin.bined.swing.CodeAreaCore;
 import org.exbin.bined.swing.section.SectCodeArea;
 import org.exbin.framework.App;
@@ -55,12 +62,15 @@ import org.exbin.framework.bined.macro.action.AddMacroAction;
 import org.exbin.framework.bined.macro.action.EditMacroAction;
 import org.exbin.framework.bined.macro.action.ManageMacrosAction;
 import org.exbin.framework.bined.macro.action.ExecuteLastMacroAction;
+import org.exbin.framework.bined.macro.action.ExecuteMacroRepeatedlyAction;
+import org.exbin.framework.bined.macro.action.MacroBatchAction;
 import org.exbin.framework.bined.macro.action.StartMacroRecordingAction;
 import org.exbin.framework.bined.macro.action.StopMacroRecordingAction;
 import org.exbin.framework.bined.macro.gui.MacrosManagerPanel;
 import org.exbin.framework.bined.macro.model.MacroRecord;
 import org.exbin.framework.bined.macro.operation.CodeAreaMacroCommandHandler;
-import org.exbin.framework.bined.macro.operation.MacroOperation;
+import org.exbin.framework.bined.macro.operation.CompiledMacro;
+import org.exbin.framework.bined.macro.operation.MacroBatchRunner;
 import org.exbin.framework.bined.macro.operation.MacroStep;
 import org.exbin.framework.bined.macro.preferences.MacroPreferences;
 import org.exbin.framework.bined.search.BinEdComponentSearch;
@@ -80,9 +90,12 @@ public class MacroManager {
 
     public static final String MACROS_POPUP_SUBMENU_ID = BinedMacroModule.MODULE_ID + ".macrosPopupSubMenu";
 
+    private static final long EXECUTION_SLICE_DURATION = 50;
+
     private final ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(MacroManager.class);
 
     private final List<MacroRecord> macroRecords = new ArrayList<>();
+    private final Map<MacroRecord, CompiledMacro> compiledMacros = new IdentityHashMap<>();
     private MacroPreferences macroPreferences;
 
     private FileHandler fileHandler;
@@ -91,6 +104,8 @@ public class MacroManager {
     private final StartMacroRecordingAction startMacroRecordingAction = new StartMacroRecordingAction();
     private final StopMacroRecordingAction stopMacroRecordingAction = new StopMacroRecordingAction();
     private final ExecuteLastMacroAction executeLastMacroAction = new ExecuteLastMacroAction();
+    private final ExecuteMacroRepeatedlyAction executeMacroRepeatedlyAction = new ExecuteMacroRepeatedlyAction();
+    private final MacroBatchAction macroBatchAction = new MacroBatchAction();
     private final AddMacroAction addMacroAction = new AddMacroAction();
     private final EditMacroAction editMacroAction = new EditMacroAction();
     private JMenu macrosMenu;
@@ -106,6 +121,10 @@ public class MacroManager {
         manageMacrosAction.setup(resourceBundle);
         executeLastMacroAction.setup(resourceBundle);
         executeLastMacroAction.setMacroManager(this);
+        executeMacroRepeatedlyAction.setup(resourceBundle);
+        executeMacroRepeatedlyAction.setMacroManager(this);
+        macroBatchAction.setup(resourceBundle);
+        macroBatchAction.setMacroManager(this);
         startMacroRecordingAction.setup(resourceBundle);
         startMacroRecordingAction.setMacroManager(this);
         stopMacroRecordingAction.setup(resourceBundle);
@@ -145,6 +164,7 @@ public class MacroManager {
     }
 
     public void setMacroRecords(List<MacroRecord> records) {
+        compiledMacros.clear();
         macroRecords.clear();
         macroRecords.addAll(records);
         saveMacroRecords();
@@ -303,65 +323,163 @@ public class MacroManager {
             lastActiveMacro = macroIndex;
             MacroRecord record = macroRecords.get(macroIndex);
             CodeAreaMacroCommandHandler commandHandler = (CodeAreaMacroCommandHandler) codeArea.getCommandHandler();
-
-            int line = 0;
-            List<String> steps = record.getSteps();
-            for (String step : steps) {
-                line++;
+            CompiledMacro compiledMacro = getCompiledMacro(record);
+
+            // Whole macro run is undone as single command
+            commandHandler.startCommandGroup();
+            commandHandler.startBatchExecution();
+            try {
+                executeCompiledMacro(commandHandler, compiledMacro, -1);
+            } finally {
                 try {
-                    MacroOperation parseStep = CodeAreaMacroCommandHandler.parseStep(step);
-                    MacroStep macroStep = parseStep.getMacroStep();
-                    List<Object> parameters = parseStep.getParameters();
-                    switch (macroStep) {
-                        case KEY_PRESSED: {
-                            if (!parameters.isEmpty()) {
-                                String text = (String) parameters.get(0);
-                                for (char character : text.toCharArray()) {
-                                    commandHandler.executeMacroStep(macroStep, Arrays.asList(character));
-                                }
-                                continue;
-                            }
-                            break;
-                        }
-                        case CARET_MOVE: {
-                            if (parameters.size() > 1) {
-                                Integer count = (Integer) parameters.get(1);
-                                for (int i = 0; i < count; i++) {
-                                    commandHandler.executeMacroStep(macroStep, Arrays.asList(parameters.get(0)));
-                                }
-                                continue;
-                            }
-                            break;
-                        }
-                        case FIND_TEXT: {
-                            if (parameters.size() > 1) {
-                                if (fileHandler == null) {
-                                    throw new IllegalStateException("No active file");
-                                }
-                                BinEdComponentPanel activePanel = ((BinEdFileHandler) fileHandler).getComponent();
-                                BinEdComponentSearch componentExtension = activePanel.getComponentExtension(BinEdComponentSearch.class);
-                                componentExtension.performSearchText((String) parameters.get(0));
-                            }
-                            continue;
-                        }
-                        case FIND_AGAIN: {
-                            if (fileHandler == null) {
-                                throw new IllegalStateException("No active file");
-                            }
-                            BinEdComponentPanel activePanel = ((BinEdFileHandler) fileHandler).getComponent();
-                            BinEdComponentSearch componentExtension = activePanel.getComponentExtension(BinEdComponentSearch.class);
-                            componentExtension.performFindAgain();
-                            continue;
-                        }
+                    commandHandler.finishBatchExecution();
+                } finally {
+                    commandHandler.finishCommandGroup();
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts repeated execution of macro.
+     * <p>
+     * Macro is executed in event dispatch thread in time slices, so that
+     * progress can be shown and execution cancelled. Whole execution is
+     * undone as single command and cursor reveal, repaint and status updates
+     * are postponed until execution is finished.
+     *
+     * @param codeArea code area
+     * @param macroIndex macro index
+     * @param repeatCount count of repetitions or 0 to repeat until find step
+     * doesn't find any match or match stops advancing or, for macro without
+     * find steps, until end of data is reached or cursor stops advancing
+     * @param listener execution listener
+     * @return repeated execution
+     */
+    @Nonnull
+    public RepeatedExecution executeMacroRepeatedly(CodeAreaCore codeArea, int macroIndex, long repeatCount, RepeatedExecutionListener listener) {
+        lastActiveMacro = macroIndex;
+        MacroRecord record = macroRecords.get(macroIndex);
+        CodeAreaMacroCommandHandler commandHandler = (CodeAreaMacroCommandHandler) codeArea.getCommandHandler();
+        RepeatedExecution execution = new RepeatedExecution(codeArea, commandHandler, getCompiledMacro(record), repeatCount, listener);
+        execution.start();
+        return execution;
+    }
+
+    /**
+     * Creates runner applying macro to files without code area.
+     *
+     * @param macroIndex macro index
+     * @param charset charset used for typed text and text search
+     * @return batch runner
+     * @throws IllegalStateException if macro contains step not supported
+     * without code area
+     */
+    @Nonnull
+    public MacroBatchRunner createBatchRunner(int macroIndex, Charset charset) {
+        lastActiveMacro = macroIndex;
+        MacroRecord record = macroRecords.get(macroIndex);
+        return new MacroBatchRunner(getCompiledMacro(record), charset);
+    }
+
+    /**
+     * Executes single instruction of compiled macro.
+     *
+     * @param commandHandler command handler
+     * @param compiledMacro compiled macro
+     * @param index instruction index
+     * @param findStartPosition start position of text search or -1 to search
+     * from cursor
+     * @return false if find step didn't find any match
+     */
+    private boolean executeInstruction(CodeAreaMacroCommandHandler commandHandler, CompiledMacro compiledMacro, int index, long findStartPosition) {
+        MacroStep macroStep = compiledMacro.getStep(index);
+        switch (macroStep) {
+            case KEY_PRESSED: {
+                commandHandler.typeText(Objects.requireNonNull(compiledMacro.getText(index)));
+                break;
+            }
+            case CARET_MOVE: {
+                commandHandler.moveCaret(SelectingMode.NONE, compiledMacro.getDirection(index), compiledMacro.getCount(index));
+                break;
+            }
+            case SELECTION_UPDATE: {
+                commandHandler.moveCaret(SelectingMode.SELECTING, compiledMacro.getDirection(index), compiledMacro.getCount(index));
+                break;
+            }
+            case FIND_TEXT: {
+                String text = compiledMacro.getText(index);
+                if (text != null) {
+                    if (fileHandler == null) {
+                        throw new IllegalStateException("No active file");
                     }
-                    commandHandler.executeMacroStep(macroStep, parameters);
-                } catch (IllegalStateException | NumberFormatException | ParseException ex) {
-                    throw new IllegalStateException("Error on line " + line + ": ", ex);
+                    BinEdFileHandler binEdFileHandler = (BinEdFileHandler) fileHandler;
+                    BinEdComponentPanel activePanel = binEdFileHandler.getComponent();
+                    BinEdComponentSearch componentExtension = activePanel.getComponentExtension(BinEdComponentSearch.class);
+                    long startPosition = findStartPosition >= 0 ? findStartPosition : binEdFileHandler.getCodeArea().getActiveCaretPosition().getDataPosition();
+                    return componentExtension.performSearchTextNow(text, startPosition);
                 }
+                break;
+            }
+            case FIND_AGAIN: {
+                if (fileHandler == null) {
+                    throw new IllegalStateException("No active file");
+                }
+                BinEdComponentPanel activePanel = ((BinEdFileHandler) fileHandler).getComponent();
+                BinEdComponentSearch componentExtension = activePanel.getComponentExtension(BinEdComponentSearch.class);
+                return componentExtension.performFindAgainNow();
+            }
+            default:
+                commandHandler.executeMacroStep(macroStep, Collections.emptyList());
+        }
+        return true;
+    }
+
+    /**
+     * Returns compiled macro, macro is compiled on first execution.
+     *
+     * @param record macro record
+     * @return compiled macro
+     */
+    @Nonnull
+    private CompiledMacro getCompiledMacro(MacroRecord record) {
+        CompiledMacro compiledMacro = compiledMacros.get(record);
+        if (compiledMacro == null) {
+            compiledMacro = CompiledMacro.compile(record.getSteps());
+            compiledMacros.put(record, compiledMacro);
+        }
+        return compiledMacro;
+    }
+
+    /**
+     * Executes compiled macro once.
+     * <p>
+     * Execution stops on find step which didn't find any match, so that
+     * following steps are not applied to unrelated data.
+     *
+     * @param commandHandler command handler
+     * @param compiledMacro compiled macro
+     * @param findStartPosition start position of text search or -1 to search
+     * from cursor
+     * @return false if execution was stopped by find step
+     */
+    private boolean executeCompiledMacro(CodeAreaMacroCommandHandler commandHandler, CompiledMacro compiledMacro, long findStartPosition) {
+        int instructionsCount = compiledMacro.getInstructionsCount();
+        for (int i = 0; i < instructionsCount; i++) {
+            boolean found;
+            try {
+                found = executeInstruction(commandHandler, compiledMacro, i, findStartPosition);
+            } catch (IllegalStateException ex) {
+                throw new IllegalStateException("Error on line " + compiledMacro.getLine(i) + ": ", ex);
+            }
+            if (!found) {
+                return false;
             }
         }
+        return true;
     }
 
+
     public int getLastActiveMacro() {
         if (lastActiveMacro == -1 && !macroRecords.isEmpty()) {
             return 0;
@@ -455,9 +573,153 @@ public class MacroManager {
                 menu.addSeparator();
             }
             menu.add(actionModule.actionToMenuItem(executeLastMacroAction));
+            menu.add(actionModule.actionToMenuItem(executeMacroRepeatedlyAction));
+            menu.add(actionModule.actionToMenuItem(macroBatchAction));
             menu.add(actionModule.actionToMenuItem(startMacroRecordingAction));
             menu.add(actionModule.actionToMenuItem(stopMacroRecordingAction));
             menu.add(actionModule.actionToMenuItem(manageMacrosAction));
         });
     }
+
+    /**
+     * Repeated execution of macro.
+     */
+    @ParametersAreNonnullByDefault
+    public class RepeatedExecution {
+
+        private final CodeAreaCore codeArea;
+        private final CodeAreaMacroCommandHandler commandHandler;
+        private final CompiledMacro compiledMacro;
+        private final long repeatCount;
+        private final RepeatedExecutionListener listener;
+        private final boolean searching;
+        private long matchPosition = -1;
+        private long executedCount = 0;
+        private volatile boolean cancelled = false;
+
+        private RepeatedExecution(CodeAreaCore codeArea, CodeAreaMacroCommandHandler commandHandler, CompiledMacro compiledMacro, long repeatCount, RepeatedExecutionListener listener) {
+            this.codeArea = codeArea;
+            this.commandHandler = commandHandler;
+            this.compiledMacro = compiledMacro;
+            this.repeatCount = repeatCount;
+            this.listener = listener;
+            searching = compiledMacro.hasFindStep();
+        }
+
+        private void start() {
+            commandHandler.startCommandGroup();
+            commandHandler.startBatchExecution();
+            SwingUtilities.invokeLater(this::executeSlice);
+        }
+
+        private void executeSlice() {
+            if (cancelled) {
+                finish(null);
+                return;
+            }
+
+            long sliceEnd = System.currentTimeMillis() + EXECUTION_SLICE_DURATION;
+            try {
+                do {
+                    long position = ((CaretCapable) codeArea).getDataPosition();
+                    long previousMatchPosition = matchPosition;
+                    // Following runs continue searching after previous match
+                    if (!executeCompiledMacro(commandHandler, compiledMacro, previousMatchPosition < 0 ? -1 : previousMatchPosition + 1)) {
+                        // No further match
+                        finish(null);
+                        return;
+                    }
+                    executedCount++;
+                    if (searching) {
+                        matchPosition = getSearch().getCurrentMatchPosition();
+                    }
+                    if (isFinished(position, previousMatchPosition)) {
+                        finish(null);
+                        return;
+                    }
+                } while (System.currentTimeMillis() < sliceEnd);
+            } catch (Exception ex) {
+                finish(ex);
+                return;
+            }
+
+            if (repeatCount > 0) {
+                listener.progress(executedCount, executedCount, repeatCount);
+            } else {
+                listener.progress(executedCount, searching ? matchPosition : ((CaretCapable) codeArea).getDataPosition(), codeArea.getDataSize());
+            }
+            SwingUtilities.invokeLater(this::executeSlice);
+        }
+
+        private boolean isFinished(long previousPosition, long previousMatchPosition) {
+            if (repeatCount > 0) {
+                return executedCount >= repeatCount;
+            }
+
+            // Find steps don't move cursor, macro is repeated while match advances
+            if (searching) {
+                return matchPosition < 0 || matchPosition == previousMatchPosition;
+            }
+
+            // Without advancing cursor the same data would be processed again
+            long position = ((CaretCapable) codeArea).getDataPosition();
+            return position >= codeArea.getDataSize() || position <= previousPosition;
+        }
+
+        @Nonnull
+        private BinEdComponentSearch getSearch() {
+            if (fileHandler == null) {
+                throw new IllegalStateException("No active file");
+            }
+            return ((BinEdFileHandler) fileHandler).getComponent().getComponentExtension(BinEdComponentSearch.class);
+        }
+
+        private void finish(@Nullable Exception error) {
+            try {
+                commandHandler.finishBatchExecution();
+            } finally {
+                commandHandler.finishCommandGroup();
+            }
+            listener.finished(executedCount, error);
+        }
+
+        /**
+         * Cancels execution after currently executed macro run.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public long getExecutedCount() {
+            return executedCount;
+        }
+    }
+
+    /**
+     * Listener for repeated execution of macro.
+     */
+    @ParametersAreNonnullByDefault
+    public interface RepeatedExecutionListener {
+
+        /**
+         * Reports progress of execution.
+         *
+         * @param executedCount count of already executed macro runs
+         * @param processedSize processed size
+         * @param totalSize total size
+         */
+        void progress(long executedCount, long processedSize, long totalSize);
+
+        /**
+         * Reports finished execution.
+         *
+         * @param executedCount count of executed macro runs
+         * @param error error which stopped execution or null
+         */
+        void finished(long executedCount, @Nullable Exception error);
+    }
 }
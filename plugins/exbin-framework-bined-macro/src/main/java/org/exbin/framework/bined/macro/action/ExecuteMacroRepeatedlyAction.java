@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.macro.action;
+
+import java.awt.Dialog;
+import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import org.exbin.bined.swing.CodeAreaCommandHandler;
+import org.exbin.bined.swing.CodeAreaCore;
+import org.exbin.framework.App;
+import org.exbin.framework.action.api.ActionActiveComponent;
+import org.exbin.framework.action.api.ActionConsts;
+import org.exbin.framework.action.api.ActionModuleApi;
+import org.exbin.framework.action.api.ComponentActivationManager;
+import org.exbin.framework.bined.macro.MacroManager;
+import org.exbin.framework.bined.macro.gui.ExecuteMacroRepeatedlyPanel;
+import org.exbin.framework.bined.macro.gui.MacroProgressPanel;
+import org.exbin.framework.bined.macro.model.MacroRecord;
+import org.exbin.framework.bined.macro.operation.CodeAreaMacroCommandHandler;
+import org.exbin.framework.window.api.WindowHandler;
+import org.exbin.framework.window.api.WindowModuleApi;
+import org.exbin.framework.window.api.gui.CloseControlPanel;
+import org.exbin.framework.window.api.gui.DefaultControlPanel;
+
+/**
+ * Execute macro repeatedly action.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class ExecuteMacroRepeatedlyAction extends AbstractAction {
+
+    public static final String ACTION_ID = "executeMacroRepeatedlyAction";
+
+    private CodeAreaCore codeArea;
+    private ResourceBundle resourceBundle;
+    private MacroManager macroManager;
+
+    public ExecuteMacroRepeatedlyAction() {
+    }
+
+    public void setup(ResourceBundle resourceBundle) {
+        this.resourceBundle = resourceBundle;
+
+        ActionModuleApi actionModule = App.getModule(ActionModuleApi.class);
+        actionModule.initAction(this, resourceBundle, ACTION_ID);
+        putValue(ActionConsts.ACTION_DIALOG_MODE, true);
+        putValue(ActionConsts.ACTION_ACTIVE_COMPONENT, new ActionActiveComponent() {
+            @Override
+            public void register(ComponentActivationManager manager) {
+                manager.registerUpdateListener(CodeAreaCore.class, (instance) -> {
+                    codeArea = instance;
+                    boolean hasInstance = instance != null;
+                    boolean enabled = false;
+                    if (hasInstance) {
+                        CodeAreaCommandHandler commandHandler = codeArea.getCommandHandler();
+                        enabled = commandHandler instanceof CodeAreaMacroCommandHandler && !((CodeAreaMacroCommandHandler) commandHandler).isMacroRecording() && (macroManager.getLastActiveMacro() >= 0);
+                    }
+                    setEnabled(enabled);
+                });
+            }
+        });
+    }
+
+    public void setMacroManager(MacroManager macroManager) {
+        this.macroManager = macroManager;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        final ExecuteMacroRepeatedlyPanel executePanel = new ExecuteMacroRepeatedlyPanel();
+        ResourceBundle panelResourceBundle = executePanel.getResourceBundle();
+        String macroActionName = resourceBundle.getString("macroAction.defaultNamePrefix");
+        List<MacroRecord> macroRecords = macroManager.getMacroRecords();
+        List<String> macroNames = new ArrayList<>();
+        for (int i = 0; i < macroRecords.size(); i++) {
+            String macroName = macroRecords.get(i).getName();
+            macroNames.add(macroName.isEmpty() ? macroActionName + (i + 1) : macroName);
+        }
+        executePanel.setMacroNames(macroNames, macroManager.getLastActiveMacro());
+        DefaultControlPanel controlPanel = new DefaultControlPanel(panelResourceBundle);
+
+        WindowModuleApi windowModule = App.getModule(WindowModuleApi.class);
+        final WindowHandler dialog = windowModule.createDialog(codeArea, Dialog.ModalityType.APPLICATION_MODAL, executePanel, controlPanel);
+        windowModule.setWindowTitle(dialog, panelResourceBundle);
+        controlPanel.setHandler((actionType) -> {
+            switch (actionType) {
+                case OK: {
+                    dialog.close();
+                    int macroIndex = executePanel.getSelectedMacroIndex();
+                    if (macroIndex >= 0) {
+                        executeRepeatedly(codeArea, macroIndex, executePanel.getRepeatCount());
+                    }
+                    break;
+                }
+                case CANCEL: {
+                    dialog.close();
+                    break;
+                }
+            }
+        });
+
+        dialog.showCentered(codeArea);
+    }
+
+    private void executeRepeatedly(CodeAreaCore codeArea, int macroIndex, long repeatCount) {
+        final MacroProgressPanel progressPanel = new MacroProgressPanel();
+        ResourceBundle panelResourceBundle = progressPanel.getResourceBundle();
+        CloseControlPanel controlPanel = new CloseControlPanel(panelResourceBundle);
+
+        WindowModuleApi windowModule = App.getModule(WindowModuleApi.class);
+        final WindowHandler dialog = windowModule.createDialog(codeArea, Dialog.ModalityType.APPLICATION_MODAL, progressPanel, controlPanel);
+        windowModule.setWindowTitle(dialog, panelResourceBundle);
+        MacroManager.RepeatedExecution execution = macroManager.executeMacroRepeatedly(codeArea, macroIndex, repeatCount, new MacroManager.RepeatedExecutionListener() {
+            @Override
+            public void progress(long executedCount, long processedSize, long totalSize) {
+                progressPanel.setProgress(executedCount, processedSize, totalSize);
+            }
+
+            @Override
+            public void finished(long executedCount, @Nullable Exception error) {
+                dialog.close();
+                if (error != null) {
+                    String message = error.getMessage();
+                    if (message == null || message.isEmpty()) {
+                        message = error.toString();
+                    } else if (error.getCause() != null) {
+                        message += error.getCause().getMessage();
+                    }
+                    JOptionPane.showMessageDialog(codeArea, message, resourceBundle.getString("macroExecutionFailed"), JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+        controlPanel.setHandler(execution::cancel);
+        dialog.getWindow().addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                execution.cancel();
+            }
+        });
+
+        dialog.showCentered(codeArea);
+    }
+}
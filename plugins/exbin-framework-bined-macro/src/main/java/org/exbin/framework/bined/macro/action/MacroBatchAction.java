@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.macro.action;
+
+import java.awt.Dialog;
+import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import org.exbin.framework.App;
+import org.exbin.framework.action.api.ActionActiveComponent;
+import org.exbin.framework.action.api.ActionConsts;
+import org.exbin.framework.action.api.ActionModuleApi;
+import org.exbin.framework.action.api.ComponentActivationManager;
+import org.exbin.framework.bined.BinEdFileHandler;
+import org.exbin.framework.bined.macro.MacroManager;
+import org.exbin.framework.bined.macro.gui.MacroBatchPanel;
+import org.exbin.framework.bined.macro.model.MacroRecord;
+import org.exbin.framework.bined.macro.operation.MacroBatchRunner;
+import org.exbin.framework.editor.api.EditorProvider;
+import org.exbin.framework.editor.api.MultiEditorProvider;
+import org.exbin.framework.file.api.FileHandler;
+import org.exbin.framework.window.api.WindowHandler;
+import org.exbin.framework.window.api.WindowModuleApi;
+import org.exbin.framework.window.api.gui.DefaultControlPanel;
+
+/**
+ * Apply macro to multiple files action.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class MacroBatchAction extends AbstractAction implements ActionActiveComponent {
+
+    public static final String ACTION_ID = "macroBatchAction";
+
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private EditorProvider editorProvider;
+    private ResourceBundle resourceBundle;
+    private MacroManager macroManager;
+    private MacroBatchRunner runner = null;
+
+    public MacroBatchAction() {
+    }
+
+    public void setup(ResourceBundle resourceBundle) {
+        this.resourceBundle = resourceBundle;
+
+        ActionModuleApi actionModule = App.getModule(ActionModuleApi.class);
+        actionModule.initAction(this, resourceBundle, ACTION_ID);
+        putValue(ActionConsts.ACTION_DIALOG_MODE, true);
+        putValue(ActionConsts.ACTION_ACTIVE_COMPONENT, this);
+    }
+
+    public void setMacroManager(MacroManager macroManager) {
+        this.macroManager = macroManager;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        final MacroBatchPanel batchPanel = new MacroBatchPanel();
+        ResourceBundle panelResourceBundle = batchPanel.getResourceBundle();
+        String macroActionName = resourceBundle.getString("macroAction.defaultNamePrefix");
+        List<MacroRecord> macroRecords = macroManager.getMacroRecords();
+        List<String> macroNames = new ArrayList<>();
+        for (int i = 0; i < macroRecords.size(); i++) {
+            String macroName = macroRecords.get(i).getName();
+            macroNames.add(macroName.isEmpty() ? macroActionName + (i + 1) : macroName);
+        }
+        batchPanel.setMacroNames(macroNames, macroManager.getLastActiveMacro());
+        batchPanel.setWorkersCount(MacroBatchRunner.getDefaultWorkersCount());
+        DefaultControlPanel controlPanel = new DefaultControlPanel(panelResourceBundle);
+
+        WindowModuleApi windowModule = App.getModule(WindowModuleApi.class);
+        final WindowHandler dialog = windowModule.createDialog(editorProvider.getEditorComponent(), Dialog.ModalityType.APPLICATION_MODAL, batchPanel, controlPanel);
+        windowModule.setWindowTitle(dialog, panelResourceBundle);
+        controlPanel.setHandler((actionType) -> {
+            switch (actionType) {
+                case OK: {
+                    if (runner == null) {
+                        startBatch(batchPanel);
+                    }
+                    break;
+                }
+                case CANCEL: {
+                    if (runner != null) {
+                        runner.cancel();
+                    } else {
+                        dialog.close();
+                    }
+                    break;
+                }
+            }
+        });
+        dialog.getWindow().addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (runner != null) {
+                    runner.cancel();
+                }
+            }
+        });
+
+        dialog.showCentered(editorProvider.getEditorComponent());
+    }
+
+    private void startBatch(MacroBatchPanel batchPanel) {
+        int macroIndex = batchPanel.getSelectedMacroIndex();
+        if (macroIndex < 0) {
+            return;
+        }
+
+        ResourceBundle panelResourceBundle = batchPanel.getResourceBundle();
+        batchPanel.clearResults();
+        List<File> files = new ArrayList<>();
+        Map<File, BinEdFileHandler> openFiles = new HashMap<>();
+        if (batchPanel.isOpenFilesSelected()) {
+            for (FileHandler fileHandler : getFileHandlers()) {
+                Optional<URI> fileUri = fileHandler.getFileUri();
+                if (!fileUri.isPresent() || !(fileHandler instanceof BinEdFileHandler)) {
+                    continue;
+                }
+
+                File file = new File(fileUri.get());
+                BinEdFileHandler binEdFileHandler = (BinEdFileHandler) fileHandler;
+                // Unsaved changes would be lost by reload of processed file
+                if (binEdFileHandler.isModified() || binEdFileHandler.isLoading() || binEdFileHandler.isSaving()) {
+                    batchPanel.addResult(MessageFormat.format(panelResourceBundle.getString("result.skipped"), file.getAbsolutePath()));
+                    continue;
+                }
+
+                files.add(file);
+                openFiles.put(file, binEdFileHandler);
+            }
+        } else {
+            File directory = batchPanel.getDirectory();
+            if (directory.getPath().isEmpty() || !directory.isDirectory()) {
+                JOptionPane.showMessageDialog(batchPanel, panelResourceBundle.getString("directoryNotFound.message"), panelResourceBundle.getString("directoryNotFound.title"), JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            try {
+                files.addAll(listFiles(directory, batchPanel.isIncludeSubdirectories()));
+            } catch (IOException | RuntimeException ex) {
+                JOptionPane.showMessageDialog(batchPanel, ex.getMessage(), resourceBundle.getString("macroExecutionFailed"), JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+
+        MacroBatchRunner batchRunner;
+        try {
+            batchRunner = macroManager.createBatchRunner(macroIndex, getCharset());
+        } catch (IllegalStateException ex) {
+            // Macro depending on layout of code area would be applied differently to files
+            JOptionPane.showMessageDialog(batchPanel, ex.getMessage(), resourceBundle.getString("macroExecutionFailed"), JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        batchRunner.setRepeatCount(batchPanel.getRepeatCount());
+        batchRunner.setTextSection(batchPanel.isTextSection());
+        runner = batchRunner;
+        batchPanel.setRunning(true);
+        final int filesCount = files.size();
+        final int[] processedCount = new int[1];
+        batchRunner.start(files, batchPanel.getWorkersCount(), new MacroBatchRunner.BatchListener() {
+            @Override
+            public void fileProcessed(MacroBatchRunner.FileResult result) {
+                SwingUtilities.invokeLater(() -> {
+                    processedCount[0]++;
+                    batchPanel.addResult(formatResult(panelResourceBundle, result));
+                    batchPanel.setStatus(MessageFormat.format(panelResourceBundle.getString("status.progress"), processedCount[0], filesCount));
+                    if (result.getResultType() == MacroBatchRunner.ResultType.MODIFIED) {
+                        BinEdFileHandler fileHandler = openFiles.get(result.getFile());
+                        if (fileHandler != null) {
+                            fileHandler.reloadFile();
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void finished(long processedSize, long elapsedTime) {
+                SwingUtilities.invokeLater(() -> {
+                    double throughput = elapsedTime > 0 ? processedSize * 1000 / BYTES_PER_MEGABYTE / elapsedTime : 0;
+                    batchPanel.setStatus(MessageFormat.format(panelResourceBundle.getString("status.finished"), processedCount[0], processedSize, elapsedTime, String.format("%.2f", throughput)));
+                    batchPanel.setRunning(false);
+                    runner = null;
+                });
+            }
+        });
+    }
+
+    @Nonnull
+    private static String formatResult(ResourceBundle panelResourceBundle, MacroBatchRunner.FileResult result) {
+        String key;
+        switch (result.getResultType()) {
+            case MODIFIED: {
+                key = "result.modified";
+                break;
+            }
+            case UNCHANGED: {
+                key = "result.unchanged";
+                break;
+            }
+            case FAILED: {
+                key = "result.failed";
+                break;
+            }
+            case CANCELLED: {
+                key = "result.cancelled";
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unexpected result type " + result.getResultType().name());
+        }
+        return MessageFormat.format(panelResourceBundle.getString(key), result.getFile().getAbsolutePath(), result.getExecutedCount(), result.getDuration(), result.getErrorMessage());
+    }
+
+    @Nonnull
+    private List<FileHandler> getFileHandlers() {
+        if (editorProvider instanceof MultiEditorProvider) {
+            return ((MultiEditorProvider) editorProvider).getFileHandlers();
+        }
+
+        List<FileHandler> fileHandlers = new ArrayList<>();
+        editorProvider.getActiveFile().ifPresent(fileHandlers::add);
+        return fileHandlers;
+    }
+
+    @Nonnull
+    private Charset getCharset() {
+        Optional<FileHandler> activeFile = editorProvider.getActiveFile();
+        if (activeFile.isPresent() && activeFile.get() instanceof BinEdFileHandler) {
+            return ((BinEdFileHandler) activeFile.get()).getCharset();
+        }
+
+        return Charset.defaultCharset();
+    }
+
+    @Nonnull
+    private static List<File> listFiles(File directory, boolean includeSubdirectories) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory.toPath(), includeSubdirectories ? Integer.MAX_VALUE : 1)) {
+            return paths.filter(Files::isRegularFile).map(Path::toFile).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public void register(ComponentActivationManager manager) {
+        manager.registerUpdateListener(EditorProvider.class, (instance) -> {
+            editorProvider = instance;
+            setEnabled(instance != null);
+        });
+    }
+}
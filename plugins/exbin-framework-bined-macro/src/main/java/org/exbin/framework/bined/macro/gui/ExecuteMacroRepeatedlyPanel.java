@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.macro.gui;
+
+import java.util.List;
+import java.util.ResourceBundle;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.DefaultComboBoxModel;
+import org.exbin.framework.App;
+import org.exbin.framework.language.api.LanguageModuleApi;
+import org.exbin.framework.utils.TestApplication;
+import org.exbin.framework.utils.UtilsModule;
+import org.exbin.framework.utils.WindowUtils;
+
+/**
+ * Execute macro repeatedly panel.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class ExecuteMacroRepeatedlyPanel extends javax.swing.JPanel {
+
+    private final ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(ExecuteMacroRepeatedlyPanel.class);
+
+    public ExecuteMacroRepeatedlyPanel() {
+        initComponents();
+    }
+
+    @Nonnull
+    public ResourceBundle getResourceBundle() {
+        return resourceBundle;
+    }
+
+    public void setMacroNames(List<String> macroNames, int selectedIndex) {
+        DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
+        for (String macroName : macroNames) {
+            model.addElement(macroName);
+        }
+        macroComboBox.setModel(model);
+        if (selectedIndex >= 0) {
+            macroComboBox.setSelectedIndex(selectedIndex);
+        }
+    }
+
+    public int getSelectedMacroIndex() {
+        return macroComboBox.getSelectedIndex();
+    }
+
+    /**
+     * Returns count of repetitions.
+     *
+     * @return count of repetitions or 0 to repeat until end of data
+     */
+    public long getRepeatCount() {
+        if (untilEndRadioButton.isSelected()) {
+            return 0;
+        }
+
+        return ((Number) repeatCountSpinner.getValue()).longValue();
+    }
+
+    /**
+     * This method is called from within the constructor to initialize the form.
+     * WARNING: Do NOT modify this code. The content of this method is always
+     * regenerated by the Form Editor.
+     */
+    @SuppressWarnings("unchecked")
+    // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
+    private void initComponents() {
+
+        buttonGroup = new javax.swing.ButtonGroup();
+        macroLabel = new javax.swing.JLabel();
+        macroComboBox = new javax.swing.JComboBox<>();
+        repeatCountRadioButton = new javax.swing.JRadioButton();
+        repeatCountSpinner = new javax.swing.JSpinner();
+        untilEndRadioButton = new javax.swing.JRadioButton();
+
+        macroLabel.setText(resourceBundle.getString("macroLabel.text")); // NOI18N
+
+        buttonGroup.add(repeatCountRadioButton);
+        repeatCountRadioButton.setText(resourceBundle.getString("repeatCountRadioButton.text")); // NOI18N
+
+        repeatCountSpinner.setModel(new javax.swing.SpinnerNumberModel(Long.valueOf(1L), Long.valueOf(1L), null, Long.valueOf(1L)));
+
+        buttonGroup.add(untilEndRadioButton);
+        untilEndRadioButton.setSelected(true);
+        untilEndRadioButton.setText(resourceBundle.getString("untilEndRadioButton.text")); // NOI18N
+        untilEndRadioButton.setToolTipText(resourceBundle.getString("untilEndRadioButton.toolTipText")); // NOI18N
+
+        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
+        this.setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(macroComboBox, 0, 376, Short.MAX_VALUE)
+                    .addComponent(untilEndRadioButton, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(repeatCountRadioButton)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(repeatCountSpinner))
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(macroLabel)
+                        .addGap(0, 0, Short.MAX_VALUE)))
+                .addContainerGap())
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(macroLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(macroComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addGap(18, 18, 18)
+                .addComponent(untilEndRadioButton)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(repeatCountRadioButton)
+                    .addComponent(repeatCountSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+    }// </editor-fold>//GEN-END:initComponents
+
+    /**
+     * Test method for this panel.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        TestApplication testApplication = UtilsModule.createTestApplication();
+        testApplication.launch(() -> {
+            testApplication.addModule(org.exbin.framework.language.api.LanguageModuleApi.MODULE_ID, new org.exbin.framework.language.api.utils.TestLanguageModule());
+            WindowUtils.invokeWindow(new ExecuteMacroRepeatedlyPanel());
+        });
+    }
+
+
+    // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.ButtonGroup buttonGroup;
+    private javax.swing.JComboBox<String> macroComboBox;
+    private javax.swing.JLabel macroLabel;
+    private javax.swing.JRadioButton repeatCountRadioButton;
+    private javax.swing.JSpinner repeatCountSpinner;
+    private javax.swing.JRadioButton untilEndRadioButton;
+    // End of variables declaration//GEN-END:variables
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.macro.gui;
+
+import java.io.File;
+import java.util.List;
+import java.util.ResourceBundle;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JFileChooser;
+import org.exbin.framework.App;
+import org.exbin.framework.language.api.LanguageModuleApi;
+import org.exbin.framework.utils.TestApplication;
+import org.exbin.framework.utils.UtilsModule;
+import org.exbin.framework.utils.WindowUtils;
+
+/**
+ * Apply macro to files panel.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class MacroBatchPanel extends javax.swing.JPanel {
+
+    private final ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(MacroBatchPanel.class);
+
+    public MacroBatchPanel() {
+        initComponents();
+    }
+
+    @Nonnull
+    public ResourceBundle getResourceBundle() {
+        return resourceBundle;
+    }
+
+    public void setMacroNames(List<String> macroNames, int selectedIndex) {
+        DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
+        for (String macroName : macroNames) {
+            model.addElement(macroName);
+        }
+        macroComboBox.setModel(model);
+        if (selectedIndex >= 0) {
+            macroComboBox.setSelectedIndex(selectedIndex);
+        }
+    }
+
+    public int getSelectedMacroIndex() {
+        return macroComboBox.getSelectedIndex();
+    }
+
+    public boolean isOpenFilesSelected() {
+        return openFilesRadioButton.isSelected();
+    }
+
+    @Nonnull
+    public File getDirectory() {
+        return new File(directoryTextField.getText());
+    }
+
+    public boolean isIncludeSubdirectories() {
+        return includeSubdirectoriesCheckBox.isSelected();
+    }
+
+    public boolean isTextSection() {
+        return textSectionCheckBox.isSelected();
+    }
+
+    /**
+     * Returns count of repetitions.
+     *
+     * @return count of repetitions or 0 to repeat until end of data
+     */
+    public long getRepeatCount() {
+        if (untilEndRadioButton.isSelected()) {
+            return 0;
+        }
+
+        return ((Number) repeatCountSpinner.getValue()).longValue();
+    }
+
+    public int getWorkersCount() {
+        return ((Number) workersSpinner.getValue()).intValue();
+    }
+
+    public void setWorkersCount(int workersCount) {
+        workersSpinner.setValue(workersCount);
+    }
+
+    /**
+     * Disables change of parameters while batch is running.
+     *
+     * @param running true if batch is running
+     */
+    public void setRunning(boolean running) {
+        macroComboBox.setEnabled(!running);
+        openFilesRadioButton.setEnabled(!running);
+        directoryRadioButton.setEnabled(!running);
+        directoryTextField.setEnabled(!running);
+        browseButton.setEnabled(!running);
+        includeSubdirectoriesCheckBox.setEnabled(!running);
+        textSectionCheckBox.setEnabled(!running);
+        untilEndRadioButton.setEnabled(!running);
+        repeatCountRadioButton.setEnabled(!running);
+        repeatCountSpinner.setEnabled(!running);
+        workersSpinner.setEnabled(!running);
+    }
+
+    public void clearResults() {
+        resultsTextArea.setText("");
+    }
+
+    public void addResult(String result) {
+        resultsTextArea.append(result);
+        resultsTextArea.append("\n");
+    }
+
+    public void setStatus(String status) {
+        statusLabel.setText(status);
+    }
+
+    /**
+     * This method is called from within the constructor to initialize the form.
+     * WARNING: Do NOT modify this code. The content of this method is always
+     * regenerated by the Form Editor.
+     */
+    @SuppressWarnings("unchecked")
+    // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
+    private void initComponents() {
+
+        filesButtonGroup = new javax.swing.ButtonGroup();
+        repeatButtonGroup = new javax.swing.ButtonGroup();
+        macroLabel = new javax.swing.JLabel();
+        macroComboBox = new javax.swing.JComboBox<>();
+        openFilesRadioButton = new javax.swing.JRadioButton();
+        directoryRadioButton = new javax.swing.JRadioButton();
+        directoryTextField = new javax.swing.JTextField();
+        browseButton = new javax.swing.JButton();
+        includeSubdirectoriesCheckBox = new javax.swing.JCheckBox();
+        textSectionCheckBox = new javax.swing.JCheckBox();
+        untilEndRadioButton = new javax.swing.JRadioButton();
+        repeatCountRadioButton = new javax.swing.JRadioButton();
+        repeatCountSpinner = new javax.swing.JSpinner();
+        workersLabel = new javax.swing.JLabel();
+        workersSpinner = new javax.swing.JSpinner();
+        resultsLabel = new javax.swing.JLabel();
+        resultsScrollPane = new javax.swing.JScrollPane();
+        resultsTextArea = new javax.swing.JTextArea();
+        statusLabel = new javax.swing.JLabel();
+
+        macroLabel.setText(resourceBundle.getString("macroLabel.text")); // NOI18N
+
+        filesButtonGroup.add(openFilesRadioButton);
+        openFilesRadioButton.setSelected(true);
+        openFilesRadioButton.setText(resourceBundle.getString("openFilesRadioButton.text")); // NOI18N
+        openFilesRadioButton.setToolTipText(resourceBundle.getString("openFilesRadioButton.toolTipText")); // NOI18N
+
+        filesButtonGroup.add(directoryRadioButton);
+        directoryRadioButton.setText(resourceBundle.getString("directoryRadioButton.text")); // NOI18N
+
+        browseButton.setText(resourceBundle.getString("browseButton.text")); // NOI18N
+        browseButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                browseButtonActionPerformed(evt);
+            }
+        });
+
+        includeSubdirectoriesCheckBox.setText(resourceBundle.getString("includeSubdirectoriesCheckBox.text")); // NOI18N
+
+        textSectionCheckBox.setText(resourceBundle.getString("textSectionCheckBox.text")); // NOI18N
+        textSectionCheckBox.setToolTipText(resourceBundle.getString("textSectionCheckBox.toolTipText")); // NOI18N
+
+        repeatButtonGroup.add(untilEndRadioButton);
+        untilEndRadioButton.setText(resourceBundle.getString("untilEndRadioButton.text")); // NOI18N
+        untilEndRadioButton.setToolTipText(resourceBundle.getString("untilEndRadioButton.toolTipText")); // NOI18N
+
+        repeatButtonGroup.add(repeatCountRadioButton);
+        repeatCountRadioButton.setSelected(true);
+        repeatCountRadioButton.setText(resourceBundle.getString("repeatCountRadioButton.text")); // NOI18N
+
+        repeatCountSpinner.setModel(new javax.swing.SpinnerNumberModel(Long.valueOf(1L), Long.valueOf(1L), null, Long.valueOf(1L)));
+
+        workersLabel.setText(resourceBundle.getString("workersLabel.text")); // NOI18N
+
+        workersSpinner.setModel(new javax.swing.SpinnerNumberModel(1, 1, 256, 1));
+
+        resultsLabel.setText(resourceBundle.getString("resultsLabel.text")); // NOI18N
+
+        resultsTextArea.setEditable(false);
+        resultsTextArea.setColumns(20);
+        resultsTextArea.setRows(5);
+        resultsScrollPane.setViewportView(resultsTextArea);
+
+        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
+        this.setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(macroComboBox, 0, 576, Short.MAX_VALUE)
+                    .addComponent(resultsScrollPane)
+                    .addComponent(openFilesRadioButton, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(directoryRadioButton, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(includeSubdirectoriesCheckBox, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(textSectionCheckBox, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(untilEndRadioButton, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(statusLabel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(directoryTextField)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(browseButton))
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(repeatCountRadioButton)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(repeatCountSpinner))
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(workersLabel)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(workersSpinner))
+                    .addGroup(layout.createSequentialGroup()
+                        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                            .addComponent(macroLabel)
+                            .addComponent(resultsLabel))
+                        .addGap(0, 0, Short.MAX_VALUE)))
+                .addContainerGap())
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(macroLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(macroComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                .addComponent(openFilesRadioButton)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(directoryRadioButton)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(directoryTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(browseButton))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(includeSubdirectoriesCheckBox)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                .addComponent(textSectionCheckBox)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(untilEndRadioButton)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(repeatCountRadioButton)
+                    .addComponent(repeatCountSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(workersLabel)
+                    .addComponent(workersSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                .addComponent(resultsLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(resultsScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 184, Short.MAX_VALUE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(statusLabel)
+                .addContainerGap())
+        );
+    }// </editor-fold>//GEN-END:initComponents
+
+    private void browseButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_browseButtonActionPerformed
+        JFileChooser fileChooser = new JFileChooser(directoryTextField.getText());
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            directoryTextField.setText(fileChooser.getSelectedFile().getAbsolutePath());
+            directoryRadioButton.setSelected(true);
+        }
+    }//GEN-LAST:event_browseButtonActionPerformed
+
+    /**
+     * Test method for this panel.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        TestApplication testApplication = UtilsModule.createTestApplication();
+        testApplication.launch(() -> {
+            testApplication.addModule(org.exbin.framework.language.api.LanguageModuleApi.MODULE_ID, new org.exbin.framework.language.api.utils.TestLanguageModule());
+            WindowUtils.invokeWindow(new MacroBatchPanel());
+        });
+    }
+
+
+    // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JButton browseButton;
+    private javax.swing.JRadioButton directoryRadioButton;
+    private javax.swing.JTextField directoryTextField;
+    private javax.swing.ButtonGroup filesButtonGroup;
+    private javax.swing.JCheckBox includeSubdirectoriesCheckBox;
+    private javax.swing.JComboBox<String> macroComboBox;
+    private javax.swing.JLabel macroLabel;
+    private javax.swing.JRadioButton openFilesRadioButton;
+    private javax.swing.ButtonGroup repeatButtonGroup;
+    private javax.swing.JRadioButton repeatCountRadioButton;
+    private javax.swing.JSpinner repeatCountSpinner;
+    private javax.swing.JLabel resultsLabel;
+    private javax.swing.JScrollPane resultsScrollPane;
+    private javax.swing.JTextArea resultsTextArea;
+    private javax.swing.JLabel statusLabel;
+    private javax.swing.JCheckBox textSectionCheckBox;
+    private javax.swing.JRadioButton untilEndRadioButton;
+    private javax.swing.JLabel workersLabel;
+    private javax.swing.JSpinner workersSpinner;
+    // End of variables declaration//GEN-END:variables
+}
@@ -16,28 +16,43 @@
 package org.exbin.framework.bined.macro.operation;
 
 import java.awt.event.KeyEvent;
+import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.auxiliary.binary_data.ByteArrayEditableData;
 import org.exbin.bined.CodeAreaSection;
+import org.exbin.bined.CodeType;
+import org.exbin.bined.EditMode;
+import org.exbin.bined.EditOperation;
 import org.exbin.bined.basic.BasicCodeAreaSection;
 import org.exbin.bined.basic.MovementDirection;
 import org.exbin.bined.basic.SelectingMode;
 import org.exbin.bined.capability.CaretCapable;
+import org.exbin.bined.capability.CharsetCapable;
+import org.exbin.bined.capability.CodeTypeCapable;
+import org.exbin.bined.capability.EditModeCapable;
+import org.exbin.bined.capability.ScrollingCapable;
+import org.exbin.bined.capability.SelectionCapable;
+import org.exbin.bined.operation.swing.command.CodeAreaCompoundCommand;
+import org.exbin.bined.operation.swing.command.InsertDataCommand;
+import org.exbin.bined.operation.swing.command.ModifyDataCommand;
 import org.exbin.bined.swing.CodeAreaCommandHandler;
 import org.exbin.bined.swing.CodeAreaCore;
 import org.exbin.bined.operation.swing.CodeAreaOperationCommandHandler;
 import org.exbin.bined.operation.swing.CodeAreaUndoRedo;
 import org.exbin.bined.operation.undo.BinaryDataUndoRedo;
+import org.exbin.bined.operation.undo.BinaryDataUndoableCommand;
 import org.exbin.bined.swing.CodeAreaSwingUtils;
 import org.exbin.bined.swing.basic.DefaultCodeAreaCommandHandler;
+import org.exbin.framework.bined.BinEdUndoRedo;
+import org.exbin.framework.bined.DataChangeCommand;
 import org.exbin.framework.bined.macro.model.MacroRecord;
 import static org.exbin.framework.bined.macro.operation.MacroStep.CARET_MOVE;
 
@@ -50,11 +65,20 @@ import static org.exbin.framework.bined.macro.operation.MacroStep.CARET_MOVE;
 public class CodeAreaMacroCommandHandler extends CodeAreaOperationCommandHandler {
 
     private final int metaMask = CodeAreaSwingUtils.getMetaMaskDown();
+    private final BinaryDataUndoRedo undoRedo;
     private MacroRecord recordingMacro = null;
     private MacroStep lastMacroStep = null;
+    private List<Object> lastStepParameters = null;
+    private final StringBuilder lastStepText = new StringBuilder();
+    private int lastStepCount = 0;
+    private int lastStepIndex = -1;
+    private boolean lastStepModified = false;
+    private boolean batchExecution = false;
+    private boolean batchDataChanged = false;
 
     public CodeAreaMacroCommandHandler(CodeAreaCore codeArea, BinaryDataUndoRedo undoRedo) {
         super(codeArea, undoRedo);
+        this.undoRedo = undoRedo;
     }
 
     @Nonnull
@@ -64,12 +88,15 @@ public class CodeAreaMacroCommandHandler extends CodeAreaOperationCommandHandler
 
     @Nonnull
     public Optional<MacroRecord> getRecordingMacro() {
+        flushMacroOperationStep();
         return Optional.ofNullable(recordingMacro);
     }
 
-    public void setRecordingMacro(MacroRecord recordingMacro) {
+    public void setRecordingMacro(@Nullable MacroRecord recordingMacro) {
+        flushMacroOperationStep();
         this.recordingMacro = recordingMacro;
         lastMacroStep = null;
+        lastStepIndex = -1;
     }
 
     @Override
@@ -331,51 +358,240 @@ public class CodeAreaMacroCommandHandler extends CodeAreaOperationCommandHandler
         }
     }
 
+    /**
+     * Types text as if it was typed by keyboard.
+     * <p>
+     * Text typed to text preview or whole bytes typed to hexadecimal code in
+     * expanding edit mode are inserted or overwritten as single block of data.
+     *
+     * @param text typed text
+     */
+    public void typeText(String text) {
+        int typedLength = typeTextAsBlock(text);
+        for (int i = typedLength; i < text.length(); i++) {
+            keyTyped(new KeyEvent(codeArea, -1, -1, 0, 0, text.charAt(i)));
+        }
+    }
+
+    /**
+     * Types text as single block of data if possible.
+     *
+     * @param text typed text
+     * @return length of prefix of text which was typed
+     */
+    private int typeTextAsBlock(String text) {
+        if (undoRedo == null || ((EditModeCapable) codeArea).getEditMode() != EditMode.EXPANDING || !((SelectionCapable) codeArea).getSelection().isEmpty()) {
+            return 0;
+        }
+
+        CaretCapable caretCapable = (CaretCapable) codeArea;
+        if (caretCapable.getCodeOffset() != 0) {
+            return 0;
+        }
+
+        byte[] data;
+        int typedLength;
+        if (caretCapable.getActiveSection() == BasicCodeAreaSection.TEXT_PREVIEW) {
+            Charset charset = ((CharsetCapable) codeArea).getCharset();
+            if (!isStatelessCharset(charset)) {
+                return 0;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char keyValue = text.charAt(i);
+                if (keyValue <= DefaultCodeAreaCommandHandler.LAST_CONTROL_CODE || keyValue == DELETE_CHAR) {
+                    return 0;
+                }
+            }
+            data = text.getBytes(charset);
+            typedLength = text.length();
+        } else {
+            if (((CodeTypeCapable) codeArea).getCodeType() != CodeType.HEXADECIMAL) {
+                return 0;
+            }
+            typedLength = text.length() & ~1;
+            data = new byte[typedLength / 2];
+            for (int i = 0; i < typedLength; i += 2) {
+                int upperHalf = Character.digit(text.charAt(i), 16);
+                int lowerHalf = Character.digit(text.charAt(i + 1), 16);
+                if (upperHalf < 0 || lowerHalf < 0) {
+                    return 0;
+                }
+                data[i / 2] = (byte) ((upperHalf << 4) | lowerHalf);
+            }
+        }
+        if (data.length == 0) {
+            return 0;
+        }
+
+        long dataPosition = caretCapable.getDataPosition();
+        long dataSize = codeArea.getDataSize();
+        ByteArrayEditableData typedData = new ByteArrayEditableData(data);
+        BinaryDataUndoableCommand command;
+        long overwrittenLength;
+        if (((EditModeCapable) codeArea).getActiveOperation() == EditOperation.INSERT || dataPosition == dataSize) {
+            command = new InsertDataCommand(codeArea, dataPosition, 0, typedData);
+            overwrittenLength = 0;
+        } else if (dataPosition + data.length > dataSize) {
+            long modifiedDataSize = dataSize - dataPosition;
+            overwrittenLength = modifiedDataSize;
+            command = new CodeAreaCompoundCommand(codeArea);
+            ((CodeAreaCompoundCommand) command).addCommand(new ModifyDataCommand(codeArea, dataPosition, (EditableBinaryData) typedData.copy(0, modifiedDataSize)));
+            ((CodeAreaCompoundCommand) command).addCommand(new InsertDataCommand(codeArea, dataSize, 0, (EditableBinaryData) typedData.copy(modifiedDataSize, data.length - modifiedDataSize)));
+        } else {
+            command = new ModifyDataCommand(codeArea, dataPosition, typedData);
+            overwrittenLength = data.length;
+        }
+        undoRedo.execute(new DataChangeCommand(command, dataPosition, overwrittenLength, data.length));
+
+        if (recordingMacro != null) {
+            appendMacroOperationStep(MacroStep.KEY_PRESSED, Arrays.asList(text.substring(0, typedLength)));
+        }
+        caretCapable.getCodeAreaCaret().setCaretPosition(dataPosition + data.length, 0);
+        if (batchExecution) {
+            batchDataChanged = true;
+        } else {
+            ((ScrollingCapable) codeArea).revealCursor();
+            codeArea.notifyDataChanged();
+            codeArea.repaint();
+        }
+        return typedLength;
+    }
+
+    /**
+     * Checks whether text encoded as whole has the same bytes as text
+     * encoded character by character, which is not the case for charsets
+     * with byte order mark.
+     *
+     * @param charset charset
+     * @return true if charset encodes characters independently
+     */
+    private static boolean isStatelessCharset(Charset charset) {
+        return "AA".getBytes(charset).length == 2 * "A".getBytes(charset).length;
+    }
+
+    /**
+     * Moves caret by given number of steps.
+     *
+     * @param selectingMode selecting mode
+     * @param direction movement direction
+     * @param count count of steps
+     */
+    public void moveCaret(SelectingMode selectingMode, MovementDirection direction, int count) {
+        for (int i = 0; i < count; i++) {
+            move(selectingMode, direction);
+        }
+    }
+
+    /**
+     * Starts group of commands undone as single command, if supported by
+     * undo handler.
+     */
+    public void startCommandGroup() {
+        if (undoRedo instanceof BinEdUndoRedo) {
+            ((BinEdUndoRedo) undoRedo).startGroup();
+        }
+    }
+
+    /**
+     * Finishes group of commands started by {@link #startCommandGroup()}.
+     */
+    public void finishCommandGroup() {
+        if (undoRedo instanceof BinEdUndoRedo) {
+            ((BinEdUndoRedo) undoRedo).finishGroup();
+        }
+    }
+
+    /**
+     * Starts batch execution of macro.
+     * <p>
+     * Reveal of cursor, repaint and notification about data change of typed
+     * blocks of data are postponed until batch execution is finished.
+     */
+    public void startBatchExecution() {
+        batchExecution = true;
+        batchDataChanged = false;
+    }
+
+    /**
+     * Finishes batch execution started by {@link #startBatchExecution()}.
+     */
+    public void finishBatchExecution() {
+        batchExecution = false;
+        ((ScrollingCapable) codeArea).revealCursor();
+        if (batchDataChanged) {
+            batchDataChanged = false;
+            codeArea.notifyDataChanged();
+        }
+        codeArea.repaint();
+    }
+
+    public boolean isBatchExecution() {
+        return batchExecution;
+    }
+
     public void appendMacroOperationStep(MacroStep macroStep) {
         CodeAreaMacroCommandHandler.this.appendMacroOperationStep(macroStep, Arrays.asList());
     }
 
     public void appendMacroOperationStep(MacroStep macroStep, List<Object> parameters) {
+        // Repeated step is only updated in place and written to macro record when needed
         if (lastMacroStep == macroStep) {
-            List<String> steps = recordingMacro.getSteps();
-            try {
-                int stepIndex = steps.size() - 1;
-                MacroOperation macroOperation = parseStep(steps.get(stepIndex));
-                List<Object> stepParameters = macroOperation.getParameters();
-                switch (macroStep) {
-                    case CARET_MOVE: {
-                        if (stepParameters.get(0) == parameters.get(0)) {
-                            if (stepParameters.size() > 1) {
-                                stepParameters.set(1, (Integer) stepParameters.get(1) + 1);
-                            } else {
-                                stepParameters.add(2);
-                            }
-
-                            recordingMacro.setStep(stepIndex, stepAsString(macroOperation.getMacroStep(), stepParameters));
-                            return;
-                        }
-                        break;
-                    }
-                    case KEY_PRESSED: {
-                        stepParameters.set(0, (String) stepParameters.get(0) + parameters.get(0));
-                        recordingMacro.setStep(stepIndex, stepAsString(macroOperation.getMacroStep(), stepParameters));
-                        return;
-                    }
-                    case CLIPBOARD_COPY:
-                    case CLIPBOARD_COPY_AS_CODE:
-                    case SELECTION_SELECT_ALL:
-                    case SELECTION_CLEAR: {
-                        // Don't repeat this steps
+            switch (macroStep) {
+                case CARET_MOVE: {
+                    if (lastStepParameters.get(0) == parameters.get(0)) {
+                        lastStepCount++;
+                        lastStepModified = true;
                         return;
                     }
+                    break;
+                }
+                case KEY_PRESSED: {
+                    lastStepText.append((String) parameters.get(0));
+                    lastStepModified = true;
+                    return;
+                }
+                case CLIPBOARD_COPY:
+                case CLIPBOARD_COPY_AS_CODE:
+                case SELECTION_SELECT_ALL:
+                case SELECTION_CLEAR: {
+                    // Don't repeat this steps
+                    return;
                 }
-            } catch (ParseException | NumberFormatException ex) {
-                Logger.getLogger(CodeAreaMacroCommandHandler.class.getName()).log(Level.SEVERE, null, ex);
             }
         }
 
-        recordingMacro.addStep(stepAsString(macroStep, parameters));
+        flushMacroOperationStep();
         lastMacroStep = macroStep;
+        lastStepParameters = new ArrayList<>(parameters);
+        lastStepCount = 1;
+        lastStepText.setLength(0);
+        if (macroStep == MacroStep.KEY_PRESSED) {
+            lastStepText.append((String) parameters.get(0));
+        }
+        lastStepIndex = -1;
+        lastStepModified = true;
+    }
+
+    private void flushMacroOperationStep() {
+        if (recordingMacro == null || lastMacroStep == null || !lastStepModified) {
+            return;
+        }
+
+        List<Object> parameters = lastStepParameters;
+        if (lastMacroStep == MacroStep.KEY_PRESSED) {
+            parameters = Arrays.asList(lastStepText.toString());
+        } else if (lastMacroStep == MacroStep.CARET_MOVE && lastStepCount > 1) {
+            parameters = Arrays.asList(lastStepParameters.get(0), lastStepCount);
+        }
+
+        String step = stepAsString(lastMacroStep, parameters);
+        if (lastStepIndex >= 0) {
+            recordingMacro.setStep(lastStepIndex, step);
+        } else {
+            recordingMacro.addStep(step);
+            lastStepIndex = recordingMacro.getSteps().size() - 1;
+        }
+        lastStepModified = false;
     }
 
     @Nonnull
@@ -499,7 +715,7 @@ public class CodeAreaMacroCommandHandler extends CodeAreaOperationCommandHandler
                                     break;
                                 }
                                 case 'u': {
-                                    if (position <= stepString.length() - 5) {
+                                    if (position > stepString.length() - 5) {
                                         throw new ParseException("Incomplete unicode escape sequence", position);
                                     }
                                     int code = Integer.parseInt(
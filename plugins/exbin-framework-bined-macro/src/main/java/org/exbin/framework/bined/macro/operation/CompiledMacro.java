@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.macro.operation;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.bined.basic.MovementDirection;
+
+/**
+ * Macro compiled to list of instructions.
+ * <p>
+ * Steps are parsed only once. Consecutive typed characters are joined to
+ * single text and consecutive movements in the same direction to single
+ * movement with count.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class CompiledMacro {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private MacroStep[] steps = new MacroStep[INITIAL_CAPACITY];
+    private Object[] arguments = new Object[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int instructionsCount = 0;
+
+    private CompiledMacro() {
+    }
+
+    /**
+     * Compiles macro steps.
+     *
+     * @param macroSteps macro steps
+     * @return compiled macro
+     * @throws IllegalStateException if step cannot be parsed
+     */
+    @Nonnull
+    public static CompiledMacro compile(List<String> macroSteps) {
+        CompiledMacro compiledMacro = new CompiledMacro();
+        StringBuilder text = new StringBuilder();
+        int line = 0;
+        for (String step : macroSteps) {
+            line++;
+            MacroOperation operation;
+            try {
+                operation = CodeAreaMacroCommandHandler.parseStep(step);
+            } catch (NumberFormatException | ParseException ex) {
+                throw new IllegalStateException("Error on line " + line + ": ", ex);
+            }
+
+            MacroStep macroStep = operation.getMacroStep();
+            List<Object> parameters = operation.getParameters();
+            if (macroStep != MacroStep.KEY_PRESSED) {
+                compiledMacro.flushText(text);
+            }
+            switch (macroStep) {
+                case KEY_PRESSED: {
+                    if (!parameters.isEmpty()) {
+                        if (text.length() == 0) {
+                            compiledMacro.addInstruction(macroStep, null, 1, line);
+                        }
+                        text.append((String) parameters.get(0));
+                    }
+                    break;
+                }
+                case CARET_MOVE:
+                case SELECTION_UPDATE: {
+                    MovementDirection direction = (MovementDirection) parameters.get(0);
+                    int count = parameters.size() > 1 ? (Integer) parameters.get(1) : 1;
+                    int last = compiledMacro.instructionsCount - 1;
+                    if (last >= 0 && compiledMacro.steps[last] == macroStep && compiledMacro.arguments[last] == direction && compiledMacro.counts[last] <= Integer.MAX_VALUE - count) {
+                        compiledMacro.counts[last] += count;
+                    } else {
+                        compiledMacro.addInstruction(macroStep, direction, count, line);
+                    }
+                    break;
+                }
+                case FIND_TEXT: {
+                    compiledMacro.addInstruction(macroStep, parameters.size() > 1 ? parameters.get(0) : null, 1, line);
+                    break;
+                }
+                default:
+                    compiledMacro.addInstruction(macroStep, null, 1, line);
+            }
+        }
+        compiledMacro.flushText(text);
+
+        return compiledMacro;
+    }
+
+    private void addInstruction(MacroStep macroStep, @Nullable Object argument, int count, int line) {
+        if (instructionsCount == steps.length) {
+            int capacity = steps.length * 2;
+            steps = Arrays.copyOf(steps, capacity);
+            arguments = Arrays.copyOf(arguments, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+        }
+
+        steps[instructionsCount] = macroStep;
+        arguments[instructionsCount] = argument;
+        counts[instructionsCount] = count;
+        lines[instructionsCount] = line;
+        instructionsCount++;
+    }
+
+    private void flushText(StringBuilder text) {
+        if (text.length() > 0) {
+            arguments[instructionsCount - 1] = text.toString();
+            text.setLength(0);
+        }
+    }
+
+    public int getInstructionsCount() {
+        return instructionsCount;
+    }
+
+    /**
+     * Returns true if macro contains find text or find again instruction.
+     *
+     * @return true if macro searches data
+     */
+    public boolean hasFindStep() {
+        for (int i = 0; i < instructionsCount; i++) {
+            if (steps[i] == MacroStep.FIND_TEXT || steps[i] == MacroStep.FIND_AGAIN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nonnull
+    public MacroStep getStep(int index) {
+        return steps[index];
+    }
+
+    /**
+     * Returns typed text for key press or searched text for find text
+     * instruction.
+     *
+     * @param index instruction index
+     * @return text or null if search text is not available
+     */
+    @Nullable
+    public String getText(int index) {
+        return (String) arguments[index];
+    }
+
+    @Nonnull
+    public MovementDirection getDirection(int index) {
+        return (MovementDirection) arguments[index];
+    }
+
+    /**
+     * Returns count of repetitions of movement instruction.
+     *
+     * @param index instruction index
+     * @return count
+     */
+    public int getCount(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Returns line of macro step instruction was compiled from.
+     *
+     * @param index instruction index
+     * @return line starting from 1
+     */
+    public int getLine(int index) {
+        return lines[index];
+    }
+}
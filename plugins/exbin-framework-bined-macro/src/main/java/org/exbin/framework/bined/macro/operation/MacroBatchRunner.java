@@ -0,0 +1,406 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.macro.operation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+import org.exbin.auxiliary.binary_data.delta.SegmentsRepository;
+import org.exbin.auxiliary.binary_data.delta.file.FileDataSource;
+
+/**
+ * Runner applying compiled macro to files without code area.
+ * <p>
+ * Files are processed in parallel on bounded pool of worker threads. Each
+ * file is opened as delta document, so only changed parts of data are kept
+ * in memory. Modified data are streamed to temporary file in the same
+ * directory, which then atomically replaces original file, files without
+ * changes are not written. Listener is notified from worker threads.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class MacroBatchRunner {
+
+    public static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final CompiledMacro compiledMacro;
+    private final Charset charset;
+    private long repeatCount = 1;
+    private boolean textSection = false;
+    private final AtomicLong processedSize = new AtomicLong();
+    private final AtomicInteger remainingFiles = new AtomicInteger();
+    private ExecutorService executorService = null;
+    private long startTime;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Creates runner.
+     *
+     * @param compiledMacro compiled macro
+     * @param charset charset used for typed text and text search
+     * @throws IllegalStateException if macro contains step not supported
+     * without code area
+     */
+    public MacroBatchRunner(CompiledMacro compiledMacro, Charset charset) {
+        MacroDataExecutor.checkSupported(compiledMacro);
+        this.compiledMacro = compiledMacro;
+        this.charset = charset;
+    }
+
+    /**
+     * Sets count of repetitions of macro for each file.
+     *
+     * @param repeatCount count of repetitions or 0 to repeat until no further
+     * match is found or, for macro without find steps, until end of data is
+     * reached or cursor stops advancing
+     */
+    public void setRepeatCount(long repeatCount) {
+        this.repeatCount = repeatCount;
+    }
+
+    public void setTextSection(boolean textSection) {
+        this.textSection = textSection;
+    }
+
+    /**
+     * Returns default count of worker threads.
+     *
+     * @return count of worker threads
+     */
+    public static int getDefaultWorkersCount() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Starts processing of files in background.
+     *
+     * @param files files to process
+     * @param workersCount count of worker threads
+     * @param listener batch listener
+     */
+    public void start(List<File> files, int workersCount, BatchListener listener) {
+        if (executorService != null) {
+            throw new IllegalStateException("Batch was already started");
+        }
+
+        startTime = System.currentTimeMillis();
+        if (files.isEmpty()) {
+            listener.finished(0, 0);
+            return;
+        }
+
+        AtomicInteger workerIndex = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(workersCount, files.size())), (runnable) -> {
+            Thread thread = new Thread(runnable, "Macro batch worker " + workerIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        remainingFiles.set(files.size());
+        for (File file : files) {
+            executorService.execute(() -> {
+                FileResult result = processFile(file);
+                listener.fileProcessed(result);
+                if (remainingFiles.decrementAndGet() == 0) {
+                    executorService.shutdown();
+                    listener.finished(processedSize.get(), getElapsedTime());
+                }
+            });
+        }
+    }
+
+    /**
+     * Requests cancellation of processing.
+     * <p>
+     * Files which were not written yet are left untouched.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns size of data of already processed files.
+     *
+     * @return processed size
+     */
+    public long getProcessedSize() {
+        return processedSize.get();
+    }
+
+    /**
+     * Returns time elapsed since start of processing.
+     *
+     * @return time in milliseconds
+     */
+    public long getElapsedTime() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    @Nonnull
+    private FileResult processFile(File file) {
+        if (cancelled) {
+            return new FileResult(file, ResultType.CANCELLED, 0, 0, 0, null);
+        }
+
+        long fileStartTime = System.currentTimeMillis();
+        long executedCount = 0;
+        long dataSize = file.length();
+        FileDataSource fileSource = null;
+        SegmentsRepository segmentsRepository = new SegmentsRepository();
+        DeltaDocument document = null;
+        File tempFile = null;
+        try {
+            fileSource = new FileDataSource(file);
+            segmentsRepository.addDataSource(fileSource);
+            document = segmentsRepository.createDocument(fileSource);
+
+            MacroDataExecutor executor = new MacroDataExecutor(document, charset);
+            executor.setTextSection(textSection);
+            while (!cancelled) {
+                long position = executor.getPosition();
+                long matchPosition = executor.getMatchPosition();
+                boolean found = executor.execute(compiledMacro);
+                executedCount++;
+                if (!found || isFinished(executedCount, executor, position, matchPosition, document.getDataSize())) {
+                    break;
+                }
+            }
+
+            if (cancelled) {
+                return new FileResult(file, ResultType.CANCELLED, executedCount, dataSize, System.currentTimeMillis() - fileStartTime, null);
+            }
+
+            ResultType resultType = ResultType.UNCHANGED;
+            if (executor.isDataModified()) {
+                tempFile = createTempFile(file);
+                writeData(document, tempFile, file);
+                // Source has to be released before file can be replaced
+                releaseDocument(segmentsRepository, document, fileSource);
+                document = null;
+                fileSource = null;
+                replaceFile(tempFile, file);
+                tempFile = null;
+                resultType = ResultType.MODIFIED;
+            }
+
+            processedSize.addAndGet(dataSize);
+            return new FileResult(file, resultType, executedCount, dataSize, System.currentTimeMillis() - fileStartTime, null);
+        } catch (IOException | RuntimeException ex) {
+            String message = ex.getMessage();
+            if (message == null || message.isEmpty()) {
+                message = ex.toString();
+            } else if (ex.getCause() != null) {
+                message += ex.getCause().getMessage();
+            }
+            return new FileResult(file, ResultType.FAILED, executedCount, dataSize, System.currentTimeMillis() - fileStartTime, message);
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            if (document != null || fileSource != null) {
+                releaseDocument(segmentsRepository, document, fileSource);
+            }
+        }
+    }
+
+    private boolean isFinished(long executedCount, MacroDataExecutor executor, long previousPosition, long previousMatchPosition, long dataSize) {
+        if (repeatCount > 0) {
+            return executedCount >= repeatCount;
+        }
+
+        // Find steps don't move cursor, macro is repeated while match advances
+        if (compiledMacro.hasFindStep()) {
+            long matchPosition = executor.getMatchPosition();
+            return matchPosition < 0 || matchPosition <= previousMatchPosition;
+        }
+
+        // Without advancing cursor the same data would be processed again
+        long position = executor.getPosition();
+        return position >= dataSize || position <= previousPosition;
+    }
+
+    private void writeData(BinaryData data, File tempFile, File targetFile) throws IOException {
+        long totalSize = data.getDataSize();
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(totalSize, 1))];
+        try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
+            FileChannel channel = outputStream.getChannel();
+            long position = 0;
+            while (position < totalSize) {
+                int length = (int) Math.min(buffer.length, totalSize - position);
+                data.copyToArray(position, buffer, 0, length);
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+                position += length;
+            }
+
+            channel.force(true);
+        }
+
+        try {
+            Files.setPosixFilePermissions(tempFile.toPath(), Files.getPosixFilePermissions(targetFile.toPath()));
+        } catch (UnsupportedOperationException | IOException ex) {
+            // Permissions are kept as default for file system without POSIX permissions
+        }
+    }
+
+    private static void replaceFile(File tempFile, File targetFile) throws IOException {
+        try {
+            Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Nonnull
+    private static File createTempFile(File targetFile) {
+        File directory = targetFile.getAbsoluteFile().getParentFile();
+        String prefix = "." + targetFile.getName() + ".";
+        int index = 0;
+        File tempFile;
+        do {
+            tempFile = new File(directory, prefix + Long.toHexString(System.nanoTime() + index) + TEMP_FILE_SUFFIX);
+            index++;
+        } while (tempFile.exists());
+        return tempFile;
+    }
+
+    private static void releaseDocument(SegmentsRepository segmentsRepository, @Nullable DeltaDocument document, @Nullable FileDataSource fileSource) {
+        if (document != null) {
+            document.dispose();
+        }
+        if (fileSource != null) {
+            segmentsRepository.detachFileSource(fileSource);
+            try {
+                fileSource.close();
+            } catch (IOException ex) {
+                Logger.getLogger(MacroBatchRunner.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+    }
+
+    /**
+     * Type of result of processing of file.
+     */
+    public enum ResultType {
+        MODIFIED,
+        UNCHANGED,
+        FAILED,
+        CANCELLED
+    }
+
+    /**
+     * Result of processing of single file.
+     */
+    @ParametersAreNonnullByDefault
+    public static class FileResult {
+
+        private final File file;
+        private final ResultType resultType;
+        private final long executedCount;
+        private final long dataSize;
+        private final long duration;
+        private final String errorMessage;
+
+        public FileResult(File file, ResultType resultType, long executedCount, long dataSize, long duration, @Nullable String errorMessage) {
+            this.file = file;
+            this.resultType = resultType;
+            this.executedCount = executedCount;
+            this.dataSize = dataSize;
+            this.duration = duration;
+            this.errorMessage = errorMessage;
+        }
+
+        @Nonnull
+        public File getFile() {
+            return file;
+        }
+
+        @Nonnull
+        public ResultType getResultType() {
+            return resultType;
+        }
+
+        public long getExecutedCount() {
+            return executedCount;
+        }
+
+        public long getDataSize() {
+            return dataSize;
+        }
+
+        /**
+         * Returns duration of processing.
+         *
+         * @return duration in milliseconds
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        @Nullable
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
+    /**
+     * Listener for batch processing.
+     */
+    @ParametersAreNonnullByDefault
+    public interface BatchListener {
+
+        /**
+         * Reports processed file.
+         *
+         * @param result result of processing
+         */
+        void fileProcessed(FileResult result);
+
+        /**
+         * Reports end of processing of all files.
+         *
+         * @param processedSize size of data of processed files
+         * @param elapsedTime elapsed time in milliseconds
+         */
+        void finished(long processedSize, long elapsedTime);
+    }
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.macro.operation;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.bined.basic.MovementDirection;
+import org.exbin.framework.bined.search.engine.SearchEngine;
+import org.exbin.framework.bined.search.engine.SearchEngineFactory;
+
+/**
+ * Executor of compiled macro on binary data without code area.
+ * <p>
+ * Emulates cursor, selection and edit operation of code area with
+ * hexadecimal code type. Text is typed to code section unless text section
+ * is set. As in code area, find steps don't move cursor, find text searches
+ * from cursor in first execution and after previous match in following
+ * executions and find again searches after previous match. Movement
+ * depending on layout of rows in code area and steps working with code
+ * representation of data are not supported, macro can be checked by
+ * {@link #checkSupported(CompiledMacro)} before execution.
+ * <p>
+ * Executor is not thread safe, but separate executors can be used for
+ * separate data in parallel.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class MacroDataExecutor {
+
+    private static final int LAST_CONTROL_CODE = 31;
+    private static final char DELETE_CHAR = (char) 0x7f;
+
+    private final EditableBinaryData data;
+    private final Charset charset;
+    private final Map<String, byte[]> encodedTexts = new HashMap<>();
+    private boolean textSection = false;
+    private boolean insertMode = false;
+    private long position = 0;
+    private int codeOffset = 0;
+    private long selectionStart = -1;
+    private BinaryData clipboardData = null;
+    private SearchEngine searchEngine = null;
+    private long matchPosition = -1;
+    private boolean dataModified = false;
+
+    public MacroDataExecutor(EditableBinaryData data, Charset charset) {
+        this.data = data;
+        this.charset = charset;
+    }
+
+    public void setTextSection(boolean textSection) {
+        this.textSection = textSection;
+    }
+
+    public void setInsertMode(boolean insertMode) {
+        this.insertMode = insertMode;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns position of last match.
+     *
+     * @return position or -1 if there is no match
+     */
+    public long getMatchPosition() {
+        return matchPosition;
+    }
+
+    public boolean isDataModified() {
+        return dataModified;
+    }
+
+    /**
+     * Checks that all steps of macro can be executed without code area.
+     *
+     * @param compiledMacro compiled macro
+     * @throws IllegalStateException if macro contains unsupported step
+     */
+    public static void checkSupported(CompiledMacro compiledMacro) {
+        int instructionsCount = compiledMacro.getInstructionsCount();
+        for (int i = 0; i < instructionsCount; i++) {
+            MacroStep macroStep = compiledMacro.getStep(i);
+            boolean supported;
+            switch (macroStep) {
+                case KEY_PRESSED:
+                case BACKSPACE_KEY:
+                case DELETE_KEY:
+                case SELECTION_SET:
+                case SELECTION_SELECT_ALL:
+                case SELECTION_CLEAR:
+                case EDIT_OPERATION_CHANGE:
+                case CLIPBOARD_COPY:
+                case CLIPBOARD_CUT:
+                case CLIPBOARD_PASTE:
+                case CLIPBOARD_DELETE:
+                case FIND_TEXT:
+                case FIND_AGAIN: {
+                    supported = true;
+                    break;
+                }
+                case CARET_MOVE:
+                case SELECTION_UPDATE: {
+                    supported = isSupportedMovement(compiledMacro.getDirection(i));
+                    break;
+                }
+                default:
+                    supported = false;
+            }
+
+            if (!supported) {
+                throw new IllegalStateException("Step " + macroStep.getOperationCode() + " on line " + compiledMacro.getLine(i) + " depends on code area and is not supported without it");
+            }
+        }
+    }
+
+    private static boolean isSupportedMovement(MovementDirection direction) {
+        switch (direction) {
+            case LEFT:
+            case RIGHT:
+            case DOC_START:
+            case DOC_END:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Executes compiled macro once.
+     *
+     * @param compiledMacro compiled macro
+     * @return false if find step didn't find any further match
+     * @throws IllegalStateException if macro contains unsupported step
+     */
+    public boolean execute(CompiledMacro compiledMacro) {
+        long findStartPosition = matchPosition >= 0 ? matchPosition + 1 : position;
+        int instructionsCount = compiledMacro.getInstructionsCount();
+        for (int i = 0; i < instructionsCount; i++) {
+            boolean found;
+            try {
+                found = executeInstruction(compiledMacro, i, findStartPosition);
+            } catch (IllegalStateException ex) {
+                throw new IllegalStateException("Error on line " + compiledMacro.getLine(i) + ": ", ex);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean executeInstruction(CompiledMacro compiledMacro, int index, long findStartPosition) {
+        MacroStep macroStep = compiledMacro.getStep(index);
+        switch (macroStep) {
+            case KEY_PRESSED: {
+                typeText(Objects.requireNonNull(compiledMacro.getText(index)));
+                break;
+            }
+            case BACKSPACE_KEY: {
+                if (!deleteSelection() && position > 0) {
+                    position--;
+                    removeData(position, 1);
+                }
+                codeOffset = 0;
+                break;
+            }
+            case DELETE_KEY: {
+                if (!deleteSelection() && position < data.getDataSize()) {
+                    removeData(position, 1);
+                }
+                codeOffset = 0;
+                break;
+            }
+            case CARET_MOVE: {
+                selectionStart = -1;
+                for (int i = compiledMacro.getCount(index); i > 0; i--) {
+                    move(compiledMacro.getDirection(index));
+                }
+                break;
+            }
+            case SELECTION_UPDATE: {
+                if (selectionStart < 0) {
+                    selectionStart = position;
+                }
+                for (int i = compiledMacro.getCount(index); i > 0; i--) {
+                    move(compiledMacro.getDirection(index));
+                }
+                break;
+            }
+            case SELECTION_SET: {
+                if (selectionStart < 0) {
+                    selectionStart = position;
+                }
+                break;
+            }
+            case SELECTION_SELECT_ALL: {
+                selectionStart = 0;
+                position = data.getDataSize();
+                codeOffset = 0;
+                break;
+            }
+            case SELECTION_CLEAR: {
+                selectionStart = -1;
+                break;
+            }
+            case EDIT_OPERATION_CHANGE: {
+                insertMode = !insertMode;
+                break;
+            }
+            case CLIPBOARD_COPY: {
+                copySelection();
+                break;
+            }
+            case CLIPBOARD_CUT: {
+                copySelection();
+                deleteSelection();
+                break;
+            }
+            case CLIPBOARD_PASTE: {
+                if (clipboardData != null) {
+                    deleteSelection();
+                    writeData(clipboardData);
+                }
+                break;
+            }
+            case CLIPBOARD_DELETE: {
+                deleteSelection();
+                break;
+            }
+            case FIND_TEXT: {
+                String text = compiledMacro.getText(index);
+                if (text != null) {
+                    searchEngine = SearchEngineFactory.createTextEngine(text, true, charset);
+                    return find(findStartPosition);
+                }
+                break;
+            }
+            case FIND_AGAIN: {
+                if (searchEngine == null || matchPosition < 0) {
+                    return false;
+                }
+                return find(matchPosition + 1);
+            }
+            default:
+                throw new IllegalStateException("Step " + macroStep.getOperationCode() + " is not supported without code area");
+        }
+        return true;
+    }
+
+    private void typeText(String text) {
+        deleteSelection();
+        if (textSection) {
+            byte[] encodedText = encodedTexts.get(text);
+            if (encodedText == null) {
+                encodedText = encodeText(text);
+                encodedTexts.put(text, encodedText);
+            }
+            if (encodedText.length > 0) {
+                writeData(encodedText);
+            }
+            return;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit >= 0) {
+                typeHalfByte(digit);
+            }
+        }
+    }
+
+    @Nonnull
+    private byte[] encodeText(String text) {
+        // Characters are encoded separately as when typed by keyboard
+        ByteArrayOutputStream encodedText = new ByteArrayOutputStream();
+        text.codePoints().filter((codePoint) -> codePoint > LAST_CONTROL_CODE && codePoint != DELETE_CHAR).forEach((codePoint) -> {
+            byte[] bytes = new String(Character.toChars(codePoint)).getBytes(charset);
+            encodedText.write(bytes, 0, bytes.length);
+        });
+        return encodedText.toByteArray();
+    }
+
+    private void typeHalfByte(int digit) {
+        long dataSize = data.getDataSize();
+        if (codeOffset == 0) {
+            if (insertMode || position == dataSize) {
+                data.insert(position, new byte[]{(byte) (digit << 4)});
+            } else {
+                data.setByte(position, (byte) ((data.getByte(position) & 0x0f) | (digit << 4)));
+            }
+            codeOffset = 1;
+        } else {
+            data.setByte(position, (byte) ((data.getByte(position) & 0xf0) | digit));
+            position++;
+            codeOffset = 0;
+        }
+        dataModified = true;
+    }
+
+    private void writeData(byte[] writtenData) {
+        long dataSize = data.getDataSize();
+        if (insertMode || position == dataSize) {
+            data.insert(position, writtenData);
+        } else if (position + writtenData.length > dataSize) {
+            int modifiedLength = (int) (dataSize - position);
+            data.replace(position, writtenData, 0, modifiedLength);
+            data.insert(dataSize, writtenData, modifiedLength, writtenData.length - modifiedLength);
+        } else {
+            data.replace(position, writtenData);
+        }
+        position += writtenData.length;
+        codeOffset = 0;
+        dataModified = true;
+    }
+
+    private void writeData(BinaryData writtenData) {
+        long length = writtenData.getDataSize();
+        long dataSize = data.getDataSize();
+        if (insertMode || position == dataSize) {
+            data.insert(position, writtenData);
+        } else if (position + length > dataSize) {
+            long modifiedLength = dataSize - position;
+            data.replace(position, writtenData, 0, modifiedLength);
+            data.insert(dataSize, writtenData, modifiedLength, length - modifiedLength);
+        } else {
+            data.replace(position, writtenData);
+        }
+        position += length;
+        codeOffset = 0;
+        dataModified = true;
+    }
+
+    private void removeData(long startFrom, long length) {
+        data.remove(startFrom, length);
+        dataModified = true;
+    }
+
+    private void copySelection() {
+        if (selectionStart >= 0 && selectionStart != position) {
+            long start = Math.min(selectionStart, position);
+            clipboardData = data.copy(start, Math.abs(position - selectionStart));
+        }
+    }
+
+    private boolean deleteSelection() {
+        if (selectionStart < 0) {
+            return false;
+        }
+
+        long start = Math.min(selectionStart, position);
+        long length = Math.abs(position - selectionStart);
+        selectionStart = -1;
+        if (length == 0) {
+            return false;
+        }
+
+        removeData(start, length);
+        position = start;
+        codeOffset = 0;
+        return true;
+    }
+
+    private void move(MovementDirection direction) {
+        long dataSize = data.getDataSize();
+        switch (direction) {
+            case LEFT: {
+                if (!textSection && codeOffset > 0) {
+                    codeOffset--;
+                } else if (position > 0) {
+                    position--;
+                    codeOffset = textSection ? 0 : 1;
+                }
+                break;
+            }
+            case RIGHT: {
+                if (position < dataSize) {
+                    if (!textSection && codeOffset == 0) {
+                        codeOffset = 1;
+                    } else {
+                        position++;
+                        codeOffset = 0;
+                    }
+                }
+                break;
+            }
+            case DOC_START: {
+                position = 0;
+                codeOffset = 0;
+                break;
+            }
+            case DOC_END: {
+                position = dataSize;
+                codeOffset = 0;
+                break;
+            }
+            default:
+                throw new IllegalStateException("Movement " + direction.name() + " is not supported without code area");
+        }
+    }
+
+    private boolean find(long startPosition) {
+        long[] foundPosition = new long[]{-1};
+        long dataSize = data.getDataSize();
+        if (startPosition < dataSize) {
+            searchEngine.searchForward(data, startPosition, dataSize, new SearchEngine.MatchListener() {
+                @Override
+                public boolean matchFound(long position, long length) {
+                    foundPosition[0] = position;
+                    return false;
+                }
+
+                @Override
+                public boolean searchProgress(long position) {
+                    return true;
+                }
+            });
+        }
+
+        matchPosition = foundPosition[0];
+        return matchPosition >= 0;
+    }
+}
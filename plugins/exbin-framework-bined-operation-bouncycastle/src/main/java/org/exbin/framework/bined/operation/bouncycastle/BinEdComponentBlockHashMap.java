@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.bined.operation.undo.BinaryDataUndoRedo;
+import org.exbin.bined.swing.CodeAreaSwingUtils;
+import org.exbin.bined.swing.capability.ColorAssessorPainterCapable;
+import org.exbin.bined.swing.section.SectCodeArea;
+import org.exbin.framework.bined.BinEdCodeAreaAssessor;
+import org.exbin.framework.bined.BinEdUndoRedo;
+import org.exbin.framework.bined.gui.BinEdComponentPanel;
+import org.exbin.framework.bined.operation.bouncycastle.service.BlockHashMap;
+import org.exbin.framework.bined.operation.bouncycastle.service.BlockHashService;
+import org.exbin.framework.bined.operation.component.PreviewDataWorker;
+import org.exbin.framework.bined.preferences.BinaryEditorPreferences;
+
+/**
+ * Bined component block hash map.
+ * <p>
+ * Keeps map of block hashes of data shown in code area and shows it using
+ * color modifier. Only blocks in ranges of changes of data reported by undo
+ * handler are computed again, all blocks from position of change which
+ * shifts data are computed again. Without such undo handler all blocks are
+ * computed again on each change of data.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BinEdComponentBlockHashMap implements BinEdComponentPanel.BinEdComponentExtension {
+
+    private static final int RECOMPUTE_DELAY = 300;
+
+    private SectCodeArea codeArea;
+    private final BlockHashColorModifier colorModifier = new BlockHashColorModifier();
+    private final BlockHashService blockHashService = new BlockHashService();
+    private final Timer recomputeTimer = new Timer(RECOMPUTE_DELAY, (event) -> startComputation());
+    private final AtomicBoolean repaintPending = new AtomicBoolean();
+    private final BinEdUndoRedo.DataChangeListener dataChangeListener = new BinEdUndoRedo.DataChangeListener() {
+        @Override
+        public void dataChanged(BinEdUndoRedo.DataChange change) {
+            dataModified(change);
+        }
+
+        @Override
+        public void dataChangesFinished() {
+            finishModifications();
+        }
+    };
+
+    private BinEdComponentPanel componentPanel;
+    private BinEdUndoRedo undoRedo = null;
+    private BlockHashMap blockHashMap = null;
+    private BlockHashMap referenceMap = null;
+    private ComputeJob currentJob = null;
+    private boolean modified = false;
+    private long shiftedStart = Long.MAX_VALUE;
+
+    public BinEdComponentBlockHashMap() {
+        recomputeTimer.setRepeats(false);
+    }
+
+    @Override
+    public void onCreate(BinEdComponentPanel componentPanel) {
+        this.componentPanel = componentPanel;
+        codeArea = componentPanel.getCodeArea();
+        BinEdCodeAreaAssessor codeAreaAssessor = CodeAreaSwingUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), BinEdCodeAreaAssessor.class);
+        codeAreaAssessor.addColorModifier(colorModifier);
+
+        codeArea.addDataChangedListener(() -> {
+            if (undoRedo == null && blockHashMap != null) {
+                blockHashMap.setDataSize(codeArea.getDataSize());
+                blockHashMap.markDirty(0, codeArea.getDataSize());
+                modified = true;
+                finishModifications();
+            }
+        });
+    }
+
+    @Override
+    public void onInitFromPreferences(BinaryEditorPreferences preferences) {
+    }
+
+    @Override
+    public void onDataChange() {
+        if (blockHashMap != null) {
+            showMap(blockHashMap.getHashType(), blockHashMap.getBlockSize(), referenceMap);
+        }
+    }
+
+    @Override
+    public void onClose() {
+        recomputeTimer.stop();
+        cancelComputation();
+        if (undoRedo != null) {
+            undoRedo.removeDataChangeListener(dataChangeListener);
+            undoRedo = null;
+        }
+    }
+
+    @Override
+    public void onUndoHandlerChange() {
+        if (undoRedo != null) {
+            undoRedo.removeDataChangeListener(dataChangeListener);
+        }
+        BinaryDataUndoRedo componentUndoRedo = componentPanel.getUndoRedo().orElse(null);
+        undoRedo = componentUndoRedo instanceof BinEdUndoRedo ? (BinEdUndoRedo) componentUndoRedo : null;
+        if (undoRedo != null) {
+            undoRedo.addDataChangeListener(dataChangeListener);
+        }
+    }
+
+    /**
+     * Computes map of block hashes for all data and shows it.
+     *
+     * @param hashType hash type
+     * @param blockSize block size
+     * @param referenceMap reference map to highlight different blocks or null
+     * to color all blocks by its hash
+     */
+    public void showMap(BlockHashMap.HashType hashType, int blockSize, @Nullable BlockHashMap referenceMap) {
+        recomputeTimer.stop();
+        cancelComputation();
+        blockHashMap = new BlockHashMap(hashType, blockSize, codeArea.getDataSize());
+        this.referenceMap = referenceMap;
+        colorModifier.setBlockHashMaps(blockHashMap, referenceMap);
+        modified = false;
+        shiftedStart = Long.MAX_VALUE;
+        startComputation();
+        codeArea.repaint();
+    }
+
+    public void clearMap() {
+        recomputeTimer.stop();
+        cancelComputation();
+        blockHashMap = null;
+        referenceMap = null;
+        colorModifier.setBlockHashMaps(null, null);
+        codeArea.repaint();
+    }
+
+    @Nullable
+    public BlockHashMap getBlockHashMap() {
+        return blockHashMap;
+    }
+
+    private void dataModified(BinEdUndoRedo.DataChange change) {
+        if (blockHashMap == null) {
+            return;
+        }
+
+        if (change.getRemovedLength() == change.getInsertedLength()) {
+            blockHashMap.markDirty(change.getPosition(), change.getInsertedLength());
+        } else {
+            // Blocks are aligned to start of data, so all following blocks are shifted
+            shiftedStart = Math.min(shiftedStart, change.getPosition());
+        }
+        modified = true;
+    }
+
+    private void finishModifications() {
+        if (blockHashMap == null || !modified) {
+            return;
+        }
+
+        if (shiftedStart != Long.MAX_VALUE) {
+            long dataSize = codeArea.getDataSize();
+            blockHashMap.setDataSize(dataSize);
+            blockHashMap.markDirty(shiftedStart, dataSize - shiftedStart);
+            shiftedStart = Long.MAX_VALUE;
+        }
+        modified = false;
+        colorModifier.invalidateCache();
+
+        cancelComputation();
+        recomputeTimer.restart();
+    }
+
+    private void startComputation() {
+        cancelComputation();
+        if (blockHashMap == null || !blockHashMap.hasDirtyBlocks()) {
+            return;
+        }
+
+        ComputeJob job = new ComputeJob(blockHashMap, codeArea.getContentData());
+        currentJob = job;
+        Thread workerThread = new Thread(job, "Block hash map");
+        workerThread.setDaemon(true);
+        workerThread.start();
+    }
+
+    private void cancelComputation() {
+        if (currentJob != null) {
+            currentJob.cancelled = true;
+            currentJob = null;
+        }
+    }
+
+    private void requestRepaint() {
+        if (repaintPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                repaintPending.set(false);
+                colorModifier.invalidateCache();
+                codeArea.repaint();
+            });
+        }
+    }
+
+    @ParametersAreNonnullByDefault
+    private class ComputeJob implements Runnable {
+
+        private final BlockHashMap map;
+        private final BinaryData contentData;
+        private volatile boolean cancelled = false;
+
+        public ComputeJob(BlockHashMap map, BinaryData contentData) {
+            this.map = map;
+            this.contentData = contentData;
+        }
+
+        @Override
+        public void run() {
+            long modificationCount = map.getModificationCount();
+            try {
+                blockHashService.computeDirtyBlocks(map, (position, target, offset, length) -> PreviewDataWorker.copyToArray(contentData, position, target, offset, length), (processedSize) -> {
+                    requestRepaint();
+                    return !cancelled;
+                });
+            } catch (RuntimeException ex) {
+                // Reading fails when data are shortened during computation
+                if (!cancelled && map.getModificationCount() == modificationCount) {
+                    Logger.getLogger(BinEdComponentBlockHashMap.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+
+            SwingUtilities.invokeLater(() -> {
+                if (currentJob == this) {
+                    currentJob = null;
+                }
+                colorModifier.invalidateCache();
+                codeArea.repaint();
+            });
+        }
+    }
+}
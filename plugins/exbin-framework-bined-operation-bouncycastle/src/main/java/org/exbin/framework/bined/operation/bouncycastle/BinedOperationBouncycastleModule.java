@@ -15,13 +15,26 @@
  */
 package org.exbin.framework.bined.operation.bouncycastle;
 
+import java.util.Optional;
 import java.util.ResourceBundle;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.AbstractAction;
 import org.exbin.framework.App;
 import org.exbin.framework.ModuleUtils;
 import org.exbin.framework.PluginModule;
+import org.exbin.framework.action.api.ActionConsts;
+import org.exbin.framework.action.api.ActionModuleApi;
+import org.exbin.framework.action.api.MenuContribution;
+import org.exbin.framework.action.api.MenuManagement;
+import org.exbin.framework.action.api.PositionMenuContributionRule;
+import org.exbin.framework.action.api.PositionMode;
+import org.exbin.framework.bined.BinEdFileManager;
+import org.exbin.framework.bined.BinedModule;
+import org.exbin.framework.bined.gui.BinEdComponentPanel;
 import org.exbin.framework.bined.operation.BinedOperationModule;
+import org.exbin.framework.bined.operation.bouncycastle.action.BlockHashMapAction;
+import org.exbin.framework.bined.operation.bouncycastle.component.BlockHashDataMethod;
 import org.exbin.framework.language.api.LanguageModuleApi;
 import org.exbin.framework.bined.operation.bouncycastle.component.ComputeHashDataMethod;
 import org.exbin.framework.ui.api.UiModuleApi;
@@ -43,15 +56,30 @@ public class BinedOperationBouncycastleModule implements PluginModule {
 
     @Override
     public void register() {
+        BinedModule binedModule = App.getModule(BinedModule.class);
+        BinEdFileManager fileManager = binedModule.getFileManager();
+        fileManager.addBinEdComponentExtension((BinEdComponentPanel component) -> Optional.of(new BinEdComponentBlockHashMap()));
+
         UiModuleApi uiModule = App.getModule(UiModuleApi.class);
         uiModule.addPostInitAction(() -> {
             BinedOperationModule binedOperationModule = App.getModule(BinedOperationModule.class);
 
-            ComputeHashDataMethod computeHashDataMethod = new ComputeHashDataMethod();
+            ComputeHashDataMethod computeHashDataMethod = new ComputeHashDataMethod(fileManager.getUndoPayloadStore());
             binedOperationModule.addConvertDataComponent(computeHashDataMethod);
+            BlockHashDataMethod blockHashDataMethod = new BlockHashDataMethod(fileManager.getUndoPayloadStore());
+            binedOperationModule.addConvertDataComponent(blockHashDataMethod);
+
+            registerToolsMenuActions();
         });
     }
 
+    public void registerToolsMenuActions() {
+        ActionModuleApi actionModule = App.getModule(ActionModuleApi.class);
+        MenuManagement mgmt = actionModule.getMenuManagement(MODULE_ID);
+        MenuContribution contribution = mgmt.registerMenuItem(ActionConsts.TOOLS_MENU_ID, createBlockHashMapAction());
+        mgmt.registerMenuRule(contribution, new PositionMenuContributionRule(PositionMode.TOP));
+    }
+
     @Nonnull
     public ResourceBundle getResourceBundle() {
         if (resourceBundle == null) {
@@ -60,4 +88,18 @@ public class BinedOperationBouncycastleModule implements PluginModule {
 
         return resourceBundle;
     }
+
+    @Nonnull
+    public AbstractAction createBlockHashMapAction() {
+        ensureSetup();
+        BlockHashMapAction blockHashMapAction = new BlockHashMapAction();
+        blockHashMapAction.setup(resourceBundle);
+        return blockHashMapAction;
+    }
+
+    private void ensureSetup() {
+        if (resourceBundle == null) {
+            getResourceBundle();
+        }
+    }
 }
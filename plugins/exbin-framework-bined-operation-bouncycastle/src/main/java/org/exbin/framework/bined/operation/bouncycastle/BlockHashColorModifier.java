@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle;
+
+import java.awt.Color;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.exbin.bined.CodeAreaSection;
+import org.exbin.framework.bined.BinEdCodeAreaAssessor;
+import org.exbin.framework.bined.operation.bouncycastle.service.BlockHashMap;
+import org.exbin.framework.utils.UiUtils;
+
+/**
+ * Position color modifier showing map of block hashes.
+ * <p>
+ * Without reference map, blocks are colored by their hash, so blocks with
+ * the same content has the same color. With reference map, only blocks which
+ * differs from reference or are missing in reference are colored. Blocks
+ * which hash is not computed yet are not colored.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BlockHashColorModifier implements BinEdCodeAreaAssessor.PositionColorModifier {
+
+    private BlockHashMap blockHashMap = null;
+    private BlockHashMap referenceMap = null;
+    private boolean darkUI;
+    private Color differentColor;
+    private Color missingColor;
+
+    private int cachedBlockIndex = -1;
+    private Color cachedColor = null;
+
+    public BlockHashColorModifier() {
+        resetColors();
+    }
+
+    @Nullable
+    @Override
+    public Color getPositionBackgroundColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection) {
+        if (blockHashMap == null || inSelection) {
+            return null;
+        }
+
+        int blockIndex = blockHashMap.getBlockIndex(rowDataPosition + byteOnRow);
+        if (blockIndex != cachedBlockIndex) {
+            cachedBlockIndex = blockIndex;
+            cachedColor = computeBlockColor(blockIndex);
+        }
+        return cachedColor;
+    }
+
+    @Nullable
+    @Override
+    public Color getPositionTextColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection) {
+        return null;
+    }
+
+    @Override
+    public void resetColors() {
+        darkUI = UiUtils.isDarkUI();
+        differentColor = darkUI ? new Color(110, 40, 40) : new Color(255, 180, 180);
+        missingColor = darkUI ? new Color(100, 90, 30) : new Color(255, 235, 150);
+        invalidateCache();
+    }
+
+    /**
+     * Sets shown maps.
+     *
+     * @param blockHashMap map of data or null to show nothing
+     * @param referenceMap reference map or null
+     */
+    public void setBlockHashMaps(@Nullable BlockHashMap blockHashMap, @Nullable BlockHashMap referenceMap) {
+        this.blockHashMap = blockHashMap;
+        this.referenceMap = referenceMap;
+        invalidateCache();
+    }
+
+    /**
+     * Invalidates cached block color.
+     * <p>
+     * Has to be called when hashes of map were changed.
+     */
+    public void invalidateCache() {
+        cachedBlockIndex = -1;
+        cachedColor = null;
+    }
+
+    @Nullable
+    private Color computeBlockColor(int blockIndex) {
+        if (blockIndex >= blockHashMap.getBlocksCount() || blockHashMap.isDirty(blockIndex)) {
+            return null;
+        }
+
+        if (referenceMap == null) {
+            long hashValue = blockHashMap.getBlockHashValue(blockIndex);
+            float hue = (hashValue & 0xFFFF) / 65536f;
+            return Color.getHSBColor(hue, darkUI ? 0.5f : 0.25f, darkUI ? 0.4f : 1.0f);
+        }
+
+        if (blockIndex >= referenceMap.getBlocksCount()) {
+            return missingColor;
+        }
+
+        return blockHashMap.isBlockMatching(blockIndex, referenceMap) ? null : differentColor;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle.action;
+
+import java.awt.Dialog;
+import java.awt.event.ActionEvent;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import org.exbin.framework.App;
+import org.exbin.framework.action.api.ActionActiveComponent;
+import org.exbin.framework.action.api.ActionConsts;
+import org.exbin.framework.action.api.ActionModuleApi;
+import org.exbin.framework.action.api.ComponentActivationManager;
+import org.exbin.framework.bined.BinEdFileHandler;
+import org.exbin.framework.bined.operation.bouncycastle.BinEdComponentBlockHashMap;
+import org.exbin.framework.bined.operation.bouncycastle.component.gui.BlockHashDataPanel;
+import org.exbin.framework.bined.operation.bouncycastle.service.BlockHashMap;
+import org.exbin.framework.bined.operation.bouncycastle.service.BlockHashService;
+import org.exbin.framework.file.api.FileHandler;
+import org.exbin.framework.window.api.WindowHandler;
+import org.exbin.framework.window.api.WindowModuleApi;
+import org.exbin.framework.window.api.gui.DefaultControlPanel;
+import org.exbin.framework.window.api.handler.DefaultControlHandler;
+
+/**
+ * Block hash map action.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BlockHashMapAction extends AbstractAction implements ActionActiveComponent {
+
+    public static final String ACTION_ID = "blockHashMapAction";
+
+    private FileHandler fileHandler;
+    private ResourceBundle resourceBundle;
+    private BlockHashMap.HashType lastHashType = BlockHashMap.HashType.CRC32C;
+    private int lastBlockSize = BlockHashDataPanel.BLOCK_SIZES[0];
+
+    public BlockHashMapAction() {
+    }
+
+    public void setup(ResourceBundle resourceBundle) {
+        this.resourceBundle = resourceBundle;
+
+        ActionModuleApi actionModule = App.getModule(ActionModuleApi.class);
+        actionModule.initAction(this, resourceBundle, ACTION_ID);
+        putValue(ActionConsts.ACTION_DIALOG_MODE, true);
+        putValue(ActionConsts.ACTION_ACTIVE_COMPONENT, this);
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        BinEdFileHandler binEdFileHandler = (BinEdFileHandler) fileHandler;
+        BinEdComponentBlockHashMap componentExtension = binEdFileHandler.getComponent().getComponentExtension(BinEdComponentBlockHashMap.class);
+        final BlockHashDataPanel blockHashDataPanel = new BlockHashDataPanel();
+        BlockHashMap currentMap = componentExtension.getBlockHashMap();
+        if (currentMap != null) {
+            lastHashType = currentMap.getHashType();
+            lastBlockSize = currentMap.getBlockSize();
+        }
+        blockHashDataPanel.setHashType(lastHashType);
+        blockHashDataPanel.setBlockSize(lastBlockSize);
+        ResourceBundle panelResourceBundle = blockHashDataPanel.getResourceBundle();
+        DefaultControlPanel controlPanel = new DefaultControlPanel(panelResourceBundle);
+
+        WindowModuleApi windowModule = App.getModule(WindowModuleApi.class);
+        final WindowHandler dialog = windowModule.createDialog(binEdFileHandler.getComponent(), Dialog.ModalityType.APPLICATION_MODAL, blockHashDataPanel, controlPanel);
+        windowModule.setWindowTitle(dialog, panelResourceBundle);
+        controlPanel.setHandler((DefaultControlHandler.ControlActionType actionType) -> {
+            if (actionType == DefaultControlHandler.ControlActionType.OK) {
+                if (blockHashDataPanel.isShowMap()) {
+                    BlockHashMap.HashType hashType = blockHashDataPanel.getHashType();
+                    int blockSize = blockHashDataPanel.getBlockSize();
+                    BlockHashMap referenceMap = null;
+                    Optional<File> referenceFile = blockHashDataPanel.getReferenceFile();
+                    if (referenceFile.isPresent()) {
+                        try {
+                            referenceMap = loadReferenceMap(referenceFile.get(), hashType, blockSize);
+                        } catch (IOException | UncheckedIOException ex) {
+                            JOptionPane.showMessageDialog(dialog.getWindow(), ex.getMessage(), panelResourceBundle.getString("error.referenceFile.title"), JOptionPane.ERROR_MESSAGE);
+                            return;
+                        }
+
+                        // Map has to be compatible with table of reference
+                        hashType = referenceMap.getHashType();
+                        blockSize = referenceMap.getBlockSize();
+                    }
+
+                    componentExtension.showMap(hashType, blockSize, referenceMap);
+                    lastHashType = hashType;
+                    lastBlockSize = blockSize;
+                } else {
+                    componentExtension.clearMap();
+                }
+            }
+
+            dialog.close();
+            dialog.dispose();
+        });
+        SwingUtilities.invokeLater(blockHashDataPanel::initFocus);
+        dialog.showCentered(binEdFileHandler.getComponent());
+    }
+
+    /**
+     * Loads reference map from exported table of block hashes or computes it
+     * from binary file.
+     *
+     * @param file reference file
+     * @param hashType hash type used for binary file
+     * @param blockSize block size used for binary file
+     * @return block hash map
+     * @throws IOException if reading of file fails
+     */
+    @Nonnull
+    private static BlockHashMap loadReferenceMap(File file, BlockHashMap.HashType hashType, int blockSize) throws IOException {
+        if (isBlockHashTable(file)) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                return BlockHashMap.importTable(reader);
+            }
+        }
+
+        try (RandomAccessFile dataFile = new RandomAccessFile(file, "r")) {
+            BlockHashService blockHashService = new BlockHashService();
+            BlockHashMap map = blockHashService.computeMap((position, target, offset, length) -> {
+                try {
+                    dataFile.seek(position);
+                    dataFile.readFully(target, offset, length);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }, dataFile.length(), hashType, blockSize, (processedSize) -> true);
+            if (map == null) {
+                throw new IOException("Computation of block hashes was interrupted");
+            }
+            return map;
+        }
+    }
+
+    private static boolean isBlockHashTable(File file) throws IOException {
+        byte[] header = BlockHashMap.TABLE_HEADER.getBytes(StandardCharsets.UTF_8);
+        byte[] fileStart = new byte[header.length];
+        try (FileInputStream stream = new FileInputStream(file)) {
+            int length = 0;
+            while (length < fileStart.length) {
+                int count = stream.read(fileStart, length, fileStart.length - length);
+                if (count < 0) {
+                    return false;
+                }
+                length += count;
+            }
+        }
+
+        return Arrays.equals(header, fileStart);
+    }
+
+    @Override
+    public void register(ComponentActivationManager manager) {
+        manager.registerUpdateListener(FileHandler.class, (instance) -> {
+            fileHandler = instance;
+            setEnabled(instance instanceof BinEdFileHandler);
+        });
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle.component;
+
+import java.awt.Component;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.SwingUtilities;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.ByteArrayEditableData;
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.bined.SelectionRange;
+import org.exbin.bined.capability.SelectionCapable;
+import org.exbin.bined.operation.swing.command.CodeAreaCommand;
+import org.exbin.bined.swing.CodeAreaCore;
+import org.exbin.framework.App;
+import org.exbin.framework.bined.UndoPayloadStore;
+import org.exbin.framework.bined.operation.api.ConvertDataMethod;
+import org.exbin.framework.bined.operation.api.PreviewDataHandler;
+import org.exbin.framework.bined.operation.bouncycastle.component.gui.BlockHashDataPanel;
+import org.exbin.framework.bined.operation.bouncycastle.service.BlockHashMap;
+import org.exbin.framework.bined.operation.bouncycastle.service.BlockHashService;
+import org.exbin.framework.bined.operation.bouncycastle.service.MultiDigestService;
+import org.exbin.framework.bined.operation.component.PreviewDataWorker;
+import org.exbin.framework.bined.operation.operation.ConversionDataProvider;
+import org.exbin.framework.bined.operation.operation.ConvertDataOperation;
+import org.exbin.framework.language.api.LanguageModuleApi;
+
+/**
+ * Block hashes table data component.
+ * <p>
+ * Converts data to text table of hashes of fixed size blocks.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BlockHashDataMethod implements ConvertDataMethod {
+
+    private java.util.ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(BlockHashDataPanel.class);
+
+    private PreviewDataHandler previewDataHandler;
+    private long previewLengthLimit = 0;
+    private final PreviewDataWorker previewWorker = new PreviewDataWorker();
+    private final BlockHashService blockHashService = new BlockHashService();
+    private final UndoPayloadStore undoPayloadStore;
+
+    public BlockHashDataMethod(UndoPayloadStore undoPayloadStore) {
+        this.undoPayloadStore = undoPayloadStore;
+    }
+
+    @Nonnull
+    @Override
+    public String getName() {
+        return resourceBundle.getString("component.name");
+    }
+
+    @Nonnull
+    @Override
+    public Component getComponent() {
+        BlockHashDataPanel component = new BlockHashDataPanel();
+        component.setMapOptionsVisible(false);
+        return component;
+    }
+
+    @Override
+    public void initFocus(Component component) {
+        ((BlockHashDataPanel) component).initFocus();
+    }
+
+    @Nonnull
+    @Override
+    public CodeAreaCommand createConvertCommand(Component component, CodeAreaCore codeArea) {
+        BlockHashDataPanel panel = (BlockHashDataPanel) component;
+        BlockHashMap.HashType hashType = panel.getHashType();
+        int blockSize = panel.getBlockSize();
+        long position;
+        long length;
+        SelectionRange selection = ((SelectionCapable) codeArea).getSelection();
+        if (selection.isEmpty()) {
+            position = 0;
+            length = codeArea.getDataSize();
+        } else {
+            position = selection.getFirst();
+            length = selection.getLength();
+        }
+
+        ConversionDataProvider conversionDataProvider = (EditableBinaryData binaryData, long sourcePosition, long sourceLength, long targetPosition) -> {
+            convertData(binaryData, sourcePosition, sourceLength, hashType, blockSize, binaryData, targetPosition);
+        };
+
+        return new ConvertDataOperation.ConvertDataCommand(new ConvertDataOperation(codeArea, undoPayloadStore, position, length, conversionDataProvider));
+    }
+
+    @Nonnull
+    @Override
+    public BinaryData performDirectConvert(Component component, CodeAreaCore codeArea) {
+        BlockHashDataPanel panel = (BlockHashDataPanel) component;
+        long position;
+        long length;
+        SelectionRange selection = ((SelectionCapable) codeArea).getSelection();
+        if (selection.isEmpty()) {
+            position = 0;
+            length = codeArea.getDataSize();
+        } else {
+            position = selection.getFirst();
+            length = selection.getLength();
+        }
+
+        EditableBinaryData binaryData = new ByteArrayEditableData();
+        convertData(codeArea.getContentData(), position, length, panel.getHashType(), panel.getBlockSize(), binaryData, 0);
+        return binaryData;
+    }
+
+    public void convertData(BinaryData sourceBinaryData, long position, long length, BlockHashMap.HashType hashType, int blockSize, EditableBinaryData targetBinaryData, long targetPosition) throws IllegalStateException {
+        BlockHashMap map = blockHashService.computeMap((dataPosition, target, offset, blockLength) -> sourceBinaryData.copyToArray(position + dataPosition, target, offset, blockLength), length, hashType, blockSize, (processedSize) -> true);
+        targetBinaryData.insert(targetPosition, exportTable(map));
+    }
+
+    @Nonnull
+    private static byte[] exportTable(BlockHashMap map) {
+        StringWriter writer = new StringWriter();
+        try {
+            map.exportTable(writer);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return writer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void registerPreviewDataHandler(PreviewDataHandler previewDataHandler, Component component, CodeAreaCore codeArea, long lengthLimit) {
+        this.previewDataHandler = previewDataHandler;
+        this.previewLengthLimit = lengthLimit;
+        BlockHashDataPanel panel = (BlockHashDataPanel) component;
+        panel.setModeChangeListener(() -> {
+            fillPreviewData(panel, codeArea);
+        });
+        fillPreviewData(panel, codeArea);
+    }
+
+    private void fillPreviewData(BlockHashDataPanel panel, CodeAreaCore codeArea) {
+        SwingUtilities.invokeLater(() -> {
+            if (previewDataHandler == null) {
+                return;
+            }
+
+            BlockHashMap.HashType hashType = panel.getHashType();
+            int blockSize = panel.getBlockSize();
+
+            previewWorker.cancel();
+            long position;
+            long length;
+            SelectionRange selection = ((SelectionCapable) codeArea).getSelection();
+            if (selection.isEmpty()) {
+                position = 0;
+                length = codeArea.getDataSize();
+            } else {
+                position = selection.getFirst();
+                length = selection.getLength();
+            }
+
+            // Only blocks visible in limited preview are computed, so preview
+            // table describes prefix of data
+            int lineLength = 16 + 1 + hashType.getHashSize() * 2 + 1;
+            long previewBlocks = previewLengthLimit / lineLength + 1;
+            long previewLength = Math.min(length, previewBlocks * blockSize);
+            BinaryData contentData = codeArea.getContentData();
+            long lengthLimit = previewLengthLimit;
+            previewWorker.submit((cancellation) -> {
+                MultiDigestService.DataReader dataReader = (dataPosition, target, offset, blockLength) -> PreviewDataWorker.copyToArray(contentData, position + dataPosition, target, offset, blockLength);
+                BlockHashMap map = new BlockHashMap(hashType, blockSize, previewLength);
+                if (!blockHashService.computeDirtyBlocks(map, dataReader, (processedSize) -> !cancellation.isCancelled())) {
+                    return null;
+                }
+
+                EditableBinaryData previewBinaryData = new ByteArrayEditableData(exportTable(map));
+                long previewDataSize = previewBinaryData.getDataSize();
+                if (previewDataSize > lengthLimit) {
+                    previewBinaryData.remove(lengthLimit, previewDataSize - lengthLimit);
+                }
+                return previewBinaryData;
+            }, previewDataHandler);
+        });
+    }
+
+    @Override
+    public void unregisterPreviewDataHandler() {
+        previewWorker.cancel();
+        previewDataHandler = null;
+    }
+}
@@ -17,11 +17,13 @@ package org.exbin.framework.bined.operation.bouncycastle.component;
 
 import java.awt.Component;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.swing.SwingUtilities;
 import org.bouncycastle.crypto.Digest;
@@ -53,9 +55,12 @@ import org.exbin.bined.capability.SelectionCapable;
 import org.exbin.bined.operation.swing.command.CodeAreaCommand;
 import org.exbin.bined.swing.CodeAreaCore;
 import org.exbin.framework.App;
+import org.exbin.framework.bined.UndoPayloadStore;
 import org.exbin.framework.bined.operation.api.ConvertDataMethod;
 import org.exbin.framework.bined.operation.api.PreviewDataHandler;
 import org.exbin.framework.bined.operation.bouncycastle.component.gui.ComputeHashDataPanel;
+import org.exbin.framework.bined.operation.bouncycastle.service.MultiDigestService;
+import org.exbin.framework.bined.operation.component.PreviewDataWorker;
 import org.exbin.framework.bined.operation.operation.ConversionDataProvider;
 import org.exbin.framework.bined.operation.operation.ConvertDataOperation;
 import org.exbin.framework.language.api.LanguageModuleApi;
@@ -73,7 +78,13 @@ public class ComputeHashDataMethod implements ConvertDataMethod {
     private PreviewDataHandler previewDataHandler;
     private long previewLengthLimit = 0;
     private HashType lastHashType = null;
-    private static final int BUFFER_SIZE = 4096;
+    private final PreviewDataWorker previewWorker = new PreviewDataWorker();
+    private final MultiDigestService digestService = new MultiDigestService();
+    private final UndoPayloadStore undoPayloadStore;
+
+    public ComputeHashDataMethod(UndoPayloadStore undoPayloadStore) {
+        this.undoPayloadStore = undoPayloadStore;
+    }
 
     @Nonnull
     @Override
@@ -121,8 +132,7 @@ public class ComputeHashDataMethod implements ConvertDataMethod {
             convertData(binaryData, sourcePosition, sourceLength, hashType.get(), bitSize, binaryData, targetPosition);
         };
 
-        long convertedDataLength = computeDigestLength(hashType.get(), bitSize);
-        return new ConvertDataOperation.ConvertDataCommand(new ConvertDataOperation(codeArea, position, length, convertedDataLength, conversionDataProvider));
+        return new ConvertDataOperation.ConvertDataCommand(new ConvertDataOperation(codeArea, undoPayloadStore, position, length, conversionDataProvider));
     }
 
     @Nonnull
@@ -148,21 +158,17 @@ public class ComputeHashDataMethod implements ConvertDataMethod {
     }
 
     public void convertData(BinaryData sourceBinaryData, long position, long length, HashType hashType, int bitSize, EditableBinaryData targetBinaryData, long targetPosition) throws IllegalStateException {
-        Digest digest = getDigest(hashType, bitSize);
-        digest.reset();
+        MultiDigestService.DigestResult result = computeDigest(sourceBinaryData::copyToArray, position, length, hashType, bitSize, (processedSize) -> true);
+        targetBinaryData.insert(targetPosition, result.getDigests().get(0));
+    }
 
-        int bufferSize = length < BUFFER_SIZE ? (int) length : BUFFER_SIZE;
-        byte[] buffer = new byte[bufferSize];
-        long remaining = length;
-        while (remaining > 0) {
-            sourceBinaryData.copyToArray(position, buffer, 0, bufferSize);
-            digest.update(buffer, 0, bufferSize);
-            remaining -= bufferSize;
+    @Nullable
+    private MultiDigestService.DigestResult computeDigest(MultiDigestService.DataReader dataReader, long position, long length, HashType hashType, int bitSize, MultiDigestService.ProgressListener progressListener) {
+        if (hashType == HashType.SHA256_TREE) {
+            return digestService.computeTreeDigest(dataReader, position, length, progressListener);
         }
-        int digestSize = digest.getDigestSize();
-        byte[] output = new byte[digestSize];
-        digest.doFinal(output, 0);
-        targetBinaryData.insert(targetPosition, output);
+
+        return digestService.computeDigests(dataReader, position, length, Collections.singletonList(getDigest(hashType, bitSize)), progressListener);
     }
 
     public long computeDigestLength(HashType hashType, int bitSize) {
@@ -200,6 +206,8 @@ public class ComputeHashDataMethod implements ConvertDataMethod {
             case SHA224:
                 return new SHA224Digest();
             case SHA256:
+            case SHA256_TREE:
+                // Chunk tree digest is computed by service, but it has the same size
                 return new SHA256Digest();
             case SHA384:
                 return new SHA384Digest();
@@ -233,11 +241,17 @@ public class ComputeHashDataMethod implements ConvertDataMethod {
 
     private void fillPreviewData(ComputeHashDataPanel panel, CodeAreaCore codeArea) {
         SwingUtilities.invokeLater(() -> {
+            if (previewDataHandler == null) {
+                return;
+            }
+
             Optional<HashType> hashType = panel.getHashType();
             int bitSize = panel.getBitSize();
 
-            EditableBinaryData previewBinaryData = new ByteArrayEditableData();
-            previewBinaryData.clear();
+            // Digest of previous options is no longer relevant
+            previewWorker.cancel();
+            previewDataHandler.setPreviewData(new ByteArrayEditableData());
+            panel.clearThroughput();
             if (hashType.isPresent()) {
                 long position;
                 long length;
@@ -249,16 +263,34 @@ public class ComputeHashDataMethod implements ConvertDataMethod {
                     position = selection.getFirst();
                     length = selection.getLength();
                 }
-                convertData(codeArea.getContentData(), position, length, hashType.get(), bitSize, previewBinaryData, 0);
-                long previewDataSize = previewBinaryData.getDataSize();
-                if (previewDataSize > previewLengthLimit) {
-                    previewBinaryData.remove(previewLengthLimit, previewDataSize - previewLengthLimit);
-                }
+                BinaryData contentData = codeArea.getContentData();
+                long lengthLimit = previewLengthLimit;
+                previewWorker.submit((cancellation) -> {
+                    MultiDigestService.DigestResult result = computeDigest((dataPosition, target, offset, blockLength) -> PreviewDataWorker.copyToArray(contentData, dataPosition, target, offset, blockLength), position, length, hashType.get(), bitSize, (processedSize) -> !cancellation.isCancelled());
+                    if (result == null) {
+                        return null;
+                    }
+
+                    SwingUtilities.invokeLater(() -> {
+                        panel.setThroughput(result.getThroughput());
+                    });
+                    EditableBinaryData previewBinaryData = new ByteArrayEditableData(result.getDigests().get(0));
+                    long previewDataSize = previewBinaryData.getDataSize();
+                    if (previewDataSize > lengthLimit) {
+                        previewBinaryData.remove(lengthLimit, previewDataSize - lengthLimit);
+                    }
+                    return previewBinaryData;
+                }, previewDataHandler);
             }
-            previewDataHandler.setPreviewData(previewBinaryData);
         });
     }
 
+    @Override
+    public void unregisterPreviewDataHandler() {
+        previewWorker.cancel();
+        previewDataHandler = null;
+    }
+
     public enum HashType {
         KECCAK,
         MD2,
@@ -268,6 +300,7 @@ public class ComputeHashDataMethod implements ConvertDataMethod {
         SHA1,
         SHA224,
         SHA256,
+        SHA256_TREE,
         SHA384,
         SHA512,
         SHA3,
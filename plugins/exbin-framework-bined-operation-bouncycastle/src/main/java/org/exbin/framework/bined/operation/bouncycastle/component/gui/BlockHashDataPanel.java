@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle.component.gui;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JFileChooser;
+import org.exbin.framework.App;
+import org.exbin.framework.bined.operation.bouncycastle.service.BlockHashMap;
+import org.exbin.framework.language.api.LanguageModuleApi;
+import org.exbin.framework.utils.TestApplication;
+import org.exbin.framework.utils.UtilsModule;
+import org.exbin.framework.utils.WindowUtils;
+
+/**
+ * Block hashes of data component panel.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BlockHashDataPanel extends javax.swing.JPanel {
+
+    public static final int[] BLOCK_SIZES = {4096, 65536};
+
+    private final java.util.ResourceBundle resourceBundle = App.getModule(LanguageModuleApi.class).getBundle(BlockHashDataPanel.class);
+
+    private ModeChangeListener modeChangeListener = null;
+
+    public BlockHashDataPanel() {
+        initComponents();
+        init();
+    }
+
+    private void init() {
+        DefaultComboBoxModel<String> hashTypesModel = new DefaultComboBoxModel<>();
+        for (BlockHashMap.HashType hashType : BlockHashMap.HashType.values()) {
+            hashTypesModel.addElement(hashType.name());
+        }
+        hashTypeComboBox.setModel(hashTypesModel);
+        DefaultComboBoxModel<Integer> blockSizesModel = new DefaultComboBoxModel<>();
+        for (int blockSize : BLOCK_SIZES) {
+            blockSizesModel.addElement(blockSize);
+        }
+        blockSizeComboBox.setModel(blockSizesModel);
+    }
+
+    @Nonnull
+    public ResourceBundle getResourceBundle() {
+        return resourceBundle;
+    }
+
+    /**
+     * This method is called from within the constructor to initialize the form.
+     * WARNING: Do NOT modify this code. The content of this method is always
+     * regenerated by the Form Editor.
+     */
+    @SuppressWarnings("unchecked")
+    // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
+    private void initComponents() {
+
+        hashTypeLabel = new javax.swing.JLabel();
+        hashTypeComboBox = new javax.swing.JComboBox<>();
+        blockSizeLabel = new javax.swing.JLabel();
+        blockSizeComboBox = new javax.swing.JComboBox<>();
+        referenceFileLabel = new javax.swing.JLabel();
+        referenceFileTextField = new javax.swing.JTextField();
+        selectReferenceFileButton = new javax.swing.JButton();
+        showMapCheckBox = new javax.swing.JCheckBox();
+
+        hashTypeLabel.setText(resourceBundle.getString("hashTypeLabel.text")); // NOI18N
+
+        hashTypeComboBox.addItemListener(new java.awt.event.ItemListener() {
+            public void itemStateChanged(java.awt.event.ItemEvent evt) {
+                hashTypeComboBoxItemStateChanged(evt);
+            }
+        });
+
+        blockSizeLabel.setText(resourceBundle.getString("blockSizeLabel.text")); // NOI18N
+
+        blockSizeComboBox.addItemListener(new java.awt.event.ItemListener() {
+            public void itemStateChanged(java.awt.event.ItemEvent evt) {
+                blockSizeComboBoxItemStateChanged(evt);
+            }
+        });
+
+        referenceFileLabel.setText(resourceBundle.getString("referenceFileLabel.text")); // NOI18N
+
+        selectReferenceFileButton.setText(resourceBundle.getString("selectReferenceFileButton.text")); // NOI18N
+        selectReferenceFileButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                selectReferenceFileButtonActionPerformed(evt);
+            }
+        });
+
+        showMapCheckBox.setSelected(true);
+        showMapCheckBox.setText(resourceBundle.getString("showMapCheckBox.text")); // NOI18N
+
+        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
+        this.setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(hashTypeComboBox, 0, 405, Short.MAX_VALUE)
+                    .addComponent(blockSizeComboBox, 0, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(referenceFileTextField)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(selectReferenceFileButton))
+                    .addGroup(layout.createSequentialGroup()
+                        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                            .addComponent(hashTypeLabel)
+                            .addComponent(blockSizeLabel)
+                            .addComponent(referenceFileLabel)
+                            .addComponent(showMapCheckBox))
+                        .addGap(0, 0, Short.MAX_VALUE)))
+                .addContainerGap())
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(hashTypeLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(hashTypeComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(blockSizeLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(blockSizeComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(referenceFileLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(referenceFileTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(selectReferenceFileButton))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(showMapCheckBox)
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+    }// </editor-fold>//GEN-END:initComponents
+
+    private void hashTypeComboBoxItemStateChanged(java.awt.event.ItemEvent evt) {//GEN-FIRST:event_hashTypeComboBoxItemStateChanged
+        modeChanged();
+    }//GEN-LAST:event_hashTypeComboBoxItemStateChanged
+
+    private void blockSizeComboBoxItemStateChanged(java.awt.event.ItemEvent evt) {//GEN-FIRST:event_blockSizeComboBoxItemStateChanged
+        modeChanged();
+    }//GEN-LAST:event_blockSizeComboBoxItemStateChanged
+
+    private void selectReferenceFileButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_selectReferenceFileButtonActionPerformed
+        JFileChooser referenceFileChooser = new JFileChooser();
+        referenceFileChooser.setAcceptAllFileFilterUsed(true);
+        if (referenceFileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            referenceFileTextField.setText(referenceFileChooser.getSelectedFile().getAbsolutePath());
+        }
+    }//GEN-LAST:event_selectReferenceFileButtonActionPerformed
+
+    private void modeChanged() {
+        if (modeChangeListener != null) {
+            modeChangeListener.modeChanged();
+        }
+    }
+
+    @Nonnull
+    public BlockHashMap.HashType getHashType() {
+        return BlockHashMap.HashType.values()[hashTypeComboBox.getSelectedIndex()];
+    }
+
+    public void setHashType(BlockHashMap.HashType hashType) {
+        hashTypeComboBox.setSelectedIndex(hashType.ordinal());
+    }
+
+    public int getBlockSize() {
+        return (Integer) blockSizeComboBox.getSelectedItem();
+    }
+
+    public void setBlockSize(int blockSize) {
+        blockSizeComboBox.setSelectedItem(blockSize);
+    }
+
+    /**
+     * Returns reference file which is either exported table of block hashes
+     * or binary file to compute block hashes from.
+     *
+     * @return reference file if specified
+     */
+    @Nonnull
+    public Optional<File> getReferenceFile() {
+        String fileName = referenceFileTextField.getText().trim();
+        return fileName.isEmpty() ? Optional.empty() : Optional.of(new File(fileName));
+    }
+
+    public boolean isShowMap() {
+        return showMapCheckBox.isSelected();
+    }
+
+    /**
+     * Sets visibility of options related to showing map in code area.
+     *
+     * @param visible true if options should be visible
+     */
+    public void setMapOptionsVisible(boolean visible) {
+        referenceFileLabel.setVisible(visible);
+        referenceFileTextField.setVisible(visible);
+        selectReferenceFileButton.setVisible(visible);
+        showMapCheckBox.setVisible(visible);
+    }
+
+    public void setModeChangeListener(ModeChangeListener modeChangeListener) {
+        this.modeChangeListener = modeChangeListener;
+    }
+
+    public void initFocus() {
+        hashTypeComboBox.requestFocus();
+    }
+
+    /**
+     * Test method for this panel.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        TestApplication testApplication = UtilsModule.createTestApplication();
+        testApplication.launch(() -> {
+            testApplication.addModule(org.exbin.framework.language.api.LanguageModuleApi.MODULE_ID, new org.exbin.framework.language.api.utils.TestLanguageModule());
+            WindowUtils.invokeWindow(new BlockHashDataPanel());
+        });
+    }
+
+    // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JComboBox<Integer> blockSizeComboBox;
+    private javax.swing.JLabel blockSizeLabel;
+    private javax.swing.JComboBox<String> hashTypeComboBox;
+    private javax.swing.JLabel hashTypeLabel;
+    private javax.swing.JLabel referenceFileLabel;
+    private javax.swing.JTextField referenceFileTextField;
+    private javax.swing.JButton selectReferenceFileButton;
+    private javax.swing.JCheckBox showMapCheckBox;
+    // End of variables declaration//GEN-END:variables
+
+    public interface ModeChangeListener {
+
+        void modeChanged();
+    }
+}
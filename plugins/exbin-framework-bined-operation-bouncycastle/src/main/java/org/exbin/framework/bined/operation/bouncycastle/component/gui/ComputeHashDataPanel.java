@@ -81,6 +81,7 @@ public class ComputeHashDataPanel extends javax.swing.JPanel {
         hashTypeList = new javax.swing.JList<>();
         hashBitSizeLabel = new javax.swing.JLabel();
         hashBitSizeComboBox = new javax.swing.JComboBox<>();
+        throughputLabel = new javax.swing.JLabel();
 
         hashTypeLabel.setText(resourceBundle.getString("hashTypeLabel.text")); // NOI18N
 
@@ -113,7 +114,8 @@ public class ComputeHashDataPanel extends javax.swing.JPanel {
                     .addGroup(javax.swing.GroupLayout.Alignment.LEADING, layout.createSequentialGroup()
                         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                             .addComponent(hashTypeLabel)
-                            .addComponent(hashBitSizeLabel))
+                            .addComponent(hashBitSizeLabel)
+                            .addComponent(throughputLabel))
                         .addGap(0, 0, Short.MAX_VALUE)))
                 .addContainerGap())
         );
@@ -128,6 +130,8 @@ public class ComputeHashDataPanel extends javax.swing.JPanel {
                 .addComponent(hashBitSizeLabel)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(hashBitSizeComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(throughputLabel)
                 .addContainerGap())
         );
     }// </editor-fold>//GEN-END:initComponents
@@ -185,6 +189,19 @@ public class ComputeHashDataPanel extends javax.swing.JPanel {
         }
     }
 
+    /**
+     * Shows throughput of the last digest computation.
+     *
+     * @param throughput throughput in megabytes per second
+     */
+    public void setThroughput(double throughput) {
+        throughputLabel.setText(String.format(resourceBundle.getString("throughputLabel.text"), throughput));
+    }
+
+    public void clearThroughput() {
+        throughputLabel.setText("");
+    }
+
     public void setModeChangeListener(ModeChangeListener modeChangeListener) {
         this.modeChangeListener = modeChangeListener;
     }
@@ -219,6 +236,7 @@ public class ComputeHashDataPanel extends javax.swing.JPanel {
     private javax.swing.JLabel hashTypeLabel;
     private javax.swing.JList<String> hashTypeList;
     private javax.swing.JScrollPane hashTypeScrollPane;
+    private javax.swing.JLabel throughputLabel;
     // End of variables declaration//GEN-END:variables
 
     public interface Controller {
@@ -0,0 +1,389 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.BitSet;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.exbin.bined.CodeAreaUtils;
+
+/**
+ * Map of hashes of fixed size blocks of data.
+ * <p>
+ * Hashes of all blocks are stored in single array, blocks which hash is not
+ * valid are tracked as dirty. Map is safe to be read while hashes are stored
+ * from other thread.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BlockHashMap {
+
+    public static final String TABLE_HEADER = "# Block hashes";
+
+    private final HashType hashType;
+    private final int blockSize;
+    private final int hashSize;
+    private long dataSize;
+    private int blocksCount;
+    private byte[] hashes;
+    private final BitSet dirtyBlocks = new BitSet();
+    private volatile long modificationCount = 0;
+
+    /**
+     * Creates map with all blocks dirty.
+     *
+     * @param hashType hash type
+     * @param blockSize block size
+     * @param dataSize size of data
+     */
+    public BlockHashMap(HashType hashType, int blockSize, long dataSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Invalid block size " + blockSize);
+        }
+
+        this.hashType = hashType;
+        this.blockSize = blockSize;
+        this.hashSize = hashType.getHashSize();
+        this.dataSize = dataSize;
+        blocksCount = computeBlocksCount(dataSize);
+        hashes = new byte[blocksCount * hashSize];
+        dirtyBlocks.set(0, blocksCount);
+    }
+
+    @Nonnull
+    public HashType getHashType() {
+        return hashType;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public synchronized long getDataSize() {
+        return dataSize;
+    }
+
+    public synchronized int getBlocksCount() {
+        return blocksCount;
+    }
+
+    /**
+     * Returns count of modifications of map layout or dirty blocks.
+     * <p>
+     * Used to detect hashes computed from data, which were modified in the
+     * meantime.
+     *
+     * @return modification count
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    public long getBlockPosition(int blockIndex) {
+        return (long) blockIndex * blockSize;
+    }
+
+    public synchronized int getBlockLength(int blockIndex) {
+        return (int) Math.min(blockSize, dataSize - getBlockPosition(blockIndex));
+    }
+
+    public int getBlockIndex(long position) {
+        return (int) (position / blockSize);
+    }
+
+    /**
+     * Returns hash of block.
+     *
+     * @param blockIndex block index
+     * @return copy of hash
+     */
+    @Nonnull
+    public synchronized byte[] getBlockHash(int blockIndex) {
+        return Arrays.copyOfRange(hashes, blockIndex * hashSize, (blockIndex + 1) * hashSize);
+    }
+
+    /**
+     * Returns the first up to 8 bytes of block hash as number.
+     *
+     * @param blockIndex block index
+     * @return hash value
+     */
+    public synchronized long getBlockHashValue(int blockIndex) {
+        long value = 0;
+        int offset = blockIndex * hashSize;
+        for (int i = 0; i < Math.min(8, hashSize); i++) {
+            value = (value << 8) | (hashes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Returns true if block has the same hash and length as the block of the
+     * same index in other map.
+     *
+     * @param blockIndex block index
+     * @param otherMap other map with the same hash type and block size
+     * @return true if block matches
+     */
+    public boolean isBlockMatching(int blockIndex, BlockHashMap otherMap) {
+        if (otherMap.hashType != hashType || otherMap.blockSize != blockSize) {
+            throw new IllegalArgumentException("Incompatible block hash map");
+        }
+
+        if (blockIndex >= otherMap.getBlocksCount() || otherMap.getBlockLength(blockIndex) != getBlockLength(blockIndex)) {
+            return false;
+        }
+
+        byte[] otherHash = otherMap.getBlockHash(blockIndex);
+        synchronized (this) {
+            int offset = blockIndex * hashSize;
+            for (int i = 0; i < hashSize; i++) {
+                if (hashes[offset + i] != otherHash[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public synchronized boolean isDirty(int blockIndex) {
+        return dirtyBlocks.get(blockIndex);
+    }
+
+    public synchronized boolean hasDirtyBlocks() {
+        return !dirtyBlocks.isEmpty();
+    }
+
+    public synchronized int getDirtyBlocksCount() {
+        return dirtyBlocks.cardinality();
+    }
+
+    /**
+     * Returns index of the next dirty block.
+     *
+     * @param fromIndex starting block index
+     * @return index of dirty block or -1 if there is no dirty block
+     */
+    public synchronized int nextDirtyBlock(int fromIndex) {
+        return dirtyBlocks.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Marks all blocks overlapping given range as dirty.
+     *
+     * @param position range position
+     * @param length range length
+     */
+    public synchronized void markDirty(long position, long length) {
+        if (length <= 0 || position >= dataSize) {
+            return;
+        }
+
+        int fromIndex = getBlockIndex(position);
+        int toIndex = (int) Math.min(blocksCount, computeBlocksCount(position + length));
+        dirtyBlocks.set(fromIndex, toIndex);
+        modificationCount++;
+    }
+
+    /**
+     * Changes size of data.
+     * <p>
+     * Last block of previous data and all new blocks are marked as dirty.
+     *
+     * @param dataSize new size of data
+     */
+    public synchronized void setDataSize(long dataSize) {
+        if (this.dataSize == dataSize) {
+            return;
+        }
+
+        int lastBlockIndex = Math.max(0, computeBlocksCount(Math.min(this.dataSize, dataSize)) - 1);
+        this.dataSize = dataSize;
+        blocksCount = computeBlocksCount(dataSize);
+        hashes = Arrays.copyOf(hashes, blocksCount * hashSize);
+        dirtyBlocks.clear(blocksCount, Math.max(blocksCount, dirtyBlocks.length()));
+        dirtyBlocks.set(lastBlockIndex, blocksCount);
+        modificationCount++;
+    }
+
+    /**
+     * Stores hashes of consecutive blocks and clears their dirty flag.
+     * <p>
+     * Hashes are ignored if map was modified after given modification count.
+     *
+     * @param blockIndex index of the first block
+     * @param blockHashes hashes of blocks
+     * @param count count of blocks
+     * @param expectedModificationCount modification count before data of
+     * blocks were read
+     * @return true if hashes were stored
+     */
+    public synchronized boolean storeBlockHashes(int blockIndex, byte[] blockHashes, int count, long expectedModificationCount) {
+        if (modificationCount != expectedModificationCount || blockIndex + count > blocksCount) {
+            return false;
+        }
+
+        System.arraycopy(blockHashes, 0, hashes, blockIndex * hashSize, count * hashSize);
+        dirtyBlocks.clear(blockIndex, blockIndex + count);
+        return true;
+    }
+
+    /**
+     * Writes map as text table.
+     * <p>
+     * Table starts with header line with hash type, block size and data size
+     * followed by line with hexadecimal position and hash for each block.
+     *
+     * @param writer target writer
+     * @throws IOException if writing fails
+     */
+    public void exportTable(Writer writer) throws IOException {
+        exportTable(writer, 0, getBlocksCount());
+    }
+
+    /**
+     * Writes header and given range of blocks as text table.
+     *
+     * @param writer target writer
+     * @param fromIndex index of the first block
+     * @param toIndex index after the last block
+     * @throws IOException if writing fails
+     */
+    public void exportTable(Writer writer, int fromIndex, int toIndex) throws IOException {
+        writer.write(TABLE_HEADER + " " + hashType.name() + " " + blockSize + " " + getDataSize() + "\n");
+        StringBuilder builder = new StringBuilder();
+        for (int blockIndex = fromIndex; blockIndex < toIndex; blockIndex++) {
+            builder.setLength(0);
+            appendHex(builder, getBlockPosition(blockIndex), 16);
+            builder.append(' ');
+            for (byte value : getBlockHash(blockIndex)) {
+                appendHex(builder, value & 0xFF, 2);
+            }
+            builder.append('\n');
+            writer.write(builder.toString());
+        }
+    }
+
+    /**
+     * Reads map from text table.
+     *
+     * @param reader source reader
+     * @return block hash map
+     * @throws IOException if reading fails or table is invalid
+     */
+    @Nonnull
+    public static BlockHashMap importTable(Reader reader) throws IOException {
+        BufferedReader lineReader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String header = lineReader.readLine();
+        if (header == null || !header.startsWith(TABLE_HEADER + " ")) {
+            throw new IOException("Missing block hashes table header");
+        }
+
+        BlockHashMap map;
+        try {
+            String[] parameters = header.substring(TABLE_HEADER.length() + 1).trim().split(" ");
+            map = new BlockHashMap(HashType.valueOf(parameters[0]), Integer.parseInt(parameters[1]), Long.parseLong(parameters[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            throw new IOException("Invalid block hashes table header", ex);
+        }
+
+        int hashSize = map.hashSize;
+        byte[] hash = new byte[hashSize];
+        String line;
+        while ((line = lineReader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            int separator = line.indexOf(' ');
+            if (separator < 0 || line.length() - separator - 1 != hashSize * 2) {
+                throw new IOException("Invalid block hashes table line: " + line);
+            }
+
+            try {
+                long position = Long.parseLong(line.substring(0, separator), 16);
+                for (int i = 0; i < hashSize; i++) {
+                    int offset = separator + 1 + i * 2;
+                    hash[i] = (byte) Integer.parseInt(line.substring(offset, offset + 2), 16);
+                }
+                if (position % map.blockSize != 0 || position >= map.dataSize) {
+                    throw new IOException("Invalid block position: " + line);
+                }
+                map.storeBlockHashes(map.getBlockIndex(position), hash, 1, map.modificationCount);
+            } catch (NumberFormatException ex) {
+                throw new IOException("Invalid block hashes table line: " + line, ex);
+            }
+        }
+
+        return map;
+    }
+
+    private int computeBlocksCount(long size) {
+        long count = (size + blockSize - 1) / blockSize;
+        if (count * hashSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many blocks for block size " + blockSize);
+        }
+        return (int) count;
+    }
+
+    private static void appendHex(StringBuilder builder, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            builder.append(Character.forDigit((int) (value >>> (i * 4)) & 0xF, 16));
+        }
+    }
+
+    /**
+     * Hash type of blocks.
+     */
+    public enum HashType {
+        CRC32C(CRC32CDigest.DIGEST_SIZE),
+        XXHASH64(XXHash64Digest.DIGEST_SIZE),
+        SHA256(32);
+
+        private final int hashSize;
+
+        private HashType(int hashSize) {
+            this.hashSize = hashSize;
+        }
+
+        public int getHashSize() {
+            return hashSize;
+        }
+
+        @Nonnull
+        public Digest createDigest() {
+            switch (this) {
+                case CRC32C:
+                    return new CRC32CDigest();
+                case XXHASH64:
+                    return new XXHash64Digest();
+                case SHA256:
+                    return new SHA256Digest();
+                default:
+                    throw CodeAreaUtils.getInvalidTypeException(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.bouncycastle.crypto.Digest;
+
+/**
+ * Service computing hashes of blocks of data using multiple threads.
+ * <p>
+ * Data of dirty blocks are read by calling thread in chunks of consecutive
+ * blocks and hashed in worker threads, so only blocks modified since last
+ * computation are processed.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class BlockHashService {
+
+    public static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final int threadsCount;
+
+    public BlockHashService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BlockHashService(int threadsCount) {
+        this.threadsCount = Math.max(1, threadsCount);
+    }
+
+    /**
+     * Computes map of block hashes for all data.
+     *
+     * @param dataReader source data reader
+     * @param dataSize size of data
+     * @param hashType hash type
+     * @param blockSize block size
+     * @param progressListener progress listener
+     * @return block hash map or null if computation was cancelled
+     */
+    @Nullable
+    public BlockHashMap computeMap(MultiDigestService.DataReader dataReader, long dataSize, BlockHashMap.HashType hashType, int blockSize, MultiDigestService.ProgressListener progressListener) {
+        BlockHashMap map = new BlockHashMap(hashType, blockSize, dataSize);
+        return computeDirtyBlocks(map, dataReader, progressListener) ? map : null;
+    }
+
+    /**
+     * Computes hashes of dirty blocks of map.
+     * <p>
+     * Blocks modified during computation are left dirty.
+     *
+     * @param map block hash map
+     * @param dataReader source data reader
+     * @param progressListener progress listener reporting size of processed
+     * blocks
+     * @return true if all blocks which were dirty were processed, false if
+     * computation was cancelled
+     */
+    public boolean computeDirtyBlocks(BlockHashMap map, MultiDigestService.DataReader dataReader, MultiDigestService.ProgressListener progressListener) {
+        int blockSize = map.getBlockSize();
+        int chunkBlocks = Math.max(1, CHUNK_SIZE / blockSize);
+        BlockingQueue<byte[]> freeBuffers = new ArrayBlockingQueue<>(threadsCount + 1);
+        for (int i = 0; i <= threadsCount; i++) {
+            freeBuffers.add(new byte[chunkBlocks * blockSize]);
+        }
+
+        ExecutorService executor = createExecutor(threadsCount);
+        List<Future<?>> pendingChunks = new ArrayList<>();
+        try {
+            long processedSize = 0;
+            int blockIndex = map.nextDirtyBlock(0);
+            while (blockIndex >= 0) {
+                long modificationCount = map.getModificationCount();
+                int firstBlock = blockIndex;
+                int count = 0;
+                while (count < chunkBlocks && blockIndex >= 0 && blockIndex == firstBlock + count) {
+                    count++;
+                    blockIndex = map.nextDirtyBlock(blockIndex + 1);
+                }
+
+                long chunkPosition = map.getBlockPosition(firstBlock);
+                int chunkLength = (int) Math.min((long) count * blockSize, map.getDataSize() - chunkPosition);
+                if (chunkLength <= 0) {
+                    break;
+                }
+
+                byte[] buffer = freeBuffers.take();
+                dataReader.copyToArray(chunkPosition, buffer, 0, chunkLength);
+                int chunkBlocksCount = count;
+                pendingChunks.add(executor.submit(() -> {
+                    try {
+                        byte[] chunkHashes = hashBlocks(map.getHashType(), buffer, chunkLength, blockSize);
+                        map.storeBlockHashes(firstBlock, chunkHashes, chunkBlocksCount, modificationCount);
+                    } finally {
+                        freeBuffers.add(buffer);
+                    }
+                }));
+                removeFinished(pendingChunks);
+
+                processedSize += chunkLength;
+                if (!progressListener.progress(processedSize)) {
+                    return false;
+                }
+            }
+
+            waitForAll(pendingChunks);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes hashes of consecutive blocks in buffer.
+     *
+     * @param hashType hash type
+     * @param buffer data buffer
+     * @param length length of data in buffer
+     * @param blockSize block size
+     * @return hashes of blocks
+     */
+    @Nonnull
+    public static byte[] hashBlocks(BlockHashMap.HashType hashType, byte[] buffer, int length, int blockSize) {
+        Digest digest = hashType.createDigest();
+        int hashSize = hashType.getHashSize();
+        int blocksCount = (length + blockSize - 1) / blockSize;
+        byte[] hashes = new byte[blocksCount * hashSize];
+        for (int i = 0; i < blocksCount; i++) {
+            int offset = i * blockSize;
+            digest.update(buffer, offset, Math.min(blockSize, length - offset));
+            digest.doFinal(hashes, i * hashSize);
+        }
+        return hashes;
+    }
+
+    @Nonnull
+    private static ExecutorService createExecutor(int threadsCount) {
+        return Executors.newFixedThreadPool(threadsCount, (runnable) -> {
+            Thread thread = new Thread(runnable, "Block hash worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void removeFinished(List<Future<?>> futures) throws InterruptedException {
+        for (int i = futures.size() - 1; i >= 0; i--) {
+            Future<?> future = futures.get(i);
+            if (future.isDone()) {
+                getResult(future);
+                futures.remove(i);
+            }
+        }
+    }
+
+    private static void waitForAll(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            getResult(future);
+        }
+        futures.clear();
+    }
+
+    private static void getResult(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Block hash computation failed", ex.getCause());
+        }
+    }
+}
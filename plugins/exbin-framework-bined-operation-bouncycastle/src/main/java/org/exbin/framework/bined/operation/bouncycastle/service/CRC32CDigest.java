@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle.service;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.bouncycastle.crypto.Digest;
+
+/**
+ * CRC-32C (Castagnoli) checksum as digest.
+ * <p>
+ * Uses slicing by 8 bytes tables. Output is checksum value in big endian
+ * order.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class CRC32CDigest implements Digest {
+
+    public static final int DIGEST_SIZE = 4;
+
+    private static final int POLYNOMIAL = 0x82F63B78;
+    private static final int[][] TABLES = createTables();
+
+    private int crc = 0xFFFFFFFF;
+
+    @Nonnull
+    @Override
+    public String getAlgorithmName() {
+        return "CRC-32C";
+    }
+
+    @Override
+    public int getDigestSize() {
+        return DIGEST_SIZE;
+    }
+
+    @Override
+    public void update(byte in) {
+        crc = (crc >>> 8) ^ TABLES[0][(crc ^ in) & 0xFF];
+    }
+
+    @Override
+    public void update(byte[] in, int inOff, int len) {
+        int value = crc;
+        int offset = inOff;
+        int end = inOff + len;
+        int[] table0 = TABLES[0];
+        int[] table1 = TABLES[1];
+        int[] table2 = TABLES[2];
+        int[] table3 = TABLES[3];
+        int[] table4 = TABLES[4];
+        int[] table5 = TABLES[5];
+        int[] table6 = TABLES[6];
+        int[] table7 = TABLES[7];
+        while (end - offset >= 8) {
+            int low = value ^ ((in[offset] & 0xFF) | ((in[offset + 1] & 0xFF) << 8) | ((in[offset + 2] & 0xFF) << 16) | ((in[offset + 3] & 0xFF) << 24));
+            value = table7[low & 0xFF]
+                    ^ table6[(low >>> 8) & 0xFF]
+                    ^ table5[(low >>> 16) & 0xFF]
+                    ^ table4[low >>> 24]
+                    ^ table3[in[offset + 4] & 0xFF]
+                    ^ table2[in[offset + 5] & 0xFF]
+                    ^ table1[in[offset + 6] & 0xFF]
+                    ^ table0[in[offset + 7] & 0xFF];
+            offset += 8;
+        }
+        while (offset < end) {
+            value = (value >>> 8) ^ table0[(value ^ in[offset]) & 0xFF];
+            offset++;
+        }
+        crc = value;
+    }
+
+    @Override
+    public int doFinal(byte[] out, int outOff) {
+        int value = ~crc;
+        out[outOff] = (byte) (value >>> 24);
+        out[outOff + 1] = (byte) (value >>> 16);
+        out[outOff + 2] = (byte) (value >>> 8);
+        out[outOff + 3] = (byte) value;
+        reset();
+        return DIGEST_SIZE;
+    }
+
+    @Override
+    public void reset() {
+        crc = 0xFFFFFFFF;
+    }
+
+    @Nonnull
+    private static int[][] createTables() {
+        int[][] tables = new int[8][256];
+        for (int i = 0; i < 256; i++) {
+            int value = i;
+            for (int bit = 0; bit < 8; bit++) {
+                value = (value & 1) != 0 ? (value >>> 1) ^ POLYNOMIAL : value >>> 1;
+            }
+            tables[0][i] = value;
+        }
+        for (int i = 0; i < 256; i++) {
+            int value = tables[0][i];
+            for (int table = 1; table < 8; table++) {
+                value = (value >>> 8) ^ tables[0][value & 0xFF];
+                tables[table][i] = value;
+            }
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+/**
+ * Service computing digests of binary data using multiple threads.
+ * <p>
+ * Data are read once in blocks by calling thread, while digests are updated
+ * in worker threads. Two buffers are used, so next block is read while
+ * previous block is processed by all digests.
+ * <p>
+ * SHA-256 chunk tree digest is computed over chunks of fixed size, which are
+ * hashed in parallel and then combined as a binary tree, so single digest can
+ * use all processors.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class MultiDigestService {
+
+    public static final int BLOCK_SIZE = 1024 * 1024;
+    public static final int TREE_CHUNK_SIZE = 1024 * 1024;
+
+    private static final byte TREE_LEAF_PREFIX = 0x00;
+    private static final byte TREE_NODE_PREFIX = 0x01;
+
+    private final int threadsCount;
+
+    public MultiDigestService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MultiDigestService(int threadsCount) {
+        this.threadsCount = Math.max(1, threadsCount);
+    }
+
+    /**
+     * Computes multiple digests over the same data reading each block only
+     * once.
+     *
+     * @param data source data
+     * @param position start position
+     * @param length length of data
+     * @param digests digests to update, digests should be in reset state
+     * @param progressListener progress listener
+     * @return digests result or null if computation was cancelled
+     */
+    @Nullable
+    public DigestResult computeDigests(BinaryData data, long position, long length, List<Digest> digests, ProgressListener progressListener) {
+        return computeDigests(data::copyToArray, position, length, digests, progressListener);
+    }
+
+    /**
+     * Computes multiple digests over the same data reading each block only
+     * once.
+     *
+     * @param dataReader source data reader
+     * @param position start position
+     * @param length length of data
+     * @param digests digests to update, digests should be in reset state
+     * @param progressListener progress listener
+     * @return digests result or null if computation was cancelled
+     */
+    @Nullable
+    public DigestResult computeDigests(DataReader dataReader, long position, long length, List<Digest> digests, ProgressListener progressListener) {
+        long startTime = System.nanoTime();
+        int bufferSize = (int) Math.min(BLOCK_SIZE, Math.max(length, 1));
+        byte[][] buffers = new byte[][]{new byte[bufferSize], new byte[bufferSize]};
+        ExecutorService executor = createExecutor(Math.min(digests.size(), threadsCount));
+        List<Future<?>> pendingUpdates = new ArrayList<>();
+        try {
+            int bufferIndex = 0;
+            long offset = 0;
+            while (offset < length) {
+                byte[] buffer = buffers[bufferIndex];
+                int blockLength = (int) Math.min(bufferSize, length - offset);
+                dataReader.copyToArray(position + offset, buffer, 0, blockLength);
+
+                // Digests has to process blocks in order and previous block keeps the other buffer
+                waitForAll(pendingUpdates);
+                for (Digest digest : digests) {
+                    pendingUpdates.add(executor.submit(() -> digest.update(buffer, 0, blockLength)));
+                }
+
+                offset += blockLength;
+                bufferIndex = 1 - bufferIndex;
+                if (!progressListener.progress(offset)) {
+                    return null;
+                }
+            }
+            waitForAll(pendingUpdates);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<byte[]> results = new ArrayList<>();
+        for (Digest digest : digests) {
+            byte[] output = new byte[digest.getDigestSize()];
+            digest.doFinal(output, 0);
+            results.add(output);
+        }
+        return new DigestResult(results, length, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Computes SHA-256 chunk tree digest.
+     * <p>
+     * Each chunk is hashed with prefix byte 0 and each pair of nodes is
+     * hashed with prefix byte 1. Odd node of level is promoted to next level
+     * unchanged.
+     *
+     * @param data source data
+     * @param position start position
+     * @param length length of data
+     * @param progressListener progress listener
+     * @return digest result or null if computation was cancelled
+     */
+    @Nullable
+    public DigestResult computeTreeDigest(BinaryData data, long position, long length, ProgressListener progressListener) {
+        return computeTreeDigest(data::copyToArray, position, length, progressListener);
+    }
+
+    /**
+     * Computes SHA-256 chunk tree digest.
+     *
+     * @param dataReader source data reader
+     * @param position start position
+     * @param length length of data
+     * @param progressListener progress listener
+     * @return digest result or null if computation was cancelled
+     * @see #computeTreeDigest(org.exbin.auxiliary.binary_data.BinaryData, long, long, org.exbin.framework.bined.operation.bouncycastle.service.MultiDigestService.ProgressListener)
+     */
+    @Nullable
+    public DigestResult computeTreeDigest(DataReader dataReader, long position, long length, ProgressListener progressListener) {
+        long startTime = System.nanoTime();
+        int chunksCount = (int) Math.max(1, (length + TREE_CHUNK_SIZE - 1) / TREE_CHUNK_SIZE);
+        int digestSize = new SHA256Digest().getDigestSize();
+        byte[] leafHashes = new byte[chunksCount * digestSize];
+        int bufferSize = (int) Math.min(TREE_CHUNK_SIZE, Math.max(length, 1));
+        BlockingQueue<byte[]> freeBuffers = new ArrayBlockingQueue<>(threadsCount + 1);
+        for (int i = 0; i <= threadsCount; i++) {
+            freeBuffers.add(new byte[bufferSize]);
+        }
+
+        ExecutorService executor = createExecutor(threadsCount);
+        List<Future<?>> pendingLeafs = new ArrayList<>();
+        try {
+            for (int chunk = 0; chunk < chunksCount; chunk++) {
+                long offset = (long) chunk * TREE_CHUNK_SIZE;
+                int chunkLength = (int) Math.min(TREE_CHUNK_SIZE, length - offset);
+                byte[] buffer = freeBuffers.take();
+                dataReader.copyToArray(position + offset, buffer, 0, chunkLength);
+
+                int chunkIndex = chunk;
+                pendingLeafs.add(executor.submit(() -> {
+                    try {
+                        SHA256Digest digest = new SHA256Digest();
+                        digest.update(TREE_LEAF_PREFIX);
+                        digest.update(buffer, 0, chunkLength);
+                        digest.doFinal(leafHashes, chunkIndex * digestSize);
+                    } finally {
+                        freeBuffers.add(buffer);
+                    }
+                }));
+
+                if (!progressListener.progress(offset + chunkLength)) {
+                    return null;
+                }
+            }
+            waitForAll(pendingLeafs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<byte[]> results = new ArrayList<>();
+        results.add(combineTree(leafHashes, chunksCount, digestSize));
+        return new DigestResult(results, length, System.nanoTime() - startTime);
+    }
+
+    @Nonnull
+    private static byte[] combineTree(byte[] nodeHashes, int nodesCount, int digestSize) {
+        SHA256Digest digest = new SHA256Digest();
+        while (nodesCount > 1) {
+            int parentsCount = (nodesCount + 1) / 2;
+            for (int i = 0; i < nodesCount / 2; i++) {
+                digest.update(TREE_NODE_PREFIX);
+                digest.update(nodeHashes, i * 2 * digestSize, digestSize * 2);
+                digest.doFinal(nodeHashes, i * digestSize);
+            }
+            if ((nodesCount & 1) != 0) {
+                System.arraycopy(nodeHashes, (nodesCount - 1) * digestSize, nodeHashes, (parentsCount - 1) * digestSize, digestSize);
+            }
+            nodesCount = parentsCount;
+        }
+
+        byte[] output = new byte[digestSize];
+        System.arraycopy(nodeHashes, 0, output, 0, digestSize);
+        return output;
+    }
+
+    @Nonnull
+    private static ExecutorService createExecutor(int threadsCount) {
+        return Executors.newFixedThreadPool(Math.max(1, threadsCount), (runnable) -> {
+            Thread thread = new Thread(runnable, "Digest worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void waitForAll(List<Future<?>> futures) throws InterruptedException {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Digest computation failed", ex.getCause());
+        }
+        futures.clear();
+    }
+
+    /**
+     * Reader of source data.
+     */
+    public interface DataReader {
+
+        /**
+         * Copies block of source data to array.
+         *
+         * @param position source position
+         * @param target target array
+         * @param offset target offset
+         * @param length length of block
+         */
+        void copyToArray(long position, byte[] target, int offset, int length);
+    }
+
+    /**
+     * Listener for progress of computation.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Reports progress of computation.
+         *
+         * @param processedSize size of already read data
+         * @return false to cancel computation
+         */
+        boolean progress(long processedSize);
+    }
+
+    /**
+     * Result of digests computation.
+     */
+    @ParametersAreNonnullByDefault
+    public static class DigestResult {
+
+        private final List<byte[]> digests;
+        private final long processedSize;
+        private final long elapsedTime;
+
+        public DigestResult(List<byte[]> digests, long processedSize, long elapsedTime) {
+            this.digests = digests;
+            this.processedSize = processedSize;
+            this.elapsedTime = elapsedTime;
+        }
+
+        /**
+         * Returns computed digests in the order of requested digests.
+         *
+         * @return list of digests
+         */
+        @Nonnull
+        public List<byte[]> getDigests() {
+            return digests;
+        }
+
+        public long getProcessedSize() {
+            return processedSize;
+        }
+
+        /**
+         * Returns elapsed time of computation.
+         *
+         * @return time in nanoseconds
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Returns throughput of computation.
+         *
+         * @return throughput in megabytes per second
+         */
+        public double getThroughput() {
+            if (elapsedTime <= 0) {
+                return 0;
+            }
+
+            return (processedSize / (1024.0 * 1024.0)) / (elapsedTime / 1000000000.0);
+        }
+    }
+}
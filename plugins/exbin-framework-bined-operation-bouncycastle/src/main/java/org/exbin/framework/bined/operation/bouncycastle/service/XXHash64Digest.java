@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) ExBin Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.framework.bined.operation.bouncycastle.service;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.bouncycastle.crypto.Digest;
+
+/**
+ * XXH64 non-cryptographic hash with zero seed as digest.
+ * <p>
+ * Output is hash value in big endian order.
+ *
+ * @author ExBin Project (https://exbin.org)
+ */
+@ParametersAreNonnullByDefault
+public class XXHash64Digest implements Digest {
+
+    public static final int DIGEST_SIZE = 8;
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE_SIZE = 32;
+
+    private final byte[] stripe = new byte[STRIPE_SIZE];
+    private int stripeLength;
+    private long totalLength;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+
+    public XXHash64Digest() {
+        reset();
+    }
+
+    @Nonnull
+    @Override
+    public String getAlgorithmName() {
+        return "XXH64";
+    }
+
+    @Override
+    public int getDigestSize() {
+        return DIGEST_SIZE;
+    }
+
+    @Override
+    public void update(byte in) {
+        stripe[stripeLength++] = in;
+        totalLength++;
+        if (stripeLength == STRIPE_SIZE) {
+            processStripe(stripe, 0);
+            stripeLength = 0;
+        }
+    }
+
+    @Override
+    public void update(byte[] in, int inOff, int len) {
+        int offset = inOff;
+        int end = inOff + len;
+        totalLength += len;
+        if (stripeLength > 0) {
+            int fillLength = Math.min(STRIPE_SIZE - stripeLength, len);
+            System.arraycopy(in, offset, stripe, stripeLength, fillLength);
+            stripeLength += fillLength;
+            offset += fillLength;
+            if (stripeLength < STRIPE_SIZE) {
+                return;
+            }
+
+            processStripe(stripe, 0);
+            stripeLength = 0;
+        }
+
+        while (end - offset >= STRIPE_SIZE) {
+            processStripe(in, offset);
+            offset += STRIPE_SIZE;
+        }
+
+        stripeLength = end - offset;
+        System.arraycopy(in, offset, stripe, 0, stripeLength);
+    }
+
+    @Override
+    public int doFinal(byte[] out, int outOff) {
+        long hash;
+        if (totalLength >= STRIPE_SIZE) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = PRIME5;
+        }
+        hash += totalLength;
+
+        int offset = 0;
+        while (stripeLength - offset >= 8) {
+            hash ^= round(0, readLong(stripe, offset));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            offset += 8;
+        }
+        if (stripeLength - offset >= 4) {
+            hash ^= (readInt(stripe, offset) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            offset += 4;
+        }
+        while (offset < stripeLength) {
+            hash ^= (stripe[offset] & 0xFF) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+            offset++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+
+        for (int i = 0; i < DIGEST_SIZE; i++) {
+            out[outOff + i] = (byte) (hash >>> (56 - i * 8));
+        }
+        reset();
+        return DIGEST_SIZE;
+    }
+
+    @Override
+    public void reset() {
+        v1 = PRIME1 + PRIME2;
+        v2 = PRIME2;
+        v3 = 0;
+        v4 = -PRIME1;
+        stripeLength = 0;
+        totalLength = 0;
+    }
+
+    private void processStripe(byte[] data, int offset) {
+        v1 = round(v1, readLong(data, offset));
+        v2 = round(v2, readLong(data, offset + 8));
+        v3 = round(v3, readLong(data, offset + 16));
+        v4 = round(v4, readLong(data, offset + 24));
+    }
+
+    private static long round(long accumulator, long input) {
+        accumulator += input * PRIME2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME1;
+    }
+
+    private static long mergeRound(long accumulator, long value) {
+        accumulator ^= round(0, value);
+        return accumulator * PRIME1 + PRIME4;
+    }
+
+    private static long readLong(byte[] data, int offset) {
+        return (readInt(data, offset) & 0xFFFFFFFFL) | ((long) readInt(data, offset + 4) << 32);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8) | ((data[offset + 2] & 0xFF) << 16) | ((data[offset + 3] & 0xFF) << 24);
+    }
+}